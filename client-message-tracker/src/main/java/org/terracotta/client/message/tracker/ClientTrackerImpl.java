@@ -17,30 +17,51 @@ package org.terracotta.client.message.tracker;
 
 import org.terracotta.entity.StateDumpCollector;
 
+import java.util.Iterator;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
 import org.terracotta.entity.ClientSourceId;
 
 class ClientTrackerImpl<M, R> implements ClientTracker<M, R> {
 
   private final Predicate<?> trackerPolicy;
+  private final TrackedUsage usage;
+  private final Function<ClientSourceId, TrackedUsage> clientUsages;
+  private final ToLongFunction<R> responseSizer;
+  private final TrackedResponseStore<R> store;
   private final ConcurrentMap<ClientSourceId, TrackerImpl<M, R>> objectTrackers = new ConcurrentHashMap<>();
 
   public ClientTrackerImpl(Predicate<?> trackerPolicy) {
+    this(trackerPolicy, new TrackedUsage(), clientId -> new TrackedUsage(), r -> 0L, null);
+  }
+
+  /**
+   * @param usage accounts for the responses tracked by all the clients
+   * @param clientUsages gives the usage of a client, shared with the client trackers of the other segments
+   * @param responseSizer estimates the heap size of a response
+   * @param store where the oldest responses can be spilled, or null if they must be kept on heap
+   */
+  ClientTrackerImpl(Predicate<?> trackerPolicy, TrackedUsage usage, Function<ClientSourceId, TrackedUsage> clientUsages,
+                    ToLongFunction<R> responseSizer, TrackedResponseStore<R> store) {
     this.trackerPolicy = trackerPolicy;
+    this.usage = usage;
+    this.clientUsages = clientUsages;
+    this.responseSizer = responseSizer;
+    this.store = store;
   }
 
-  Stream<RecordedMessage<M, R>> getTrackedValues() {
-    Stream<RecordedMessage<M, R>> base = Stream.empty();
-    for (Entry<ClientSourceId, TrackerImpl<M, R>> t : objectTrackers.entrySet()) {
-      base = Stream.concat(base, t.getValue().getTrackedValues().stream().map(e->convert(t.getKey(), e)));
-    }
-    return base;
+  /**
+   * @return for each tracked client, its tracked values ordered by sequence id
+   */
+  Stream<Iterator<RecordedMessage<M, R>>> getTrackedValuesBySequence() {
+    return objectTrackers.entrySet().stream()
+        .map(t -> t.getValue().getTrackedValuesBySequence().map(e -> convert(t.getKey(), e)).iterator());
   }
 
   static <M, R> RecordedMessage<M, R> convert(ClientSourceId cid, TrackerImpl.RequestResponse<M, R> rr) {
@@ -73,12 +94,23 @@ class ClientTrackerImpl<M, R> implements ClientTracker<M, R> {
   }
 
   TrackerImpl<M, R> getTracker(ClientSourceId clientId) {
-    return objectTrackers.computeIfAbsent(clientId, d -> new TrackerImpl<>(trackerPolicy));
+    return objectTrackers.computeIfAbsent(clientId,
+        d -> new TrackerImpl<>(trackerPolicy, clientId, new TrackedUsage(usage, clientUsages.apply(clientId)), responseSizer, store));
+  }
+
+  /**
+   * @return the tracker of this client, or null if the client is not tracked
+   */
+  TrackerImpl<M, R> getExistingTracker(ClientSourceId clientId) {
+    return objectTrackers.get(clientId);
   }
 
   @Override
   public void untrackClient(ClientSourceId clientId) {
-    objectTrackers.remove(clientId);
+    TrackerImpl<M, R> tracker = objectTrackers.remove(clientId);
+    if (tracker != null) {
+      tracker.clear();
+    }
   }
 
   @Override
@@ -88,6 +120,9 @@ class ClientTrackerImpl<M, R> implements ClientTracker<M, R> {
 
   @Override
   public void addStateTo(StateDumpCollector stateDumper) {
+    stateDumper.addState("TrackedEntries", usage.getEntries());
+    stateDumper.addState("TrackedBytes", usage.getBytes());
+    stateDumper.addState("SpilledEntries", usage.getSpilledEntries());
     for (Map.Entry<ClientSourceId, TrackerImpl<M, R>> entry : objectTrackers.entrySet()) {
       entry.getValue().addStateTo(stateDumper.subStateDumpCollector(entry.getKey().toString()));
     }
@@ -0,0 +1,69 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.client.message.tracker;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges iterators that are each already ordered into a single ordered iterator, only holding the next
+ * element of each of them.
+ */
+class MergingIterator<T> implements Iterator<T> {
+
+  private final PriorityQueue<Source<T>> sources;
+
+  MergingIterator(Collection<? extends Iterator<? extends T>> iterators, Comparator<? super T> comparator) {
+    this.sources = new PriorityQueue<>(Math.max(1, iterators.size()), (s1, s2) -> comparator.compare(s1.next, s2.next));
+    for (Iterator<? extends T> iterator : iterators) {
+      if (iterator.hasNext()) {
+        sources.add(new Source<>(iterator));
+      }
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !sources.isEmpty();
+  }
+
+  @Override
+  public T next() {
+    Source<T> source = sources.poll();
+    if (source == null) {
+      throw new NoSuchElementException();
+    }
+    T next = source.next;
+    if (source.iterator.hasNext()) {
+      source.next = source.iterator.next();
+      sources.add(source);
+    }
+    return next;
+  }
+
+  private static class Source<T> {
+    private final Iterator<? extends T> iterator;
+    private T next;
+
+    Source(Iterator<? extends T> iterator) {
+      this.iterator = iterator;
+      this.next = iterator.next();
+    }
+  }
+}
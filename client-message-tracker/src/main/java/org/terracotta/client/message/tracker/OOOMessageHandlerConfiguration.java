@@ -23,6 +23,7 @@ import com.tc.classloader.CommonComponent;
 
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 @CommonComponent
 public class OOOMessageHandlerConfiguration<M extends EntityMessage, R extends EntityResponse> implements ServiceConfiguration<OOOMessageHandler<M, R>> {
@@ -31,8 +32,21 @@ public class OOOMessageHandlerConfiguration<M extends EntityMessage, R extends E
   private final Predicate<M> trackerPolicy;
   private final int segments;
   private final ToIntFunction<M> segmentationStrategy;
+  private final TrackingLimits trackingLimits;
+  private final ToLongFunction<R> responseSizer;
+  private final TrackedResponseStore<R> responseStore;
 
   public OOOMessageHandlerConfiguration(String entityIdentifier, Predicate<M> trackerPolicy, int segments, ToIntFunction<M> segmentationStrategy) {
+    this(entityIdentifier, trackerPolicy, segments, segmentationStrategy, TrackingLimits.unlimited(), r -> 0L, null);
+  }
+
+  /**
+   * @param trackingLimits limits on the responses tracked on heap
+   * @param responseSizer estimates the heap size of a response, for the byte limits
+   * @param responseStore where the oldest responses are moved over the limits, or null to keep them on heap regardless
+   */
+  public OOOMessageHandlerConfiguration(String entityIdentifier, Predicate<M> trackerPolicy, int segments, ToIntFunction<M> segmentationStrategy,
+                                        TrackingLimits trackingLimits, ToLongFunction<R> responseSizer, TrackedResponseStore<R> responseStore) {
     if (segments <= 0) {
       throw new IllegalArgumentException("The segment size is a non-positive value: " + segments);
     }
@@ -40,6 +54,9 @@ public class OOOMessageHandlerConfiguration<M extends EntityMessage, R extends E
     this.trackerPolicy = trackerPolicy;
     this.segments = segments;
     this.segmentationStrategy = segmentationStrategy;
+    this.trackingLimits = trackingLimits;
+    this.responseSizer = responseSizer;
+    this.responseStore = responseStore;
   }
 
   public Predicate<M> getTrackerPolicy() {
@@ -58,6 +75,18 @@ public class OOOMessageHandlerConfiguration<M extends EntityMessage, R extends E
     return segments;
   }
 
+  public TrackingLimits getTrackingLimits() {
+    return trackingLimits;
+  }
+
+  public ToLongFunction<R> getResponseSizer() {
+    return responseSizer;
+  }
+
+  public TrackedResponseStore<R> getResponseStore() {
+    return responseStore;
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public Class<OOOMessageHandler<M, R>> getServiceType() {
@@ -23,14 +23,24 @@ import org.terracotta.entity.InvokeContext;
 import org.terracotta.entity.StateDumpCollector;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static org.terracotta.client.message.tracker.Tracker.TRACK_ALL;
 
@@ -40,18 +50,31 @@ public class OOOMessageHandlerImpl<M extends EntityMessage, R extends EntityResp
   private final Predicate<M> trackerPolicy;
   private final ToIntFunction<M> segmentationStrategy;
   private final DestroyCallback callback;
+  private final TrackingLimits trackingLimits;
+  private final TrackedResponseStore<R> responseStore;
+  private final TrackedUsage usage = new TrackedUsage();
+  private final ConcurrentMap<ClientSourceId, TrackedUsage> clientUsages = new ConcurrentHashMap<>();
 
   private final ClientTrackerImpl<M, R> sharedMessageTracker;
 
   AtomicLong trackid = new AtomicLong();
 
   public OOOMessageHandlerImpl(Predicate<M> trackerPolicy, int segments, ToIntFunction<M> segmentationStrategy, DestroyCallback callback) {
+    this(trackerPolicy, segments, segmentationStrategy, TrackingLimits.unlimited(), r -> 0L, null, callback);
+  }
+
+  public OOOMessageHandlerImpl(Predicate<M> trackerPolicy, int segments, ToIntFunction<M> segmentationStrategy,
+                               TrackingLimits trackingLimits, ToLongFunction<R> responseSizer, TrackedResponseStore<R> responseStore,
+                               DestroyCallback callback) {
     this.trackerPolicy = trackerPolicy;
     this.segmentationStrategy = segmentationStrategy;
+    this.trackingLimits = trackingLimits;
+    this.responseStore = responseStore;
     this.clientMessageTrackers = new ArrayList<>(segments);
     for (int i = 0; i < segments; i++) {
       //Passing the TRACK_ALL tracker policy here to avoid the redundant trackability test in Tracker as the real policy is used in the invoke
-      clientMessageTrackers.add(new ClientTrackerImpl<>(TRACK_ALL));
+      clientMessageTrackers.add(new ClientTrackerImpl<>(TRACK_ALL, new TrackedUsage(usage),
+          clientId -> clientUsages.computeIfAbsent(clientId, id -> new TrackedUsage()), responseSizer, responseStore));
     }
     sharedMessageTracker = new ClientTrackerImpl<>(TRACK_ALL);
     this.callback = callback;
@@ -80,6 +103,7 @@ public class OOOMessageHandlerImpl<M extends EntityMessage, R extends EntityResp
 
       response = invokeFunction.apply(context, message);
       messageTracker.track(trackid.incrementAndGet(), context.getCurrentTransactionId(), message, response);
+      enforceLimits(clientId);
       return response;
     } else {
       return invokeFunction.apply(context, message);
@@ -90,6 +114,64 @@ public class OOOMessageHandlerImpl<M extends EntityMessage, R extends EntityResp
   public void untrackClient(ClientSourceId clientSourceId) {
     clientMessageTrackers.stream().forEach(tracker -> tracker.untrackClient(clientSourceId));
     sharedMessageTracker.untrackClient(clientSourceId);
+    clientUsages.remove(clientSourceId);
+  }
+
+  /**
+   * Moves the oldest responses to the store while the limits are exceeded: first the ones of this client, then
+   * the ones of the clients using the most memory. Without a store, the responses are kept on heap regardless.
+   */
+  private void enforceLimits(ClientSourceId clientId) {
+    if (responseStore == null) {
+      return;
+    }
+    TrackedUsage clientUsage = clientUsages.get(clientId);
+    while (clientUsage != null && trackingLimits.isExceededByClient(clientUsage) && spillOldest(clientId)) {
+      // spill until the client is back under its limits
+    }
+    Set<ClientSourceId> exhausted = null;
+    while (trackingLimits.isExceeded(usage)) {
+      ClientSourceId largest = null;
+      TrackedUsage largestUsage = null;
+      for (Map.Entry<ClientSourceId, TrackedUsage> entry : clientUsages.entrySet()) {
+        TrackedUsage candidate = entry.getValue();
+        if ((exhausted == null || !exhausted.contains(entry.getKey())) && (largestUsage == null
+            || candidate.getBytes() > largestUsage.getBytes()
+            || candidate.getBytes() == largestUsage.getBytes() && candidate.getEntries() > largestUsage.getEntries())) {
+          largest = entry.getKey();
+          largestUsage = candidate;
+        }
+      }
+      if (largest == null) {
+        // nothing left to spill
+        return;
+      }
+      if (!spillOldest(largest)) {
+        if (exhausted == null) {
+          exhausted = new HashSet<>();
+        }
+        exhausted.add(largest);
+      }
+    }
+  }
+
+  /**
+   * Spills the oldest response of this client kept on heap, across all the segments
+   */
+  private boolean spillOldest(ClientSourceId clientId) {
+    TrackerImpl<M, R> oldest = null;
+    long oldestSequenceId = Long.MAX_VALUE;
+    for (ClientTrackerImpl<M, R> clientMessageTracker : clientMessageTrackers) {
+      TrackerImpl<M, R> tracker = clientMessageTracker.getExistingTracker(clientId);
+      if (tracker != null) {
+        long sequenceId = tracker.getOldestOnHeapSequenceId();
+        if (sequenceId < oldestSequenceId) {
+          oldest = tracker;
+          oldestSequenceId = sequenceId;
+        }
+      }
+    }
+    return oldest != null && oldest.spillOldest();
   }
 
   @Override
@@ -106,11 +188,12 @@ public class OOOMessageHandlerImpl<M extends EntityMessage, R extends EntityResp
 
   @Override
   public Stream<RecordedMessage<M, R>> getRecordedMessages() {
-    Stream<RecordedMessage<M, R>> base = Stream.empty();
-    for (ClientTrackerImpl<M, R> ct : clientMessageTrackers) {
-      base = Stream.concat(base, ct.getTrackedValues());
-    }
-    return base.sorted((r1,r2)->(int)(r1.getSequenceId() - r2.getSequenceId()));
+    // each client tracker of each segment is already ordered: merge them lazily instead of sorting everything
+    List<Iterator<RecordedMessage<M, R>>> ordered = clientMessageTrackers.stream()
+        .flatMap(ClientTrackerImpl::getTrackedValuesBySequence)
+        .collect(Collectors.toList());
+    Iterator<RecordedMessage<M, R>> merged = new MergingIterator<>(ordered, Comparator.comparingLong(RecordedMessage::getSequenceId));
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false);
   }
 
   @Override
@@ -153,6 +236,9 @@ public class OOOMessageHandlerImpl<M extends EntityMessage, R extends EntityResp
 
   @Override
   public void addStateTo(StateDumpCollector stateDumper) {
+    stateDumper.addState("TrackedEntries", usage.getEntries());
+    stateDumper.addState("TrackedBytes", usage.getBytes());
+    stateDumper.addState("SpilledEntries", usage.getSpilledEntries());
     for (int i = 0; i < clientMessageTrackers.size(); i++) {
       clientMessageTrackers.get(i).addStateTo(stateDumper.subStateDumpCollector("segment-" + i));
     }
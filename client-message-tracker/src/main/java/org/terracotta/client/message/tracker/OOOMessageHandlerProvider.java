@@ -50,7 +50,8 @@ public class OOOMessageHandlerProvider implements ServiceProvider {
           (OOOMessageHandlerConfiguration<EntityMessage, EntityResponse>) serviceConfiguration;
       OOOMessageHandler<EntityMessage, EntityResponse> messageHandler = serviceMap.computeIfAbsent(cmtServiceConfiguration.getEntityIdentifier(),
           id -> new OOOMessageHandlerImpl<>(cmtServiceConfiguration.getTrackerPolicy(), cmtServiceConfiguration.getSegments(),
-              cmtServiceConfiguration.getSegmentationStrategy(), () -> serviceMap.remove(id)));
+              cmtServiceConfiguration.getSegmentationStrategy(), cmtServiceConfiguration.getTrackingLimits(),
+              cmtServiceConfiguration.getResponseSizer(), cmtServiceConfiguration.getResponseStore(), () -> serviceMap.remove(id)));
       return serviceConfiguration.getServiceType().cast(messageHandler);
     }
     throw new IllegalArgumentException("Unexpected configuration type: " + serviceConfiguration);
@@ -0,0 +1,140 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.client.message.tracker;
+
+import org.terracotta.entity.ClientSourceId;
+
+import com.tc.classloader.CommonComponent;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A {@link TrackedResponseStore} keeping the serialized responses in direct buffers, up to a maximum number of bytes.
+ * Past this limit, the responses are refused and stay on heap: a tracked response can never be dropped.
+ *
+ * @param <R> type of the response
+ */
+@CommonComponent
+public class OffHeapTrackedResponseStore<R> implements TrackedResponseStore<R> {
+
+  private final Function<R, byte[]> serializer;
+  private final Function<byte[], R> deserializer;
+  private final ConcurrentMap<Key, ByteBuffer> responses = new ConcurrentHashMap<>();
+  private final AtomicLong bytes = new AtomicLong();
+  private final long maxBytes;
+
+  /**
+   * @param serializer serializes a response, returning null if it cannot be serialized
+   * @param deserializer deserializes a response
+   * @param maxBytes the maximum number of bytes of direct memory used by the stored responses
+   */
+  public OffHeapTrackedResponseStore(Function<R, byte[]> serializer, Function<byte[], R> deserializer, long maxBytes) {
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("The limit is a non-positive value: " + maxBytes);
+    }
+    this.serializer = Objects.requireNonNull(serializer);
+    this.deserializer = Objects.requireNonNull(deserializer);
+    this.maxBytes = maxBytes;
+  }
+
+  @Override
+  public boolean put(ClientSourceId clientId, long transactionId, R response) {
+    byte[] serialized = serializer.apply(response);
+    if (serialized == null || !reserve(serialized.length)) {
+      return false;
+    }
+    ByteBuffer buffer = ByteBuffer.allocateDirect(serialized.length);
+    buffer.put(serialized).flip();
+    ByteBuffer previous = responses.put(new Key(clientId, transactionId), buffer);
+    if (previous != null) {
+      bytes.addAndGet(-previous.capacity());
+    }
+    return true;
+  }
+
+  @Override
+  public R get(ClientSourceId clientId, long transactionId) {
+    ByteBuffer buffer = responses.get(new Key(clientId, transactionId));
+    if (buffer == null) {
+      return null;
+    }
+    byte[] serialized = new byte[buffer.remaining()];
+    buffer.duplicate().get(serialized);
+    return deserializer.apply(serialized);
+  }
+
+  @Override
+  public void remove(ClientSourceId clientId, long transactionId) {
+    ByteBuffer removed = responses.remove(new Key(clientId, transactionId));
+    if (removed != null) {
+      bytes.addAndGet(-removed.capacity());
+    }
+  }
+
+  public long getSize() {
+    return responses.size();
+  }
+
+  public long getBytes() {
+    return bytes.get();
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * Accounts for the given size, unless it would exceed the limit
+   */
+  private boolean reserve(long size) {
+    long current;
+    do {
+      current = bytes.get();
+      if (size > maxBytes - current) {
+        return false;
+      }
+    } while (!bytes.compareAndSet(current, current + size));
+    return true;
+  }
+
+  private static class Key {
+    private final ClientSourceId clientId;
+    private final long transactionId;
+
+    Key(ClientSourceId clientId, long transactionId) {
+      this.clientId = clientId;
+      this.transactionId = transactionId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key) o;
+      return transactionId == key.transactionId && clientId.equals(key.clientId);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * clientId.hashCode() + Long.hashCode(transactionId);
+    }
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.client.message.tracker;
+
+import org.terracotta.entity.ClientSourceId;
+
+import com.tc.classloader.CommonComponent;
+
+/**
+ * Keeps the tracked responses that were spilled out of the heap, when the limits of the
+ * {@link OOOMessageHandlerConfiguration} are exceeded.
+ *
+ * @param <R> type of the response
+ */
+@CommonComponent
+public interface TrackedResponseStore<R> {
+
+  /**
+   * Stores a response.
+   *
+   * @return false if this response cannot be stored, in which case it is kept on heap
+   */
+  boolean put(ClientSourceId clientId, long transactionId, R response);
+
+  /**
+   * @return the stored response, or null if there is none
+   */
+  R get(ClientSourceId clientId, long transactionId);
+
+  /**
+   * Removes a stored response, once it is not tracked anymore.
+   */
+  void remove(ClientSourceId clientId, long transactionId);
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.client.message.tracker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the tracked responses kept on heap, their estimated size, and the responses spilled to a store.
+ * Every change is also applied to the parent usages (i.e. the usage of a client tracker adds up into the usage
+ * of its segment and into the usage of its client).
+ */
+class TrackedUsage {
+
+  private final TrackedUsage[] parents;
+  private final AtomicLong entries = new AtomicLong();
+  private final AtomicLong bytes = new AtomicLong();
+  private final AtomicLong spilledEntries = new AtomicLong();
+
+  TrackedUsage(TrackedUsage... parents) {
+    this.parents = parents;
+  }
+
+  void add(long entries, long bytes, long spilledEntries) {
+    this.entries.addAndGet(entries);
+    this.bytes.addAndGet(bytes);
+    this.spilledEntries.addAndGet(spilledEntries);
+    for (TrackedUsage parent : parents) {
+      parent.add(entries, bytes, spilledEntries);
+    }
+  }
+
+  long getEntries() {
+    return entries.get();
+  }
+
+  long getBytes() {
+    return bytes.get();
+  }
+
+  long getSpilledEntries() {
+    return spilledEntries.get();
+  }
+}
@@ -16,20 +16,49 @@
 package org.terracotta.client.message.tracker;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.terracotta.entity.ClientSourceId;
 import org.terracotta.entity.StateDumpCollector;
 
-import java.util.Optional;
-import java.util.SortedMap;
-import java.util.TreeMap;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
 
+import static java.util.Comparator.comparingLong;
+
 class TrackerImpl<M, R> implements Tracker<M, R> {
 
+  private static final int INITIAL_CAPACITY = 16;
+
   private final Predicate<Object> trackerPolicy;
-  private final SortedMap<Long, RequestResponse<M, R>> trackedValues;
+  private final ClientSourceId clientId;
+  private final TrackedUsage usage;
+  private final ToLongFunction<R> responseSizer;
+  private final TrackedResponseStore<R> store;
+
+  // the responses of the transactions up to this one were already considered for spilling
+  private long spilledUpTo = Long.MIN_VALUE;
+
+  /**
+   * Tracked values, sorted by transaction id. Writers are serialized on this tracker and publish a new window
+   * after each change, so that readers never lock. Slots are only ever written past the tail of the published
+   * window (or by copying the window), except for the replacement of a value and the release of reconciled ones.
+   */
+  private volatile Window<M, R> window = new Window<>(new long[INITIAL_CAPACITY], newArray(INITIAL_CAPACITY), 0, 0, true);
+
+  /**
+   * Tracked values indexed by their request. When equal requests are tracked under several transaction ids,
+   * only one of them is indexed. It is built from the window on the first lookup by request, and maintained by the
+   * writers from then on: tracking does not pay for it when the requests are never looked up.
+   */
+  private volatile ConcurrentMap<M, RequestResponse<M, R>> trackedRequests;
 
   /**
    * Constructor taking a predicate to define the tracking policy. If the predicate returns true, the source will
@@ -37,10 +66,24 @@ class TrackerImpl<M, R> implements Tracker<M, R> {
    *
    * @param trackerPolicy defines if a source is tracked or not
    */
-  @SuppressWarnings("unchecked")
   TrackerImpl(Predicate<?> trackerPolicy) {
+    this(trackerPolicy, null, new TrackedUsage(), r -> 0L, null);
+  }
+
+  /**
+   * @param trackerPolicy defines if a source is tracked or not
+   * @param clientId the client whose messages are tracked, identifying its responses in the store
+   * @param usage accounts for the responses tracked on heap and the spilled ones
+   * @param responseSizer estimates the heap size of a response
+   * @param store where the oldest responses can be spilled, or null if they must be kept on heap
+   */
+  @SuppressWarnings("unchecked")
+  TrackerImpl(Predicate<?> trackerPolicy, ClientSourceId clientId, TrackedUsage usage, ToLongFunction<R> responseSizer, TrackedResponseStore<R> store) {
     this.trackerPolicy = (Predicate<Object>) trackerPolicy;
-    this.trackedValues = new TreeMap<>();
+    this.clientId = clientId;
+    this.usage = usage;
+    this.responseSizer = responseSizer;
+    this.store = store;
   }
 
   @Override
@@ -51,41 +94,85 @@ class TrackerImpl<M, R> implements Tracker<M, R> {
   }
   
   private synchronized void placeTrackedValue(long insert, long id, M req, R value) {
-    trackedValues.put(id, new RequestResponse<>(insert, id, req, value));
+    put(newRequestResponse(insert, id, req, value));
   }
 
   @Override
-  public synchronized R getTrackedValue(long id) {
-    return Optional.ofNullable(trackedValues.get(id)).map(RequestResponse::getResponse).orElse(null);
+  public R getTrackedValue(long id) {
+    RequestResponse<M, R> rr = window.get(id);
+    return rr == null ? null : rr.getResponse();
   }
 
   @Override
-  public synchronized R getTrackedValue(M id) {
-    return trackedValues.values().stream()
-      .filter(rr->rr.getRequest().equals(id))
-      .findAny().map(rr->rr.getResponse()).get();
+  public R getTrackedValue(M id) {
+    RequestResponse<M, R> rr = id == null ? null : getRequestIndex().get(id);
+    if (rr != null) {
+      return rr.getResponse();
+    }
+    // not indexed: the request might not implement hashCode() consistently with equals(),
+    // or it was an equal request tracked under another transaction id
+    return getTrackedValues().stream()
+      .filter(r->r.getRequest() != null && r.getRequest().equals(id))
+      .findAny().map(r->r.getResponse()).get();
   }
   
   @Override
-  public synchronized M getTrackedRequest(long id) {
-    return Optional.ofNullable(trackedValues.get(id)).map(RequestResponse::getRequest).orElse(null);
+  public M getTrackedRequest(long id) {
+    RequestResponse<M, R> rr = window.get(id);
+    return rr == null ? null : rr.getRequest();
   }
 
   @Override
-  public synchronized void reconcile(long id) {
-    trackedValues.headMap(id).clear();
+  public void reconcile(long id) {
+    Window<M, R> w = window;
+    if (w.head == w.tail || w.ids[w.head] >= id) {
+      // nothing older than this transaction id: the common case when the client did not move forward
+      return;
+    }
+    synchronized (this) {
+      w = window;
+      int from = w.indexOf(id);
+      from = from >= 0 ? from : -from - 1;
+      if (from > w.head) {
+        for (int i = w.head; i < from; i++) {
+          release(w.values[i]);
+        }
+        Arrays.fill(w.values, w.head, from, null);
+        window = new Window<>(w.ids, w.values, from, w.tail, w.sequenced);
+      }
+    }
   }
 
-  synchronized Collection<RequestResponse<M, R>> getTrackedValues() {
-    return trackedValues.values();
+  Collection<RequestResponse<M, R>> getTrackedValues() {
+    Window<M, R> w = window;
+    List<RequestResponse<M, R>> values = new ArrayList<>(w.tail - w.head);
+    for (int i = w.head; i < w.tail; i++) {
+      RequestResponse<M, R> rr = w.values[i];
+      // null if concurrently reconciled
+      if (rr != null) {
+        values.add(rr);
+      }
+    }
+    return values;
   }
+
+  /**
+   * @return the tracked values ordered by their sequence id
+   */
+  Stream<RequestResponse<M, R>> getTrackedValuesBySequence() {
+    Window<M, R> w = window;
+    // the slots of the window are read lazily: they are null if concurrently reconciled
+    Stream<RequestResponse<M, R>> values = Arrays.stream(w.values, w.head, w.tail).filter(Objects::nonNull);
+    return w.sequenced ? values : values.sorted(comparingLong(RequestResponse::getSequenceId));
+  }
+
   /**
    * only used in a deprecated call {@link OOOMessageHandler#loadTrackedResponsesForSegment(int, org.terracotta.entity.ClientSourceId, java.util.Map) }
    */
   synchronized void loadOnSync(Map<Long, R> mappedResponses) {
-    for (Map.Entry<Long, R> e : mappedResponses.entrySet()) {
-      this.trackedValues.put(e.getKey(), new RequestResponse<>(-1, e.getKey(), null, e.getValue()));
-    }
+    mappedResponses.entrySet().stream()
+        .sorted(Map.Entry.comparingByKey())
+        .forEach(e -> put(newRequestResponse(-1, e.getKey(), null, e.getValue())));
   }
 
   @Override
@@ -93,13 +180,231 @@ class TrackerImpl<M, R> implements Tracker<M, R> {
     trackedValues.forEach(e->{
       M request = e.getRequest();
       R response = e.getResponse();
-      this.trackedValues.put(e.getTransactionId(), new RequestResponse<>(e.getSequenceId(), e.getTransactionId(), request, response));
+      put(newRequestResponse(e.getSequenceId(), e.getTransactionId(), request, response));
     });
   }
 
   @Override
-  public synchronized void addStateTo(StateDumpCollector stateDumper) {
-    stateDumper.addState("TrackedResponses", new ArrayList<>(trackedValues.keySet()));
+  public void addStateTo(StateDumpCollector stateDumper) {
+    Window<M, R> w = window;
+    List<Long> ids = new ArrayList<>(w.tail - w.head);
+    for (int i = w.head; i < w.tail; i++) {
+      ids.add(w.ids[i]);
+    }
+    stateDumper.addState("TrackedResponses", ids);
+  }
+
+  /**
+   * Must be called while holding this tracker monitor
+   */
+  private void put(RequestResponse<M, R> rr) {
+    Window<M, R> w = window;
+    long id = rr.getTransactionId();
+    if (w.head == w.tail || w.ids[w.tail - 1] < id) {
+      // transaction ids of a client are increasing: append
+      if (w.tail == w.ids.length) {
+        w = w.copy(Math.max(INITIAL_CAPACITY, 2 * (w.tail - w.head)));
+      }
+      w.ids[w.tail] = id;
+      w.values[w.tail] = rr;
+      index(rr);
+      usage.add(1, rr.getSize(), 0);
+      window = new Window<>(w.ids, w.values, w.head, w.tail + 1, w.sequenced && isSequenced(w.values, w.head, w.tail + 1, w.tail));
+    } else {
+      // the value replaced or inserted before the spill cursor must still be considered for spilling
+      spilledUpTo = Math.min(spilledUpTo, id - 1);
+      int idx = w.indexOf(id);
+      if (idx >= 0) {
+        release(w.values[idx]);
+        w.values[idx] = rr;
+        index(rr);
+        usage.add(1, rr.getSize(), 0);
+        window = new Window<>(w.ids, w.values, w.head, w.tail, w.sequenced && isSequenced(w.values, w.head, w.tail, idx));
+      } else {
+        // older transaction id (i.e. loaded during a sync): insert it in a copy
+        int at = -idx - 1;
+        int size = w.tail - w.head;
+        long[] ids = new long[Math.max(INITIAL_CAPACITY, 2 * (size + 1))];
+        RequestResponse<M, R>[] values = newArray(ids.length);
+        System.arraycopy(w.ids, w.head, ids, 0, at - w.head);
+        System.arraycopy(w.values, w.head, values, 0, at - w.head);
+        ids[at - w.head] = id;
+        values[at - w.head] = rr;
+        System.arraycopy(w.ids, at, ids, at - w.head + 1, w.tail - at);
+        System.arraycopy(w.values, at, values, at - w.head + 1, w.tail - at);
+        index(rr);
+        usage.add(1, rr.getSize(), 0);
+        window = new Window<>(ids, values, 0, size + 1, w.sequenced && isSequenced(values, 0, size + 1, at - w.head));
+      }
+    }
+  }
+
+  private RequestResponse<M, R> newRequestResponse(long insert, long id, M req, R value) {
+    return new RequestResponse<>(insert, id, req, value, value == null ? 0 : responseSizer.applyAsLong(value));
+  }
+
+  /**
+   * Moves the oldest response still on heap to the store.
+   *
+   * @return false if there is no response left to spill
+   */
+  synchronized boolean spillOldest() {
+    if (store == null) {
+      return false;
+    }
+    Window<M, R> w = window;
+    int idx = w.indexOf(spilledUpTo);
+    for (idx = idx >= 0 ? idx + 1 : -idx - 1; idx < w.tail; idx++) {
+      RequestResponse<M, R> rr = w.values[idx];
+      spilledUpTo = rr.getTransactionId();
+      if (isSpillable(rr) && store.put(clientId, rr.getTransactionId(), rr.getResponse())) {
+        RequestResponse<M, R> spilled = new SpilledRequestResponse<>(rr, clientId, store);
+        unindex(rr);
+        w.values[idx] = spilled;
+        index(spilled);
+        usage.add(-1, -rr.getSize(), 1);
+        window = w;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the sequence id of the oldest response that could be spilled, or {@link Long#MAX_VALUE}
+   */
+  synchronized long getOldestOnHeapSequenceId() {
+    if (store == null) {
+      return Long.MAX_VALUE;
+    }
+    Window<M, R> w = window;
+    int idx = w.indexOf(spilledUpTo);
+    for (idx = idx >= 0 ? idx + 1 : -idx - 1; idx < w.tail; idx++) {
+      if (isSpillable(w.values[idx])) {
+        return w.values[idx].getSequenceId();
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  private static boolean isSpillable(RequestResponse<?, ?> rr) {
+    return !rr.isSpilled() && rr.getResponse() != null;
+  }
+
+  /**
+   * Stops tracking all the values, when the client is not tracked anymore
+   */
+  synchronized void clear() {
+    Window<M, R> w = window;
+    for (int i = w.head; i < w.tail; i++) {
+      release(w.values[i]);
+    }
+    Arrays.fill(w.values, w.head, w.tail, null);
+    window = new Window<>(w.ids, w.values, w.tail, w.tail, true);
+  }
+
+  private void release(RequestResponse<M, R> rr) {
+    if (rr != null) {
+      unindex(rr);
+      if (rr.isSpilled()) {
+        store.remove(clientId, rr.getTransactionId());
+        usage.add(0, 0, -1);
+      } else {
+        usage.add(-1, -rr.getSize(), 0);
+      }
+    }
+  }
+
+  private ConcurrentMap<M, RequestResponse<M, R>> getRequestIndex() {
+    ConcurrentMap<M, RequestResponse<M, R>> index = trackedRequests;
+    if (index == null) {
+      synchronized (this) {
+        index = trackedRequests;
+        if (index == null) {
+          index = new ConcurrentHashMap<>();
+          Window<M, R> w = window;
+          for (int i = w.head; i < w.tail; i++) {
+            if (w.values[i] != null) {
+              index(index, w.values[i]);
+            }
+          }
+          trackedRequests = index;
+        }
+      }
+    }
+    return index;
+  }
+
+  private void index(RequestResponse<M, R> rr) {
+    ConcurrentMap<M, RequestResponse<M, R>> index = trackedRequests;
+    if (index != null) {
+      index(index, rr);
+    }
+  }
+
+  private static <M, R> void index(ConcurrentMap<M, RequestResponse<M, R>> index, RequestResponse<M, R> rr) {
+    M request = rr.getRequest();
+    if (request != null) {
+      index.merge(request, rr, (current, added) -> current.getTransactionId() <= added.getTransactionId() ? current : added);
+    }
+  }
+
+  private void unindex(RequestResponse<M, R> rr) {
+    ConcurrentMap<M, RequestResponse<M, R>> index = trackedRequests;
+    if (index != null && rr != null && rr.getRequest() != null) {
+      index.remove(rr.getRequest(), rr);
+    }
+  }
+
+  /**
+   * @return true if the value at this index of the window is in sequence with its neighbours
+   */
+  private static boolean isSequenced(RequestResponse<?, ?>[] values, int head, int tail, int idx) {
+    long sequenceId = values[idx].getSequenceId();
+    return (idx == head || values[idx - 1] == null || values[idx - 1].getSequenceId() <= sequenceId)
+        && (idx + 1 == tail || values[idx + 1] == null || sequenceId <= values[idx + 1].getSequenceId());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <M, R> RequestResponse<M, R>[] newArray(int length) {
+    return (RequestResponse<M, R>[]) new RequestResponse<?, ?>[length];
+  }
+
+  /**
+   * The tracked values are the ones between head (inclusive) and tail (exclusive) of these arrays
+   */
+  private static class Window<M, R> {
+    final long[] ids;
+    final RequestResponse<M, R>[] values;
+    final int head;
+    final int tail;
+    // true when the values sorted by transaction id are also sorted by sequence id, which is the case unless
+    // the values were loaded in a different order
+    final boolean sequenced;
+
+    Window(long[] ids, RequestResponse<M, R>[] values, int head, int tail, boolean sequenced) {
+      this.ids = ids;
+      this.values = values;
+      this.head = head;
+      this.tail = tail;
+      this.sequenced = sequenced;
+    }
+
+
+    int indexOf(long id) {
+      return Arrays.binarySearch(ids, head, tail, id);
+    }
+
+    RequestResponse<M, R> get(long id) {
+      int idx = indexOf(id);
+      return idx >= 0 ? values[idx] : null;
+    }
+
+    Window<M, R> copy(int capacity) {
+      long[] ids = Arrays.copyOfRange(this.ids, head, head + capacity);
+      RequestResponse<M, R>[] values = Arrays.copyOfRange(this.values, head, head + capacity);
+      return new Window<>(ids, values, 0, tail - head, sequenced);
+    }
   }
 
   static class RequestResponse<M, R> {
@@ -107,12 +412,18 @@ class TrackerImpl<M, R> implements Tracker<M, R> {
     private final long transaction;
     private final M request;
     private final R response;
+    private final long size;
 
     RequestResponse(long insert, long transaction, M request, R response) {
+      this(insert, transaction, request, response, 0);
+    }
+
+    RequestResponse(long insert, long transaction, M request, R response, long size) {
       this.insert = insert;
       this.transaction = transaction;
       this.request = request;
       this.response = response;
+      this.size = size;
     }
 
     public long getSequenceId() {
@@ -130,5 +441,38 @@ class TrackerImpl<M, R> implements Tracker<M, R> {
     public R getResponse() {
       return response;
     }
+
+    long getSize() {
+      return size;
+    }
+
+    boolean isSpilled() {
+      return false;
+    }
+  }
+
+  /**
+   * A tracked request whose response was moved to a {@link TrackedResponseStore}
+   */
+  static class SpilledRequestResponse<M, R> extends RequestResponse<M, R> {
+    private final ClientSourceId clientId;
+    private final TrackedResponseStore<R> store;
+
+    SpilledRequestResponse(RequestResponse<M, R> rr, ClientSourceId clientId, TrackedResponseStore<R> store) {
+      super(rr.getSequenceId(), rr.getTransactionId(), rr.getRequest(), null);
+      this.clientId = clientId;
+      this.store = store;
+    }
+
+    @Override
+    public R getResponse() {
+      // null if concurrently reconciled
+      return store.get(clientId, getTransactionId());
+    }
+
+    @Override
+    boolean isSpilled() {
+      return true;
+    }
   }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.client.message.tracker;
+
+import com.tc.classloader.CommonComponent;
+
+/**
+ * Limits on the responses tracked on heap, per client and for the whole message handler.
+ * Over these limits, the oldest responses are moved to the {@link TrackedResponseStore} of the configuration.
+ * <p>
+ * The byte limits are based on the estimations of the response sizer of the configuration.
+ */
+@CommonComponent
+public final class TrackingLimits {
+
+  private static final TrackingLimits UNLIMITED = new TrackingLimits(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+  private final long maxEntriesPerClient;
+  private final long maxBytesPerClient;
+  private final long maxEntries;
+  private final long maxBytes;
+
+  private TrackingLimits(long maxEntriesPerClient, long maxBytesPerClient, long maxEntries, long maxBytes) {
+    this.maxEntriesPerClient = requirePositive(maxEntriesPerClient);
+    this.maxBytesPerClient = requirePositive(maxBytesPerClient);
+    this.maxEntries = requirePositive(maxEntries);
+    this.maxBytes = requirePositive(maxBytes);
+  }
+
+  public static TrackingLimits unlimited() {
+    return UNLIMITED;
+  }
+
+  public TrackingLimits withMaxEntriesPerClient(long maxEntriesPerClient) {
+    return new TrackingLimits(maxEntriesPerClient, maxBytesPerClient, maxEntries, maxBytes);
+  }
+
+  public TrackingLimits withMaxBytesPerClient(long maxBytesPerClient) {
+    return new TrackingLimits(maxEntriesPerClient, maxBytesPerClient, maxEntries, maxBytes);
+  }
+
+  public TrackingLimits withMaxEntries(long maxEntries) {
+    return new TrackingLimits(maxEntriesPerClient, maxBytesPerClient, maxEntries, maxBytes);
+  }
+
+  public TrackingLimits withMaxBytes(long maxBytes) {
+    return new TrackingLimits(maxEntriesPerClient, maxBytesPerClient, maxEntries, maxBytes);
+  }
+
+  public long getMaxEntriesPerClient() {
+    return maxEntriesPerClient;
+  }
+
+  public long getMaxBytesPerClient() {
+    return maxBytesPerClient;
+  }
+
+  public long getMaxEntries() {
+    return maxEntries;
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  boolean isExceededByClient(TrackedUsage clientUsage) {
+    return clientUsage.getEntries() > maxEntriesPerClient || clientUsage.getBytes() > maxBytesPerClient;
+  }
+
+  boolean isExceeded(TrackedUsage usage) {
+    return usage.getEntries() > maxEntries || usage.getBytes() > maxBytes;
+  }
+
+  private static long requirePositive(long limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("The limit is a non-positive value: " + limit);
+    }
+    return limit;
+  }
+}
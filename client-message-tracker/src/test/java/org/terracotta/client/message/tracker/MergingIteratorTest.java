@@ -0,0 +1,58 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.client.message.tracker;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+public class MergingIteratorTest {
+
+  @Test
+  public void mergesOrderedIterators() {
+    List<Iterator<Integer>> iterators = asList(
+        asList(1, 4, 7, 10).iterator(),
+        Collections.<Integer>emptyIterator(),
+        asList(2, 3, 8).iterator(),
+        asList(5, 6, 9, 11, 12).iterator());
+
+    List<Integer> merged = new ArrayList<>();
+    new MergingIterator<>(iterators, Integer::compare).forEachRemaining(merged::add);
+
+    assertThat(merged, is(asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12)));
+  }
+
+  @Test
+  public void emptyWithoutIterators() {
+    assertFalse(new MergingIterator<Integer>(Collections.emptyList(), Integer::compare).hasNext());
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void nextWhenExhausted() {
+    Iterator<Integer> iterator = new MergingIterator<>(asList(asList(1).iterator()), Integer::compare);
+    iterator.next();
+    iterator.next();
+  }
+}
@@ -23,12 +23,17 @@ import org.terracotta.entity.EntityResponse;
 import org.terracotta.entity.EntityUserException;
 import org.terracotta.entity.InvokeContext;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
@@ -232,6 +237,26 @@ public class OOOMessageHandlerImplTest {
     assertThat(entityResponse, is(response3));
   }
 
+  @Test
+  public void testGetRecordedMessagesInSequenceOrder() throws Exception {
+    messageHandler = new OOOMessageHandlerImpl<>(m -> true, 4, m -> m.hashCode() & 3, () -> {});
+
+    List<EntityMessage> messages = new ArrayList<>();
+    for (int i = 1; i <= 100; i++) {
+      EntityMessage message = mock(EntityMessage.class);
+      messages.add(message);
+      InvokeContext context = new DummyContext(new DummyClientSourceId(i % 3), i, 1);
+      messageHandler.invoke(context, message, (ctxt, msg) -> mock(EntityResponse.class));
+    }
+
+    List<RecordedMessage<EntityMessage, EntityResponse>> recorded = messageHandler.getRecordedMessages().collect(toList());
+    assertThat(recorded.size(), is(100));
+    for (int i = 0; i < recorded.size(); i++) {
+      assertThat(recorded.get(i).getSequenceId(), is(i + 1L));
+      assertThat(recorded.get(i).getRequest(), sameInstance(messages.get(i)));
+    }
+  }
+
   @Test
   public void testGetTrackedClients() throws Exception {
     EntityMessage message1 = mock(EntityMessage.class);
@@ -280,6 +305,62 @@ public class OOOMessageHandlerImplTest {
     assertThat(clients.contains(clientSourceId3), is(false));
   }
 
+  @Test
+  public void testResponsesSpilledOverClientLimit() throws Exception {
+    MapResponseStore store = new MapResponseStore();
+    messageHandler = new OOOMessageHandlerImpl<>(m -> true, 2, m -> m.hashCode() & 1,
+        TrackingLimits.unlimited().withMaxEntriesPerClient(3), r -> 100L, store, () -> {});
+
+    List<EntityResponse> responses = new ArrayList<>();
+    for (int i = 1; i <= 10; i++) {
+      EntityResponse response = mock(EntityResponse.class);
+      responses.add(response);
+      messageHandler.invoke(new DummyContext(new DummyClientSourceId(1), i, 1), mock(EntityMessage.class), (ctxt, msg) -> response);
+      messageHandler.invoke(new DummyContext(new DummyClientSourceId(2), i, 1), mock(EntityMessage.class), (ctxt, msg) -> mock(EntityResponse.class));
+    }
+
+    assertThat(store.responses.size(), is(14));
+    List<RecordedMessage<EntityMessage, EntityResponse>> recorded = messageHandler.getRecordedMessages()
+        .filter(rm -> rm.getClientSourceId().equals(new DummyClientSourceId(1)))
+        .collect(toList());
+    assertThat(recorded.stream().map(RecordedMessage::getResponse).collect(toList()), is(responses));
+
+    messageHandler.untrackClient(new DummyClientSourceId(1));
+    assertThat(store.responses.size(), is(7));
+  }
+
+  @Test
+  public void testResponsesSpilledOverGlobalLimit() throws Exception {
+    MapResponseStore store = new MapResponseStore();
+    messageHandler = new OOOMessageHandlerImpl<>(m -> true, 1, m -> 0,
+        TrackingLimits.unlimited().withMaxBytes(1000), r -> 100L, store, () -> {});
+
+    for (int i = 1; i <= 8; i++) {
+      messageHandler.invoke(new DummyContext(new DummyClientSourceId(1), i, 1), mock(EntityMessage.class), (ctxt, msg) -> mock(EntityResponse.class));
+    }
+    for (int i = 1; i <= 4; i++) {
+      messageHandler.invoke(new DummyContext(new DummyClientSourceId(2), i, 1), mock(EntityMessage.class), (ctxt, msg) -> mock(EntityResponse.class));
+    }
+
+    // the responses of the client tracking the most were spilled first
+    assertThat(store.responses.size(), is(2));
+    assertThat(store.responses.keySet().stream().map(k -> k.split(":")[0]).collect(toSet()), is(Collections.singleton("1")));
+    assertThat(messageHandler.getRecordedMessages().count(), is(12L));
+  }
+
+  @Test
+  public void testResponsesKeptOnHeapWithoutStore() throws Exception {
+    messageHandler = new OOOMessageHandlerImpl<>(m -> true, 1, m -> 0,
+        TrackingLimits.unlimited().withMaxEntriesPerClient(1).withMaxEntries(1), r -> 100L, null, () -> {});
+
+    EntityResponse response = mock(EntityResponse.class);
+    InvokeContext context = new DummyContext(new DummyClientSourceId(1), 1, 1);
+    messageHandler.invoke(context, mock(EntityMessage.class), (ctxt, msg) -> response);
+    messageHandler.invoke(new DummyContext(new DummyClientSourceId(1), 2, 1), mock(EntityMessage.class), (ctxt, msg) -> mock(EntityResponse.class));
+
+    assertThat(messageHandler.invoke(context, mock(EntityMessage.class), null), sameInstance(response));
+  }
+
   /**
    * Test just making sure we got all the typing right. If it compiles, it means we do
    *
@@ -305,6 +386,26 @@ public class OOOMessageHandlerImplTest {
     return new DummyEntityResponse();
   }
 
+  private static class MapResponseStore implements TrackedResponseStore<EntityResponse> {
+    private final Map<String, EntityResponse> responses = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean put(ClientSourceId clientId, long transactionId, EntityResponse response) {
+      responses.put(clientId.toLong() + ":" + transactionId, response);
+      return true;
+    }
+
+    @Override
+    public EntityResponse get(ClientSourceId clientId, long transactionId) {
+      return responses.get(clientId.toLong() + ":" + transactionId);
+    }
+
+    @Override
+    public void remove(ClientSourceId clientId, long transactionId) {
+      responses.remove(clientId.toLong() + ":" + transactionId);
+    }
+  }
+
   private static class DummyEntityMessage implements EntityMessage {}
   private static class DummyEntityResponse implements EntityResponse {}
   private static class DummyContext implements InvokeContext {
@@ -0,0 +1,82 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.client.message.tracker;
+
+import org.junit.Test;
+import org.terracotta.entity.ClientSourceId;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapTrackedResponseStoreTest {
+
+  private final ClientSourceId clientId = new DummyClientSourceId(1L);
+
+  @Test(expected = IllegalArgumentException.class)
+  public void limitMustBePositive() {
+    new OffHeapTrackedResponseStore<>(String::getBytes, String::new, 0);
+  }
+
+  @Test
+  public void responsesAreRefusedPastTheLimit() {
+    OffHeapTrackedResponseStore<String> store = new OffHeapTrackedResponseStore<>(String::getBytes, String::new, 10);
+
+    assertTrue(store.put(clientId, 1L, "12345"));
+    assertTrue(store.put(clientId, 2L, "1234"));
+    assertFalse(store.put(clientId, 3L, "12"));
+    assertTrue(store.put(clientId, 3L, "1"));
+    assertFalse(store.put(clientId, 4L, "1"));
+
+    assertEquals(3, store.getSize());
+    assertEquals(10, store.getBytes());
+    assertNull(store.get(clientId, 4L));
+    assertEquals("12345", store.get(clientId, 1L));
+  }
+
+  @Test
+  public void removedResponsesReleaseTheirBytes() {
+    OffHeapTrackedResponseStore<String> store = new OffHeapTrackedResponseStore<>(String::getBytes, String::new, 10);
+    store.put(clientId, 1L, "1234567890");
+    assertFalse(store.put(clientId, 2L, "1"));
+
+    store.remove(clientId, 1L);
+
+    assertEquals(0, store.getBytes());
+    assertTrue(store.put(clientId, 2L, "1234567890"));
+  }
+
+  @Test
+  public void replacedResponsesReleaseTheirBytes() {
+    OffHeapTrackedResponseStore<String> store = new OffHeapTrackedResponseStore<>(String::getBytes, String::new, 10);
+    store.put(clientId, 1L, "123456");
+
+    assertTrue(store.put(clientId, 1L, "1234"));
+
+    assertEquals(1, store.getSize());
+    assertEquals(4, store.getBytes());
+    assertEquals("1234", store.get(clientId, 1L));
+  }
+
+  @Test
+  public void unserializableResponsesAreRefused() {
+    OffHeapTrackedResponseStore<String> store = new OffHeapTrackedResponseStore<>(s -> null, String::new, 10);
+
+    assertFalse(store.put(clientId, 1L, "1"));
+    assertEquals(0, store.getBytes());
+  }
+}
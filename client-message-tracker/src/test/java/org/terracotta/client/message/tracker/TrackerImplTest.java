@@ -22,7 +22,10 @@ import org.terracotta.entity.EntityResponse;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
@@ -116,4 +119,169 @@ public class TrackerImplTest {
     assertThat(tracker.getTrackedValue(2L), notNullValue());
 
   }
+
+  @Test
+  public void trackOutOfOrder() throws Exception {
+    EntityMessage message = mock(EntityMessage.class);
+
+    TrackerImpl<EntityMessage, EntityResponse> tracker = new TrackerImpl<>(o -> true);
+    EntityResponse response5 = mock(EntityResponse.class);
+    EntityResponse response3 = mock(EntityResponse.class);
+    EntityResponse response4 = mock(EntityResponse.class);
+    tracker.track(1L, 5L, message, response5);
+    tracker.track(2L, 3L, message, response3);
+    tracker.track(3L, 4L, message, response4);
+
+    assertThat(tracker.getTrackedValue(3L), sameInstance(response3));
+    assertThat(tracker.getTrackedValue(4L), sameInstance(response4));
+    assertThat(tracker.getTrackedValue(5L), sameInstance(response5));
+    assertThat(tracker.getTrackedValues().stream().map(TrackerImpl.RequestResponse::getTransactionId).collect(toList()), is(asList(3L, 4L, 5L)));
+
+    tracker.reconcile(4L);
+    assertThat(tracker.getTrackedValue(3L), nullValue());
+    assertThat(tracker.getTrackedValue(4L), sameInstance(response4));
+  }
+
+  @Test
+  public void trackSameIdReplacesValue() throws Exception {
+    EntityMessage message = mock(EntityMessage.class);
+    EntityResponse response1 = mock(EntityResponse.class);
+    EntityResponse response2 = mock(EntityResponse.class);
+
+    TrackerImpl<EntityMessage, EntityResponse> tracker = new TrackerImpl<>(o -> true);
+    tracker.track(1L, 1L, message, response1);
+    tracker.track(2L, 2L, message, response1);
+    tracker.track(3L, 1L, message, response2);
+
+    assertThat(tracker.getTrackedValue(1L), sameInstance(response2));
+    assertThat(tracker.getTrackedValues().size(), is(2));
+  }
+
+  @Test
+  public void trackAndReconcileManyMessages() throws Exception {
+    EntityMessage message = mock(EntityMessage.class);
+    EntityResponse response = mock(EntityResponse.class);
+
+    TrackerImpl<EntityMessage, EntityResponse> tracker = new TrackerImpl<>(o -> true);
+    for (long id = 1; id <= 1000; id++) {
+      tracker.track(id, id, message, response);
+      tracker.reconcile(id - 10);
+    }
+
+    assertThat(tracker.getTrackedValues().size(), is(11));
+    assertThat(tracker.getTrackedValue(989L), nullValue());
+    for (long id = 990; id <= 1000; id++) {
+      assertThat(tracker.getTrackedValue(id), sameInstance(response));
+    }
+  }
+
+  @Test
+  public void getTrackedValueByRequest() throws Exception {
+    EntityMessage message1 = mock(EntityMessage.class);
+    EntityMessage message2 = mock(EntityMessage.class);
+    EntityResponse response1 = mock(EntityResponse.class);
+    EntityResponse response2 = mock(EntityResponse.class);
+
+    TrackerImpl<EntityMessage, EntityResponse> tracker = new TrackerImpl<>(o -> true);
+    tracker.track(1L, 1L, message1, response1);
+    tracker.track(2L, 2L, message2, response2);
+
+    assertThat(tracker.getTrackedValue(message1), sameInstance(response1));
+    assertThat(tracker.getTrackedValue(message2), sameInstance(response2));
+
+    tracker.reconcile(2L);
+    assertThat(tracker.getTrackedValue(message2), sameInstance(response2));
+    try {
+      tracker.getTrackedValue(message1);
+      fail();
+    } catch (NoSuchElementException e) {
+      // reconciled
+    }
+  }
+
+  @Test
+  public void getTrackedValueByRequestAfterFirstLookup() throws Exception {
+    TrackerImpl<String, String> tracker = new TrackerImpl<>(o -> true);
+    tracker.track(1L, 1L, "request-1", "response-1");
+    tracker.track(2L, 2L, "request-2", "response-2");
+    assertThat(tracker.getTrackedValue("request-1"), is("response-1"));
+
+    // the values tracked, replaced and reconciled after the first lookup are seen by the next ones
+    tracker.track(3L, 3L, "request-3", "response-3");
+    tracker.track(4L, 2L, "request-2", "response-2bis");
+    tracker.reconcile(2L);
+    assertThat(tracker.getTrackedValue("request-2"), is("response-2bis"));
+    assertThat(tracker.getTrackedValue("request-3"), is("response-3"));
+    try {
+      tracker.getTrackedValue("request-1");
+      fail();
+    } catch (NoSuchElementException e) {
+      // reconciled
+    }
+  }
+
+  @Test
+  public void getTrackedValuesBySequence() throws Exception {
+    EntityMessage message = mock(EntityMessage.class);
+    EntityResponse response = mock(EntityResponse.class);
+
+    TrackerImpl<EntityMessage, EntityResponse> tracker = new TrackerImpl<>(o -> true);
+    tracker.track(10L, 1L, message, response);
+    tracker.track(30L, 3L, message, response);
+    tracker.track(20L, 4L, message, response);
+    tracker.track(40L, 2L, message, response);
+
+    assertThat(tracker.getTrackedValuesBySequence().map(TrackerImpl.RequestResponse::getSequenceId).collect(toList()), is(asList(10L, 20L, 30L, 40L)));
+  }
+
+  @Test
+  public void spillOldestMovesResponsesToStore() throws Exception {
+    EntityMessage message = mock(EntityMessage.class);
+    ClientSourceId clientId = mock(ClientSourceId.class);
+    OffHeapTrackedResponseStore<String> store = new OffHeapTrackedResponseStore<>(String::getBytes, String::new, 1024);
+    TrackedUsage usage = new TrackedUsage();
+
+    TrackerImpl<EntityMessage, String> tracker = new TrackerImpl<>(o -> true, clientId, usage, r -> r.length(), store);
+    tracker.track(1L, 1L, message, "one");
+    tracker.track(2L, 2L, message, "two");
+    tracker.track(3L, 3L, message, "three");
+    assertThat(usage.getEntries(), is(3L));
+    assertThat(usage.getBytes(), is(11L));
+    assertThat(tracker.getOldestOnHeapSequenceId(), is(1L));
+
+    assertThat(tracker.spillOldest(), is(true));
+    assertThat(tracker.spillOldest(), is(true));
+    assertThat(usage.getEntries(), is(1L));
+    assertThat(usage.getBytes(), is(5L));
+    assertThat(usage.getSpilledEntries(), is(2L));
+    assertThat(store.getSize(), is(2L));
+    assertThat(tracker.getOldestOnHeapSequenceId(), is(3L));
+
+    assertThat(tracker.getTrackedValue(1L), is("one"));
+    assertThat(tracker.getTrackedValue(2L), is("two"));
+    assertThat(tracker.getTrackedValue(message), is("one"));
+    assertThat(tracker.getTrackedValuesBySequence().map(TrackerImpl.RequestResponse::getResponse).collect(toList()), is(asList("one", "two", "three")));
+
+    tracker.reconcile(2L);
+    assertThat(tracker.getTrackedValue(1L), nullValue());
+    assertThat(store.getSize(), is(1L));
+    assertThat(usage.getSpilledEntries(), is(1L));
+
+    tracker.clear();
+    assertThat(store.getSize(), is(0L));
+    assertThat(usage.getEntries(), is(0L));
+    assertThat(usage.getBytes(), is(0L));
+    assertThat(usage.getSpilledEntries(), is(0L));
+    assertThat(tracker.spillOldest(), is(false));
+  }
+
+  @Test
+  public void spillOldestWithoutStore() throws Exception {
+    TrackerImpl<EntityMessage, String> tracker = new TrackerImpl<>(o -> true, mock(ClientSourceId.class), new TrackedUsage(), r -> r.length(), null);
+    tracker.track(1L, 1L, mock(EntityMessage.class), "one");
+
+    assertThat(tracker.spillOldest(), is(false));
+    assertThat(tracker.getOldestOnHeapSequenceId(), is(Long.MAX_VALUE));
+    assertThat(tracker.getTrackedValue(1L), is("one"));
+  }
 }
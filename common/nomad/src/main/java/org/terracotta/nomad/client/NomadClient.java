@@ -25,6 +25,7 @@ import org.terracotta.nomad.client.status.DiscoveryProcess;
 import org.terracotta.nomad.server.ChangeRequestState;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.util.List;
 
 public class NomadClient<T> implements AutoCloseable {
@@ -32,6 +33,8 @@ public class NomadClient<T> implements AutoCloseable {
   private final String host;
   private final String user;
   private final Clock clock;
+  private final int concurrency;
+  private final Duration phaseTimeout;
 
   /**
    * @param servers the set of servers to run the Nomad protocol across
@@ -39,10 +42,27 @@ public class NomadClient<T> implements AutoCloseable {
    * @param user    the name of the user the current process is running as
    */
   public NomadClient(List<NomadEndpoint<T>> servers, String host, String user, Clock clock) {
+    this(servers, host, user, clock, NomadMessageSender.DEFAULT_CONCURRENCY, NomadMessageSender.UNBOUNDED);
+  }
+
+  /**
+   * @param servers      the set of servers to run the Nomad protocol across
+   * @param host         the name of the local machine
+   * @param user         the name of the user the current process is running as
+   * @param concurrency  the maximum number of servers contacted concurrently during each phase, 1 to contact them
+   *                     one after the other, in order (see {@link NomadMessageSender#DEFAULT_CONCURRENCY})
+   * @param phaseTimeout the maximum time to wait for all the servers to respond during each phase
+   */
+  public NomadClient(List<NomadEndpoint<T>> servers, String host, String user, Clock clock, int concurrency, Duration phaseTimeout) {
     this.clock = clock;
+    this.concurrency = concurrency;
+    this.phaseTimeout = phaseTimeout;
     if (servers.isEmpty()) {
       throw new IllegalArgumentException("There must be at least one server");
     }
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("Invalid concurrency: " + concurrency);
+    }
 
     this.servers = servers;
     this.host = host;
@@ -50,17 +70,17 @@ public class NomadClient<T> implements AutoCloseable {
   }
 
   public void tryApplyChange(ChangeResultReceiver<T> results, NomadChange change) {
-    ChangeProcess<T> changeProcess = new ChangeProcess<>(servers, host, user, clock);
+    ChangeProcess<T> changeProcess = new ChangeProcess<>(servers, host, user, clock, concurrency, phaseTimeout);
     changeProcess.applyChange(results, change);
   }
 
   public void tryRecovery(RecoveryResultReceiver<T> results, int expectedNodeCount, ChangeRequestState forcedState) {
-    RecoveryProcess<T> recoveryProcess = new RecoveryProcess<>(servers, host, user, clock);
+    RecoveryProcess<T> recoveryProcess = new RecoveryProcess<>(servers, host, user, clock, concurrency, phaseTimeout);
     recoveryProcess.recover(results, expectedNodeCount, forcedState);
   }
 
   public void tryDiscovery(DiscoverResultsReceiver<T> results) {
-    DiscoveryProcess<T> discoveryProcess = new DiscoveryProcess<>(servers, host, user, clock);
+    DiscoveryProcess<T> discoveryProcess = new DiscoveryProcess<>(servers, host, user, clock, concurrency, phaseTimeout);
     discoveryProcess.discover(results);
   }
 
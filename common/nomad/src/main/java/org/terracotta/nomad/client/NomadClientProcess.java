@@ -21,6 +21,7 @@ import org.terracotta.nomad.client.results.DiscoverResultsReceiver;
 import org.terracotta.nomad.client.results.MuxAllResultsReceiver;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -29,32 +30,44 @@ public abstract class NomadClientProcess<C, R> {
   protected final String host;
   protected final String user;
   protected final Clock clock;
+  protected final int concurrency;
+  protected final Duration phaseTimeout;
 
   public NomadClientProcess(List<NomadEndpoint<R>> servers, String host, String user, Clock clock) {
+    this(servers, host, user, clock, NomadMessageSender.DEFAULT_CONCURRENCY, NomadMessageSender.UNBOUNDED);
+  }
+
+  public NomadClientProcess(List<NomadEndpoint<R>> servers, String host, String user, Clock clock, int concurrency, Duration phaseTimeout) {
     this.servers = servers;
     this.host = host;
     this.user = user;
     this.clock = clock;
+    this.concurrency = concurrency;
+    this.phaseTimeout = phaseTimeout;
   }
 
   protected abstract boolean act(AllResultsReceiver<R> results, NomadDecider<R> decider, NomadMessageSender<R> messageSender, C data);
 
   @SuppressWarnings("unchecked")
   protected void runProcess(AllResultsReceiver<R> results, NomadDecider<R> decider, NomadMessageSender<R> messageSender, C data) {
-    ClusterConsistencyChecker<R> consistencyChecker = new ClusterConsistencyChecker<>();
-    results = wrap(Arrays.asList(results, decider, messageSender, consistencyChecker));
-
-    if (!doubleDiscovery(results, decider, messageSender, consistencyChecker)) {
-      results.done(decider.getConsistency());
-      return;
+    try {
+      ClusterConsistencyChecker<R> consistencyChecker = new ClusterConsistencyChecker<>();
+      results = wrap(Arrays.asList(results, decider, messageSender, consistencyChecker));
+
+      if (!doubleDiscovery(results, decider, messageSender, consistencyChecker)) {
+        results.done(decider.getConsistency());
+        return;
+      }
+
+      if (!act(results, decider, messageSender, data)) {
+        results.done(decider.getConsistency());
+        return;
+      }
+
+      commitOrRollback(results, decider, messageSender);
+    } finally {
+      messageSender.close();
     }
-
-    if (!act(results, decider, messageSender, data)) {
-      results.done(decider.getConsistency());
-      return;
-    }
-
-    commitOrRollback(results, decider, messageSender);
   }
 
   private AllResultsReceiver<R> wrap(List<AllResultsReceiver<R>> resultsReceivers) {
@@ -16,6 +16,7 @@
 package org.terracotta.nomad.client;
 
 import org.terracotta.nomad.messages.AcceptRejectResponse;
+import org.terracotta.nomad.messages.ChangeHistoryResponse;
 import org.terracotta.nomad.messages.CommitMessage;
 import org.terracotta.nomad.messages.DiscoverResponse;
 import org.terracotta.nomad.messages.PrepareMessage;
@@ -66,6 +67,11 @@ public class NomadEndpoint<T> implements NomadServer<T> {
     return server.takeover(message);
   }
 
+  @Override
+  public ChangeHistoryResponse getChangeHistory(long fromVersion, int maxCount) throws NomadException {
+    return server.getChangeHistory(fromVersion, maxCount);
+  }
+
   @Override
   public void close() {server.close();}
 
@@ -32,22 +32,46 @@ import org.terracotta.nomad.server.NomadException;
 
 import java.net.InetSocketAddress;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.stream.Collectors.toList;
 
-public class NomadMessageSender<T> implements AllResultsReceiver<T> {
+public class NomadMessageSender<T> implements AllResultsReceiver<T>, AutoCloseable {
+
+  /**
+   * Phase timeout meaning that the endpoint responses are awaited for as long as needed
+   */
+  public static final Duration UNBOUNDED = ChronoUnit.FOREVER.getDuration();
+
+  /**
+   * By default, the endpoints are contacted one after the other, in order: callers like the config tool repair order
+   * them so that the passives are reached before the actives, and rely on this ordering. Callers where the order does
+   * not matter pass a higher concurrency.
+   */
+  public static final int DEFAULT_CONCURRENCY = 1;
 
   private final List<NomadEndpoint<T>> servers;
   private final Clock clock;
+  private final int concurrency;
+  private final Duration phaseTimeout;
   private final String host;
   private final String user;
   private final Map<InetSocketAddress, Long> mutativeMessageCounts = new ConcurrentHashMap<>();
@@ -56,22 +80,44 @@ public class NomadMessageSender<T> implements AllResultsReceiver<T> {
   private final List<NomadEndpoint<T>> preparedServers = new CopyOnWriteArrayList<>();
   protected volatile UUID changeUuid;
 
+  // created by the first concurrent phase and reused by the next ones until this sender is closed
+  private ExecutorService executor;
+
   public NomadMessageSender(List<NomadEndpoint<T>> servers, String host, String user, Clock clock) {
+    this(servers, host, user, clock, DEFAULT_CONCURRENCY, UNBOUNDED);
+  }
+
+  /**
+   * @param concurrency  the maximum number of endpoints contacted concurrently during a phase.
+   *                     1 means that the endpoints are contacted one after the other, in order. Higher values must
+   *                     only be used when the order in which the endpoints receive the messages does not matter.
+   * @param phaseTimeout the maximum time to wait for all the endpoints to respond during each phase of the protocol.
+   *                     Endpoints that did not respond in time are reported as failed. Only applies to concurrent
+   *                     phases (concurrency above 1).
+   */
+  public NomadMessageSender(List<NomadEndpoint<T>> servers, String host, String user, Clock clock, int concurrency, Duration phaseTimeout) {
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("Invalid concurrency: " + concurrency);
+    }
     this.host = host;
     this.user = user;
     this.servers = servers;
     this.clock = clock;
+    this.concurrency = concurrency;
+    this.phaseTimeout = requireNonNull(phaseTimeout);
   }
 
   public void sendDiscovers(DiscoverResultsReceiver<T> results) {
     results.startDiscovery(servers.stream().map(NomadEndpoint::getAddress).collect(toList()));
+    List<EndpointCall<?>> calls = new ArrayList<>();
     for (NomadEndpoint<T> server : servers) {
-      runSync(
+      calls.add(call(
           server::discover,
           discovery -> results.discovered(server.getAddress(), discovery),
           unwrap(e -> results.discoverFail(server.getAddress(), e))
-      );
+      ));
     }
+    runAll(calls);
 
     results.endDiscovery();
   }
@@ -79,9 +125,10 @@ public class NomadMessageSender<T> implements AllResultsReceiver<T> {
   public void sendSecondDiscovers(DiscoverResultsReceiver<T> results) {
     results.startSecondDiscovery();
 
+    List<EndpointCall<?>> calls = new ArrayList<>();
     for (NomadEndpoint<T> server : servers) {
       long mutativeMessageCount = mutativeMessageCounts.get(server.getAddress());
-      runSync(
+      calls.add(call(
           server::discover,
           discovery -> {
             long secondMutativeMessageCount = discovery.getMutativeMessageCount();
@@ -94,8 +141,9 @@ public class NomadMessageSender<T> implements AllResultsReceiver<T> {
             }
           },
           unwrap(e -> results.discoverFail(server.getAddress(), e))
-      );
+      ));
     }
+    runAll(calls);
 
     // The endSecondDiscovery() call is made outside this method
   }
@@ -106,9 +154,10 @@ public class NomadMessageSender<T> implements AllResultsReceiver<T> {
     long newVersionNumber = maxVersionNumber.get() + 1;
     Instant now = clock.instant();
 
+    List<EndpointCall<?>> calls = new ArrayList<>();
     for (NomadEndpoint<T> server : servers) {
       long mutativeMessageCount = mutativeMessageCounts.get(server.getAddress());
-      runSync(
+      calls.add(call(
           () -> server.prepare(
               new PrepareMessage(
                   mutativeMessageCount,
@@ -144,8 +193,9 @@ public class NomadMessageSender<T> implements AllResultsReceiver<T> {
             }
           },
           unwrap(e -> results.prepareFail(server.getAddress(), e))
-      );
+      ));
     }
+    runAll(calls);
 
     results.endPrepare();
   }
@@ -155,9 +205,10 @@ public class NomadMessageSender<T> implements AllResultsReceiver<T> {
 
     Instant now = clock.instant();
 
+    List<EndpointCall<?>> calls = new ArrayList<>();
     for (NomadEndpoint<T> server : preparedServers) {
       long mutativeMessageCount = mutativeMessageCounts.get(server.getAddress());
-      runSync(
+      calls.add(call(
           () -> {
             return server.commit(
                 new CommitMessage(
@@ -190,8 +241,9 @@ public class NomadMessageSender<T> implements AllResultsReceiver<T> {
             }
           },
           unwrap(e -> results.commitFail(server.getAddress(), e))
-      );
+      ));
     }
+    runAll(calls);
 
     results.endCommit();
   }
@@ -201,9 +253,10 @@ public class NomadMessageSender<T> implements AllResultsReceiver<T> {
 
     Instant now = clock.instant();
 
+    List<EndpointCall<?>> calls = new ArrayList<>();
     for (NomadEndpoint<T> server : preparedServers) {
       long mutativeMessageCount = mutativeMessageCounts.get(server.getAddress());
-      runSync(
+      calls.add(call(
           () -> server.rollback(
               new RollbackMessage(
                   mutativeMessageCount + 1,
@@ -234,8 +287,9 @@ public class NomadMessageSender<T> implements AllResultsReceiver<T> {
             }
           },
           unwrap(e -> results.rollbackFail(server.getAddress(), e))
-      );
+      ));
     }
+    runAll(calls);
 
     results.endRollback();
   }
@@ -245,9 +299,10 @@ public class NomadMessageSender<T> implements AllResultsReceiver<T> {
 
     Instant now = clock.instant();
 
+    List<EndpointCall<?>> calls = new ArrayList<>();
     for (NomadEndpoint<T> server : servers) {
       long mutativeMessageCount = mutativeMessageCounts.get(server.getAddress());
-      runSync(
+      calls.add(call(
           () -> server.takeover(
               new TakeoverMessage(
                   mutativeMessageCount,
@@ -277,8 +332,9 @@ public class NomadMessageSender<T> implements AllResultsReceiver<T> {
             }
           },
           unwrap(e -> results.takeoverFail(server.getAddress(), e))
-      );
+      ));
     }
+    runAll(calls);
 
     results.endTakeover();
   }
@@ -297,19 +353,109 @@ public class NomadMessageSender<T> implements AllResultsReceiver<T> {
     preparedServers.add(servers.stream().filter(s -> s.getAddress().equals(address)).findAny().get());
   }
 
-  private <T> void runSync(Callable<T> callable, Consumer<T> onSuccess, Consumer<Throwable> onError) {
-    try {
-      T result = callable.call();
-      if (result == null) {
-        throw new AssertionError("Response expected. Bug or wrong mocking ?");
-      }
-      onSuccess.accept(result);
-    } catch (Exception e) {
-      onError.accept(e);
+  private static <R> EndpointCall<R> call(Callable<R> callable, Consumer<R> onSuccess, Consumer<Throwable> onError) {
+    return new EndpointCall<>(callable, onSuccess, onError);
+  }
+
+  /**
+   * Sends the calls of a phase to the endpoints one after the other or, when the concurrency allows it, concurrently
+   * and then waits for all the responses within the phase timeout.
+   * <p>
+   * The callbacks are always called from the calling thread and in the order of the endpoints, so that result
+   * receivers stay single-threaded and see the same sequence of events as if the endpoints were called one by one.
+   */
+  private void runAll(List<EndpointCall<?>> calls) {
+    if (calls.size() <= 1 || concurrency == 1) {
+      calls.forEach(EndpointCall::runSync);
+      return;
+    }
+
+    ExecutorService executor = getExecutor();
+    calls.forEach(call -> call.submit(executor));
+    long deadline = phaseTimeout.equals(UNBOUNDED) ? Long.MAX_VALUE : System.nanoTime() + phaseTimeout.toNanos();
+    for (EndpointCall<?> call : calls) {
+      call.complete(deadline, phaseTimeout);
+    }
+  }
+
+  private ExecutorService getExecutor() {
+    if (executor == null) {
+      executor = Executors.newFixedThreadPool(Math.min(servers.size(), concurrency), r -> {
+        Thread thread = new Thread(r, getClass().getName());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return executor;
+  }
+
+  /**
+   * Stops the threads used to contact the endpoints concurrently. Calls that did not complete within their phase
+   * timeout are interrupted.
+   */
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
     }
   }
 
   private static Consumer<Throwable> unwrap(Consumer<Throwable> c) {
     return t -> c.accept(t instanceof NomadException && t.getCause() != null && t.getCause() != t ? t.getCause() : t);
   }
+
+  private static class EndpointCall<R> {
+    private final Callable<R> callable;
+    private final Consumer<R> onSuccess;
+    private final Consumer<Throwable> onError;
+    private Future<R> future;
+
+    EndpointCall(Callable<R> callable, Consumer<R> onSuccess, Consumer<Throwable> onError) {
+      this.callable = callable;
+      this.onSuccess = onSuccess;
+      this.onError = onError;
+    }
+
+    void runSync() {
+      try {
+        onResult(callable.call());
+      } catch (Exception e) {
+        onError.accept(e);
+      }
+    }
+
+    void submit(ExecutorService executor) {
+      future = executor.submit(callable);
+    }
+
+    void complete(long deadline, Duration phaseTimeout) {
+      try {
+        onResult(deadline == Long.MAX_VALUE ? future.get() : future.get(Math.max(0, deadline - System.nanoTime()), NANOSECONDS));
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        onError.accept(cause);
+      } catch (TimeoutException e) {
+        future.cancel(true);
+        onError.accept(new TimeoutException("No response received within " + phaseTimeout));
+      } catch (InterruptedException e) {
+        future.cancel(true);
+        Thread.currentThread().interrupt();
+        onError.accept(e);
+      } catch (RuntimeException e) {
+        // like for a call made synchronously, a failure to process the response is reported as a failure of the endpoint
+        onError.accept(e);
+      }
+    }
+
+    private void onResult(R result) {
+      if (result == null) {
+        throw new AssertionError("Response expected. Bug or wrong mocking ?");
+      }
+      onSuccess.accept(result);
+    }
+  }
 }
@@ -20,6 +20,7 @@ import org.terracotta.nomad.client.NomadMessageSender;
 
 import java.net.InetSocketAddress;
 import java.time.Clock;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,6 +29,10 @@ public class ChangeMessageSender<T> extends NomadMessageSender<T> {
     super(servers, host, user, clock);
   }
 
+  public ChangeMessageSender(List<NomadEndpoint<T>> servers, String host, String user, Clock clock, int concurrency, Duration phaseTimeout) {
+    super(servers, host, user, clock, concurrency, phaseTimeout);
+  }
+
   @Override
   public void startPrepare(UUID newChangeUuid) {
     super.startPrepare(newChangeUuid);
@@ -23,6 +23,7 @@ import org.terracotta.nomad.client.results.AllResultsReceiver;
 import org.terracotta.nomad.server.ChangeRequestState;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.util.List;
 
 public class RecoveryProcess<T> extends NomadClientProcess<Void, T> {
@@ -30,11 +31,15 @@ public class RecoveryProcess<T> extends NomadClientProcess<Void, T> {
     super(servers, host, user, clock);
   }
 
+  public RecoveryProcess(List<NomadEndpoint<T>> servers, String host, String user, Clock clock, int concurrency, Duration phaseTimeout) {
+    super(servers, host, user, clock, concurrency, phaseTimeout);
+  }
+
   public void recover(RecoveryResultReceiver<T> results, int expectedNodeCount, ChangeRequestState forcedState) {
     runProcess(
         new RecoveryAllResultsReceiverAdapter<>(results),
         new RecoveryProcessDecider<>(expectedNodeCount, forcedState),
-        new RecoveryMessageSender<>(servers, host, user, clock),
+        new RecoveryMessageSender<>(servers, host, user, clock, concurrency, phaseTimeout),
         null
     );
   }
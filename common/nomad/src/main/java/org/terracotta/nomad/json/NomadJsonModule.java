@@ -17,6 +17,7 @@ package org.terracotta.nomad.json;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
@@ -27,6 +28,7 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.terracotta.nomad.client.change.NomadChange;
 import org.terracotta.nomad.messages.AcceptRejectResponse;
 import org.terracotta.nomad.messages.ChangeDetails;
+import org.terracotta.nomad.messages.ChangeHistoryResponse;
 import org.terracotta.nomad.messages.CommitMessage;
 import org.terracotta.nomad.messages.DiscoverResponse;
 import org.terracotta.nomad.messages.MutativeMessage;
@@ -59,6 +61,7 @@ public class NomadJsonModule extends SimpleModule {
     setMixInAnnotation(MutativeMessage.class, MutativeMessageMixin.class);
     setMixInAnnotation(AcceptRejectResponse.class, AcceptRejectResponseMixin.class);
     setMixInAnnotation(ChangeDetails.class, ChangeDetailsMixin.class);
+    setMixInAnnotation(ChangeHistoryResponse.class, ChangeHistoryResponseMixin.class);
     setMixInAnnotation(CommitMessage.class, CommitMessageMixin.class);
     setMixInAnnotation(DiscoverResponse.class, DiscoverResponseMixin.class);
     setMixInAnnotation(PrepareMessage.class, PrepareMessageMixin.class);
@@ -145,6 +148,7 @@ public class NomadJsonModule extends SimpleModule {
     }
   }
 
+  @JsonIgnoreProperties(ignoreUnknown = true)
   public static class DiscoverResponseMixin<T> extends DiscoverResponse<T> {
     @JsonCreator
     public DiscoverResponseMixin(@JsonProperty(value = "mode", required = true) NomadServerMode mode,
@@ -158,6 +162,26 @@ public class NomadJsonModule extends SimpleModule {
                                  @JsonProperty(value = "checkpoints") List<NomadChangeInfo> checkpoints) {
       super(mode, mutativeMessageCount, lastMutationHost, lastMutationUser, lastMutationTimestamp, currentVersion, highestVersion, latestChange, checkpoints);
     }
+
+    @Override
+    @JsonIgnore
+    public NomadChangeInfo getLatestCheckpoint() {
+      return super.getLatestCheckpoint();
+    }
+  }
+
+  public static class ChangeHistoryResponseMixin extends ChangeHistoryResponse {
+    @JsonCreator
+    public ChangeHistoryResponseMixin(@JsonProperty(value = "changes", required = true) List<NomadChangeInfo> changes,
+                                      @JsonProperty(value = "hasMore", required = true) boolean hasMore) {
+      super(changes, hasMore);
+    }
+
+    @JsonProperty("hasMore")
+    @Override
+    public boolean hasMore() {
+      return super.hasMore();
+    }
   }
 
   public static class PrepareMessageMixin extends PrepareMessage {
@@ -0,0 +1,51 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.nomad.messages;
+
+import org.terracotta.nomad.server.NomadChangeInfo;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A page of the change history of a Nomad server, oldest first
+ */
+public class ChangeHistoryResponse {
+  private final List<NomadChangeInfo> changes;
+  private final boolean hasMore;
+
+  public ChangeHistoryResponse(List<NomadChangeInfo> changes, boolean hasMore) {
+    this.changes = requireNonNull(changes);
+    this.hasMore = hasMore;
+  }
+
+  public List<NomadChangeInfo> getChanges() {
+    return changes;
+  }
+
+  /**
+   * @return true if the server has some more changes after the last one of this page
+   */
+  public boolean hasMore() {
+    return hasMore;
+  }
+
+  @Override
+  public String toString() {
+    return "ChangeHistoryResponse{changes=" + changes.size() + ", hasMore=" + hasMore + '}';
+  }
+}
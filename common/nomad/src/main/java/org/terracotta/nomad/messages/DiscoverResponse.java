@@ -19,8 +19,12 @@ import org.terracotta.nomad.server.NomadChangeInfo;
 import org.terracotta.nomad.server.NomadServerMode;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Comparator.comparingLong;
 import static java.util.Objects.requireNonNull;
 
 public class DiscoverResponse<T> {
@@ -33,6 +37,7 @@ public class DiscoverResponse<T> {
   private final long highestVersion;
   private final ChangeDetails<T> latestChange;
   private final List<NomadChangeInfo> checkpoints;
+  private final NomadChangeInfo latestCheckpoint;
 
   public DiscoverResponse(NomadServerMode mode,
                           long mutativeMessageCount,
@@ -51,13 +56,26 @@ public class DiscoverResponse<T> {
     this.currentVersion = currentVersion;
     this.highestVersion = highestVersion;
     this.latestChange = latestChange;
-    this.checkpoints = checkpoints;
+    this.checkpoints = checkpoints == null ? emptyList() : unmodifiableList(new ArrayList<>(checkpoints));
+    this.latestCheckpoint = this.checkpoints.stream().max(comparingLong(NomadChangeInfo::getVersion)).orElse(null);
   }
 
   public NomadServerMode getMode() {
     return mode;
   }
 
+  /**
+   * @return the latest committed change of the server, or null if there is none
+   */
+  public NomadChangeInfo getLatestCheckpoint() {
+    return latestCheckpoint;
+  }
+
+  /**
+   * @return the latest committed changes of the server, oldest first: all of them for older servers, a bounded number
+   * of the latest ones for newer servers. The whole history can then be fetched with
+   * {@link org.terracotta.nomad.server.NomadServer#getChangeHistory(long, int)}.
+   */
   public List<NomadChangeInfo> getCheckpoints() {
     return checkpoints;
   }
@@ -0,0 +1,111 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.nomad.server;
+
+import org.terracotta.nomad.messages.ChangeHistoryResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.terracotta.nomad.server.ChangeRequestState.COMMITTED;
+
+/**
+ * In-memory index of the change history of a {@link NomadServerImpl}, so that discover and history queries do not
+ * have to walk and reload the whole chain of changes from the server state each time.
+ * <p>
+ * The index is kept in the same order as the chain of changes (oldest first).
+ */
+class NomadChangeIndex {
+  private final List<NomadChangeInfo> changes = new ArrayList<>();
+  private final Map<UUID, Integer> positionByUuid = new HashMap<>();
+  private final NavigableMap<Long, NomadChangeInfo> byVersion = new TreeMap<>();
+  private final List<NomadChangeInfo> committed = new ArrayList<>();
+
+  synchronized void add(NomadChangeInfo change) {
+    positionByUuid.put(change.getChangeUuid(), changes.size());
+    changes.add(change);
+    byVersion.put(change.getVersion(), change);
+    if (change.getChangeRequestState() == COMMITTED) {
+      committed.add(change);
+    }
+  }
+
+  synchronized void updateState(UUID changeUuid, ChangeRequestState newState) {
+    Integer position = positionByUuid.get(changeUuid);
+    if (position == null) {
+      return;
+    }
+    NomadChangeInfo previous = changes.get(position);
+    NomadChangeInfo updated = new NomadChangeInfo(
+        previous.getChangeUuid(),
+        previous.getNomadChange(),
+        newState,
+        previous.getVersion(),
+        previous.getCreationHost(),
+        previous.getCreationUser(),
+        previous.getCreationTimestamp());
+    changes.set(position, updated);
+    byVersion.put(updated.getVersion(), updated);
+    if (previous.getChangeRequestState() == COMMITTED) {
+      committed.remove(previous);
+    }
+    // only the latest change can be committed, so the committed list stays ordered
+    if (newState == COMMITTED) {
+      committed.add(updated);
+    }
+  }
+
+  synchronized Optional<NomadChangeInfo> get(UUID changeUuid) {
+    return Optional.ofNullable(positionByUuid.get(changeUuid)).map(changes::get);
+  }
+
+  synchronized Optional<NomadChangeInfo> getByVersion(long version) {
+    return Optional.ofNullable(byVersion.get(version));
+  }
+
+  synchronized List<NomadChangeInfo> getAll() {
+    return new ArrayList<>(changes);
+  }
+
+  /**
+   * @return the latest {@code maxCount} committed changes, oldest first
+   */
+  synchronized List<NomadChangeInfo> getLatestCommitted(int maxCount) {
+    return new ArrayList<>(committed.subList(Math.max(0, committed.size() - maxCount), committed.size()));
+  }
+
+  /**
+   * @return a page of at most {@code maxCount} changes which version is greater than or equal to the given version, oldest first
+   */
+  synchronized ChangeHistoryResponse getHistory(long fromVersion, int maxCount) {
+    List<NomadChangeInfo> page = new ArrayList<>(Math.min(maxCount, changes.size()));
+    boolean hasMore = false;
+    for (NomadChangeInfo change : byVersion.tailMap(fromVersion, true).values()) {
+      if (page.size() == maxCount) {
+        hasMore = true;
+        break;
+      }
+      page.add(change);
+    }
+    return new ChangeHistoryResponse(page, hasMore);
+  }
+}
@@ -16,6 +16,7 @@
 package org.terracotta.nomad.server;
 
 import org.terracotta.nomad.messages.AcceptRejectResponse;
+import org.terracotta.nomad.messages.ChangeHistoryResponse;
 import org.terracotta.nomad.messages.CommitMessage;
 import org.terracotta.nomad.messages.DiscoverResponse;
 import org.terracotta.nomad.messages.PrepareMessage;
@@ -33,6 +34,15 @@ public interface NomadServer<T> extends AutoCloseable {
 
   AcceptRejectResponse takeover(TakeoverMessage message) throws NomadException;
 
+  /**
+   * Fetches a page of the change history of this server, which is not part of the discover response.
+   *
+   * @param fromVersion the version of the first change to return (inclusive)
+   * @param maxCount    the maximum number of changes to return
+   * @return at most {@code maxCount} changes which version is greater than or equal to {@code fromVersion}, oldest first
+   */
+  ChangeHistoryResponse getChangeHistory(long fromVersion, int maxCount) throws NomadException;
+
   @Override
   void close();
 }
@@ -18,6 +18,7 @@ package org.terracotta.nomad.server;
 import org.terracotta.nomad.client.change.NomadChange;
 import org.terracotta.nomad.messages.AcceptRejectResponse;
 import org.terracotta.nomad.messages.ChangeDetails;
+import org.terracotta.nomad.messages.ChangeHistoryResponse;
 import org.terracotta.nomad.messages.CommitMessage;
 import org.terracotta.nomad.messages.DiscoverResponse;
 import org.terracotta.nomad.messages.MutativeMessage;
@@ -29,12 +30,12 @@ import org.terracotta.nomad.server.state.NomadServerState;
 import org.terracotta.nomad.server.state.NomadStateChange;
 
 import java.time.Instant;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.BiFunction;
-import java.util.stream.Collectors;
 
 import static org.terracotta.nomad.messages.AcceptRejectResponse.accept;
 import static org.terracotta.nomad.messages.RejectionReason.BAD;
@@ -45,8 +46,16 @@ import static org.terracotta.nomad.server.ChangeRequestState.PREPARED;
 import static org.terracotta.nomad.server.ChangeRequestState.ROLLED_BACK;
 
 public class NomadServerImpl<T> implements UpgradableNomadServer<T> {
+  /**
+   * Number of latest checkpoints sent in a discover response. Older clients look for a common checkpoint in these
+   * lists only, newer ones fetch the change history when they do not share one.
+   */
+  static final int DISCOVERED_CHECKPOINTS = 64;
+
   private final NomadServerState<T> state;
   private ChangeApplicator<T> changeApplicator;
+  // lazily loaded from the state, then maintained on each prepare, commit and rollback
+  private volatile NomadChangeIndex changeIndex;
 
   public NomadServerImpl(NomadServerState<T> state, ChangeApplicator<T> changeApplicator) throws NomadException {
     this.state = state;
@@ -60,6 +69,7 @@ public class NomadServerImpl<T> implements UpgradableNomadServer<T> {
 
   @Override
   public void reset() throws NomadException {
+    changeIndex = null;
     state.reset();
     init();
   }
@@ -143,58 +153,17 @@ public class NomadServerImpl<T> implements UpgradableNomadServer<T> {
 
   @Override
   public Optional<NomadChangeInfo> getNomadChangeInfo(UUID uuid) throws NomadException {
-    return Optional.ofNullable(state.getChangeRequest(uuid))
-        .map(changeRequest -> new NomadChangeInfo(
-            uuid,
-            changeRequest.getChange(),
-            changeRequest.getState(),
-            changeRequest.getVersion(),
-            changeRequest.getCreationHost(),
-            changeRequest.getCreationUser(),
-            changeRequest.getCreationTimestamp()
-        ));
+    return getChangeIndex().get(uuid);
   }
 
   @Override
   public List<NomadChangeInfo> getAllNomadChanges() throws NomadException {
-    LinkedList<NomadChangeInfo> allNomadChanges = new LinkedList<>();
-    UUID changeUuid = state.getLatestChangeUuid();
-    while (changeUuid != null) {
-      ChangeRequest<T> changeRequest = state.getChangeRequest(changeUuid);
-      allNomadChanges.addFirst(
-          new NomadChangeInfo(
-              changeUuid,
-              changeRequest.getChange(),
-              changeRequest.getState(),
-              changeRequest.getVersion(),
-              changeRequest.getCreationHost(),
-              changeRequest.getCreationUser(),
-              changeRequest.getCreationTimestamp()
-          )
-      );
-      if (changeRequest.getPrevChangeId() != null) {
-        changeUuid = UUID.fromString(changeRequest.getPrevChangeId());
-      } else {
-        changeUuid = null;
-      }
-    }
-    return allNomadChanges;
+    return getChangeIndex().getAll();
   }
 
   @Override
   public Optional<NomadChangeInfo> getNomadChange(UUID changeUuid) throws NomadException {
-    ChangeRequest<T> changeRequest = state.getChangeRequest(changeUuid);
-    if (changeRequest == null) {
-      return Optional.empty();
-    }
-    return Optional.of(new NomadChangeInfo(
-        changeUuid,
-        changeRequest.getChange(),
-        changeRequest.getState(),
-        changeRequest.getVersion(),
-        changeRequest.getCreationHost(),
-        changeRequest.getCreationUser(),
-        changeRequest.getCreationTimestamp()));
+    return getChangeIndex().get(changeUuid);
   }
 
   @Override
@@ -254,9 +223,7 @@ public class NomadServerImpl<T> implements UpgradableNomadServer<T> {
       );
     }
 
-    List<NomadChangeInfo> checkpoints = getAllNomadChanges().stream()
-        .filter(nomadChangeInfo -> nomadChangeInfo.getChangeRequestState() == COMMITTED)
-        .collect(Collectors.toList());
+    NomadChangeIndex changeIndex = getChangeIndex();
 
     return new DiscoverResponse<>(
         mode,
@@ -267,7 +234,7 @@ public class NomadServerImpl<T> implements UpgradableNomadServer<T> {
         currentVersion,
         highestVersion,
         latestChange,
-        checkpoints
+        changeIndex.getLatestCommitted(DISCOVERED_CHECKPOINTS)
     );
   }
 
@@ -329,6 +296,11 @@ public class NomadServerImpl<T> implements UpgradableNomadServer<T> {
         .createChange(changeUuid, changeRequest)
     );
 
+    NomadChangeIndex index = this.changeIndex;
+    if (index != null) {
+      index.add(new NomadChangeInfo(changeUuid, change, ChangeRequestState.PREPARED, versionNumber, mutationHost, mutationUser, mutationTimestamp));
+    }
+
     return result.isAllowed() ? accept() : reject(UNACCEPTABLE, result.getRejectionReason());
   }
 
@@ -371,6 +343,11 @@ public class NomadServerImpl<T> implements UpgradableNomadServer<T> {
         .updateChangeRequestState(changeUuid, COMMITTED)
     );
 
+    NomadChangeIndex index = this.changeIndex;
+    if (index != null) {
+      index.updateState(changeUuid, COMMITTED);
+    }
+
     return accept();
   }
 
@@ -397,6 +374,11 @@ public class NomadServerImpl<T> implements UpgradableNomadServer<T> {
         .updateChangeRequestState(changeUuid, ROLLED_BACK)
     );
 
+    NomadChangeIndex index = this.changeIndex;
+    if (index != null) {
+      index.updateState(changeUuid, ROLLED_BACK);
+    }
+
     return accept();
   }
 
@@ -419,6 +401,14 @@ public class NomadServerImpl<T> implements UpgradableNomadServer<T> {
     return accept();
   }
 
+  @Override
+  public ChangeHistoryResponse getChangeHistory(long fromVersion, int maxCount) throws NomadException {
+    if (maxCount < 1) {
+      throw new IllegalArgumentException("Invalid maxCount: " + maxCount);
+    }
+    return getChangeIndex().getHistory(fromVersion, maxCount);
+  }
+
   private void init() throws NomadException {
     if (!state.isInitialized()) {
       state.applyStateChange(state.newStateChange()
@@ -448,9 +438,51 @@ public class NomadServerImpl<T> implements UpgradableNomadServer<T> {
     return versionNumber <= highestVersionNumber;
   }
 
+  private NomadChangeIndex getChangeIndex() throws NomadException {
+    NomadChangeIndex index = this.changeIndex;
+    if (index == null) {
+      index = loadChangeIndex();
+      this.changeIndex = index;
+    }
+    return index;
+  }
+
+  private NomadChangeIndex loadChangeIndex() throws NomadException {
+    LinkedList<NomadChangeInfo> allNomadChanges = new LinkedList<>();
+    UUID changeUuid = state.getLatestChangeUuid();
+    while (changeUuid != null) {
+      ChangeRequest<T> changeRequest = state.getChangeRequest(changeUuid);
+      allNomadChanges.addFirst(
+          new NomadChangeInfo(
+              changeUuid,
+              changeRequest.getChange(),
+              changeRequest.getState(),
+              changeRequest.getVersion(),
+              changeRequest.getCreationHost(),
+              changeRequest.getCreationUser(),
+              changeRequest.getCreationTimestamp()
+          )
+      );
+      if (changeRequest.getPrevChangeId() != null) {
+        changeUuid = UUID.fromString(changeRequest.getPrevChangeId());
+      } else {
+        changeUuid = null;
+      }
+    }
+    NomadChangeIndex index = new NomadChangeIndex();
+    allNomadChanges.forEach(index::add);
+    return index;
+  }
+
   private void applyStateChange(NomadStateChange<T> stateChange) throws NomadException {
     long currentMutativeMessageCount = state.getMutativeMessageCount();
-    state.applyStateChange(stateChange);
+    try {
+      state.applyStateChange(stateChange);
+    } catch (NomadException | RuntimeException e) {
+      // we do not know what has been persisted: the index will be reloaded from the state
+      changeIndex = null;
+      throw e;
+    }
 
     long expectedNewMutativeMessageCount = currentMutativeMessageCount + 1;
     long newMutativeMessageCount = state.getMutativeMessageCount();
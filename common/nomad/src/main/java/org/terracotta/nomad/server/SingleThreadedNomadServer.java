@@ -17,6 +17,7 @@ package org.terracotta.nomad.server;
 
 import org.terracotta.nomad.client.change.NomadChange;
 import org.terracotta.nomad.messages.AcceptRejectResponse;
+import org.terracotta.nomad.messages.ChangeHistoryResponse;
 import org.terracotta.nomad.messages.CommitMessage;
 import org.terracotta.nomad.messages.DiscoverResponse;
 import org.terracotta.nomad.messages.PrepareMessage;
@@ -117,6 +118,16 @@ public class SingleThreadedNomadServer<T> implements UpgradableNomadServer<T> {
     }
   }
 
+  @Override
+  public ChangeHistoryResponse getChangeHistory(long fromVersion, int maxCount) throws NomadException {
+    lock.lock();
+    try {
+      return underlying.getChangeHistory(fromVersion, maxCount);
+    } finally {
+      lock.unlock();
+    }
+  }
+
   @Override
   public void setChangeApplicator(ChangeApplicator<T> changeApplicator) {
     lock.lock();
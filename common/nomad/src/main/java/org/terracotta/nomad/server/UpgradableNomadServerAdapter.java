@@ -17,6 +17,7 @@ package org.terracotta.nomad.server;
 
 import org.terracotta.nomad.client.change.NomadChange;
 import org.terracotta.nomad.messages.AcceptRejectResponse;
+import org.terracotta.nomad.messages.ChangeHistoryResponse;
 import org.terracotta.nomad.messages.CommitMessage;
 import org.terracotta.nomad.messages.DiscoverResponse;
 import org.terracotta.nomad.messages.PrepareMessage;
@@ -73,6 +74,9 @@ public class UpgradableNomadServerAdapter<T> implements UpgradableNomadServer<T>
   @Override
   public AcceptRejectResponse takeover(TakeoverMessage message) throws NomadException {return delegate.takeover(message);}
 
+  @Override
+  public ChangeHistoryResponse getChangeHistory(long fromVersion, int maxCount) throws NomadException {return delegate.getChangeHistory(fromVersion, maxCount);}
+
   @Override
   public boolean hasIncompleteChange() {
     return delegate.hasIncompleteChange();
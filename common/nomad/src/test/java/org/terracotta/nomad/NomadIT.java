@@ -26,6 +26,7 @@ import org.terracotta.nomad.client.NomadEndpoint;
 import org.terracotta.nomad.client.change.ChangeResultReceiver;
 import org.terracotta.nomad.client.recovery.RecoveryResultReceiver;
 import org.terracotta.nomad.messages.AcceptRejectResponse;
+import org.terracotta.nomad.messages.ChangeHistoryResponse;
 import org.terracotta.nomad.messages.CommitMessage;
 import org.terracotta.nomad.messages.DiscoverResponse;
 import org.terracotta.nomad.messages.PrepareMessage;
@@ -361,6 +362,11 @@ public class NomadIT {
       return underlying.takeover(message);
     }
 
+    @Override
+    public ChangeHistoryResponse getChangeHistory(long fromVersion, int maxCount) throws NomadException {
+      return underlying.getChangeHistory(fromVersion, maxCount);
+    }
+
     @Override
     public void close() {
       underlying.close();
@@ -16,13 +16,148 @@
 package org.terracotta.nomad.client;
 
 import org.junit.Test;
+import org.terracotta.nomad.client.results.DiscoverResultsReceiver;
+import org.terracotta.nomad.server.NomadServer;
 
+import java.net.InetSocketAddress;
 import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.terracotta.nomad.client.NomadTestHelper.discovery;
+import static org.terracotta.nomad.server.ChangeRequestState.COMMITTED;
 
 public class NomadClientTest {
   @Test(expected = IllegalArgumentException.class)
   public void mustSpecifyServers() {
     new NomadClient<>(Collections.emptyList(), "host", "user", Clock.systemUTC());
   }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void mustSpecifyValidConcurrency() {
+    NomadEndpoint<String> endpoint = new NomadEndpoint<>(InetSocketAddress.createUnresolved("localhost", 9410), mockServer());
+    new NomadClient<>(Collections.singletonList(endpoint), "host", "user", Clock.systemUTC(), 0, NomadMessageSender.UNBOUNDED);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void slowServersFailWhenPhaseTimeoutIsReached() throws Exception {
+    InetSocketAddress address1 = InetSocketAddress.createUnresolved("localhost", 9410);
+    InetSocketAddress address2 = InetSocketAddress.createUnresolved("localhost", 9411);
+    NomadServer<String> fastServer = mockServer();
+    NomadServer<String> slowServer = mockServer();
+    when(fastServer.discover()).thenReturn(discovery(COMMITTED));
+    when(slowServer.discover()).thenAnswer(invocation -> {
+      Thread.sleep(10_000);
+      return discovery(COMMITTED);
+    });
+    DiscoverResultsReceiver<String> results = mock(DiscoverResultsReceiver.class);
+
+    try (NomadClient<String> client = new NomadClient<>(Arrays.asList(new NomadEndpoint<>(address1, fastServer), new NomadEndpoint<>(address2, slowServer)), "host", "user", Clock.systemUTC(), 2, Duration.ofMillis(200))) {
+      client.tryDiscovery(results);
+    }
+
+    verify(results).discovered(eq(address1), any());
+    verify(results).discoverFail(eq(address2), any(TimeoutException.class));
+  }
+
+  @Test
+  public void serversAreContactedInOrderByDefault() throws Exception {
+    InetSocketAddress address1 = InetSocketAddress.createUnresolved("localhost", 9410);
+    InetSocketAddress address2 = InetSocketAddress.createUnresolved("localhost", 9411);
+    List<String> calls = new CopyOnWriteArrayList<>();
+    NomadServer<String> server1 = mockServer();
+    NomadServer<String> server2 = mockServer();
+    when(server1.discover()).thenAnswer(invocation -> {
+      calls.add("server1@" + Thread.currentThread().getName());
+      return discovery(COMMITTED);
+    });
+    when(server2.discover()).thenAnswer(invocation -> {
+      calls.add("server2@" + Thread.currentThread().getName());
+      return discovery(COMMITTED);
+    });
+    @SuppressWarnings("unchecked")
+    DiscoverResultsReceiver<String> results = mock(DiscoverResultsReceiver.class);
+
+    try (NomadClient<String> client = new NomadClient<>(Arrays.asList(new NomadEndpoint<>(address1, server1), new NomadEndpoint<>(address2, server2)), "host", "user", Clock.systemUTC())) {
+      client.tryDiscovery(results);
+    }
+
+    String thread = Thread.currentThread().getName();
+    assertEquals(Arrays.asList("server1@" + thread, "server2@" + thread, "server1@" + thread, "server2@" + thread), calls);
+  }
+
+  @Test
+  public void concurrentPhasesShareTheSameThreads() throws Exception {
+    InetSocketAddress address1 = InetSocketAddress.createUnresolved("localhost", 9410);
+    InetSocketAddress address2 = InetSocketAddress.createUnresolved("localhost", 9411);
+    Set<Thread> threads = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+    NomadServer<String> server1 = mockServer();
+    NomadServer<String> server2 = mockServer();
+    when(server1.discover()).thenAnswer(invocation -> {
+      threads.add(Thread.currentThread());
+      return discovery(COMMITTED);
+    });
+    when(server2.discover()).thenAnswer(invocation -> {
+      threads.add(Thread.currentThread());
+      return discovery(COMMITTED);
+    });
+    @SuppressWarnings("unchecked")
+    DiscoverResultsReceiver<String> results = mock(DiscoverResultsReceiver.class);
+
+    try (NomadClient<String> client = new NomadClient<>(Arrays.asList(new NomadEndpoint<>(address1, server1), new NomadEndpoint<>(address2, server2)), "host", "user", Clock.systemUTC(), 2, NomadMessageSender.UNBOUNDED)) {
+      client.tryDiscovery(results);
+    }
+
+    // both discover phases ran on the same pool of 2 threads, which is stopped at the end of the process
+    assertFalse(threads.contains(Thread.currentThread()));
+    assertTrue(threads.size() <= 2);
+    for (Thread thread : threads) {
+      thread.join(5_000);
+      assertFalse(thread.isAlive());
+    }
+  }
+
+  @Test
+  public void failureToProcessResponseIsReportedAsServerFailure() throws Exception {
+    for (int concurrency : new int[]{1, 2}) {
+      InetSocketAddress address1 = InetSocketAddress.createUnresolved("localhost", 9410);
+      InetSocketAddress address2 = InetSocketAddress.createUnresolved("localhost", 9411);
+      NomadServer<String> server1 = mockServer();
+      NomadServer<String> server2 = mockServer();
+      when(server1.discover()).thenReturn(discovery(COMMITTED));
+      when(server2.discover()).thenReturn(discovery(COMMITTED));
+      @SuppressWarnings("unchecked")
+      DiscoverResultsReceiver<String> results = mock(DiscoverResultsReceiver.class);
+      IllegalStateException failure = new IllegalStateException("Unable to process the response");
+      doThrow(failure).when(results).discovered(eq(address1), any());
+
+      try (NomadClient<String> client = new NomadClient<>(Arrays.asList(new NomadEndpoint<>(address1, server1), new NomadEndpoint<>(address2, server2)), "host", "user", Clock.systemUTC(), concurrency, NomadMessageSender.UNBOUNDED)) {
+        client.tryDiscovery(results);
+      }
+
+      verify(results).discoverFail(address1, failure);
+      verify(results).discovered(eq(address2), any());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static NomadServer<String> mockServer() {
+    return mock(NomadServer.class);
+  }
 }
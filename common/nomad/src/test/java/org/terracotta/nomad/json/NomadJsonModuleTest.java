@@ -0,0 +1,132 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.nomad.json;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.nomad.client.change.NomadChange;
+import org.terracotta.nomad.messages.DiscoverResponse;
+import org.terracotta.nomad.server.NomadChangeInfo;
+import org.terracotta.nomad.server.NomadServerMode;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.terracotta.nomad.server.ChangeRequestState.COMMITTED;
+
+public class NomadJsonModuleTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper()
+      .registerModule(new NomadJsonModule())
+      .registerModules(new NomadJsonModule().getDependencies());
+  private final NomadChangeInfo first = change(1);
+  private final NomadChangeInfo second = change(2);
+
+  @Before
+  public void setUp() {
+    objectMapper.registerSubtypes(new NamedType(TestChange.class, "TestChange"));
+  }
+
+  @Test
+  public void discoverResponseRoundTrip() throws Exception {
+    DiscoverResponse<String> response = discoverResponse(second);
+
+    DiscoverResponse<?> read = objectMapper.readValue(objectMapper.writeValueAsString(response), DiscoverResponse.class);
+
+    assertEquals(second, read.getLatestCheckpoint());
+    assertEquals(response.getMutativeMessageCount(), read.getMutativeMessageCount());
+    assertEquals(response.getHighestVersion(), read.getHighestVersion());
+    assertNull(objectMapper.readValue(objectMapper.writeValueAsString(discoverResponse()), DiscoverResponse.class).getLatestCheckpoint());
+  }
+
+  @Test
+  public void discoverResponseIsWrittenInTheOldShape() throws Exception {
+    JsonNode json = objectMapper.valueToTree(discoverResponse(second));
+
+    assertFalse(json.has("latestCheckpoint"));
+    assertEquals(1, json.get("checkpoints").size());
+    assertEquals(objectMapper.valueToTree(second), json.get("checkpoints").get(0));
+  }
+
+  @Test
+  public void discoverResponseIsReadFromTheOldShape() throws Exception {
+    // older servers send all their committed changes
+    ObjectNode json = objectMapper.valueToTree(discoverResponse());
+    json.putArray("checkpoints")
+        .add(objectMapper.<JsonNode>valueToTree(first))
+        .add(objectMapper.<JsonNode>valueToTree(second));
+
+    assertEquals(second, objectMapper.treeToValue(json, DiscoverResponse.class).getLatestCheckpoint());
+
+    json.remove("checkpoints");
+    assertNull(objectMapper.treeToValue(json, DiscoverResponse.class).getLatestCheckpoint());
+  }
+
+  @Test
+  public void unknownDiscoverResponsePropertiesAreIgnored() throws Exception {
+    ObjectNode json = objectMapper.valueToTree(discoverResponse(second));
+    json.put("checkpointsHash", "abcd");
+
+    assertEquals(second, objectMapper.treeToValue(json, DiscoverResponse.class).getLatestCheckpoint());
+  }
+
+  private static DiscoverResponse<String> discoverResponse(NomadChangeInfo... checkpoints) {
+    return new DiscoverResponse<>(NomadServerMode.ACCEPTING, 3, "host", "user", Instant.ofEpochMilli(1000), 2, 2, null, asList(checkpoints));
+  }
+
+  private static NomadChangeInfo change(long version) {
+    return new NomadChangeInfo(UUID.randomUUID(), new TestChange("change" + version), COMMITTED, version, "host", "user", Instant.ofEpochMilli(version * 1000));
+  }
+
+  public static class TestChange implements NomadChange {
+    private final String change;
+
+    @JsonCreator
+    public TestChange(@JsonProperty(value = "change", required = true) String change) {
+      this.change = change;
+    }
+
+    public String getChange() {
+      return change;
+    }
+
+    @Override
+    public String getSummary() {
+      return "summary of " + change;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof TestChange && Objects.equals(change, ((TestChange) o).change);
+    }
+
+    @Override
+    public int hashCode() {
+      return change.hashCode();
+    }
+  }
+}
@@ -24,6 +24,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.terracotta.nomad.SimpleNomadChange;
 import org.terracotta.nomad.messages.AcceptRejectResponse;
 import org.terracotta.nomad.messages.ChangeDetails;
+import org.terracotta.nomad.messages.ChangeHistoryResponse;
 import org.terracotta.nomad.messages.CommitMessage;
 import org.terracotta.nomad.messages.DiscoverResponse;
 import org.terracotta.nomad.messages.PrepareMessage;
@@ -34,9 +35,11 @@ import org.terracotta.nomad.server.state.MemoryNomadServerState;
 import org.terracotta.nomad.server.state.NomadServerState;
 
 import java.time.Clock;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -788,6 +791,95 @@ public class NomadServerTest {
     assertEquals(getAllChanges.get(1).getNomadChange(), new SimpleNomadChange("change1", "summary1"));
   }
 
+  @Test
+  public void changeHistoryIsMaintainedAndReloaded() throws Exception {
+    when(changeApplicator.tryApply(null, new SimpleNomadChange("change", "summary"))).thenReturn(PotentialApplicationResult.allow("change-applied"));
+
+    // loads the (empty) history before any change is made
+    assertTrue(server.getAllNomadChanges().isEmpty());
+
+    DiscoverResponse<String> discoverResponse = server.discover();
+    UUID uuid = UUID.randomUUID();
+
+    server.prepare(new PrepareMessage(
+        discoverResponse.getMutativeMessageCount(),
+        "testhost",
+        "testuser",
+        Clock.systemDefaultZone().instant(),
+        uuid,
+        discoverResponse.getHighestVersion() + 1,
+        new SimpleNomadChange("change", "summary")
+    ));
+
+    assertEquals(ChangeRequestState.PREPARED, server.getNomadChange(uuid).get().getChangeRequestState());
+    assertNull(server.discover().getLatestCheckpoint());
+
+    server.commit(new CommitMessage(
+        discoverResponse.getMutativeMessageCount() + 1,
+        "testhost",
+        "testuser",
+        Clock.systemDefaultZone().instant(),
+        uuid
+    ));
+
+    verify(changeApplicator).tryApply(null, new SimpleNomadChange("change", "summary"));
+    verify(changeApplicator).apply(new SimpleNomadChange("change", "summary"));
+
+    assertEquals(ChangeRequestState.COMMITTED, server.getNomadChange(uuid).get().getChangeRequestState());
+    assertEquals(uuid, server.discover().getLatestCheckpoint().getChangeUuid());
+
+    // a new server on the same state sees the same history
+    NomadServerImpl<String> reloaded = new NomadServerImpl<>(state, changeApplicator);
+    assertEquals(server.getAllNomadChanges(), reloaded.getAllNomadChanges());
+    assertEquals(server.discover().getLatestCheckpoint(), reloaded.discover().getLatestCheckpoint());
+  }
+
+  @Test
+  public void changeHistoryIsPaged() throws Exception {
+    when(changeApplicator.tryApply(null, new SimpleNomadChange("change", "summary"))).thenReturn(PotentialApplicationResult.allow("change-applied"));
+    when(changeApplicator.tryApply("change-applied", new SimpleNomadChange("change1", "summary1"))).thenReturn(PotentialApplicationResult.allow("change-applied"));
+
+    UUID firstChangeUuid = UUID.randomUUID();
+    UUID nextChangeUuid = UUID.randomUUID();
+    prepareAndCommit(firstChangeUuid, new SimpleNomadChange("change", "summary"));
+    prepareAndCommit(nextChangeUuid, new SimpleNomadChange("change1", "summary1"));
+    assertEquals(nextChangeUuid, server.discover().getLatestCheckpoint().getChangeUuid());
+    // the discover response still lists the latest checkpoints for the older clients
+    assertEquals(Arrays.asList(firstChangeUuid, nextChangeUuid), server.discover().getCheckpoints().stream().map(NomadChangeInfo::getChangeUuid).collect(toList()));
+
+    ChangeHistoryResponse page = server.getChangeHistory(1, 1);
+    assertEquals(1, page.getChanges().size());
+    assertEquals(firstChangeUuid, page.getChanges().get(0).getChangeUuid());
+    assertTrue(page.hasMore());
+
+    page = server.getChangeHistory(page.getChanges().get(0).getVersion() + 1, 10);
+    assertEquals(1, page.getChanges().size());
+    assertEquals(nextChangeUuid, page.getChanges().get(0).getChangeUuid());
+    assertFalse(page.hasMore());
+
+    assertEquals(server.getAllNomadChanges(), server.getChangeHistory(0, 10).getChanges());
+  }
+
+  private void prepareAndCommit(UUID uuid, SimpleNomadChange change) throws NomadException {
+    DiscoverResponse<String> discoverResponse = server.discover();
+    assertTrue(server.prepare(new PrepareMessage(
+        discoverResponse.getMutativeMessageCount(),
+        "testhost",
+        "testuser",
+        Clock.systemDefaultZone().instant(),
+        uuid,
+        discoverResponse.getHighestVersion() + 1,
+        change
+    )).isAccepted());
+    assertTrue(server.commit(new CommitMessage(
+        discoverResponse.getMutativeMessageCount() + 1,
+        "testhost",
+        "testuser",
+        Clock.systemDefaultZone().instant(),
+        uuid
+    )).isAccepted());
+  }
+
   private void assertState(
       NomadServerMode mode,
       long mutativeMessageCount,
@@ -21,7 +21,6 @@ import org.slf4j.LoggerFactory;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
 
 public class HashUtils {
   private static final Logger LOGGER = LoggerFactory.getLogger(HashUtils.class);
@@ -37,6 +36,8 @@ public class HashUtils {
       0xba, 0x69, 0x49, 0x45, 0xd8, 0x1b, 0x49, 0xc9
   );
 
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
   private static byte[] toBytes(int... ints) {
     byte[] bytes = new byte[ints.length];
 
@@ -48,7 +49,11 @@ public class HashUtils {
   }
 
   public static String generateHash(String... inputs) {
-    return generateHash(String.join("", inputs));
+    MessageDigest digester = newDigester();
+    for (String input : inputs) {
+      update(digester, input);
+    }
+    return finish(digester);
   }
 
   public static String generateHash(String input) {
@@ -58,27 +63,44 @@ public class HashUtils {
   }
 
   public static String generateHash(byte[] input) {
-    return toHexText(Arrays.copyOf(digest(input), 20));
+    MessageDigest digester = newDigester();
+    digester.update(input);
+    return finish(digester);
   }
 
-  private static byte[] digest(byte[] input) {
+  /**
+   * Creates a digester that can be fed incrementally and then completed with {@link #finish(MessageDigest)}.
+   * Since {@link #finish(MessageDigest)} resets the digester, the same instance can be reused for consecutive hashes.
+   */
+  public static MessageDigest newDigester() {
     try {
-      MessageDigest digester = MessageDigest.getInstance("SHA-512");
-      digester.update(input);
-      digester.update(PRIVATE_BYTES);
-      return digester.digest();
+      return MessageDigest.getInstance("SHA-512");
     } catch (NoSuchAlgorithmException e) {
       throw new AssertionError("Missing hash algorithm: SHA-512");
     }
   }
 
-  private static String toHexText(byte[] input) {
-    StringBuilder sb = new StringBuilder(input.length * 2);
+  public static void update(MessageDigest digester, String input) {
+    digester.update(input.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Completes the hash computation of everything fed to the digester so far, and resets it.
+   * The result is identical to calling {@link #generateHash(byte[])} with the concatenation of all the fed bytes.
+   */
+  public static String finish(MessageDigest digester) {
+    digester.update(PRIVATE_BYTES);
+    return toHexText(digester.digest(), 20);
+  }
+
+  private static String toHexText(byte[] input, int length) {
+    char[] chars = new char[length * 2];
 
-    for (byte b : input) {
-      sb.append(String.format("%02x", b));
+    for (int i = 0; i < length; i++) {
+      chars[2 * i] = HEX_DIGITS[(input[i] >> 4) & 0xf];
+      chars[2 * i + 1] = HEX_DIGITS[input[i] & 0xf];
     }
 
-    return sb.toString();
+    return new String(chars);
   }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.persistence.sanskrit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NumericNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A read-only view over a JSON tree that is never mutated once published.
+ * <p>
+ * Views can be handed out to any number of readers without copying: a change to the owning {@link SanskritImpl}
+ * creates a new root (see {@link #mutableCopy()}) that shares all the unchanged sub-trees with the previous one,
+ * so readers keep seeing a consistent version.
+ */
+class ImmutableSanskritObject implements SanskritObject {
+  private final ObjectNode mappings;
+  private final ObjectMapperSupplier objectMapperSupplier;
+
+  ImmutableSanskritObject(ObjectMapperSupplier objectMapperSupplier, ObjectNode node) {
+    this.objectMapperSupplier = objectMapperSupplier;
+    this.mappings = node;
+  }
+
+  /**
+   * @return a mutable object sharing all the current mappings with this one. Only the root is copied: replacing or
+   * removing a mapping in the copy does not affect this object.
+   */
+  SanskritObjectImpl mutableCopy() {
+    ObjectNode copy = mappings.objectNode();
+    copy.setAll(mappings);
+    return new SanskritObjectImpl(objectMapperSupplier, copy);
+  }
+
+  @Override
+  public void accept(SanskritVisitor visitor) {
+    Iterator<Map.Entry<String, JsonNode>> fields = mappings.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> entry = fields.next();
+      String key = entry.getKey();
+      JsonNode value = entry.getValue();
+      if (value.isTextual()) {
+        visitor.setString(key, value.textValue());
+      } else if (value.isLong()) {
+        visitor.setLong(key, value.longValue());
+      } else if (value.isObject()) {
+        visitor.setObject(key, new ImmutableSanskritObject(objectMapperSupplier, (ObjectNode) value));
+      } else {
+        // the node is shared: visitors must not be able to modify it
+        visitor.setExternal(key, value.deepCopy(), null);
+      }
+    }
+  }
+
+  @Override
+  public <T> T getObject(String key, Class<T> type, String version) {
+    JsonNode jsonNode = mappings.get(key);
+    if (jsonNode == null) {
+      return null;
+    }
+    if (type.isInstance(jsonNode)) {
+      // the node is shared: callers must not be able to modify it
+      return type.cast(jsonNode.deepCopy());
+    }
+    try {
+      return type.cast(objectMapperSupplier.getObjectMapper(version).treeToValue(jsonNode, type));
+    } catch (JsonProcessingException e) {
+      // should never happen because the json in the append log
+      // has already been serialized by sanskrit and cannot be updated by a user
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public String getString(String key) {
+    return Optional.ofNullable(mappings.get(key))
+        .map(TextNode.class::cast)
+        .map(TextNode::textValue)
+        .orElse(null);
+  }
+
+  @Override
+  public Long getLong(String key) {
+    return Optional.ofNullable(mappings.get(key))
+        .map(NumericNode.class::cast)
+        .map(NumericNode::longValue)
+        .orElse(null);
+  }
+
+  @Override
+  public SanskritObject getObject(String key) {
+    return Optional.ofNullable(mappings.get(key))
+        .map(ObjectNode.class::cast)
+        .map(node -> new ImmutableSanskritObject(objectMapperSupplier, node))
+        .orElse(null);
+  }
+}
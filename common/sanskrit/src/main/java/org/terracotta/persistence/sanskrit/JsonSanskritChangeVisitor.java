@@ -46,6 +46,14 @@ public class JsonSanskritChangeVisitor implements SanskritChangeVisitor {
     }
   }
 
+  public byte[] getJsonBytes(String version) throws SanskritException {
+    try {
+      return objectMapperSupplier.getObjectMapper(version).writeValueAsBytes(objectNode);
+    } catch (JsonProcessingException e) {
+      throw new SanskritException(e);
+    }
+  }
+
   @Override
   public void setString(String key, String value) {
     objectNode.put(key, value);
@@ -22,10 +22,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
 import java.nio.charset.CharsetDecoder;
-import java.nio.charset.CoderResult;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Spliterator;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
@@ -64,85 +63,46 @@ public class MarkableLineParser {
 
   private class LineParsingSpliterator implements Spliterator<String> {
     private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private byte[] lineBytes = new byte[256];
 
     @Override
     public boolean tryAdvance(Consumer<? super String> action) {
       try {
-        StringBuilder sb = new StringBuilder();
+        int length = 0;
 
         while (true) {
-          Character nextCharacter = readNextCharacter();
+          int b = input.read();
+          position++;
 
-          if (nextCharacter == null) {
+          if (b == -1) {
             return false;
           }
 
-          sb.append(nextCharacter);
-
-          if (endsWithLineSeparator(sb, LS)) {
-            String line = withoutLineSeparator(sb);
+          // LS cannot be part of a multi-byte UTF-8 sequence, so lines can be split before decoding
+          if (b == '\n') {
+            String line = decodeLine(length);
             if (LOGGER.isTraceEnabled()) {
               LOGGER.trace("parsed: {}", line.replace("\r", "\\r").replace("\n", "\\n"));
             }
             action.accept(line);
             return true;
           }
+
+          if (length == lineBytes.length) {
+            lineBytes = Arrays.copyOf(lineBytes, length * 2);
+          }
+          lineBytes[length++] = (byte) b;
         }
       } catch (IOException e) {
         throw new UncheckedIOException(e);
       }
     }
 
-    private Character readNextCharacter() throws IOException {
-      ByteBuffer nextBytes = ByteBuffer.allocate(3); // 3 = maxBytesPerChar for UTF-8
-
-      while (true) {
-        int b = input.read();
-        position++;
-
-        if (b == -1) {
-          return null;
-        }
-
-        nextBytes.put((byte) b);
-        nextBytes.flip();
-
-        CharBuffer nextCharacter = CharBuffer.allocate(1);
-        CoderResult decodeResult = decoder.decode(nextBytes, nextCharacter, false);
-        if (decodeResult.isError()) {
-          decodeResult.throwException();
-        }
-        if (nextCharacter.position() == 0) {
-          nextBytes.compact();
-          continue;
-        }
-        if (decodeResult.isOverflow()) {
-          throw new AssertionError("Cannot decode more than one character at a time");
-        }
-
-        return nextCharacter.get(0);
-      }
-    }
-
-    private boolean endsWithLineSeparator(StringBuilder sb, String eol) {
-      if (sb.length() < eol.length()) {
-        return false;
-      }
-
-      char[] lastChars = new char[eol.length()];
-      sb.getChars(sb.length() - eol.length(), sb.length(), lastChars, 0);
-
-      String suffix = new String(lastChars);
-
-      return eol.equals(suffix);
-    }
-
-    private String withoutLineSeparator(StringBuilder sb) {
-      sb.delete(sb.length() - LS.length(), sb.length());
-      if (endsWithLineSeparator(sb, CR)) {
-        sb.delete(sb.length() - CR.length(), sb.length());
+    private String decodeLine(int length) throws IOException {
+      if (length > 0 && lineBytes[length - 1] == '\r') {
+        length--;
       }
-      return sb.toString();
+      return decoder.decode(ByteBuffer.wrap(lineBytes, 0, length)).toString();
     }
 
     @Override
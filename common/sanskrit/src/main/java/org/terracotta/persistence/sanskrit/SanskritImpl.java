@@ -25,6 +25,7 @@ import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Deque;
@@ -48,11 +49,15 @@ public class SanskritImpl implements Sanskrit {
   private static final String HASH_0_FILE = "hash0";
   private static final String HASH_1_FILE = "hash1";
   private static final String FORMAT_VERSION = "format version: ";
+  private static final byte[] LS_BYTES = LS.getBytes(StandardCharsets.UTF_8);
 
   private final FilesystemDirectory filesystemDirectory;
   private final ObjectMapperSupplier objectMapperSupplier;
+  // reused for every hash of the chain: appends and replay are never concurrent
+  private final MessageDigest digester = HashUtils.newDigester();
 
-  private volatile MutableSanskritObject data;
+  // copy-on-write: the published version is never modified, so readers can share it without copying
+  private volatile ImmutableSanskritObject data;
   private volatile String lastHash;
   private volatile String nextHashFile;
 
@@ -65,7 +70,7 @@ public class SanskritImpl implements Sanskrit {
   private void init() throws SanskritException {
     lastHash = null;
     nextHashFile = null;
-    this.data = newMutableSanskritObject();
+    this.data = new SanskritObjectImpl(objectMapperSupplier).freeze();
 
     try {
       List<String> filesToDelete = new ArrayList<>();
@@ -73,7 +78,7 @@ public class SanskritImpl implements Sanskrit {
       String hash1 = getHashFromFile(HASH_1_FILE, filesToDelete);
       HashChecker hashChecker = new HashChecker(hash0, hash1);
 
-      MutableSanskritObject result = newMutableSanskritObject();
+      SanskritObjectImpl result = new SanskritObjectImpl(objectMapperSupplier);
 
       try (FileData appendLog = filesystemDirectory.getFileData(APPEND_LOG_FILE)) {
         if (appendLog != null) {
@@ -106,18 +111,18 @@ public class SanskritImpl implements Sanskrit {
                   version = "";
                 }
                 String hash = record.removeLast();
-                String json = String.join(LS, record);
 
-                LOGGER.trace("init(): record {}: timestamp={}, version={}, hash={}, json={}", idx, timestamp, version, hash, json);
+                LOGGER.trace("init(): record {}: timestamp={}, version={}, hash={}, json={}", idx, timestamp, version, hash, record);
 
-                hash = checkHash(timestamp, json, hash);
-                String hashedHash = HashUtils.generateHash(hash);
+                hash = checkHash(timestamp, record, hash);
+                String hashedHash = hashOf(hash);
                 boolean acceptRecord = hashChecker.check(hashedHash);
 
                 LOGGER.trace("init(): record {}: hash={}, hashedHash={}, acceptRecord={}", idx, hash, hashedHash, acceptRecord);
 
                 if (acceptRecord) {
                   parser.mark();
+                  String json = String.join(LS, record);
                   JsonUtils.parse(objectMapperSupplier, version, json, result);
                   onNewRecord(timestamp, json);
                   lastHash = hash;
@@ -161,7 +166,7 @@ public class SanskritImpl implements Sanskrit {
 
       nextHashFile = hashChecker.nextHashFile();
 
-      this.data = result;
+      this.data = result.freeze();
     } catch (IOException e) {
       throw new SanskritException(e);
     }
@@ -211,32 +216,56 @@ public class SanskritImpl implements Sanskrit {
     return hash;
   }
 
-  String checkHash(String timestamp, String json, String hash) throws SanskritException {
-    String expectedHash = calculateHash(timestamp, json);
+  String checkHash(String timestamp, Iterable<String> jsonLines, String hash) throws SanskritException {
+    String expectedHash = calculateHash(timestamp, jsonLines);
     if (!hash.equals(expectedHash)) {
       throw new SanskritException("Hash mismatch. Got: " + hash + ". Computed: " + expectedHash);
     }
     return hash;
   }
 
-  String calculateHash(String timestamp, String json) {
-    LOGGER.trace("calculateHash({}, {})", timestamp, json);
-    if (lastHash == null) {
-      return HashUtils.generateHash(
-          timestamp,
-          LS,
-          json
-      );
-    } else {
-      return HashUtils.generateHash(
-          lastHash,
-          LS,
-          LS,
-          timestamp,
-          LS,
-          json
-      );
+  /**
+   * Computes the hash of a replayed record, feeding the digester line by line so that the JSON lines never need to
+   * be joined together.
+   */
+  String calculateHash(String timestamp, Iterable<String> jsonLines) {
+    LOGGER.trace("calculateHash({}, {})", timestamp, jsonLines);
+    startHash(timestamp);
+    boolean first = true;
+    for (String line : jsonLines) {
+      if (!first) {
+        digester.update(LS_BYTES);
+      }
+      HashUtils.update(digester, line);
+      first = false;
+    }
+    return HashUtils.finish(digester);
+  }
+
+  String calculateHash(String timestamp, byte[] json) {
+    LOGGER.trace("calculateHash({}, {} bytes)", timestamp, json.length);
+    startHash(timestamp);
+    digester.update(json);
+    return HashUtils.finish(digester);
+  }
+
+  /**
+   * Feeds the digester with what precedes the JSON in the hashed content of a record:
+   * {@code [lastHash LS LS] timestamp LS}
+   */
+  private void startHash(String timestamp) {
+    if (lastHash != null) {
+      HashUtils.update(digester, lastHash);
+      digester.update(LS_BYTES);
+      digester.update(LS_BYTES);
     }
+    HashUtils.update(digester, timestamp);
+    digester.update(LS_BYTES);
+  }
+
+  private String hashOf(String hash) {
+    HashUtils.update(digester, hash);
+    return HashUtils.finish(digester);
   }
 
   private Stream<Deque<String>> groupByEmptyLines(Stream<String> lines) {
@@ -259,13 +288,15 @@ public class SanskritImpl implements Sanskrit {
 
   @Override
   public SanskritObject getObject(String key) {
-    return CopyUtils.makeCopy(objectMapperSupplier, data.getObject(key));
+    return data.getObject(key);
   }
 
   @Override
   public void applyChange(SanskritChange change) throws SanskritException {
-    change.accept(data);
+    SanskritObjectImpl next = data.mutableCopy();
+    change.accept(next);
     appendChange(change);
+    data = next.freeze();
   }
 
   @Override
@@ -286,35 +317,44 @@ public class SanskritImpl implements Sanskrit {
   }
 
   private void appendChange(SanskritChange change) throws SanskritException {
-    String json = changeAsJson(change);
-    LOGGER.trace("appendChange(): {}", json);
+    byte[] json = changeAsJson(change);
+    if (LOGGER.isTraceEnabled()) {
+      LOGGER.trace("appendChange(): {}", new String(json, StandardCharsets.UTF_8));
+    }
     appendChange(json);
   }
 
-  private String changeAsJson(SanskritChange change) throws SanskritException {
+  private byte[] changeAsJson(SanskritChange change) throws SanskritException {
     JsonSanskritChangeVisitor visitor = new JsonSanskritChangeVisitor(objectMapperSupplier);
     change.accept(visitor);
-    return visitor.getJson(null);// latest current serializer will be used
+    return visitor.getJsonBytes(null);// latest current serializer will be used
   }
 
-  private void appendChange(String json) throws SanskritException {
+  private void appendChange(byte[] json) throws SanskritException {
     String timestamp = getTimestamp();
     appendRecord(timestamp, json);
   }
 
-  void appendRecord(String timestamp, String json) throws SanskritException {
-    LOGGER.trace("appendRecord({}, {})", timestamp, json);
+  void appendRecord(String timestamp, byte[] json) throws SanskritException {
+    LOGGER.trace("appendRecord({}, {} bytes)", timestamp, json.length);
     String hash = calculateHash(timestamp, json);
-    appendEntry((FORMAT_VERSION + objectMapperSupplier.getCurrentVersion()) + LS + timestamp + LS + json + LS + hash + LS + LS, hash);
+    byte[] header = (FORMAT_VERSION + objectMapperSupplier.getCurrentVersion() + LS + timestamp + LS).getBytes(StandardCharsets.UTF_8);
+    byte[] footer = (LS + hash + LS + LS).getBytes(StandardCharsets.UTF_8);
+    ByteBuffer logEntry = ByteBuffer.allocate(header.length + json.length + footer.length)
+        .put(header)
+        .put(json)
+        .put(footer);
+    logEntry.flip();
+    appendEntry(logEntry, hash);
   }
 
   private String getTimestamp() {
     return Instant.now().toString();
   }
 
-  private void appendEntry(String logEntry, String entryHash) throws SanskritException {
-    LOGGER.trace("appendEntry({}, {})", logEntry, entryHash);
-    String finalHash = HashUtils.generateHash(entryHash);
+  private void appendEntry(ByteBuffer logEntry, String entryHash) throws SanskritException {
+    LOGGER.trace("appendEntry({} bytes, {})", logEntry.remaining(), entryHash);
+    String finalHash = hashOf(entryHash);
     LOGGER.trace("appendEntry({}): finalHash: {}", entryHash, finalHash);
 
     try (
@@ -322,7 +362,7 @@ public class SanskritImpl implements Sanskrit {
         FileData hashFile = createNewHashFile()
     ) {
       write(appendLog, logEntry);
-      write(hashFile, finalHash);
+      write(hashFile, StandardCharsets.UTF_8.encode(finalHash));
 
       nextHashFile = flipHashFile();
       filesystemDirectory.delete(nextHashFile);
@@ -359,10 +399,8 @@ public class SanskritImpl implements Sanskrit {
     }
   }
 
-  private void write(FileData fileData, String text) throws SanskritException {
+  private void write(FileData fileData, ByteBuffer bytes) throws SanskritException {
     try {
-      ByteBuffer bytes = StandardCharsets.UTF_8.encode(text);
-
       while (bytes.hasRemaining()) {
         fileData.write(bytes);
       }
@@ -38,6 +38,13 @@ public class SanskritObjectImpl implements MutableSanskritObject {
     this.mappings = node;
   }
 
+  /**
+   * Publishes the current mappings as an immutable view. This object must not be modified afterwards.
+   */
+  ImmutableSanskritObject freeze() {
+    return new ImmutableSanskritObject(objectMapperSupplier, mappings);
+  }
+
   @Override
   public void setString(String key, String value) {
     mappings.put(key, value);
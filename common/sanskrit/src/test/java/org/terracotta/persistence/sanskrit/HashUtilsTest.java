@@ -17,6 +17,8 @@ package org.terracotta.persistence.sanskrit;
 
 import org.junit.Test;
 
+import java.security.MessageDigest;
+
 import static org.junit.Assert.assertEquals;
 
 public class HashUtilsTest {
@@ -35,4 +37,16 @@ public class HashUtilsTest {
   public void multiByteCharacter() {
     assertEquals("f72730c87ac92d97c723605ac7bc33fe16e92255", HashUtils.generateHash("Ɵ"));
   }
+
+  @Test
+  public void incrementalDigesterIsReusable() {
+    MessageDigest digester = HashUtils.newDigester();
+    HashUtils.update(digester, "a");
+    HashUtils.update(digester, "b");
+    HashUtils.update(digester, "c");
+    assertEquals("e65287c61b6fa7e061f62f9fe1979a1dde62e447", HashUtils.finish(digester));
+    HashUtils.update(digester, "Ɵ");
+    assertEquals("f72730c87ac92d97c723605ac7bc33fe16e92255", HashUtils.finish(digester));
+    assertEquals("990e2617bc776c82671a73a8ca1890e2ff25dc48", HashUtils.finish(digester));
+  }
 }
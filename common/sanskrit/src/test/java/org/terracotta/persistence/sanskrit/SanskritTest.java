@@ -15,6 +15,8 @@
  */
 package org.terracotta.persistence.sanskrit;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.Before;
 import org.junit.Test;
 import org.terracotta.json.ObjectMapperFactory;
@@ -28,6 +30,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 import static org.terracotta.persistence.sanskrit.MarkableLineParser.LS;
@@ -424,19 +427,35 @@ public class SanskritTest {
 
       sanskrit.setObject("key", object);
 
-      SanskritObjectImpl recoveredObject1 = (SanskritObjectImpl) sanskrit.getObject("key");
-      recoveredObject1.setString("A", "C");
-      SanskritObjectImpl recoveredSubObject1 = (SanskritObjectImpl) recoveredObject1.getObject("D");
-      recoveredSubObject1.setString("F", "H");
+      SanskritObject recoveredObject1 = sanskrit.getObject("key");
+      assertFalse(recoveredObject1 instanceof MutableSanskritObject);
+      assertFalse(recoveredObject1.getObject("D") instanceof MutableSanskritObject);
+      ((ObjectNode) recoveredObject1.getObject("D", JsonNode.class, null)).put("F", "H");
 
-      SanskritObjectImpl recoveredObject2 = (SanskritObjectImpl) sanskrit.getObject("key");
+      SanskritObject recoveredObject2 = sanskrit.getObject("key");
       assertEquals("B", recoveredObject2.getString("A"));
-      SanskritObjectImpl recoveredSubObject2 = (SanskritObjectImpl) recoveredObject2.getObject("D");
-      assertEquals("G", recoveredSubObject2.getString("F"));
+      assertEquals("G", recoveredObject2.getObject("D").getString("F"));
 
       assertNull(sanskrit.getObject("unknown"));
       assertNull(recoveredObject1.getObject("unknown"));
-      assertNull(recoveredSubObject1.getObject("unknown"));
+      assertNull(recoveredObject1.getObject("D").getObject("unknown"));
+    }
+  }
+
+  @Test
+  public void readersKeepTheirVersion() throws Exception {
+    try (Sanskrit sanskrit = Sanskrit.init(filesystemDirectory, objectMapperSupplier)) {
+      SanskritObjectImpl object = new SanskritObjectImpl(objectMapperSupplier);
+      object.setString("A", "B");
+      sanskrit.setObject("key", object);
+
+      SanskritObject before = sanskrit.getObject("key");
+
+      object.setString("A", "C");
+      sanskrit.setObject("key", object);
+
+      assertEquals("B", before.getString("A"));
+      assertEquals("C", sanskrit.getObject("key").getString("A"));
     }
   }
 
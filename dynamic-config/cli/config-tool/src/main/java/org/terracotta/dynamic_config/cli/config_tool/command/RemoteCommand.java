@@ -216,7 +216,7 @@ public abstract class RemoteCommand extends Command {
    */
   protected final ConsistencyAnalyzer<NodeContext> analyzeNomadConsistency(Map<Endpoint, LogicalServerState> allNodes) {
     logger.trace("analyzeNomadConsistency({})", allNodes);
-    ConsistencyAnalyzer<NodeContext> consistencyAnalyzer = new ConsistencyAnalyzer<>(allNodes);
+    ConsistencyAnalyzer<NodeContext> consistencyAnalyzer = new ConsistencyAnalyzer<>(allNodes, nomadManager::getChangeHistory);
     nomadManager.runConfigurationDiscovery(allNodes, consistencyAnalyzer);
     return consistencyAnalyzer;
   }
@@ -15,24 +15,31 @@
  */
 package org.terracotta.dynamic_config.cli.config_tool.nomad;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.terracotta.diagnostic.model.LogicalServerState;
 import org.terracotta.dynamic_config.api.model.Node.Endpoint;
 import org.terracotta.dynamic_config.api.model.UID;
 import org.terracotta.nomad.client.results.DiscoverResultsReceiver;
 import org.terracotta.nomad.messages.ChangeDetails;
+import org.terracotta.nomad.messages.ChangeHistoryResponse;
 import org.terracotta.nomad.messages.DiscoverResponse;
 import org.terracotta.nomad.server.ChangeRequestState;
 import org.terracotta.nomad.server.NomadChangeInfo;
 import org.terracotta.nomad.server.NomadServerMode;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Collector;
 
@@ -85,8 +92,24 @@ public class ConsistencyAnalyzer<T> implements DiscoverResultsReceiver<T> {
     MAYBE_UNKNOWN
   }
 
+  /**
+   * Fetches a page of the change history of a node, which is not part of the discover responses
+   */
+  @FunctionalInterface
+  public interface ChangeHistoryFetcher {
+    /**
+     * @throws UnsupportedOperationException if the node runs an older version which cannot return its change history
+     */
+    ChangeHistoryResponse fetch(Endpoint node, long fromVersion, int maxCount);
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConsistencyAnalyzer.class);
+  private static final int HISTORY_PAGE_SIZE = 64;
+
   private final Map<Endpoint, DiscoverResponse<T>> responses;
   private final Map<Endpoint, LogicalServerState> allNodes;
+  private final ChangeHistoryFetcher historyFetcher;
+  private final Set<Endpoint> historyUnsupported = ConcurrentHashMap.newKeySet();
 
   private volatile Throwable discoverFailure;
   private volatile boolean discoveredInconsistentCluster;
@@ -103,14 +126,26 @@ public class ConsistencyAnalyzer<T> implements DiscoverResultsReceiver<T> {
   private volatile String otherClientHost;
   private volatile String otherClientUser;
 
+  // computed on first use, from the discover responses and the change histories
+  private volatile Optional<NomadChangeInfo> checkpoint;
+
   public ConsistencyAnalyzer(Map<Endpoint, LogicalServerState> allNodes) {
+    this(allNodes, null);
+  }
+
+  /**
+   * @param historyFetcher used to find the latest common checkpoint when the nodes do not have the same latest checkpoint
+   */
+  public ConsistencyAnalyzer(Map<Endpoint, LogicalServerState> allNodes, ChangeHistoryFetcher historyFetcher) {
     this.allNodes = allNodes;
     this.responses = new LinkedHashMap<>(allNodes.size());
+    this.historyFetcher = historyFetcher;
   }
 
   @Override
   public void discovered(InetSocketAddress nodeAddress, DiscoverResponse<T> discovery) {
     responses.put(findEndpoint(nodeAddress), discovery);
+    checkpoint = null;
   }
 
   @Override
@@ -198,11 +233,61 @@ public class ConsistencyAnalyzer<T> implements DiscoverResultsReceiver<T> {
     return getNodeCount() > responses.size();
   }
 
+  /**
+   * Finds the latest committed change that all the online configured nodes have in common.
+   * <p>
+   * The discover responses contain the latest checkpoints of each node (all of them for older servers): the change
+   * histories are only fetched when these lists have no checkpoint in common, and only from the most recent version
+   * backwards until a common checkpoint is found. The result is kept until a node is discovered again.
+   */
   public Optional<NomadChangeInfo> getCheckpoint() {
+    Optional<NomadChangeInfo> checkpoint = this.checkpoint;
+    if (checkpoint == null) {
+      this.checkpoint = checkpoint = findCheckpoint();
+    }
+    return checkpoint;
+  }
+
+  private Optional<NomadChangeInfo> findCheckpoint() {
     int configuredNodeCount = getOnlineConfiguredNodes();
-    return responses.values()
+    Map<Endpoint, List<NomadChangeInfo>> discoveredCheckpoints = responses.entrySet()
         .stream()
-        .flatMap(response -> response.getCheckpoints().stream())
+        .filter(e -> !e.getValue().getCheckpoints().isEmpty())
+        .collect(toMap(Map.Entry::getKey, e -> e.getValue().getCheckpoints()));
+    if (discoveredCheckpoints.isEmpty() || discoveredCheckpoints.size() != configuredNodeCount) {
+      // some configured nodes do not have any checkpoint
+      return Optional.empty();
+    }
+    Optional<NomadChangeInfo> common = findCommonCheckpoint(discoveredCheckpoints.values(), configuredNodeCount);
+    if (common.isPresent() || historyFetcher == null) {
+      return common;
+    }
+    // the histories have diverged: a common checkpoint can only be found before the oldest of the latest checkpoints
+    long upTo = responses.values()
+        .stream()
+        .map(DiscoverResponse::getLatestCheckpoint)
+        .filter(Objects::nonNull)
+        .mapToLong(NomadChangeInfo::getVersion)
+        .min()
+        .getAsLong();
+    while (upTo >= 0) {
+      long from = Math.max(0, upTo - HISTORY_PAGE_SIZE + 1);
+      List<List<NomadChangeInfo>> checkpoints = new ArrayList<>(configuredNodeCount);
+      for (Endpoint endpoint : discoveredCheckpoints.keySet()) {
+        checkpoints.add(fetchCheckpoints(endpoint, from, upTo));
+      }
+      common = findCommonCheckpoint(checkpoints, configuredNodeCount);
+      if (common.isPresent() || from == 0) {
+        return common;
+      }
+      upTo = from - 1;
+    }
+    return Optional.empty();
+  }
+
+  private static Optional<NomadChangeInfo> findCommonCheckpoint(Collection<List<NomadChangeInfo>> checkpointsPerNode, int configuredNodeCount) {
+    return checkpointsPerNode.stream()
+        .flatMap(Collection::stream)
         .collect(groupingBy(NomadChangeInfo::getChangeUuid, toList())) // Map<UUID, List<NomadChangeInfo>>
         .entrySet().stream()
         .filter(e -> e.getValue().size() == configuredNodeCount) // only consider entries having the change UUID on all the nodes
@@ -359,6 +444,40 @@ public class ConsistencyAnalyzer<T> implements DiscoverResultsReceiver<T> {
         MAYBE_UNKNOWN; // some nodes are not reachable and we were not able to determine the state
   }
 
+  /**
+   * @return the committed changes of a node having a version between {@code from} and {@code upTo}, inclusive
+   */
+  private List<NomadChangeInfo> fetchCheckpoints(Endpoint endpoint, long from, long upTo) {
+    List<NomadChangeInfo> checkpoints = new ArrayList<>();
+    long fromVersion = from;
+    while (fromVersion <= upTo && !historyUnsupported.contains(endpoint)) {
+      ChangeHistoryResponse page;
+      try {
+        page = historyFetcher.fetch(endpoint, fromVersion, HISTORY_PAGE_SIZE);
+      } catch (UnsupportedOperationException e) {
+        LOGGER.debug("Unable to fetch the change history of node: {}: {}", endpoint, e.getMessage());
+        historyUnsupported.add(endpoint);
+        break;
+      }
+      List<NomadChangeInfo> changes = page.getChanges();
+      changes.stream()
+          .filter(change -> change.getChangeRequestState() == COMMITTED && change.getVersion() <= upTo)
+          .forEach(checkpoints::add);
+      if (!page.hasMore() || changes.isEmpty()) {
+        return checkpoints;
+      }
+      fromVersion = changes.get(changes.size() - 1).getVersion() + 1;
+    }
+    if (historyUnsupported.contains(endpoint)) {
+      // an older server, which discover response already lists all its checkpoints
+      return responses.get(endpoint).getCheckpoints()
+          .stream()
+          .filter(change -> change.getVersion() >= from && change.getVersion() <= upTo)
+          .collect(toList());
+    }
+    return checkpoints;
+  }
+
   private Collector<Map.Entry<Endpoint, DiscoverResponse<T>>, ?, LinkedHashMap<Endpoint, LogicalServerState>> responseEntryToMap() {
     return toMap(
         Map.Entry::getKey,
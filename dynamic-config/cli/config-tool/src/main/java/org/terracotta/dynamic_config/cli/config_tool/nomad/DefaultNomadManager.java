@@ -19,6 +19,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terracotta.connection.ConnectionException;
 import org.terracotta.connection.entity.Entity;
+import org.terracotta.diagnostic.client.DiagnosticOperationUnsupportedException;
 import org.terracotta.diagnostic.client.DiagnosticService;
 import org.terracotta.diagnostic.client.connection.DiagnosticServices;
 import org.terracotta.diagnostic.client.connection.MultiDiagnosticServiceProvider;
@@ -33,6 +34,7 @@ import org.terracotta.dynamic_config.api.model.nomad.DynamicConfigNomadChange;
 import org.terracotta.nomad.NomadEnvironment;
 import org.terracotta.nomad.client.NomadClient;
 import org.terracotta.nomad.client.NomadEndpoint;
+import org.terracotta.nomad.client.NomadMessageSender;
 import org.terracotta.nomad.client.change.ChangeResultReceiver;
 import org.terracotta.nomad.client.recovery.RecoveryResultReceiver;
 import org.terracotta.nomad.client.results.DiscoverResultsReceiver;
@@ -43,6 +45,7 @@ import org.terracotta.nomad.client.status.MultiDiscoveryResultReceiver;
 import org.terracotta.nomad.entity.client.NomadEntity;
 import org.terracotta.nomad.entity.client.NomadEntityProvider;
 import org.terracotta.nomad.messages.AcceptRejectResponse;
+import org.terracotta.nomad.messages.ChangeHistoryResponse;
 import org.terracotta.nomad.messages.CommitMessage;
 import org.terracotta.nomad.server.ChangeRequestState;
 import org.terracotta.nomad.server.NomadException;
@@ -67,6 +70,7 @@ import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.terracotta.diagnostic.model.LogicalServerState.ACTIVE;
@@ -84,6 +88,13 @@ public class DefaultNomadManager<T> implements NomadManager<T> {
       STARTING // this mode is when a server is forced to start in diagnostic mode for repair
   );
 
+  /**
+   * Maximum number of nodes contacted at the same time during a Nomad phase, when the order in which the nodes are
+   * contacted does not matter: discovery, activation and configuration changes. Repairs contact the nodes one after
+   * the other, passives first.
+   */
+  private static final int CONCURRENCY = 16;
+
   private final NomadEnvironment environment;
   private final MultiDiagnosticServiceProvider<UID> multiDiagnosticServiceProvider;
   private final NomadEntityProvider nomadEntityProvider;
@@ -97,14 +108,14 @@ public class DefaultNomadManager<T> implements NomadManager<T> {
   public void runConfigurationDiscovery(Map<Node.Endpoint, LogicalServerState> nodes, DiscoverResultsReceiver<T> results) {
     LOGGER.debug("Attempting to discover nodes: {}", nodes);
     List<Node.Endpoint> orderedList = keepOnlineAndOrderPassivesFirst(nodes);
-    try (NomadClient<T> client = createDiagnosticNomadClient(orderedList)) {
+    try (NomadClient<T> client = createDiagnosticNomadClient(orderedList, CONCURRENCY)) {
       client.tryDiscovery(new MultiDiscoveryResultReceiver<>(asList(new LoggingResultReceiver<>(), results)));
     }
   }
 
   public void runClusterActivation(Collection<Node.Endpoint> nodes, Cluster cluster, ChangeResultReceiver<T> results) {
     LOGGER.debug("Attempting to activate cluster: {}", cluster.toShapeString());
-    try (NomadClient<T> client = createDiagnosticNomadClient(new ArrayList<>(nodes))) {
+    try (NomadClient<T> client = createDiagnosticNomadClient(new ArrayList<>(nodes), CONCURRENCY)) {
       client.tryApplyChange(new MultiChangeResultReceiver<>(asList(new LoggingResultReceiver<>(), results)), new ClusterActivationNomadChange(cluster));
     }
   }
@@ -122,23 +133,37 @@ public class DefaultNomadManager<T> implements NomadManager<T> {
     LOGGER.debug("Attempting to repair configuration on nodes: {}", consistencyAnalyzer.getAllNodes().keySet());
     Map<Node.Endpoint, LogicalServerState> onlineActivatedNodes = consistencyAnalyzer.getOnlineActivatedNodes();
     List<Node.Endpoint> orderedList = keepOnlineAndOrderPassivesFirst(onlineActivatedNodes);
-    try (NomadClient<T> client = createDiagnosticNomadClient(orderedList)) {
+    try (NomadClient<T> client = createDiagnosticNomadClient(orderedList, 1)) {
       client.tryRecovery(new MultiRecoveryResultReceiver<>(asList(new LoggingResultReceiver<>(), results)), consistencyAnalyzer.getNodeCount(), forcedState);
     }
   }
 
+  public ChangeHistoryResponse getChangeHistory(Node.Endpoint node, long fromVersion, int maxCount) {
+    LOGGER.debug("Fetching change history of node: {} from version: {}", node, fromVersion);
+    try (DiagnosticServices<UID> diagnosticServices = multiDiagnosticServiceProvider.fetchOnlineDiagnosticServices(singletonMap(node.getNodeUID(), node.getAddress()))) {
+      DiagnosticService diagnosticService = diagnosticServices.getDiagnosticService(node.getNodeUID())
+          .orElseThrow(() -> new IllegalStateException("Node: " + node + " is not reachable"));
+      return diagnosticService.getProxy(NomadServer.class).getChangeHistory(fromVersion, maxCount);
+    } catch (DiagnosticOperationUnsupportedException e) {
+      // older servers do not have this call, their discover response lists all their committed changes instead
+      throw new UnsupportedOperationException("Node: " + node + " does not support fetching its change history", e);
+    } catch (NomadException e) {
+      throw new IllegalStateException("Unable to fetch the change history of node: " + node + ". Reason: " + e.getMessage(), e);
+    }
+  }
+
   /**
    * create a nomad client that is preparing through diagnostic port and committing through diagnostic port
    */
-  private NomadClient<T> createDiagnosticNomadClient(List<Node.Endpoint> expectedOnlineNodes) {
-    LOGGER.trace("createDiagnosticNomadClient({})", expectedOnlineNodes);
+  private NomadClient<T> createDiagnosticNomadClient(List<Node.Endpoint> expectedOnlineNodes, int concurrency) {
+    LOGGER.trace("createDiagnosticNomadClient({}, {})", expectedOnlineNodes, concurrency);
     // create normal diagnostic endpoints
     List<NomadEndpoint<T>> nomadEndpoints = createDiagnosticNomadEndpoints(expectedOnlineNodes);
     // create the client
     String host = environment.getHost();
     String user = environment.getUser();
     Clock clock = environment.getClock();
-    return new NomadClient<>(nomadEndpoints, host, user, clock);
+    return new NomadClient<>(nomadEndpoints, host, user, clock, concurrency, NomadMessageSender.UNBOUNDED);
   }
 
   /**
@@ -220,11 +245,15 @@ public class DefaultNomadManager<T> implements NomadManager<T> {
                                             .map(Map.Entry::getKey)
                                             .get();
 
-        CompletableFuture<AcceptRejectResponse> result = cache.computeIfAbsent(stripeUID, uid -> {
+        // The nodes of a stripe can be committed concurrently: only the first call sends the commit to the stripe,
+        // the other ones wait for its response.
+        CompletableFuture<AcceptRejectResponse> c = new CompletableFuture<>();
+        CompletableFuture<AcceptRejectResponse> result = cache.putIfAbsent(stripeUID, c);
+        if (result == null) {
+          result = c;
           LOGGER.info("Committing topology change to stripe UID: {}", stripeUID);
 
           LOGGER.trace("Sending commit message: {} to stripe UID: {}", message, stripeUID);
-          CompletableFuture<AcceptRejectResponse> c = new CompletableFuture<>();
           try {
             AcceptRejectResponse acceptRejectResponse = stripeEndpoints.get(stripeUID).commit(message);
             LOGGER.trace("Received commit response: {} from stripe UID: {}", message, stripeUID);
@@ -233,8 +262,7 @@ public class DefaultNomadManager<T> implements NomadManager<T> {
             LOGGER.trace("Received commit failure: '{}' from stripe UID: {}", e.getMessage(), stripeUID, e);
             c.completeExceptionally(e);
           }
-          return c;
-        });
+        }
         try {
           return result.get();
         } catch (InterruptedException ie) {
@@ -260,7 +288,7 @@ public class DefaultNomadManager<T> implements NomadManager<T> {
     String host = environment.getHost();
     String user = environment.getUser();
     Clock clock = environment.getClock();
-    return new NomadClient<T>(nomadEndpoints, host, user, clock) {
+    return new NomadClient<T>(nomadEndpoints, host, user, clock, CONCURRENCY, NomadMessageSender.UNBOUNDED) {
       @Override
       public void close() {
         try {
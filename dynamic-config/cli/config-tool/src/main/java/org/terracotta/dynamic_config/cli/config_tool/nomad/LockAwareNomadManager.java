@@ -24,6 +24,7 @@ import org.terracotta.dynamic_config.api.model.nomad.LockAwareDynamicConfigNomad
 import org.terracotta.nomad.client.change.ChangeResultReceiver;
 import org.terracotta.nomad.client.recovery.RecoveryResultReceiver;
 import org.terracotta.nomad.client.results.DiscoverResultsReceiver;
+import org.terracotta.nomad.messages.ChangeHistoryResponse;
 import org.terracotta.nomad.server.ChangeRequestState;
 
 import java.util.Collection;
@@ -59,6 +60,11 @@ public class LockAwareNomadManager<T> implements NomadManager<T> {
     this.underlying.runConfigurationRepair(consistencyAnalyzer, results, forcedState);
   }
 
+  @Override
+  public ChangeHistoryResponse getChangeHistory(Endpoint node, long fromVersion, int maxCount) {
+    return this.underlying.getChangeHistory(node, fromVersion, maxCount);
+  }
+
   public NomadManager<T> getUnderlying() {
     return underlying;
   }
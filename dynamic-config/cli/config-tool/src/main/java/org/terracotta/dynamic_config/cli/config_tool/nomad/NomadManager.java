@@ -23,6 +23,7 @@ import org.terracotta.dynamic_config.api.model.nomad.DynamicConfigNomadChange;
 import org.terracotta.nomad.client.change.ChangeResultReceiver;
 import org.terracotta.nomad.client.recovery.RecoveryResultReceiver;
 import org.terracotta.nomad.client.results.DiscoverResultsReceiver;
+import org.terracotta.nomad.messages.ChangeHistoryResponse;
 import org.terracotta.nomad.server.ChangeRequestState;
 
 import java.util.Collection;
@@ -36,4 +37,9 @@ public interface NomadManager<T> {
   void runConfigurationChange(Cluster destinationCluster, Map<Endpoint, LogicalServerState> onlineNodes, DynamicConfigNomadChange changes, ChangeResultReceiver<T> results);
 
   void runConfigurationRepair(ConsistencyAnalyzer<NodeContext> consistencyAnalyzer, RecoveryResultReceiver<T> results, ChangeRequestState forcedState);
+
+  /**
+   * @throws UnsupportedOperationException if the node runs an older version which cannot return its change history
+   */
+  ChangeHistoryResponse getChangeHistory(Endpoint node, long fromVersion, int maxCount);
 }
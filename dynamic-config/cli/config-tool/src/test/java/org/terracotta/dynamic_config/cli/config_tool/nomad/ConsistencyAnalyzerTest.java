@@ -0,0 +1,208 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.dynamic_config.cli.config_tool.nomad;
+
+import org.junit.Test;
+import org.terracotta.diagnostic.model.LogicalServerState;
+import org.terracotta.dynamic_config.api.model.Node.Endpoint;
+import org.terracotta.dynamic_config.api.model.Testing;
+import org.terracotta.dynamic_config.cli.config_tool.SimpleNomadChange;
+import org.terracotta.nomad.messages.ChangeDetails;
+import org.terracotta.nomad.messages.ChangeHistoryResponse;
+import org.terracotta.nomad.messages.DiscoverResponse;
+import org.terracotta.nomad.server.NomadChangeInfo;
+import org.terracotta.nomad.server.NomadServerMode;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.terracotta.diagnostic.model.LogicalServerState.ACTIVE;
+import static org.terracotta.diagnostic.model.LogicalServerState.PASSIVE;
+import static org.terracotta.nomad.server.ChangeRequestState.COMMITTED;
+
+public class ConsistencyAnalyzerTest {
+
+  // like the servers, which send their latest checkpoints in their discover response
+  private static final int DISCOVERED_CHECKPOINTS = 64;
+
+  private final Endpoint node1 = Testing.newTestNode("node1", "localhost", 9410, Testing.N_UIDS[1]).getInternalEndpoint();
+  private final Endpoint node2 = Testing.newTestNode("node2", "localhost", 9411, Testing.N_UIDS[2]).getInternalEndpoint();
+
+  private final Map<Endpoint, List<NomadChangeInfo>> histories = new HashMap<>();
+  private final Set<Endpoint> olderServers = new HashSet<>();
+  private final List<Long> fetchedVersions = new ArrayList<>();
+
+  @Test
+  public void sameLatestCheckpointDoesNotFetchHistory() {
+    List<NomadChangeInfo> common = changes(1, 10);
+    histories.put(node1, common);
+    histories.put(node2, common);
+
+    Optional<NomadChangeInfo> checkpoint = analyze().getCheckpoint();
+
+    assertEquals(common.get(9), checkpoint.get());
+    assertTrue(fetchedVersions.isEmpty());
+  }
+
+  @Test
+  public void divergedHistoriesArePagedBackwardsUntilACommonCheckpoint() {
+    // both nodes have the same first 40 changes, then each one committed different changes
+    List<NomadChangeInfo> common = changes(1, 40);
+    histories.put(node1, concat(common, changes(41, 200)));
+    histories.put(node2, concat(common, changes(41, 150)));
+
+    Optional<NomadChangeInfo> checkpoint = analyze().getCheckpoint();
+
+    assertEquals(common.get(39), checkpoint.get());
+    // the pages are fetched from the oldest latest checkpoint backwards: [87, 150], then [23, 86]
+    assertEquals(2, fetchedVersions.stream().distinct().count());
+    assertEquals(23L, (long) fetchedVersions.stream().min(Long::compare).get());
+  }
+
+  @Test
+  public void commonCheckpointInTheDiscoverResponsesDoesNotFetchHistory() {
+    List<NomadChangeInfo> common = changes(1, 40);
+    histories.put(node1, concat(common, changes(41, 60)));
+    histories.put(node2, concat(common, changes(41, 50)));
+
+    Optional<NomadChangeInfo> checkpoint = analyze().getCheckpoint();
+
+    assertEquals(common.get(39), checkpoint.get());
+    assertTrue(fetchedVersions.isEmpty());
+  }
+
+  @Test
+  public void historyIsOnlyFetchedOncePerAnalysis() {
+    List<NomadChangeInfo> common = changes(1, 40);
+    histories.put(node1, concat(common, changes(41, 200)));
+    histories.put(node2, concat(common, changes(41, 150)));
+    ConsistencyAnalyzer<String> analyzer = analyze();
+
+    Optional<NomadChangeInfo> checkpoint = analyzer.getCheckpoint();
+    int fetches = fetchedVersions.size();
+
+    assertEquals(checkpoint, analyzer.getCheckpoint());
+    assertEquals(fetches, fetchedVersions.size());
+  }
+
+  @Test
+  public void olderServersAreAnalyzedFromTheirDiscoverResponse() {
+    // node1 runs an older version: it cannot return its history but lists all its checkpoints
+    List<NomadChangeInfo> common = changes(1, 40);
+    histories.put(node1, concat(common, changes(41, 200)));
+    histories.put(node2, concat(common, changes(41, 150)));
+    olderServers.add(node1);
+
+    Optional<NomadChangeInfo> checkpoint = analyze().getCheckpoint();
+
+    assertEquals(common.get(39), checkpoint.get());
+  }
+
+  @Test
+  public void noCommonCheckpoint() {
+    histories.put(node1, changes(1, 100));
+    histories.put(node2, changes(1, 70));
+
+    assertFalse(analyze().getCheckpoint().isPresent());
+    assertEquals(0L, (long) fetchedVersions.stream().min(Long::compare).get());
+  }
+
+  @Test
+  public void divergedHistoriesWithoutFetcher() {
+    histories.put(node1, changes(1, 3));
+    histories.put(node2, changes(1, 2));
+
+    ConsistencyAnalyzer<String> analyzer = new ConsistencyAnalyzer<>(nodes());
+    histories.forEach((endpoint, history) -> analyzer.discovered(endpoint.getAddress(), discoverResponse(history, DISCOVERED_CHECKPOINTS)));
+
+    assertFalse(analyzer.getCheckpoint().isPresent());
+  }
+
+  private ConsistencyAnalyzer<String> analyze() {
+    ConsistencyAnalyzer<String> analyzer = new ConsistencyAnalyzer<>(nodes(), this::fetch);
+    histories.forEach((endpoint, history) -> analyzer.discovered(endpoint.getAddress(), discoverResponse(history, olderServers.contains(endpoint) ? history.size() : DISCOVERED_CHECKPOINTS)));
+    return analyzer;
+  }
+
+  private Map<Endpoint, LogicalServerState> nodes() {
+    Map<Endpoint, LogicalServerState> nodes = new LinkedHashMap<>();
+    nodes.put(node1, ACTIVE);
+    nodes.put(node2, PASSIVE);
+    return nodes;
+  }
+
+  private ChangeHistoryResponse fetch(Endpoint endpoint, long fromVersion, int maxCount) {
+    if (olderServers.contains(endpoint)) {
+      throw new UnsupportedOperationException("Node: " + endpoint + " does not support fetching its change history");
+    }
+    fetchedVersions.add(fromVersion);
+    List<NomadChangeInfo> page = histories.get(endpoint)
+        .stream()
+        .filter(change -> change.getVersion() >= fromVersion)
+        .limit(maxCount + 1)
+        .collect(Collectors.toList());
+    boolean hasMore = page.size() > maxCount;
+    return new ChangeHistoryResponse(hasMore ? page.subList(0, maxCount) : page, hasMore);
+  }
+
+  private static DiscoverResponse<String> discoverResponse(List<NomadChangeInfo> history, int checkpoints) {
+    NomadChangeInfo latest = history.get(history.size() - 1);
+    return new DiscoverResponse<>(
+        NomadServerMode.ACCEPTING,
+        latest.getVersion(),
+        "host",
+        "user",
+        Instant.now(),
+        latest.getVersion(),
+        latest.getVersion(),
+        new ChangeDetails<>(
+            latest.getChangeUuid(),
+            COMMITTED,
+            latest.getVersion(),
+            latest.getNomadChange(),
+            "result",
+            latest.getCreationHost(),
+            latest.getCreationUser(),
+            latest.getCreationTimestamp()),
+        history.subList(Math.max(0, history.size() - checkpoints), history.size()));
+  }
+
+  private static List<NomadChangeInfo> changes(long fromVersion, long toVersion) {
+    List<NomadChangeInfo> changes = new ArrayList<>();
+    for (long version = fromVersion; version <= toVersion; version++) {
+      changes.add(new NomadChangeInfo(UUID.randomUUID(), new SimpleNomadChange("change" + version, "summary"), COMMITTED, version, "host", "user", Instant.now()));
+    }
+    return changes;
+  }
+
+  private static List<NomadChangeInfo> concat(List<NomadChangeInfo> first, List<NomadChangeInfo> second) {
+    List<NomadChangeInfo> changes = new ArrayList<>(first);
+    changes.addAll(second);
+    return changes;
+  }
+}
@@ -17,6 +17,7 @@ package org.terracotta.nomad.entity.client;
 
 import org.terracotta.connection.entity.Entity;
 import org.terracotta.nomad.messages.AcceptRejectResponse;
+import org.terracotta.nomad.messages.ChangeHistoryResponse;
 import org.terracotta.nomad.messages.CommitMessage;
 import org.terracotta.nomad.messages.DiscoverResponse;
 import org.terracotta.nomad.messages.MutativeMessage;
@@ -57,6 +58,11 @@ public interface NomadEntity<T> extends Entity, NomadServer<T> {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  default ChangeHistoryResponse getChangeHistory(long fromVersion, int maxCount) {
+    throw new UnsupportedOperationException();
+  }
+
   AcceptRejectResponse send(MutativeMessage message) throws NomadException;
 
   class Settings {
@@ -26,6 +26,7 @@ import java.net.InetSocketAddress;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -39,7 +40,6 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.Collections.emptyMap;
@@ -74,8 +74,13 @@ public class Cluster implements Cloneable, PropertyHolder {
   private FailoverPriority failoverPriority;
   private Map<String, Measure<MemoryUnit>> offheapResources;
 
+  // lazily built lookup tables, rebuilt after any structural change of this cluster
+  final ModCount modCount = new ModCount();
+  private volatile Index index;
+
   public Cluster(List<Stripe> stripes) {
     this.stripes = new CopyOnWriteArrayList<>(requireNonNull(stripes));
+    stripes.forEach(stripe -> stripe.modCount.ownedBy(modCount));
   }
 
   public Cluster(Stripe... stripes) {
@@ -228,12 +233,17 @@ public class Cluster implements Cloneable, PropertyHolder {
   }
 
   public Cluster setStripes(List<Stripe> stripes) {
+    this.stripes.forEach(stripe -> stripe.modCount.disownedBy(modCount));
     this.stripes = new CopyOnWriteArrayList<>(stripes);
+    stripes.forEach(stripe -> stripe.modCount.ownedBy(modCount));
+    modCount.increment();
     return this;
   }
 
   public Cluster addStripe(Stripe stripe) {
     stripes.add(stripe);
+    stripe.modCount.ownedBy(modCount);
+    modCount.increment();
     return this;
   }
 
@@ -328,7 +338,9 @@ public class Cluster implements Cloneable, PropertyHolder {
   }
 
   public boolean containsNode(String nodeName) {
-    return getNodes().stream().map(Node::getName).anyMatch(isEqual(nodeName));
+    return nodeName == null ?
+        getNodes().stream().map(Node::getName).anyMatch(isEqual(null)) :
+        index().nodesByName.containsKey(nodeName);
   }
 
   @Override
@@ -350,33 +362,34 @@ public class Cluster implements Cloneable, PropertyHolder {
   }
 
   public boolean removeStripe(Stripe stripe) {
-    return stripes.remove(stripe);
+    boolean removed = stripes.remove(stripe);
+    if (removed) {
+      stripe.modCount.disownedBy(modCount);
+      modCount.increment();
+    }
+    return removed;
   }
 
   public boolean removeNode(UID uid) {
     boolean detached = stripes.stream().anyMatch(stripe -> stripe.removeNode(uid));
     if (detached) {
+      stripes.stream().filter(Stripe::isEmpty).forEach(stripe -> stripe.modCount.disownedBy(modCount));
       stripes.removeIf(Stripe::isEmpty);
+      modCount.increment();
     }
     return detached;
   }
 
   public Optional<Node> getNode(UID nodeUID) {
-    return stripes.stream()
-        .flatMap(stripe -> stripe.getNodes().stream())
-        .filter(node -> node.getUID().equals(nodeUID))
-        .findAny();
+    return Optional.ofNullable(index().nodesByUID.get(nodeUID));
   }
 
   public Optional<Node> getNodeByName(String name) {
-    return stripes.stream()
-        .flatMap(stripe -> stripe.getNodes().stream())
-        .filter(node -> node.getName().equals(name))
-        .findAny();
+    return Optional.ofNullable(index().nodesByName.get(name));
   }
 
   public Optional<Stripe> getStripe(UID stripeUID) {
-    return getStripes().stream().filter(s -> s.getUID().equals(stripeUID)).findAny();
+    return Optional.ofNullable(index().stripesByUID.get(stripeUID));
   }
 
   public Optional<Stripe> getStripe(int stripeId) {
@@ -390,25 +403,21 @@ public class Cluster implements Cloneable, PropertyHolder {
   }
 
   public OptionalInt getStripeId(UID stripeUID) {
-    return IntStream.range(0, stripes.size())
-        .filter(idx -> stripes.get(idx).getUID().equals(stripeUID))
-        .map(idx -> idx + 1)
-        .findAny();
+    Integer stripeId = index().stripeIdsByUID.get(stripeUID);
+    return stripeId == null ? OptionalInt.empty() : OptionalInt.of(stripeId);
   }
 
   public OptionalInt getStripeIdByNode(UID nodeUID) {
-    return IntStream.range(0, stripes.size())
-        .filter(idx -> stripes.get(idx).containsNode(nodeUID))
-        .map(idx -> idx + 1)
-        .findAny();
+    Integer stripeId = index().stripeIdsByNodeUID.get(nodeUID);
+    return stripeId == null ? OptionalInt.empty() : OptionalInt.of(stripeId);
   }
 
   public Optional<Stripe> getStripeByNode(UID nodeUID) {
-    return getStripes().stream().filter(s -> s.containsNode(nodeUID)).findAny();
+    return Optional.ofNullable(index().stripesByNodeUID.get(nodeUID));
   }
 
   public Optional<Stripe> getStripeByNodeName(String nodeName) {
-    return getStripes().stream().filter(s -> s.containsNode(nodeName)).findAny();
+    return Optional.ofNullable(index().stripesByNodeName.get(nodeName));
   }
 
   public int getNodeCount() {
@@ -455,7 +464,9 @@ public class Cluster implements Cloneable, PropertyHolder {
   }
 
   public Cluster removeStripes() {
+    stripes.forEach(stripe -> stripe.modCount.disownedBy(modCount));
     stripes.clear();
+    modCount.increment();
     return this;
   }
 
@@ -506,6 +517,18 @@ public class Cluster implements Cloneable, PropertyHolder {
    * to connect to a node
    */
   private Function<Node, Endpoint> getEndpointFetcher(InetSocketAddress initiator) {
+    Index index = index();
+    if (index.addressesIndexed) {
+      Boolean internal = index.addressGroups.get(initiator);
+      if (internal != null) {
+        return internal ? Node::getInternalEndpoint : n -> n.getPublicEndpoint().get();
+      }
+      return index.publicAddressConfigured ?
+          n -> n.getPublicEndpoint().get() :
+          Node::getInternalEndpoint;
+    }
+    // some addresses could not be indexed (i.e. they still contain substitution parameters):
+    // keep the original scan so that the same error is reported for the same node
     boolean publicAddressConfigured = true;
     for (Node node : getNodes()) {
       if (node.getInternalAddress().equals(initiator)) {
@@ -523,4 +546,78 @@ public class Cluster implements Cloneable, PropertyHolder {
         n -> n.getPublicEndpoint().get() :
         Node::getInternalEndpoint;
   }
+
+  private Index index() {
+    Index index = this.index;
+    long modCount = this.modCount.get();
+    if (index == null || index.modCount != modCount || index.stripes != stripes) {
+      // the count is read before the tables are built: a concurrent change
+      // will only cause the tables to be rebuilt again on the next lookup
+      this.index = index = new Index(modCount, stripes);
+    }
+    return index;
+  }
+
+  /**
+   * Lookup tables over the stripes and nodes of a cluster.
+   * <p>
+   * When several nodes or stripes share the same key, the first one in the topology order wins,
+   * which is what the former linear scans were returning.
+   */
+  private static class Index {
+    final long modCount;
+    final List<Stripe> stripes;
+    final Map<UID, Stripe> stripesByUID = new HashMap<>();
+    final Map<UID, Integer> stripeIdsByUID = new HashMap<>();
+    final Map<UID, Node> nodesByUID = new HashMap<>();
+    final Map<String, Node> nodesByName = new HashMap<>();
+    final Map<UID, Integer> stripeIdsByNodeUID = new HashMap<>();
+    final Map<UID, Stripe> stripesByNodeUID = new HashMap<>();
+    final Map<String, Stripe> stripesByNodeName = new HashMap<>();
+    // address => true if this is an internal address, false if this is a public address
+    final Map<InetSocketAddress, Boolean> addressGroups = new HashMap<>();
+    final boolean addressesIndexed;
+    final boolean publicAddressConfigured;
+
+    Index(long modCount, List<Stripe> stripes) {
+      this.modCount = modCount;
+      this.stripes = stripes;
+      boolean addressesIndexed = true;
+      boolean publicAddressConfigured = true;
+      int stripeId = 0;
+      // iterating over a CopyOnWriteArrayList snapshot
+      for (Stripe stripe : stripes) {
+        stripeId++;
+        putIfKey(stripesByUID, stripe.getUID(), stripe);
+        putIfKey(stripeIdsByUID, stripe.getUID(), stripeId);
+        for (Node node : stripe.getNodes()) {
+          putIfKey(nodesByUID, node.getUID(), node);
+          putIfKey(nodesByName, node.getName(), node);
+          putIfKey(stripeIdsByNodeUID, node.getUID(), stripeId);
+          putIfKey(stripesByNodeUID, node.getUID(), stripe);
+          putIfKey(stripesByNodeName, node.getName(), stripe);
+          String hostname = node.getHostname();
+          String publicHostname = node.getPublicHostname().orElse(null);
+          Integer publicPort = node.getPublicPort().orElse(null);
+          if (hostname == null || Substitutor.containsSubstitutionParams(hostname)
+              || publicHostname != null && publicPort != null && Substitutor.containsSubstitutionParams(publicHostname)) {
+            addressesIndexed = false;
+          } else {
+            addressGroups.putIfAbsent(node.getInternalAddress(), Boolean.TRUE);
+            Optional<InetSocketAddress> publicAddress = node.getPublicAddress();
+            publicAddressConfigured &= publicAddress.isPresent();
+            publicAddress.ifPresent(addr -> addressGroups.putIfAbsent(addr, Boolean.FALSE));
+          }
+        }
+      }
+      this.addressesIndexed = addressesIndexed;
+      this.publicAddressConfigured = publicAddressConfigured;
+    }
+
+    private static <K, V> void putIfKey(Map<K, V> map, K key, V value) {
+      if (key != null) {
+        map.putIfAbsent(key, value);
+      }
+    }
+  }
 }
@@ -15,22 +15,18 @@
  */
 package org.terracotta.dynamic_config.api.model;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Scanner;
-import java.util.function.BiFunction;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.empty;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toSet;
 import static org.terracotta.dynamic_config.api.model.Operation.GET;
 import static org.terracotta.dynamic_config.api.model.Operation.IMPORT;
 import static org.terracotta.dynamic_config.api.model.Operation.SET;
@@ -42,185 +38,12 @@ import static org.terracotta.dynamic_config.api.model.Scope.STRIPE;
 
 public class Configuration {
 
-  private static final Collection<String> SETTINGS = Stream.of(Setting.values()).map(Setting::toString).collect(toSet());
-
-  private static final Map<Pattern, BiFunction<String, Matcher, Configuration>> CLUSTER_PATTERNS = new LinkedHashMap<>();
-  private static final Map<Pattern, BiFunction<String, Matcher, Configuration>> STRIPE_PATTERNS = new LinkedHashMap<>();
-  private static final Map<Pattern, BiFunction<String, Matcher, Configuration>> NODE_PATTERNS = new LinkedHashMap<>();
-
-  private static final String GRP_STRIPE = "stripe\\.(\\d+)";
-  private static final String GRP_NODE = "node\\.(\\d+)";
-  private static final String SEP = "\\.";
-  private static final String NS = "[.:]"; // namespace separator
-  private static final String GRP_SETTING = "([a-z\\-]+)";
-  private static final String GRP_KEY = "([^=:]+)";
-  private static final String ASSIGN = "=";
-  private static final String GRP_VALUE = "([^=]+)";
-
-  static {
-    // stripe.<index>.node.<index>.<setting>.<key>=<value>
-    NODE_PATTERNS.put(Pattern.compile("^" + GRP_STRIPE + SEP + GRP_NODE + NS + GRP_SETTING + SEP + GRP_KEY + ASSIGN + GRP_VALUE + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(3)),
-        NODE,
-        Integer.parseInt(matcher.group(1)),
-        Integer.parseInt(matcher.group(2)),
-        matcher.group(4),
-        matcher.group(5)));
-    // stripe.<index>.node.<index>.<setting>=<value>
-    NODE_PATTERNS.put(Pattern.compile("^" + GRP_STRIPE + SEP + GRP_NODE + NS + GRP_SETTING + ASSIGN + GRP_VALUE + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(3)),
-        NODE,
-        Integer.parseInt(matcher.group(1)),
-        Integer.parseInt(matcher.group(2)),
-        null,
-        matcher.group(4)));
-    // stripe.<index>.<setting>.<key>=<value>
-    STRIPE_PATTERNS.put(Pattern.compile("^" + GRP_STRIPE + NS + GRP_SETTING + SEP + GRP_KEY + ASSIGN + GRP_VALUE + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(2)),
-        STRIPE,
-        Integer.parseInt(matcher.group(1)),
-        null,
-        matcher.group(3),
-        matcher.group(4)));
-    // stripe.<index>.<setting>=<value>
-    STRIPE_PATTERNS.put(Pattern.compile("^" + GRP_STRIPE + NS + GRP_SETTING + ASSIGN + GRP_VALUE + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(2)),
-        STRIPE,
-        Integer.parseInt(matcher.group(1)),
-        null,
-        null,
-        matcher.group(3)));
-    // <setting>.<key>=<value>
-    CLUSTER_PATTERNS.put(Pattern.compile("^" + GRP_SETTING + SEP + GRP_KEY + ASSIGN + GRP_VALUE + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(1)),
-        CLUSTER,
-        null,
-        null,
-        matcher.group(2),
-        matcher.group(3)));
-    // <setting>=<value>
-    CLUSTER_PATTERNS.put(Pattern.compile("^" + GRP_SETTING + ASSIGN + GRP_VALUE + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(1)),
-        CLUSTER,
-        null,
-        null,
-        null,
-        matcher.group(2)));
-    // stripe.<index>.node.<index>.<setting>.<key>=
-    NODE_PATTERNS.put(Pattern.compile("^" + GRP_STRIPE + SEP + GRP_NODE + NS + GRP_SETTING + SEP + GRP_KEY + ASSIGN + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(3)),
-        NODE,
-        Integer.parseInt(matcher.group(1)),
-        Integer.parseInt(matcher.group(2)),
-        matcher.group(4),
-        ""));
-    // stripe.<index>.node.<index>.<setting>=
-    NODE_PATTERNS.put(Pattern.compile("^" + GRP_STRIPE + SEP + GRP_NODE + NS + GRP_SETTING + ASSIGN + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(3)),
-        NODE,
-        Integer.parseInt(matcher.group(1)),
-        Integer.parseInt(matcher.group(2)),
-        null,
-        ""));
-    // stripe.<index>.<setting>.<key>=
-    STRIPE_PATTERNS.put(Pattern.compile("^" + GRP_STRIPE + NS + GRP_SETTING + SEP + GRP_KEY + ASSIGN + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(2)),
-        STRIPE,
-        Integer.parseInt(matcher.group(1)),
-        null,
-        matcher.group(3),
-        ""));
-    // stripe.<index>.<setting>=
-    STRIPE_PATTERNS.put(Pattern.compile("^" + GRP_STRIPE + NS + GRP_SETTING + ASSIGN + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(2)),
-        STRIPE,
-        Integer.parseInt(matcher.group(1)),
-        null,
-        null,
-        ""));
-    // <setting>.<key>=
-    CLUSTER_PATTERNS.put(Pattern.compile("^" + GRP_SETTING + SEP + GRP_KEY + ASSIGN + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(1)),
-        CLUSTER,
-        null,
-        null,
-        matcher.group(2),
-        ""));
-    // <setting>=
-    CLUSTER_PATTERNS.put(Pattern.compile("^" + GRP_SETTING + ASSIGN + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(1)),
-        CLUSTER,
-        null,
-        null,
-        null,
-        ""));
-    // stripe.<index>.node.<index>.<setting>.<key>
-    NODE_PATTERNS.put(Pattern.compile("^" + GRP_STRIPE + SEP + GRP_NODE + NS + GRP_SETTING + SEP + GRP_KEY + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(3)),
-        NODE,
-        Integer.parseInt(matcher.group(1)),
-        Integer.parseInt(matcher.group(2)),
-        matcher.group(4),
-        null));
-    // stripe.<index>.node.<index>.<setting>
-    NODE_PATTERNS.put(Pattern.compile("^" + GRP_STRIPE + SEP + GRP_NODE + NS + GRP_SETTING + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(3)),
-        NODE,
-        Integer.parseInt(matcher.group(1)),
-        Integer.parseInt(matcher.group(2)),
-        null,
-        null));
-    // stripe.<index>.<setting>.<key>
-    STRIPE_PATTERNS.put(Pattern.compile("^" + GRP_STRIPE + NS + GRP_SETTING + SEP + GRP_KEY + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(2)),
-        STRIPE,
-        Integer.parseInt(matcher.group(1)),
-        null,
-        matcher.group(3),
-        null));
-    // stripe.<index>.<setting>
-    STRIPE_PATTERNS.put(Pattern.compile("^" + GRP_STRIPE + NS + GRP_SETTING + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(2)),
-        STRIPE,
-        Integer.parseInt(matcher.group(1)),
-        null,
-        null,
-        null));
-    // <setting>.<key>
-    CLUSTER_PATTERNS.put(Pattern.compile("^" + GRP_SETTING + SEP + GRP_KEY + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(1)),
-        CLUSTER,
-        null,
-        null,
-        matcher.group(2),
-        null));
-    // <setting>
-    CLUSTER_PATTERNS.put(Pattern.compile("^" + GRP_SETTING + "$"), (input, matcher) -> new Configuration(
-        input,
-        Setting.fromName(matcher.group(1)),
-        CLUSTER,
-        null,
-        null,
-        null,
-        null));
-  }
+  // all the inputs share the same grammar, parsed in a single pass:
+  // [stripe.<index>[.node.<index>](.|:)]<setting>[.<key>][=[<value>]]
+  // where the setting name is looked up through this trie
+  private static final SettingTrie SETTINGS = new SettingTrie(Setting.values());
+
+  private static final String DELIMITERS = "[.:=]";
 
   private final String rawInput;
   private final Setting setting;
@@ -587,69 +410,86 @@ public class Configuration {
     Integer nodeId = null;
     Setting setting = null;
 
-    try (Scanner scanner = new Scanner(input).useDelimiter("[.:=]")) {
-      while (scanner.hasNext() && setting == null) {
-        String next = scanner.next();
-        switch (next) {
-          case "stripe": {
-            if (stripeId != null) {
-              throw new IllegalArgumentException("Invalid input: '" + input + "'");
-            }
-            stripeId = scanner.nextInt(10);
-            break;
-          }
-          case "node": {
-            if (nodeId != null || stripeId == null) {
-              throw new IllegalArgumentException("Invalid input: '" + input + "'");
-            }
-            nodeId = scanner.nextInt(10);
-            break;
-          }
-          default: {
-            if (SETTINGS.contains(next)) {
-              setting = Setting.fromName(next);
-            } else {
-              throw new IllegalArgumentException("Invalid input: '" + input + "'. Reason: Invalid setting name: '" + next + "'");
-            }
-          }
+    // 1. reads the tokens delimited by [.:=] until a setting name is found
+    Tokenizer tokenizer = new Tokenizer(input);
+    int stripeIdStart = -1;
+    int stripeIdEnd = -1;
+    int nodeIdStart = -1;
+    int nodeIdEnd = -1;
+    while (setting == null && tokenizer.next()) {
+      if (tokenizer.is("stripe")) {
+        if (stripeId != null || !tokenizer.next()) {
+          throw new IllegalArgumentException("Invalid input: '" + input + "'");
+        }
+        stripeIdStart = tokenizer.start;
+        stripeIdEnd = tokenizer.end;
+        stripeId = tokenizer.toInt().orElseThrow(invalidInput(input));
+      } else if (tokenizer.is("node")) {
+        if (nodeId != null || stripeId == null || !tokenizer.next()) {
+          throw new IllegalArgumentException("Invalid input: '" + input + "'");
+        }
+        nodeIdStart = tokenizer.start;
+        nodeIdEnd = tokenizer.end;
+        nodeId = tokenizer.toInt().orElseThrow(invalidInput(input));
+      } else {
+        setting = SETTINGS.find(input, tokenizer.start, tokenizer.end);
+        if (setting == null) {
+          throw new IllegalArgumentException("Invalid input: '" + input + "'. Reason: Invalid setting name: '" + tokenizer.token() + "'");
         }
       }
-    } catch (NoSuchElementException e) {
-      throw new IllegalArgumentException("Invalid input: '" + input + "'");
     }
 
     if (setting == null) {
       throw new IllegalArgumentException("Invalid input: '" + input + "'. Reason: valid setting name not found");
     }
 
-    if (stripeId != null && nodeId != null) {
-      for (Map.Entry<Pattern, BiFunction<String, Matcher, Configuration>> entry : NODE_PATTERNS.entrySet()) {
-        Matcher matcher = entry.getKey().matcher(input);
-        if (matcher.matches()) {
-          return entry.getValue().apply(input, matcher);
-        }
-      }
+    // 2. checks the separators and the indexes preceding the setting name
+    final Scope level;
+    final boolean valid;
+    if (stripeId == null) {
+      level = CLUSTER;
+      valid = tokenizer.start == 0;
+    } else if (nodeId == null) {
+      level = STRIPE;
+      valid = stripeIdStart == "stripe.".length() && input.charAt(stripeIdStart - 1) == '.'
+          && isDigits(input, stripeIdStart, stripeIdEnd)
+          && isNamespaceSeparator(input.charAt(stripeIdEnd));
+    } else {
+      level = NODE;
+      valid = stripeIdStart == "stripe.".length() && input.charAt(stripeIdStart - 1) == '.'
+          && isDigits(input, stripeIdStart, stripeIdEnd)
+          && input.charAt(stripeIdEnd) == '.'
+          && input.charAt(nodeIdStart - 1) == '.'
+          && isDigits(input, nodeIdStart, nodeIdEnd)
+          && isNamespaceSeparator(input.charAt(nodeIdEnd));
+    }
+    if (!valid) {
+      throw new IllegalArgumentException("Invalid input: '" + input + "'");
     }
 
-    if (stripeId != null && nodeId == null) {
-      for (Map.Entry<Pattern, BiFunction<String, Matcher, Configuration>> entry : STRIPE_PATTERNS.entrySet()) {
-        Matcher matcher = entry.getKey().matcher(input);
-        if (matcher.matches()) {
-          return entry.getValue().apply(input, matcher);
-        }
+    // 3. reads the optional key and value following the setting name
+    final int length = input.length();
+    int pos = tokenizer.end;
+    String key = null;
+    String value = null;
+    if (pos < length && input.charAt(pos) == '.') {
+      int keyStart = ++pos;
+      while (pos < length && input.charAt(pos) != '=' && input.charAt(pos) != ':') {
+        pos++;
+      }
+      if (pos == keyStart) {
+        throw new IllegalArgumentException("Invalid input: '" + input + "'");
       }
+      key = input.substring(keyStart, pos);
     }
-
-    if (stripeId == null) {
-      for (Map.Entry<Pattern, BiFunction<String, Matcher, Configuration>> entry : CLUSTER_PATTERNS.entrySet()) {
-        Matcher matcher = entry.getKey().matcher(input);
-        if (matcher.matches()) {
-          return entry.getValue().apply(input, matcher);
-        }
+    if (pos < length) {
+      if (input.charAt(pos) != '=' || input.indexOf('=', pos + 1) >= 0) {
+        throw new IllegalArgumentException("Invalid input: '" + input + "'");
       }
+      value = input.substring(pos + 1);
     }
 
-    throw new IllegalArgumentException("Invalid input: '" + input + "'");
+    return new Configuration(input, setting, level, stripeId, nodeId, key, value);
   }
 
   public static Configuration valueOf(Setting setting) {
@@ -676,4 +516,138 @@ public class Configuration {
     }
     return Optional.of(stripe.getNodes().get(nodeId - 1));
   }
+
+  private static Supplier<IllegalArgumentException> invalidInput(String input) {
+    return () -> new IllegalArgumentException("Invalid input: '" + input + "'");
+  }
+
+  private static boolean isNamespaceSeparator(char c) {
+    return c == '.' || c == ':';
+  }
+
+  private static boolean isDigits(String input, int start, int end) {
+    for (int i = start; i < end; i++) {
+      char c = input.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return start < end;
+  }
+
+  /**
+   * Splits an input on the [.:=] delimiters the same way a {@link Scanner} does:
+   * one delimiter is skipped before each token, so consecutive delimiters give empty tokens
+   * but a leading or trailing delimiter does not.
+   */
+  private static class Tokenizer {
+    private final String input;
+    int start;
+    int end;
+
+    Tokenizer(String input) {
+      this.input = input;
+    }
+
+    boolean next() {
+      int pos = end;
+      if (pos < input.length() && isDelimiter(input.charAt(pos))) {
+        pos++;
+      }
+      if (pos >= input.length()) {
+        return false;
+      }
+      start = pos;
+      while (pos < input.length() && !isDelimiter(input.charAt(pos))) {
+        pos++;
+      }
+      end = pos;
+      return true;
+    }
+
+    boolean is(String word) {
+      return end - start == word.length() && input.startsWith(word, start);
+    }
+
+    String token() {
+      return input.substring(start, end);
+    }
+
+    /**
+     * @return the current token as an int, if {@link Scanner#nextInt(int)} would accept it
+     */
+    OptionalInt toInt() {
+      int value = 0;
+      for (int i = start; i < end; i++) {
+        char c = input.charAt(i);
+        if (c < '0' || c > '9' || value > (Integer.MAX_VALUE - (c - '0')) / 10) {
+          // signed, localized or out of range number: let the scanner decide
+          try (Scanner scanner = new Scanner(token()).useDelimiter(DELIMITERS)) {
+            return scanner.hasNextInt(10) ? OptionalInt.of(scanner.nextInt(10)) : OptionalInt.empty();
+          }
+        }
+        value = value * 10 + (c - '0');
+      }
+      return start < end ? OptionalInt.of(value) : OptionalInt.empty();
+    }
+
+    private static boolean isDelimiter(char c) {
+      return c == '.' || c == ':' || c == '=';
+    }
+  }
+
+  /**
+   * Prefix trie over the setting names, so that a token can be resolved to its setting
+   * while being read, without being extracted from the input first.
+   */
+  private static class SettingTrie {
+    private char[] chars = new char[0];
+    private SettingTrie[] children = new SettingTrie[0];
+    private Setting setting;
+
+    SettingTrie(Setting... settings) {
+      for (Setting setting : settings) {
+        String name = setting.toString();
+        SettingTrie node = this;
+        for (int i = 0; i < name.length(); i++) {
+          node = node.getOrCreateChild(name.charAt(i));
+        }
+        if (node.setting == null) {
+          node.setting = setting;
+        }
+      }
+    }
+
+    private SettingTrie() {
+    }
+
+    Setting find(String input, int start, int end) {
+      SettingTrie node = this;
+      for (int i = start; i < end && node != null; i++) {
+        node = node.getChild(input.charAt(i));
+      }
+      return node == null ? null : node.setting;
+    }
+
+    private SettingTrie getChild(char c) {
+      for (int i = 0; i < chars.length; i++) {
+        if (chars[i] == c) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    private SettingTrie getOrCreateChild(char c) {
+      SettingTrie child = getChild(c);
+      if (child == null) {
+        child = new SettingTrie();
+        chars = Arrays.copyOf(chars, chars.length + 1);
+        children = Arrays.copyOf(children, children.length + 1);
+        chars[chars.length - 1] = c;
+        children[children.length - 1] = child;
+      }
+      return child;
+    }
+  }
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.dynamic_config.api.model;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the structural changes made to a {@link Cluster}, {@link Stripe} or {@link Node}
+ * (node added or removed, or a node UID, name or address changed).
+ * <p>
+ * A stripe or a node also reports its changes to the counts of all the clusters or stripes it belongs to:
+ * the same instance can be added to several of them, i.e. by {@link NodeContext#withOnlyNode(Node)}.
+ * The lookup indexes of a {@link Cluster} record the count of the cluster they were built at and are rebuilt
+ * lazily when it moved, so they never need to track which object of the topology was changed,
+ * and changing another cluster does not invalidate them.
+ */
+final class ModCount {
+
+  private final AtomicLong count = new AtomicLong();
+  private final Set<ModCount> owners = new CopyOnWriteArraySet<>();
+
+  long get() {
+    return count.get();
+  }
+
+  void increment() {
+    count.incrementAndGet();
+    for (ModCount owner : owners) {
+      owner.increment();
+    }
+  }
+
+  /**
+   * Reports the next changes to the given count as well
+   */
+  void ownedBy(ModCount owner) {
+    owners.add(owner);
+  }
+
+  /**
+   * Stops reporting the next changes to the given count
+   */
+  void disownedBy(ModCount owner) {
+    owners.remove(owner);
+  }
+}
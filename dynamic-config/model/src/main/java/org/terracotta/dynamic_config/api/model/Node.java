@@ -69,6 +69,8 @@ public class Node implements Cloneable, PropertyHolder {
   private Map<String, String> loggerOverrides;
   private Map<String, RawPath> dataDirs;
 
+  final ModCount modCount = new ModCount();
+
   @Override
   public Scope getScope() {
     return NODE;
@@ -145,31 +147,37 @@ public class Node implements Cloneable, PropertyHolder {
 
   public Node setUID(UID uid) {
     this.uid = requireNonNull(uid);
+    modCount.increment();
     return this;
   }
 
   public Node setName(String name) {
     this.name = requireNonNull(name);
+    modCount.increment();
     return this;
   }
 
   public Node setHostname(String hostname) {
     this.hostname = requireNonNull(hostname);
+    modCount.increment();
     return this;
   }
 
   public Node setPublicHostname(String publicHostname) {
     this.publicHostname = publicHostname;
+    modCount.increment();
     return this;
   }
 
   public Node setPort(Integer port) {
     this.port = port;
+    modCount.increment();
     return this;
   }
 
   public Node setPublicPort(Integer publicPort) {
     this.publicPort = publicPort;
+    modCount.increment();
     return this;
   }
 
@@ -42,12 +42,17 @@ public class Stripe implements Cloneable, PropertyHolder {
   private UID uid;
   private String name;
 
+  final ModCount modCount = new ModCount();
+
   public List<Node> getNodes() {
     return Collections.unmodifiableList(nodes);
   }
 
   public Stripe setNodes(List<Node> nodes) {
+    this.nodes.forEach(node -> node.modCount.disownedBy(modCount));
     this.nodes = new CopyOnWriteArrayList<>(nodes);
+    nodes.forEach(node -> node.modCount.ownedBy(modCount));
+    modCount.increment();
     return this;
   }
 
@@ -68,6 +73,7 @@ public class Stripe implements Cloneable, PropertyHolder {
 
   public Stripe setUID(UID uid) {
     this.uid = requireNonNull(uid);
+    modCount.increment();
     return this;
   }
 
@@ -147,13 +153,19 @@ public class Stripe implements Cloneable, PropertyHolder {
   public Stripe clone() {
     Stripe copy = new Stripe();
     copy.nodes = this.nodes.stream().map(Node::clone).collect(toCollection(CopyOnWriteArrayList::new));
+    copy.nodes.forEach(node -> node.modCount.ownedBy(copy.modCount));
     copy.name = this.name;
     copy.uid = this.uid;
     return copy;
   }
 
   public boolean removeNode(UID uid) {
-    return nodes.removeIf(node -> node.getUID().equals(uid));
+    nodes.stream().filter(node -> node.getUID().equals(uid)).forEach(node -> node.modCount.disownedBy(modCount));
+    boolean removed = nodes.removeIf(node -> node.getUID().equals(uid));
+    if (removed) {
+      modCount.increment();
+    }
+    return removed;
   }
 
   public boolean isEmpty() {
@@ -162,6 +174,8 @@ public class Stripe implements Cloneable, PropertyHolder {
 
   public Stripe addNode(Node source) {
     nodes.add(source);
+    source.modCount.ownedBy(modCount);
+    modCount.increment();
     return this;
   }
 
@@ -23,6 +23,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.terracotta.common.struct.TimeUnit;
 import org.terracotta.dynamic_config.api.json.DynamicConfigModelJsonModule;
 
+import java.net.InetSocketAddress;
 import java.util.function.BiConsumer;
 
 import static org.hamcrest.Matchers.equalTo;
@@ -161,4 +162,67 @@ public class ClusterTest {
   public void test_getNodeCount() {
     assertThat(cluster.getNodeCount(), is(equalTo(1)));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void test_lookups_follow_topology_changes() {
+    assertThat(cluster.getNodeByName("node1").get(), is(sameInstance(node1)));
+    assertFalse(cluster.containsNode("node2"));
+
+    // node added to a stripe after the cluster was already queried
+    stripe1.addNode(node2);
+    assertThat(cluster.getNode(node2.getUID()).get(), is(sameInstance(node2)));
+    assertThat(cluster.getStripeByNode(node2.getUID()).get(), is(sameInstance(stripe1)));
+    assertThat(cluster.getStripeIdByNode(node2.getUID()).getAsInt(), is(equalTo(1)));
+
+    // node renamed and re-identified in place
+    node2.setName("node3").setUID(Testing.N_UIDS[3]);
+    assertFalse(cluster.containsNode("node2"));
+    assertFalse(cluster.getNode(Testing.N_UIDS[2]).isPresent());
+    assertThat(cluster.getNodeByName("node3").get(), is(sameInstance(node2)));
+    assertThat(cluster.getStripeByNodeName("node3").get(), is(sameInstance(stripe1)));
+
+    // new stripe
+    Stripe stripe2 = Testing.newTestStripe("stripe2", Testing.S_UIDS[2]).addNodes(Testing.newTestNode("node4", "localhost", 9412, Testing.N_UIDS[4]));
+    cluster.addStripe(stripe2);
+    assertThat(cluster.getStripe(Testing.S_UIDS[2]).get(), is(sameInstance(stripe2)));
+    assertThat(cluster.getStripeId(Testing.S_UIDS[2]).getAsInt(), is(equalTo(2)));
+    assertThat(cluster.getStripeIdByNode(Testing.N_UIDS[4]).getAsInt(), is(equalTo(2)));
+
+    cluster.removeNode(Testing.N_UIDS[4]);
+    assertFalse(cluster.containsNode(Testing.N_UIDS[4]));
+    assertFalse(cluster.getStripe(Testing.S_UIDS[2]).isPresent());
+  }
+
+  @Test
+  public void test_getEndpoints_follow_address_changes() {
+    node1.setPublicHostname("public-host").setPublicPort(9510);
+    assertThat(cluster.getEndpoints(InetSocketAddress.createUnresolved("localhost", 9410)).iterator().next().getAddress(), is(equalTo(node1.getInternalAddress())));
+    assertThat(cluster.getEndpoints(null).iterator().next().getAddress(), is(equalTo(node1.getPublicAddress().get())));
+
+    node1.setHostname("other-host");
+    assertThat(cluster.getEndpoints(InetSocketAddress.createUnresolved("other-host", 9410)).iterator().next().getAddress(), is(equalTo(node1.getInternalAddress())));
+  }
+
+  @Test
+  public void test_changes_of_another_cluster_keep_the_lookups() {
+    Node otherNode = Testing.newTestNode("node5", "localhost", 9415, Testing.N_UIDS[5]);
+    Cluster other = Testing.newTestCluster("other", new Stripe().addNodes(otherNode));
+    Cluster copy = cluster.clone();
+    assertThat(cluster.getNodeByName("node1").get(), is(sameInstance(node1)));
+
+    long modCount = cluster.modCount.get();
+    otherNode.setName("node6");
+    other.getSingleStripe().get().addNode(Testing.newTestNode("node7", "localhost", 9417, Testing.N_UIDS[6]));
+    other.addStripe(new Stripe());
+    copy.getSingleNode().get().setName("node8");
+    assertThat(cluster.modCount.get(), is(equalTo(modCount)));
+    assertThat(cluster.getNodeByName("node1").get(), is(sameInstance(node1)));
+    assertThat(copy.getNodeByName("node8").get(), is(sameInstance(copy.getSingleNode().get())));
+
+    // a change of a node of this cluster still invalidates them
+    node1.setName("node9");
+    assertThat(cluster.modCount.get(), is(equalTo(modCount + 1)));
+    assertFalse(cluster.containsNode("node1"));
+    assertThat(cluster.getNodeByName("node9").get(), is(sameInstance(node1)));
+  }
+}
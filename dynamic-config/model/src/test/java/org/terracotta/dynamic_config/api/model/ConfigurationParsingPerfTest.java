@@ -0,0 +1,81 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.dynamic_config.api.model;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.terracotta.common.struct.MemoryUnit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.terracotta.dynamic_config.api.model.Testing.newTestCluster;
+import static org.terracotta.dynamic_config.api.model.Testing.newTestNode;
+import static org.terracotta.dynamic_config.api.model.Testing.newTestStripe;
+
+/**
+ * Measures {@link Configuration#valueOf(String)} over all the lines of the
+ * expanded properties of a 100 nodes cluster (4 stripes of 25 nodes).
+ */
+public class ConfigurationParsingPerfTest {
+
+  @Test
+  @Ignore
+  public void parse100Nodes() {
+    List<String> lines = lines(4, 25);
+    System.out.println("Parsing " + lines.size() + " lines per iteration");
+
+    long totalLines = 0;
+    long totalNanos = 0;
+    int checksum = 0;
+    for (int i = 0; i < 200; i++) {
+      long st = System.nanoTime();
+      for (String line : lines) {
+        checksum += Configuration.valueOf(line).getSetting().ordinal();
+      }
+      long took = System.nanoTime() - st;
+      if (i >= 50) {
+        // first iterations are warmup
+        totalNanos += took;
+        totalLines += lines.size();
+      }
+      System.out.println(i + ". " + TimeUnit.MICROSECONDS.convert(took, TimeUnit.NANOSECONDS) + "us " + (took / lines.size()) + " ns/line");
+    }
+    System.out.println((totalNanos / totalLines) + " ns/line (checksum: " + checksum + ")");
+  }
+
+  private static List<String> lines(int stripeCount, int nodesPerStripe) {
+    Random random = new Random(0);
+    Stripe[] stripes = new Stripe[stripeCount];
+    for (int s = 0; s < stripeCount; s++) {
+      stripes[s] = newTestStripe("stripe-" + (s + 1), UID.newUID(random));
+      for (int n = 0; n < nodesPerStripe; n++) {
+        stripes[s].addNode(newTestNode("node-" + (s + 1) + "-" + (n + 1), "host-" + (s + 1) + "-" + (n + 1), 9410, UID.newUID(random))
+            .putDataDir("main", RawPath.valueOf("data/main"))
+            .putTcProperty("foo", "bar"));
+      }
+    }
+    Cluster cluster = newTestCluster("my-cluster", stripes)
+        .putOffheapResource("main", 512, MemoryUnit.MB);
+    Properties properties = cluster.toProperties(true, true, true);
+    List<String> lines = new ArrayList<>(properties.size());
+    properties.stringPropertyNames().forEach(key -> lines.add(key + "=" + properties.getProperty(key)));
+    return lines;
+  }
+}
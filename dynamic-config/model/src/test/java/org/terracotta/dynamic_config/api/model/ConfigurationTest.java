@@ -529,6 +529,18 @@ public class ConfigurationTest {
       rejectInput("stripe.1.node.1.stripe.1" + ns + "backup-dir", "Invalid input: 'stripe.1.node.1.stripe.1" + ns + "backup-dir'");
       rejectInput("stripe.1.node.1.node.1" + ns + "backup-dir", "Invalid input: 'stripe.1.node.1.node.1" + ns + "backup-dir'");
       rejectInput("stripe" + ns + "backup-dir", "Invalid input: 'stripe" + ns + "backup-dir'");
+      rejectInput("stripe.+1" + ns + "backup-dir", "Invalid input: 'stripe.+1" + ns + "backup-dir'");
+      rejectInput("stripe.+1" + ns + "foo", "Invalid input: 'stripe.+1" + ns + "foo'. Reason: Invalid setting name: 'foo'");
+      rejectInput("stripe.99999999999" + ns + "backup-dir", "Invalid input: 'stripe.99999999999" + ns + "backup-dir'");
+      rejectInput("stripe.1" + ns + ns + "backup-dir", "Invalid input: 'stripe.1" + ns + ns + "backup-dir'. Reason: Invalid setting name: ''");
+      rejectInput("stripe:1" + ns + "backup-dir", "Invalid input: 'stripe:1" + ns + "backup-dir'");
+      rejectInput("stripe.1.node:1" + ns + "backup-dir", "Invalid input: 'stripe.1.node:1" + ns + "backup-dir'");
+      rejectInput(ns + "backup-dir", "Invalid input: '" + ns + "backup-dir'");
+      rejectInput("backup-dir" + ns, "Invalid input: 'backup-dir" + ns + "'");
+      rejectInput("offheap-resources.=1GB", "Invalid input: 'offheap-resources.=1GB'");
+      rejectInput("offheap-resources:main=1GB", "Invalid input: 'offheap-resources:main=1GB'");
+      rejectInput("offheap-resources.ma:in=1GB", "Invalid input: 'offheap-resources.ma:in=1GB'");
+      rejectInput("backup-dir=foo=bar", "Invalid input: 'backup-dir=foo=bar'");
 
       // bad settings combinations
       rejectInput("backup-dir.key", "Invalid input: 'backup-dir.key'. Reason: Setting 'backup-dir' is not a map and must not have a key");
@@ -25,6 +25,8 @@ import java.util.stream.Stream;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.terracotta.dynamic_config.api.model.FailoverPriority.consistency;
 import static org.terracotta.dynamic_config.api.model.Testing.N_UIDS;
@@ -107,6 +109,20 @@ public class NodeContextTest {
     ).forEach(ctx -> assertThat(ctx.clone().hashCode(), is(equalTo(ctx.hashCode()))));
   }
 
+  @Test
+  public void test_withOnlyNode_keeps_the_lookups_of_the_original_cluster() {
+    NodeContext alone = new NodeContext(cluster, N_UIDS[1]).withOnlyNode(node1);
+    assertThat(cluster.getNodeByName("node1").get(), is(sameInstance(node1)));
+    assertThat(alone.getCluster().getNodeByName("node1").get(), is(sameInstance(node1)));
+
+    // the node is shared by both clusters: a change must invalidate the lookups of both
+    node1.setName("node3");
+    assertFalse(cluster.containsNode("node1"));
+    assertThat(cluster.getNodeByName("node3").get(), is(sameInstance(node1)));
+    assertFalse(alone.getCluster().containsNode("node1"));
+    assertThat(alone.getCluster().getNodeByName("node3").get(), is(sameInstance(node1)));
+  }
+
   private static NodeContext nodeContext(Node node) {
     return new NodeContext(Testing.newTestCluster(newTestStripe("stripe-1").addNodes(node)), node.getUID());
   }
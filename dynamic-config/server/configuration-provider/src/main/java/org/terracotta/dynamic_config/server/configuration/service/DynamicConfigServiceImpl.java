@@ -37,6 +37,7 @@ import org.terracotta.dynamic_config.api.service.TopologyService;
 import org.terracotta.dynamic_config.server.api.DynamicConfigListener;
 import org.terracotta.dynamic_config.server.api.InvalidLicenseException;
 import org.terracotta.dynamic_config.server.api.LicenseService;
+import org.terracotta.dynamic_config.server.configuration.nomad.persistence.CachingConfigStorage;
 import org.terracotta.dynamic_config.server.configuration.sync.DynamicConfigNomadSynchronizer;
 import org.terracotta.entity.StateDumpCollector;
 import org.terracotta.entity.StateDumpable;
@@ -171,6 +172,12 @@ public class DynamicConfigServiceImpl implements TopologyService, DynamicConfigS
     } catch (NomadException e) {
       nomad.addState("error", e.getMessage());
     }
+    CachingConfigStorage configStorage = nomadServerManager.getConfigStorage();
+    StateDumpCollector configCache = stateDumpCollector.subStateDumpCollector("ConfigCache");
+    configCache.addState("capacity", configStorage.getCapacity());
+    configCache.addState("size", configStorage.getSize());
+    configCache.addState("hits", configStorage.getHits());
+    configCache.addState("misses", configStorage.getMisses());
   }
 
   // we only listen to log
@@ -39,6 +39,7 @@ import org.terracotta.dynamic_config.server.api.NomadPermissionChangeProcessor;
 import org.terracotta.dynamic_config.server.api.NomadRoutingChangeProcessor;
 import org.terracotta.dynamic_config.server.configuration.nomad.NomadServerFactory;
 import org.terracotta.dynamic_config.server.configuration.nomad.UncheckedNomadException;
+import org.terracotta.dynamic_config.server.configuration.nomad.persistence.CachingConfigStorage;
 import org.terracotta.dynamic_config.server.configuration.nomad.persistence.ConfigStorageException;
 import org.terracotta.dynamic_config.server.configuration.nomad.persistence.NomadConfigurationManager;
 import org.terracotta.dynamic_config.server.configuration.service.nomad.processor.ApplicabilityNomadChangeProcessor;
@@ -81,6 +82,7 @@ public class NomadServerManager {
   private final NomadPermissionChangeProcessorImpl nomadPermissionChangeProcessor = new NomadPermissionChangeProcessorImpl();
 
   private volatile UpgradableNomadServer<NodeContext> nomadServer;
+  private volatile CachingConfigStorage configStorage;
   private volatile NomadConfigurationManager configurationManager;
   private volatile DynamicConfigService dynamicConfigService;
   private volatile TopologyService topologyService;
@@ -102,6 +104,13 @@ public class NomadServerManager {
     return nomadServer;
   }
 
+  public CachingConfigStorage getConfigStorage() {
+    if (configStorage == null) {
+      throw new AssertionError("Not initialized");
+    }
+    return configStorage;
+  }
+
   public DynamicConfigService getDynamicConfigService() {
     if (dynamicConfigService == null) {
       throw new AssertionError("Not initialized");
@@ -175,7 +184,9 @@ public class NomadServerManager {
     this.eventFiringService = eventService;
 
     try {
-      this.nomadServer = nomadServerFactory.createServer(getConfigurationManager(), null, nodeName.get(), getEventFiringService());
+      String name = nodeName.get();
+      this.configStorage = nomadServerFactory.createConfigStorage(getConfigurationManager(), name);
+      this.nomadServer = nomadServerFactory.createServer(getConfigurationManager(), configStorage, null, name, getEventFiringService());
     } catch (SanskritException | NomadException | ConfigStorageException e) {
       throw new UncheckedNomadException("Exception initializing Nomad Server: " + e.getMessage(), e);
     }
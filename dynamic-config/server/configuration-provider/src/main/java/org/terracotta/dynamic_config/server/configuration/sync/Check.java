@@ -87,6 +87,27 @@ class Check {
     }
   }
 
+  /**
+   * Cheap comparison of the {@code count} first changes of both lists, which does not compare the content of the changes
+   * (that can embed whole topologies) but only their UUIDs and states: a change UUID identifies a single change.
+   * When this check fails, {@link #requireEquals(List, List, int, int)} must be used to compare the changes one by one.
+   */
+  static boolean isSameHistory(List<NomadChangeInfo> nomadChanges, List<NomadChangeInfo> sourceNomadChanges, int count) {
+    if (count > nomadChanges.size() || count > sourceNomadChanges.size()) {
+      return false;
+    }
+    for (int i = 0; i < count; i++) {
+      NomadChangeInfo nomadChange = nomadChanges.get(i);
+      NomadChangeInfo sourceChange = sourceNomadChanges.get(i);
+      if (!nomadChange.getChangeUuid().equals(sourceChange.getChangeUuid()) || nomadChange.getChangeRequestState() != sourceChange.getChangeRequestState()) {
+        LOGGER.trace("isSameHistory({}): false", count);
+        return false;
+      }
+    }
+    LOGGER.trace("isSameHistory({}): true", count);
+    return true;
+  }
+
   static boolean canRepair(List<NomadChangeInfo> nomadChanges, List<NomadChangeInfo> sourceNomadChanges) {
     int last = nomadChanges.size() - 1;
     NomadChangeInfo lastNomadChange = nomadChanges.get(last);
@@ -140,11 +140,14 @@ public class DynamicConfigNomadSynchronizer {
     } else {
       // This node is either not new or the activation was done at the same time with the source node
       // (so the beginning of the append log is the same)
-      LOGGER.info("Comparing all nomad changes from source");
-
       // All the N changes of this node from 0 -> N-1 must be the same
       final int last = nomadChanges.size() - 1;
-      Check.requireEquals(nomadChanges, sourceNomadChanges, 0, last);
+      if (Check.isSameHistory(nomadChanges, sourceNomadChanges, last)) {
+        LOGGER.info("Configuration change history matches the one from source: only syncing the missing changes");
+      } else {
+        LOGGER.info("Comparing all nomad changes from source");
+        Check.requireEquals(nomadChanges, sourceNomadChanges, 0, last);
+      }
 
       // Check if the last change can be repaired , otherwise, it has to match the source one.
       if (Check.canRepair(nomadChanges, sourceNomadChanges)) {
@@ -49,6 +49,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.terracotta.dynamic_config.api.model.nomad.Applicability.cluster;
@@ -160,6 +161,36 @@ public class DynamicConfigurationPassiveSyncTest {
     syncManager.sync(codec.decode(active));
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testSyncWhenPassiveChangeStateNotMatchWithActive() throws NomadException {
+    List<NomadChangeInfo> activeNomadChanges = new ArrayList<>();
+    UUID firstChange = UUID.randomUUID();
+    activeNomadChanges.add(activation);
+    activeNomadChanges.add(new NomadChangeInfo(firstChange, createOffheapChange("a", "100"), ChangeRequestState.COMMITTED, 1L, "SYSTEM", "SYSTEM", now));
+    activeNomadChanges.add(new NomadChangeInfo(UUID.randomUUID(), createOffheapChange("b", "200"), ChangeRequestState.COMMITTED, 2L, "SYSTEM", "SYSTEM", now));
+    activeNomadChanges.add(new NomadChangeInfo(UUID.randomUUID(), createOffheapChange("c", "300"), ChangeRequestState.COMMITTED, 3L, "SYSTEM", "SYSTEM", now));
+
+    UpgradableNomadServer<NodeContext> activeNomadServer = mock(UpgradableNomadServer.class);
+    DynamicConfigurationPassiveSync activeSyncManager = new DynamicConfigurationPassiveSync(startupTopology, activeNomadServer, mock(DynamicConfigService.class), topologyService, () -> null);
+    when(activeNomadServer.getAllNomadChanges()).thenReturn(activeNomadChanges);
+    byte[] active = codec.encode(activeSyncManager.getSyncData());
+
+    // same change UUIDs, but the passive has rolled back a change that the active has committed
+    List<NomadChangeInfo> passiveNomadChanges = new ArrayList<>();
+    passiveNomadChanges.add(activation);
+    passiveNomadChanges.add(new NomadChangeInfo(firstChange, createOffheapChange("a", "100"), ChangeRequestState.ROLLED_BACK, 1L, "SYSTEM", "SYSTEM", now));
+    passiveNomadChanges.add(activeNomadChanges.get(2));
+
+    UpgradableNomadServer<NodeContext> nomadServer = mock(UpgradableNomadServer.class);
+    when(nomadServer.getAllNomadChanges()).thenReturn(passiveNomadChanges);
+
+    DynamicConfigurationPassiveSync syncManager = new DynamicConfigurationPassiveSync(startupTopology, nomadServer, mock(DynamicConfigService.class), topologyService, () -> null);
+    exceptionRule.expect(IllegalStateException.class);
+    exceptionRule.expectMessage("Node cannot sync because the configuration change history does not match");
+    syncManager.sync(codec.decode(active));
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   public void testSyncWhenActiveHasChangesWhichIsNotCommitted() throws NomadException {
@@ -258,6 +289,39 @@ public class DynamicConfigurationPassiveSyncTest {
     assertThat(requires.size(), is(equalTo(0)));
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testSyncSkippedWhenPassiveChangeHistoryMatchesActive() throws NomadException {
+    List<NomadChangeInfo> activeNomadChanges = new ArrayList<>();
+    UUID firstChange = UUID.randomUUID();
+    activeNomadChanges.add(activation);
+    activeNomadChanges.add(new NomadChangeInfo(firstChange, createOffheapChange("a", "100"), ChangeRequestState.COMMITTED, 1L, "SYSTEM", "SYSTEM", now));
+    activeNomadChanges.add(new NomadChangeInfo(UUID.randomUUID(), createOffheapChange("b", "200"), ChangeRequestState.COMMITTED, 2L, "SYSTEM", "SYSTEM", now));
+
+    UpgradableNomadServer<NodeContext> activeNomadServer = mock(UpgradableNomadServer.class);
+    DynamicConfigurationPassiveSync activeSyncManager = new DynamicConfigurationPassiveSync(startupTopology, activeNomadServer, mock(DynamicConfigService.class), topologyService, () -> null);
+    when(activeNomadServer.getAllNomadChanges()).thenReturn(activeNomadChanges);
+    byte[] active = codec.encode(activeSyncManager.getSyncData());
+
+    // same change UUIDs and states: the changes are not compared one by one, so this other creation user is not seen
+    List<NomadChangeInfo> passiveNomadChanges = new ArrayList<>();
+    passiveNomadChanges.add(activation);
+    passiveNomadChanges.add(new NomadChangeInfo(firstChange, createOffheapChange("a", "100"), ChangeRequestState.COMMITTED, 1L, "SYSTEM", "other", now));
+    passiveNomadChanges.add(activeNomadChanges.get(2));
+
+    UpgradableNomadServer<NodeContext> nomadServer = mock(UpgradableNomadServer.class);
+    when(nomadServer.getAllNomadChanges()).thenReturn(passiveNomadChanges);
+
+    DynamicConfigurationPassiveSync syncManager = new DynamicConfigurationPassiveSync(startupTopology, nomadServer, mock(DynamicConfigService.class), topologyService, () -> null);
+    Set<Require> requires = syncManager.sync(codec.decode(active));
+    assertThat(requires.size(), is(equalTo(0)));
+
+    // nothing left to sync
+    verify(nomadServer, never()).discover();
+    verify(nomadServer, never()).prepare(any(PrepareMessage.class));
+    verify(nomadServer, never()).commit(any(CommitMessage.class));
+  }
+
   private static SettingNomadChange createOffheapChange(String resourceName, String size) {
     return SettingNomadChange.set(cluster(), Setting.OFFHEAP_RESOURCES, resourceName, size);
   }
@@ -23,8 +23,10 @@ import org.terracotta.dynamic_config.api.model.NodeContext;
 import org.terracotta.dynamic_config.api.model.Version;
 import org.terracotta.dynamic_config.api.model.nomad.FormatUpgradeNomadChange;
 import org.terracotta.dynamic_config.server.api.DynamicConfigEventFiring;
+import org.terracotta.dynamic_config.server.configuration.nomad.persistence.CachingConfigStorage;
 import org.terracotta.dynamic_config.server.configuration.nomad.persistence.ClusterConfigFilename;
 import org.terracotta.dynamic_config.server.configuration.nomad.persistence.Config;
+import org.terracotta.dynamic_config.server.configuration.nomad.persistence.ConfigStorage;
 import org.terracotta.dynamic_config.server.configuration.nomad.persistence.ConfigStorageAdapter;
 import org.terracotta.dynamic_config.server.configuration.nomad.persistence.ConfigStorageException;
 import org.terracotta.dynamic_config.server.configuration.nomad.persistence.DefaultHashComputer;
@@ -69,7 +71,19 @@ public class NomadServerFactory {
     this.objectMapperFactory = objectMapperFactory;
   }
 
+  public CachingConfigStorage createConfigStorage(NomadConfigurationManager configurationManager, String nodeName) {
+    return new CachingConfigStorage(new FileConfigStorage(configurationManager.getClusterPath(), nodeName));
+  }
+
+  public UpgradableNomadServer<NodeContext> createServer(NomadConfigurationManager configurationManager,
+                                                         ChangeApplicator<NodeContext> changeApplicator,
+                                                         String nodeName,
+                                                         DynamicConfigEventFiring dynamicConfigEventFiring) throws SanskritException, NomadException, ConfigStorageException {
+    return createServer(configurationManager, createConfigStorage(configurationManager, nodeName), changeApplicator, nodeName, dynamicConfigEventFiring);
+  }
+
   public UpgradableNomadServer<NodeContext> createServer(NomadConfigurationManager configurationManager,
+                                                         ConfigStorage storage,
                                                          ChangeApplicator<NodeContext> changeApplicator,
                                                          String nodeName,
                                                          DynamicConfigEventFiring dynamicConfigEventFiring) throws SanskritException, NomadException, ConfigStorageException {
@@ -90,7 +104,7 @@ public class NomadServerFactory {
     Sanskrit sanskrit = Sanskrit.init(filesystemDirectory, objectMapperSupplier);
 
     Path clusterDir = configurationManager.getClusterPath();
-    InitialConfigStorage configStorage = new InitialConfigStorage(new ConfigStorageAdapter(new FileConfigStorage(clusterDir, nodeName)) {
+    InitialConfigStorage configStorage = new InitialConfigStorage(new ConfigStorageAdapter(storage) {
       @Override
       public void saveConfig(long version, NodeContext config) throws ConfigStorageException {
         super.saveConfig(version, config);
@@ -0,0 +1,133 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.dynamic_config.server.configuration.nomad.persistence;
+
+import org.terracotta.dynamic_config.api.model.NodeContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the last loaded configurations in memory so that reading the same version several times
+ * (discover, sync, diagnostic commands, etc) does not reload and re-parse the configuration file each time.
+ * <p>
+ * The cached configurations are never exposed: a copy is returned to the callers, which are free to modify it.
+ */
+public class CachingConfigStorage extends ConfigStorageAdapter {
+
+  public static final int DEFAULT_CAPACITY = 16;
+
+  private final int capacity;
+  private final Map<Long, Config> cache;
+  private long hits;
+  private long misses;
+  // incremented after each save or reset so that a config loaded concurrently is not cached
+  private long generation;
+
+  public CachingConfigStorage(ConfigStorage delegate) {
+    this(delegate, DEFAULT_CAPACITY);
+  }
+
+  public CachingConfigStorage(ConfigStorage delegate, int capacity) {
+    super(delegate);
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    this.capacity = capacity;
+    this.cache = new LinkedHashMap<Long, Config>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Config> eldest) {
+        return size() > CachingConfigStorage.this.capacity;
+      }
+    };
+  }
+
+  @Override
+  public Config getConfig(long version) throws ConfigStorageException {
+    long loadGeneration;
+    synchronized (cache) {
+      Config config = cache.get(version);
+      if (config != null) {
+        hits++;
+        return copy(config);
+      }
+      misses++;
+      loadGeneration = generation;
+    }
+    Config config = super.getConfig(version);
+    if (config != null) {
+      synchronized (cache) {
+        if (loadGeneration == generation) {
+          cache.put(version, copy(config));
+        }
+      }
+    }
+    return config;
+  }
+
+  @Override
+  public void saveConfig(long version, NodeContext config) throws ConfigStorageException {
+    // the saved config is not cached: the config must be read back the same way it was written, which might not exactly be the one provided
+    try {
+      super.saveConfig(version, config);
+    } finally {
+      synchronized (cache) {
+        generation++;
+        cache.remove(version);
+      }
+    }
+  }
+
+  @Override
+  public void reset() throws ConfigStorageException {
+    try {
+      super.reset();
+    } finally {
+      synchronized (cache) {
+        generation++;
+        cache.clear();
+      }
+    }
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public int getSize() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  public long getHits() {
+    synchronized (cache) {
+      return hits;
+    }
+  }
+
+  public long getMisses() {
+    synchronized (cache) {
+      return misses;
+    }
+  }
+
+  private static Config copy(Config config) {
+    return new Config(config.getTopology().clone(), config.getVersion());
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.dynamic_config.server.configuration.nomad.persistence;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.terracotta.dynamic_config.api.model.NodeContext;
+import org.terracotta.dynamic_config.api.model.Testing;
+import org.terracotta.dynamic_config.api.model.Version;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.terracotta.dynamic_config.api.model.Testing.newTestStripe;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingConfigStorageTest {
+
+  NodeContext topology = new NodeContext(Testing.newTestCluster("bar", newTestStripe("stripe1").addNodes(Testing.newTestNode("node-1", "localhost"))), Testing.N_UIDS[1]);
+
+  @Mock
+  private ConfigStorage underlying;
+
+  @Test
+  public void configIsLoadedOnce() throws Exception {
+    when(underlying.getConfig(1L)).thenReturn(new Config(topology, Version.CURRENT));
+
+    CachingConfigStorage storage = new CachingConfigStorage(underlying);
+    Config first = storage.getConfig(1L);
+    Config second = storage.getConfig(1L);
+
+    assertEquals(new Config(topology, Version.CURRENT), second);
+    assertNotSame(first.getTopology(), second.getTopology());
+    verify(underlying, times(1)).getConfig(1L);
+    assertEquals(1, storage.getHits());
+    assertEquals(1, storage.getMisses());
+  }
+
+  @Test
+  public void cachedConfigCannotBeModified() throws Exception {
+    when(underlying.getConfig(1L)).thenReturn(new Config(topology.clone(), Version.CURRENT));
+
+    CachingConfigStorage storage = new CachingConfigStorage(underlying);
+    storage.getConfig(1L).getTopology().getCluster().setName("modified");
+
+    assertEquals(new Config(topology, Version.CURRENT), storage.getConfig(1L));
+  }
+
+  @Test
+  public void saveInvalidatesVersion() throws Exception {
+    when(underlying.getConfig(1L)).thenReturn(new Config(topology, Version.CURRENT));
+
+    CachingConfigStorage storage = new CachingConfigStorage(underlying);
+    storage.getConfig(1L);
+    storage.saveConfig(1L, topology);
+    storage.getConfig(1L);
+
+    verify(underlying).saveConfig(1L, topology);
+    verify(underlying, times(2)).getConfig(1L);
+  }
+
+  @Test
+  public void resetClearsCache() throws Exception {
+    when(underlying.getConfig(1L)).thenReturn(new Config(topology, Version.CURRENT));
+    when(underlying.getConfig(2L)).thenReturn(new Config(topology, Version.CURRENT));
+
+    CachingConfigStorage storage = new CachingConfigStorage(underlying);
+    storage.getConfig(1L);
+    storage.getConfig(2L);
+    assertEquals(2, storage.getSize());
+
+    storage.reset();
+
+    verify(underlying).reset();
+    assertEquals(0, storage.getSize());
+  }
+
+  @Test
+  public void leastRecentlyUsedVersionIsEvicted() throws Exception {
+    when(underlying.getConfig(1L)).thenReturn(new Config(topology, Version.CURRENT));
+    when(underlying.getConfig(2L)).thenReturn(new Config(topology, Version.CURRENT));
+    when(underlying.getConfig(3L)).thenReturn(new Config(topology, Version.CURRENT));
+
+    CachingConfigStorage storage = new CachingConfigStorage(underlying, 2);
+    storage.getConfig(1L);
+    storage.getConfig(2L);
+    storage.getConfig(1L);
+    storage.getConfig(3L); // evicts 2
+    storage.getConfig(1L);
+    storage.getConfig(2L);
+
+    verify(underlying, times(1)).getConfig(1L);
+    verify(underlying, times(2)).getConfig(2L);
+    assertEquals(2, storage.getSize());
+  }
+}
@@ -20,6 +20,7 @@ import org.terracotta.dynamic_config.api.model.Node;
 import org.terracotta.dynamic_config.api.model.NodeContext;
 import org.terracotta.dynamic_config.cli.upgrade_tools.config_converter.ConfigRepoProcessor;
 import org.terracotta.nomad.messages.AcceptRejectResponse;
+import org.terracotta.nomad.messages.ChangeHistoryResponse;
 import org.terracotta.nomad.messages.CommitMessage;
 import org.terracotta.nomad.messages.DiscoverResponse;
 import org.terracotta.nomad.messages.PrepareMessage;
@@ -65,6 +66,11 @@ public class CommitSkippingConfigRepoProcessor extends ConfigRepoProcessor {
         return nomadServer.takeover(message);
       }
 
+      @Override
+      public ChangeHistoryResponse getChangeHistory(long fromVersion, int maxCount) throws NomadException {
+        return nomadServer.getChangeHistory(fromVersion, maxCount);
+      }
+
       @Override
       public void close() {
         nomadServer.close();
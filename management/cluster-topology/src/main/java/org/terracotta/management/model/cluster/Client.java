@@ -17,6 +17,9 @@ package org.terracotta.management.model.cluster;
 
 import org.terracotta.management.model.context.Context;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -272,6 +275,60 @@ public final class Client extends AbstractManageableNode<Cluster> {
     return map;
   }
 
+  Client copy() {
+    Client copy = new Client(clientIdentifier);
+    copy.tags.addAll(tags);
+    copy.hostName = hostName;
+    copy.properties.putAll(properties);
+    copy.setManagementRegistry(getManagementRegistry().orElse(null));
+    for (Connection connection : connections.values()) {
+      Connection c = connection.copy();
+      copy.connections.put(c.getId(), c);
+      c.setParent(copy);
+    }
+    return copy;
+  }
+
+  void writeTo(ObjectOutput out) throws IOException {
+    out.writeLong(clientIdentifier.getPid());
+    out.writeUTF(clientIdentifier.getHostAddress());
+    out.writeUTF(clientIdentifier.getName());
+    out.writeUTF(clientIdentifier.getConnectionUid());
+    out.writeInt(tags.size());
+    for (String tag : tags) {
+      out.writeUTF(tag);
+    }
+    out.writeObject(hostName);
+    out.writeInt(properties.size());
+    for (Map.Entry<String, String> entry : properties.entrySet()) {
+      out.writeUTF(entry.getKey());
+      out.writeObject(entry.getValue());
+    }
+    out.writeObject(getManagementRegistry().orElse(null));
+    out.writeInt(connections.size());
+    for (Connection connection : connections.values()) {
+      connection.writeTo(out);
+    }
+  }
+
+  static Client readFrom(ObjectInput in) throws IOException, ClassNotFoundException {
+    Client client = new Client(ClientIdentifier.create(in.readLong(), in.readUTF(), in.readUTF(), in.readUTF()));
+    for (int i = in.readInt(); i > 0; i--) {
+      client.tags.add(in.readUTF());
+    }
+    client.hostName = (String) in.readObject();
+    for (int i = in.readInt(); i > 0; i--) {
+      client.properties.put(in.readUTF(), (String) in.readObject());
+    }
+    client.setManagementRegistry((ManagementRegistry) in.readObject());
+    for (int i = in.readInt(); i > 0; i--) {
+      Connection connection = Connection.readFrom(in);
+      client.connections.put(connection.getId(), connection);
+      connection.setParent(client);
+    }
+    return client;
+  }
+
   public static Client create(String clientIdentifier) {
     return create(ClientIdentifier.valueOf(clientIdentifier));
   }
@@ -18,6 +18,9 @@ package org.terracotta.management.model.cluster;
 import org.terracotta.management.model.context.Context;
 import org.terracotta.management.model.context.Contextual;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
@@ -228,6 +231,54 @@ public final class Cluster implements Contextual {
     return map;
   }
 
+  /**
+   * @return a deep copy of this topology. The management registries, which are replaced instead of being updated, are shared with the copy.
+   */
+  public Cluster copy() {
+    Cluster copy = new Cluster();
+    for (Stripe stripe : stripes.values()) {
+      Stripe s = stripe.copy();
+      copy.stripes.put(s.getId(), s);
+      s.setParent(copy);
+    }
+    for (Client client : clients.values()) {
+      Client c = client.copy();
+      copy.clients.put(c.getId(), c);
+      c.setParent(copy);
+    }
+    return copy;
+  }
+
+  /**
+   * Writes this topology in a compact binary form, read back by {@link #readFrom(ObjectInput)}. The management
+   * registries are written with {@link ObjectOutput#writeObject(Object)}.
+   */
+  public void writeTo(ObjectOutput out) throws IOException {
+    out.writeInt(stripes.size());
+    for (Stripe stripe : stripes.values()) {
+      stripe.writeTo(out);
+    }
+    out.writeInt(clients.size());
+    for (Client client : clients.values()) {
+      client.writeTo(out);
+    }
+  }
+
+  public static Cluster readFrom(ObjectInput in) throws IOException, ClassNotFoundException {
+    Cluster cluster = new Cluster();
+    for (int i = in.readInt(); i > 0; i--) {
+      Stripe stripe = Stripe.readFrom(in);
+      cluster.stripes.put(stripe.getId(), stripe);
+      stripe.setParent(cluster);
+    }
+    for (int i = in.readInt(); i > 0; i--) {
+      Client client = Client.readFrom(in);
+      cluster.clients.put(client.getId(), client);
+      client.setParent(cluster);
+    }
+    return cluster;
+  }
+
   public static Cluster create() {
     return new Cluster();
   }
@@ -15,6 +15,9 @@
  */
 package org.terracotta.management.model.cluster;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -47,6 +50,23 @@ public final class Connection extends AbstractNode<Client> {
     this.stripeId = server.getStripe().getId();
   }
 
+  private Connection(String id, String logicalConnectionUid, Endpoint clientEndpoint, String stripeId, String serverId) {
+    super(id);
+    this.logicalConnectionUid = Objects.requireNonNull(logicalConnectionUid);
+    this.clientEndpoint = Objects.requireNonNull(clientEndpoint);
+    this.serverId = Objects.requireNonNull(serverId);
+    this.stripeId = Objects.requireNonNull(stripeId);
+  }
+
+  private Connection(Connection connection) {
+    super(connection.getId());
+    this.logicalConnectionUid = connection.logicalConnectionUid;
+    this.clientEndpoint = connection.clientEndpoint;
+    this.serverId = connection.serverId;
+    this.stripeId = connection.stripeId;
+    this.serverEntityIds.putAll(connection.serverEntityIds);
+  }
+
   public String getLogicalConnectionUid() {
     return logicalConnectionUid;
   }
@@ -198,6 +218,32 @@ public final class Connection extends AbstractNode<Client> {
     return getServer().isPresent();
   }
 
+  Connection copy() {
+    return new Connection(this);
+  }
+
+  void writeTo(ObjectOutput out) throws IOException {
+    out.writeUTF(getId());
+    out.writeUTF(logicalConnectionUid);
+    out.writeUTF(clientEndpoint.getAddress());
+    out.writeInt(clientEndpoint.getPort());
+    out.writeUTF(stripeId);
+    out.writeUTF(serverId);
+    out.writeInt(serverEntityIds.size());
+    for (Map.Entry<String, Long> entry : serverEntityIds.entrySet()) {
+      out.writeUTF(entry.getKey());
+      out.writeLong(entry.getValue());
+    }
+  }
+
+  static Connection readFrom(ObjectInput in) throws IOException {
+    Connection connection = new Connection(in.readUTF(), in.readUTF(), Endpoint.create(in.readUTF(), in.readInt()), in.readUTF(), in.readUTF());
+    for (int i = in.readInt(); i > 0; i--) {
+      connection.serverEntityIds.put(in.readUTF(), in.readLong());
+    }
+    return connection;
+  }
+
   public static Connection create(String logicalConnectionUid, Server server, Endpoint clientEndpoint) {
     Objects.requireNonNull(logicalConnectionUid);
     Objects.requireNonNull(server);
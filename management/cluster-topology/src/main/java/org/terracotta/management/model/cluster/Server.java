@@ -17,6 +17,9 @@ package org.terracotta.management.model.cluster;
 
 import org.terracotta.management.model.context.Context;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.time.Clock;
 import java.util.Map;
 import java.util.Objects;
@@ -336,6 +339,68 @@ public final class Server extends AbstractNode<Stripe> {
     return map;
   }
 
+  Server copy() {
+    Server copy = new Server(getId(), serverName);
+    copy.hostName = hostName;
+    copy.hostAddress = hostAddress;
+    copy.bindAddress = bindAddress;
+    copy.bindPort = bindPort;
+    copy.groupPort = groupPort;
+    copy.state = state;
+    copy.version = version;
+    copy.buildId = buildId;
+    copy.startTime = startTime;
+    copy.upTimeSec = upTimeSec;
+    copy.activateTime = activateTime;
+    for (ServerEntity serverEntity : serverEntities.values()) {
+      ServerEntity e = serverEntity.copy();
+      copy.serverEntities.put(e.getId(), e);
+      e.setParent(copy);
+    }
+    return copy;
+  }
+
+  void writeTo(ObjectOutput out) throws IOException {
+    out.writeUTF(getId());
+    out.writeUTF(serverName);
+    out.writeObject(hostName);
+    out.writeObject(hostAddress);
+    out.writeObject(bindAddress);
+    out.writeInt(bindPort);
+    out.writeInt(groupPort);
+    out.writeByte(state.ordinal());
+    out.writeObject(version);
+    out.writeObject(buildId);
+    out.writeLong(startTime);
+    out.writeLong(upTimeSec);
+    out.writeLong(activateTime);
+    out.writeInt(serverEntities.size());
+    for (ServerEntity serverEntity : serverEntities.values()) {
+      serverEntity.writeTo(out);
+    }
+  }
+
+  static Server readFrom(ObjectInput in) throws IOException, ClassNotFoundException {
+    Server server = new Server(in.readUTF(), in.readUTF());
+    server.hostName = (String) in.readObject();
+    server.hostAddress = (String) in.readObject();
+    server.bindAddress = (String) in.readObject();
+    server.bindPort = in.readInt();
+    server.groupPort = in.readInt();
+    server.state = State.values()[in.readByte()];
+    server.version = (String) in.readObject();
+    server.buildId = (String) in.readObject();
+    server.startTime = in.readLong();
+    server.upTimeSec = in.readLong();
+    server.activateTime = in.readLong();
+    for (int i = in.readInt(); i > 0; i--) {
+      ServerEntity serverEntity = ServerEntity.readFrom(in);
+      server.serverEntities.put(serverEntity.getId(), serverEntity);
+      serverEntity.setParent(server);
+    }
+    return server;
+  }
+
   public static Server create(String serverName) {
     return new Server(serverName, serverName);
   }
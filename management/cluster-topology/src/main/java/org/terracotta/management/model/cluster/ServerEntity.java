@@ -17,6 +17,9 @@ package org.terracotta.management.model.cluster;
 
 import org.terracotta.management.model.context.Context;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.Map;
 
 /**
@@ -131,6 +134,27 @@ public final class ServerEntity extends AbstractManageableNode<Server> {
     return map;
   }
 
+  ServerEntity copy() {
+    ServerEntity copy = new ServerEntity(identifier);
+    copy.consumerId = consumerId;
+    copy.setManagementRegistry(getManagementRegistry().orElse(null));
+    return copy;
+  }
+
+  void writeTo(ObjectOutput out) throws IOException {
+    out.writeUTF(identifier.getName());
+    out.writeUTF(identifier.getType());
+    out.writeLong(consumerId);
+    out.writeObject(getManagementRegistry().orElse(null));
+  }
+
+  static ServerEntity readFrom(ObjectInput in) throws IOException, ClassNotFoundException {
+    ServerEntity serverEntity = new ServerEntity(ServerEntityIdentifier.create(in.readUTF(), in.readUTF()));
+    serverEntity.consumerId = in.readLong();
+    serverEntity.setManagementRegistry((ManagementRegistry) in.readObject());
+    return serverEntity;
+  }
+
   public static ServerEntity create(String serverEntityName, String type) {
     return create(ServerEntityIdentifier.create(serverEntityName, type));
   }
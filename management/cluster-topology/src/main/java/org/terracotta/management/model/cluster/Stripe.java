@@ -17,6 +17,9 @@ package org.terracotta.management.model.cluster;
 
 import org.terracotta.management.model.context.Context;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
@@ -175,6 +178,34 @@ public final class Stripe extends AbstractNode<Cluster> {
     return map;
   }
 
+  Stripe copy() {
+    Stripe copy = new Stripe(getId());
+    for (Server server : servers.values()) {
+      Server s = server.copy();
+      copy.servers.put(s.getId(), s);
+      s.setParent(copy);
+    }
+    return copy;
+  }
+
+  void writeTo(ObjectOutput out) throws IOException {
+    out.writeUTF(getId());
+    out.writeInt(servers.size());
+    for (Server server : servers.values()) {
+      server.writeTo(out);
+    }
+  }
+
+  static Stripe readFrom(ObjectInput in) throws IOException, ClassNotFoundException {
+    Stripe stripe = new Stripe(in.readUTF());
+    for (int i = in.readInt(); i > 0; i--) {
+      Server server = Server.readFrom(in);
+      stripe.servers.put(server.getId(), server);
+      server.setParent(stripe);
+    }
+    return stripe;
+  }
+
   public static Stripe create(String name) {
     return new Stripe(name);
   }
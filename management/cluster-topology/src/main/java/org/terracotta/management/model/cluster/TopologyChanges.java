@@ -0,0 +1,135 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.model.cluster;
+
+import org.terracotta.management.model.notification.ContextualNotification;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The changes of a topology since a given version.
+ * <p>
+ * Each change of a topology increments its version and is described by a notification holding the context of the
+ * changed node. When the changes since the requested version are not available anymore, or when the version belongs
+ * to another topology (i.e. after a failover), the whole topology is returned instead.
+ */
+public final class TopologyChanges implements Serializable {
+
+  private static final long serialVersionUID = 1;
+
+  private final String topologyId;
+  private final long version;
+  private final List<ContextualNotification> changes;
+  private final Cluster cluster;
+
+  private TopologyChanges(String topologyId, long version, List<ContextualNotification> changes, Cluster cluster) {
+    this.topologyId = Objects.requireNonNull(topologyId);
+    this.version = version;
+    this.changes = changes;
+    this.cluster = cluster;
+  }
+
+  /**
+   * @return the identifier of the topology, to pass back when reading the next changes
+   */
+  public String getTopologyId() {
+    return topologyId;
+  }
+
+  /**
+   * @return the version of the topology after these changes, to pass back when reading the next changes
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * @return true if this is the whole topology instead of the changes
+   */
+  public boolean isSnapshot() {
+    return cluster != null;
+  }
+
+  /**
+   * @return the whole topology, if the changes were not available
+   */
+  public Optional<Cluster> getCluster() {
+    return Optional.ofNullable(cluster);
+  }
+
+  /**
+   * @return the changes, in order: the last one is the change to the current version. Empty if this is the whole topology.
+   */
+  public List<ContextualNotification> getChanges() {
+    return changes == null ? Collections.emptyList() : changes;
+  }
+
+  @Override
+  public String toString() {
+    return "TopologyChanges{" +
+        "topologyId='" + topologyId + '\'' +
+        ", version=" + version +
+        (cluster == null ? ", changes=" + changes : ", cluster=" + cluster) +
+        '}';
+  }
+
+  /**
+   * Writes these changes in a compact binary form, read back by {@link #readFrom(ObjectInput)}
+   */
+  public void writeTo(ObjectOutput out) throws IOException {
+    out.writeUTF(topologyId);
+    out.writeLong(version);
+    out.writeBoolean(cluster != null);
+    if (cluster != null) {
+      cluster.writeTo(out);
+    } else {
+      out.writeInt(changes.size());
+      for (ContextualNotification change : changes) {
+        change.writeTo(out);
+      }
+    }
+  }
+
+  public static TopologyChanges readFrom(ObjectInput in) throws IOException, ClassNotFoundException {
+    String topologyId = in.readUTF();
+    long version = in.readLong();
+    if (in.readBoolean()) {
+      return snapshot(topologyId, version, Cluster.readFrom(in));
+    }
+    int size = in.readInt();
+    List<ContextualNotification> changes = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      changes.add(ContextualNotification.readFrom(in));
+    }
+    return changes(topologyId, version, changes);
+  }
+
+  public static TopologyChanges changes(String topologyId, long version, List<ContextualNotification> changes) {
+    return new TopologyChanges(topologyId, version, Collections.unmodifiableList(changes), null);
+  }
+
+  public static TopologyChanges snapshot(String topologyId, long version, Cluster cluster) {
+    return new TopologyChanges(topologyId, version, null, Objects.requireNonNull(cluster));
+  }
+}
@@ -37,6 +37,7 @@ import java.util.Map;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -76,6 +77,49 @@ public class ClusterTest extends AbstractTest {
     assertSame(c1_copy, c1_copy.getStripe("stripe-1").get().getServerByName("server-1").get().getStripe().getCluster());
   }
 
+  @Test
+  public void test_binary_format() throws IOException, ClassNotFoundException {
+    client.connectionStream().findFirst().get().fetchServerEntity(ehcache_server_entity.getName(), ehcache_server_entity.getType());
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      cluster1.writeTo(oos);
+    }
+    Cluster read;
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      read = Cluster.readFrom(ois);
+    }
+    assertEquals(cluster1, read);
+    assertEquals(cluster1.toMap(), read.toMap());
+
+    // ensure parent ref is the same ref as another node within the topology
+    assertSame(read.getStripe("stripe-1").get(), read.getStripe("stripe-1").get().getServerByName("server-1").get().getStripe());
+    assertSame(read, read.getClient(client.getId()).get().getCluster());
+    assertEquals(client.getFetchedServerEntityCount(), read.getClient(client.getId()).get().getFetchedServerEntityCount());
+  }
+
+  @Test
+  public void test_copy() {
+    Cluster copy = cluster1.copy();
+    assertEquals(cluster1, copy);
+    assertEquals(cluster1.toMap(), copy.toMap());
+
+    // ensure parent ref is the same ref as another node within the copy
+    assertSame(copy.getStripe("stripe-1").get(), copy.getStripe("stripe-1").get().getServerByName("server-1").get().getStripe());
+    assertSame(copy, copy.getStripe("stripe-1").get().getServerByName("server-1").get().getStripe().getCluster());
+    assertSame(copy, copy.getClient(client.getId()).get().getCluster());
+    assertEquals(client.getFetchedServerEntityCount(), copy.getClient(client.getId()).get().getFetchedServerEntityCount());
+
+    // ensure the copy does not change with the topology
+    cluster1.getStripe("stripe-1").get().getServerByName("server-1").get().setState(Server.State.PASSIVE);
+    client.addTag("new-tag");
+    client.connectionStream().findFirst().get().fetchServerEntity(ehcache_server_entity.getName(), ehcache_server_entity.getType());
+    cluster1.removeStripe("stripe-2");
+    assertNotEquals(cluster1, copy);
+    assertEquals(cluster2, copy);
+    assertEquals(0, copy.getClient(client.getId()).get().getFetchedServerEntityCount());
+  }
+
   @Test
   public void test_equals_hashcode() {
     assertEquals(cluster2, cluster1);
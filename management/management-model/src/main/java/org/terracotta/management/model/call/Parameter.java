@@ -15,6 +15,9 @@
  */
 package org.terracotta.management.model.call;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
 import java.util.Objects;
 
@@ -48,6 +51,20 @@ public final class Parameter implements Serializable {
     return className;
   }
 
+  /**
+   * Writes this parameter in a compact binary form, read back by {@link #readFrom(ObjectInput)}. The value is written
+   * with {@link ObjectOutput#writeObject(Object)}.
+   */
+  public void writeTo(ObjectOutput out) throws IOException {
+    out.writeUTF(className);
+    out.writeObject(value);
+  }
+
+  public static Parameter readFrom(ObjectInput in) throws IOException, ClassNotFoundException {
+    String className = in.readUTF();
+    return new Parameter(in.readObject(), className);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
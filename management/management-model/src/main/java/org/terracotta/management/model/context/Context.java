@@ -15,64 +15,161 @@
  */
 package org.terracotta.management.model.context;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * An immutable set of attributes identifying a managed element.
+ * <p>
+ * Contexts are small, so the attributes are kept in insertion order in two parallel arrays, with interned keys,
+ * and the hash code is computed once.
+ * The serialized form is still the one of a context backed by a {@link LinkedHashMap}.
+ * <p>
+ * Keys and values cannot be null: creating a context with a null key or value throws a {@link NullPointerException}.
+ *
  * @author Ludovic Orban
  * @author Mathieu Carbou
  */
 public class Context extends AbstractMap<String, String> implements Serializable {
 
   private static final long serialVersionUID = 1;
+  private static final ObjectStreamField[] serialPersistentFields = {new ObjectStreamField("back", Map.class)};
+
+  private static final String[] NONE = new String[0];
+  private static final Context EMPTY = new Context(NONE, NONE);
+
+  // context keys are a small set of names, so they are shared and can be compared by reference
+  private static final int MAX_INTERNED_KEYS = 4096;
+  private static final ConcurrentMap<String, String> INTERNED_KEYS = new ConcurrentHashMap<>();
+
+  private final transient String[] keys;
+  private final transient String[] values;
+  private final transient int hash;
 
-  private final Map<String, String> back = new LinkedHashMap<String, String>();
+  // only set on a deserialized instance, which is then replaced by the context built from it
+  private transient Map<String, String> deserialized;
 
-  private Context(Map<String, String> back) {
-    this.back.putAll(back);
+  private Context(String[] keys, String[] values) {
+    this.keys = keys;
+    this.values = values;
+    int hash = 0;
+    for (int i = 0; i < keys.length; i++) {
+      // same hash code as any other map
+      hash += keys[i].hashCode() ^ values[i].hashCode();
+    }
+    this.hash = hash;
   }
 
   public Map<String, String> toMap() {
-    return Collections.unmodifiableMap(back);
+    return Collections.unmodifiableMap(this);
   }
 
+  /**
+   * @throws NullPointerException if the key or the value is null
+   */
   public Context with(String key, String val) {
-    if (val == null) {
-      throw new NullPointerException();
+    checkNotNull(key, val);
+    int i = indexOf(key);
+    if (i >= 0) {
+      if (values[i].equals(val)) {
+        return this;
+      }
+      String[] newValues = values.clone();
+      newValues[i] = val;
+      return new Context(keys, newValues);
     }
-    Context context = new Context(back);
-    context.back.put(key, val);
-    return context;
+    int n = keys.length;
+    String[] newKeys = new String[n + 1];
+    String[] newValues = new String[n + 1];
+    System.arraycopy(keys, 0, newKeys, 0, n);
+    System.arraycopy(values, 0, newValues, 0, n);
+    newKeys[n] = intern(key);
+    newValues[n] = val;
+    return new Context(newKeys, newValues);
   }
 
+  /**
+   * @throws NullPointerException if one of the keys or values is null
+   */
   public Context with(Map<String, String> props) {
-    for (String val : props.values()) {
-      if (val == null) {
-        throw new NullPointerException();
-      }
+    for (Entry<String, String> entry : props.entrySet()) {
+      checkNotNull(entry.getKey(), entry.getValue());
+    }
+    Context context = this;
+    for (Entry<String, String> entry : props.entrySet()) {
+      context = context.with(entry.getKey(), entry.getValue());
     }
-    Context context = new Context(back);
-    context.back.putAll(props);
     return context;
   }
 
   public String get(String key) {
-    return back.get(key);
+    int i = indexOf(key);
+    return i < 0 ? null : values[i];
+  }
+
+  @Override
+  public String get(Object key) {
+    return key instanceof String ? get((String) key) : null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key instanceof String && indexOf((String) key) >= 0;
   }
 
   public int size() {
-    return back.size();
+    return keys.length;
   }
 
-  public boolean isEmpty() { return back.isEmpty(); }
+  public boolean isEmpty() { return keys.length == 0; }
 
   @Override
   public Set<Entry<String, String>> entrySet() {
-    return toMap().entrySet();
+    return new AbstractSet<Entry<String, String>>() {
+      @Override
+      public Iterator<Entry<String, String>> iterator() {
+        return new Iterator<Entry<String, String>>() {
+          int i;
+
+          @Override
+          public boolean hasNext() {
+            return i < keys.length;
+          }
+
+          @Override
+          public Entry<String, String> next() {
+            if (i >= keys.length) {
+              throw new NoSuchElementException();
+            }
+            Entry<String, String> entry = new SimpleImmutableEntry<>(keys[i], values[i]);
+            i++;
+            return entry;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return keys.length;
+      }
+    };
   }
 
   @Override
@@ -80,40 +177,128 @@ public class Context extends AbstractMap<String, String> implements Serializable
     if (this == o) return true;
     if (o == null || getClass() != o.getClass()) return false;
     Context context = (Context) o;
-    return back.equals(context.back);
+    return hash == context.hash && keys.length == context.keys.length && contains(context);
   }
 
   @Override
   public int hashCode() {
-    return back.hashCode();
-  }
-
-  @Override
-  public String toString() {
-    return back.toString();
+    return hash;
   }
 
   public boolean contains(Context subCtx) {
-    return back.entrySet().containsAll(subCtx.back.entrySet());
+    for (int i = 0; i < subCtx.keys.length; i++) {
+      if (!contains(subCtx.keys[i], subCtx.values[i])) {
+        return false;
+      }
+    }
+    return true;
   }
 
   public boolean contains(String key) {
-    return back.containsKey(key);
+    return indexOf(key) >= 0;
   }
 
   public boolean contains(String key, String val) {
-    return back.containsKey(key) && back.get(key).equals(val);
+    int i = indexOf(key);
+    return i >= 0 && values[i].equals(val);
+  }
+
+  private int indexOf(String key) {
+    String[] keys = this.keys;
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] == key) {
+        return i;
+      }
+    }
+    if (key != null) {
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i].equals(key)) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("back", new LinkedHashMap<>(this));
+    out.writeFields();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    deserialized = (Map<String, String>) in.readFields().get("back", null);
+    if (deserialized == null) {
+      throw new InvalidObjectException("Missing context attributes");
+    }
+  }
+
+  private Object readResolve() throws InvalidObjectException {
+    try {
+      return create(deserialized);
+    } catch (NullPointerException e) {
+      throw new InvalidObjectException(e.getMessage());
+    }
+  }
+
+  /**
+   * Writes the attributes in a compact binary form, read back by {@link #readFrom(DataInput)}
+   */
+  public void writeTo(DataOutput out) throws IOException {
+    out.writeInt(keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      out.writeUTF(keys[i]);
+      out.writeUTF(values[i]);
+    }
+  }
+
+  public static Context readFrom(DataInput in) throws IOException {
+    int size = in.readInt();
+    if (size == 0) {
+      return EMPTY;
+    }
+    String[] keys = new String[size];
+    String[] values = new String[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = intern(in.readUTF());
+      values[i] = in.readUTF();
+    }
+    return new Context(keys, values);
+  }
+
+  private static void checkNotNull(String key, String val) {
+    Objects.requireNonNull(key, "Context key is null");
+    Objects.requireNonNull(val, () -> "Context value is null for key: " + key);
+  }
+
+  private static String intern(String key) {
+    String interned = INTERNED_KEYS.get(key);
+    if (interned != null) {
+      return interned;
+    }
+    if (INTERNED_KEYS.size() >= MAX_INTERNED_KEYS) {
+      return key;
+    }
+    interned = INTERNED_KEYS.putIfAbsent(key, key);
+    return interned == null ? key : interned;
   }
 
+  /**
+   * @throws NullPointerException if the key or the value is null
+   */
   public static Context create(String key, String val) {
     return empty().with(key, val);
   }
 
+  /**
+   * @throws NullPointerException if one of the keys or values is null
+   */
   public static Context create(Map<String, String> map) {
-    return new Context(map);
+    return EMPTY.with(map);
   }
 
   public static Context empty() {
-    return new Context(Collections.<String, String>emptyMap());
+    return EMPTY;
   }
 }
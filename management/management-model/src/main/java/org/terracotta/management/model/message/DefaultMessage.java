@@ -16,9 +16,14 @@
 package org.terracotta.management.model.message;
 
 import org.terracotta.management.model.context.Contextual;
+import org.terracotta.management.sequence.BoundaryFlakeSequence;
 import org.terracotta.management.sequence.Sequence;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 
@@ -60,6 +65,56 @@ public class DefaultMessage implements Message, Serializable {
     return messageType;
   }
 
+  /**
+   * Writes this message in a compact binary form, read back by {@link #readFrom(ObjectInput)}. The data is written
+   * with {@link ObjectOutput#writeObject(Object)}.
+   */
+  public void writeTo(ObjectOutput out) throws IOException {
+    out.writeObject(messageType);
+    if (sequence instanceof BoundaryFlakeSequence) {
+      ByteBuffer buffer = ByteBuffer.allocate(BoundaryFlakeSequence.BYTES);
+      sequence.writeTo(buffer);
+      out.writeBoolean(true);
+      out.write(buffer.array());
+    } else {
+      out.writeBoolean(false);
+      out.writeObject(sequence);
+    }
+    if (data != null && data.getClass() == Contextual[].class) {
+      // the varargs array: each element is written with its own type
+      out.writeBoolean(true);
+      out.writeInt(data.length);
+      for (Contextual contextual : data) {
+        out.writeObject(contextual);
+      }
+    } else {
+      out.writeBoolean(false);
+      out.writeObject(data);
+    }
+  }
+
+  public static DefaultMessage readFrom(ObjectInput in) throws IOException, ClassNotFoundException {
+    String messageType = (String) in.readObject();
+    Sequence sequence;
+    if (in.readBoolean()) {
+      byte[] bytes = new byte[BoundaryFlakeSequence.BYTES];
+      in.readFully(bytes);
+      sequence = BoundaryFlakeSequence.readFrom(ByteBuffer.wrap(bytes));
+    } else {
+      sequence = (Sequence) in.readObject();
+    }
+    Contextual[] data;
+    if (in.readBoolean()) {
+      data = new Contextual[in.readInt()];
+      for (int i = 0; i < data.length; i++) {
+        data[i] = (Contextual) in.readObject();
+      }
+    } else {
+      data = (Contextual[]) in.readObject();
+    }
+    return new DefaultMessage(sequence, messageType, data);
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName() +
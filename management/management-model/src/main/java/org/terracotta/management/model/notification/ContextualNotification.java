@@ -18,6 +18,9 @@ package org.terracotta.management.model.notification;
 import org.terracotta.management.model.context.Context;
 import org.terracotta.management.model.context.Contextual;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -62,6 +65,31 @@ public final class ContextualNotification implements Contextual {
     return type;
   }
 
+  /**
+   * Writes this notification in a compact binary form, read back by {@link #readFrom(ObjectInput)}
+   */
+  public void writeTo(ObjectOutput out) throws IOException {
+    context.writeTo(out);
+    out.writeUTF(type);
+    out.writeInt(attributes.size());
+    for (Map.Entry<String, String> entry : attributes.entrySet()) {
+      out.writeUTF(entry.getKey());
+      // attribute values can be messages longer than what writeUTF supports
+      out.writeObject(entry.getValue());
+    }
+  }
+
+  public static ContextualNotification readFrom(ObjectInput in) throws IOException, ClassNotFoundException {
+    Context context = Context.readFrom(in);
+    String type = in.readUTF();
+    int size = in.readInt();
+    Map<String, String> attributes = new HashMap<>(size * 2);
+    for (int i = 0; i < size; i++) {
+      attributes.put(in.readUTF(), (String) in.readObject());
+    }
+    return new ContextualNotification(context, type, attributes);
+  }
+
   @Override
   public String toString() {
     return "ContextualNotification{" +
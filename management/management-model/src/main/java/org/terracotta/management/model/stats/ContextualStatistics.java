@@ -18,10 +18,16 @@ package org.terracotta.management.model.stats;
 import org.terracotta.management.model.context.Context;
 import org.terracotta.management.model.context.Contextual;
 import org.terracotta.statistics.Sample;
+import org.terracotta.statistics.StatisticType;
 import org.terracotta.statistics.registry.Statistic;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -37,6 +43,8 @@ public final class ContextualStatistics implements Contextual {
 
   private static final long serialVersionUID = 1;
 
+  private static final StatisticType[] TYPES = StatisticType.values();
+
   private final Map<String, Statistic<? extends Serializable>> statistics;
   private final String capability;
   private Context context;
@@ -106,6 +114,45 @@ public final class ContextualStatistics implements Contextual {
     return context;
   }
 
+  /**
+   * Writes these statistics in a compact binary form, read back by {@link #readFrom(ObjectInput)}. The sample values
+   * are written with {@link ObjectOutput#writeObject(Object)}.
+   */
+  public void writeTo(ObjectOutput out) throws IOException {
+    out.writeUTF(capability);
+    context.writeTo(out);
+    out.writeInt(statistics.size());
+    for (Map.Entry<String, Statistic<? extends Serializable>> entry : statistics.entrySet()) {
+      List<? extends Sample<? extends Serializable>> samples = entry.getValue().getSamples();
+      out.writeUTF(entry.getKey());
+      out.writeByte(entry.getValue().getType().ordinal());
+      out.writeInt(samples.size());
+      for (Sample<? extends Serializable> sample : samples) {
+        out.writeLong(sample.getTimestamp());
+        out.writeObject(sample.getSample());
+      }
+    }
+  }
+
+  public static ContextualStatistics readFrom(ObjectInput in) throws IOException, ClassNotFoundException {
+    String capability = in.readUTF();
+    Context context = Context.readFrom(in);
+    int size = in.readInt();
+    Map<String, Statistic<? extends Serializable>> statistics = new HashMap<>(size * 2);
+    for (int i = 0; i < size; i++) {
+      String name = in.readUTF();
+      StatisticType type = TYPES[in.readByte()];
+      int count = in.readInt();
+      List<Sample<Serializable>> samples = new ArrayList<>(count);
+      for (int j = 0; j < count; j++) {
+        long timestamp = in.readLong();
+        samples.add(new Sample<>(timestamp, (Serializable) in.readObject()));
+      }
+      statistics.put(name, new Statistic<>(type, samples));
+    }
+    return new ContextualStatistics(capability, context, statistics);
+  }
+
   @Override
   public String toString() {
     return "ContextualStatistics{" +
@@ -0,0 +1,173 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.model.stats;
+
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.context.Contextual;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A batch of {@link ContextualStatistics} in a compact, columnar format.
+ * <p>
+ * Statistic names, capabilities and contexts are sent once in a dictionary and referenced by their id in the
+ * following batches. For each statistic, the sample timestamps are delta-encoded against the previous sampling interval
+ * and written before the sample values.
+ * A value that did not change since the previous sample of the same statistic (i.e. a gauge) is written as a skip marker.
+ * <p>
+ * A batch can only be decoded by a {@link StatisticsBatchDecoder} that decoded all the previous batches
+ * produced by the same {@link StatisticsBatchEncoder} since its last reset.
+ *
+ * @see StatisticsBatchEncoder
+ * @see StatisticsBatchDecoder
+ */
+public final class StatisticsBatch implements Contextual {
+
+  private static final long serialVersionUID = 1;
+
+  static final byte SKIP = 0;
+  static final byte LONG = 1;
+  static final byte DOUBLE = 2;
+  static final byte OBJECT = 3;
+
+  private final boolean reset;
+  private final byte[] data;
+  // values that are neither longs nor doubles, kept as objects so that they go through the codec used for the messages
+  private final Serializable[] objects;
+  // not sent: the statistics carry their own context
+  private transient Context context;
+
+  StatisticsBatch(boolean reset, byte[] data, Serializable[] objects) {
+    this.reset = reset;
+    this.data = Objects.requireNonNull(data);
+    this.objects = Objects.requireNonNull(objects);
+  }
+
+  /**
+   * @return true if this batch starts a new dictionary, in which case it can be decoded without the previous ones
+   */
+  public boolean isReset() {
+    return reset;
+  }
+
+  /**
+   * @return the size in bytes of the encoded statistics, without the values sent as objects
+   */
+  public int getEncodedSize() {
+    return data.length;
+  }
+
+  byte[] getData() {
+    return data;
+  }
+
+  Serializable[] getObjects() {
+    return objects;
+  }
+
+  @Override
+  public void setContext(Context context) {
+    this.context = Objects.requireNonNull(context);
+  }
+
+  @Override
+  public Context getContext() {
+    return context == null ? Context.empty() : context;
+  }
+
+  /**
+   * Writes this batch in a binary form, read back by {@link #readFrom(ObjectInput)}. The values that are neither longs
+   * nor doubles are written with {@link ObjectOutput#writeObject(Object)}.
+   */
+  public void writeTo(ObjectOutput out) throws IOException {
+    out.writeBoolean(reset);
+    out.writeInt(data.length);
+    out.write(data);
+    out.writeInt(objects.length);
+    for (Serializable object : objects) {
+      out.writeObject(object);
+    }
+  }
+
+  public static StatisticsBatch readFrom(ObjectInput in) throws IOException, ClassNotFoundException {
+    boolean reset = in.readBoolean();
+    byte[] data = new byte[in.readInt()];
+    in.readFully(data);
+    Serializable[] objects = new Serializable[in.readInt()];
+    for (int i = 0; i < objects.length; i++) {
+      objects[i] = (Serializable) in.readObject();
+    }
+    return new StatisticsBatch(reset, data, objects);
+  }
+
+  @Override
+  public String toString() {
+    return "StatisticsBatch{" +
+        "reset=" + reset +
+        ", bytes=" + data.length +
+        ", objects=" + objects.length +
+        '}';
+  }
+
+  static long seriesKey(int capabilityId, int contextId, int nameId) {
+    return ((long) capabilityId << 42) | ((long) contextId << 21) | nameId;
+  }
+
+  /**
+   * The last sample of a statistic, against which the next samples are encoded
+   */
+  static final class Series {
+    long timestamp;
+    long interval;
+    Serializable value;
+  }
+
+  static void writeVarLong(DataOutput out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  static long readVarLong(DataInput in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = in.readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed variable-length long");
+  }
+
+  static void writeZigZag(DataOutput out, long value) throws IOException {
+    writeVarLong(out, (value << 1) ^ (value >> 63));
+  }
+
+  static long readZigZag(DataInput in) throws IOException {
+    long value = readVarLong(in);
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.model.stats;
+
+import org.terracotta.management.model.context.Context;
+import org.terracotta.statistics.Sample;
+import org.terracotta.statistics.StatisticType;
+import org.terracotta.statistics.registry.Statistic;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.terracotta.management.model.stats.StatisticsBatch.DOUBLE;
+import static org.terracotta.management.model.stats.StatisticsBatch.LONG;
+import static org.terracotta.management.model.stats.StatisticsBatch.OBJECT;
+import static org.terracotta.management.model.stats.StatisticsBatch.SKIP;
+import static org.terracotta.management.model.stats.StatisticsBatch.readVarLong;
+import static org.terracotta.management.model.stats.StatisticsBatch.readZigZag;
+
+/**
+ * Decodes the {@link StatisticsBatch} produced by a {@link StatisticsBatchEncoder}, in the order they were encoded.
+ * <p>
+ * The batches received before the first one starting a new dictionary cannot be decoded and are ignored.
+ */
+public final class StatisticsBatchDecoder {
+
+  private static final StatisticType[] TYPES = StatisticType.values();
+
+  private final List<String> strings = new ArrayList<>();
+  private final List<Context> contexts = new ArrayList<>();
+  private final Map<Long, StatisticsBatch.Series> series = new HashMap<>();
+  private boolean initialized;
+
+  /**
+   * @return false if this batch cannot be decoded because this decoder missed the batch starting its dictionary, or
+   * failed to decode a previous batch: the encoder then needs to be reset
+   */
+  public synchronized boolean canDecode(StatisticsBatch batch) {
+    return initialized || batch.isReset();
+  }
+
+  public synchronized List<ContextualStatistics> decode(StatisticsBatch batch) {
+    if (batch.isReset()) {
+      strings.clear();
+      contexts.clear();
+      series.clear();
+      initialized = true;
+    } else if (!initialized) {
+      return Collections.emptyList();
+    }
+
+    Serializable[] objects = batch.getObjects();
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(batch.getData()))) {
+      for (int i = (int) readVarLong(in); i > 0; i--) {
+        strings.add(in.readUTF());
+      }
+      for (int i = (int) readVarLong(in); i > 0; i--) {
+        int size = (int) readVarLong(in);
+        Map<String, String> context = new LinkedHashMap<>(size);
+        for (int j = 0; j < size; j++) {
+          context.put(strings.get((int) readVarLong(in)), strings.get((int) readVarLong(in)));
+        }
+        contexts.add(Context.create(context));
+      }
+
+      int count = (int) readVarLong(in);
+      List<ContextualStatistics> result = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        int capabilityId = (int) readVarLong(in);
+        int contextId = (int) readVarLong(in);
+        int size = (int) readVarLong(in);
+        Map<String, Statistic<? extends Serializable>> statistics = new HashMap<>(size * 2);
+
+        for (int j = 0; j < size; j++) {
+          int nameId = (int) readVarLong(in);
+          long typeAndCount = readVarLong(in);
+          StatisticType type = TYPES[(int) (typeAndCount & 0x7)];
+          int sampleCount = (int) (typeAndCount >>> 3);
+
+          StatisticsBatch.Series last = series.computeIfAbsent(StatisticsBatch.seriesKey(capabilityId, contextId, nameId), key -> new StatisticsBatch.Series());
+
+          long[] timestamps = new long[sampleCount];
+          for (int k = 0; k < sampleCount; k++) {
+            last.interval += readZigZag(in);
+            last.timestamp += last.interval;
+            timestamps[k] = last.timestamp;
+          }
+
+          List<Sample<Serializable>> samples = new ArrayList<>(sampleCount);
+          for (int k = 0; k < sampleCount; k++) {
+            byte tag = in.readByte();
+            switch (tag) {
+              case SKIP:
+                break;
+              case LONG:
+                last.value = readZigZag(in) + (last.value instanceof Long ? (Long) last.value : 0L);
+                break;
+              case DOUBLE:
+                last.value = in.readDouble();
+                break;
+              case OBJECT:
+                last.value = objects[(int) readVarLong(in)];
+                break;
+              default:
+                throw new IllegalArgumentException("Malformed statistics batch: bad value tag " + tag);
+            }
+            samples.add(new Sample<>(timestamps[k], last.value));
+          }
+
+          statistics.put(strings.get(nameId), new Statistic<>(type, samples));
+        }
+
+        result.add(new ContextualStatistics(strings.get(capabilityId), contexts.get(contextId), statistics));
+      }
+      return result;
+
+    } catch (IOException | RuntimeException e) {
+      // the dictionary might be partially updated: wait for the next reset
+      initialized = false;
+      throw new IllegalArgumentException("Malformed statistics batch: " + batch, e);
+    }
+  }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.model.stats;
+
+import org.terracotta.management.model.context.Context;
+import org.terracotta.statistics.Sample;
+import org.terracotta.statistics.registry.Statistic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.terracotta.management.model.stats.StatisticsBatch.DOUBLE;
+import static org.terracotta.management.model.stats.StatisticsBatch.LONG;
+import static org.terracotta.management.model.stats.StatisticsBatch.OBJECT;
+import static org.terracotta.management.model.stats.StatisticsBatch.SKIP;
+import static org.terracotta.management.model.stats.StatisticsBatch.writeVarLong;
+import static org.terracotta.management.model.stats.StatisticsBatch.writeZigZag;
+
+/**
+ * Encodes the statistics sent to a same set of receivers into {@link StatisticsBatch}.
+ * <p>
+ * The encoder keeps the dictionary and the last sample of each statistic sent so far, so the batches must be
+ * sent in the order they were encoded. It must be {@link #reset()} each time a new receiver joins, or when a receiver
+ * could not decode a batch: the next batch will then contain the whole dictionary.
+ */
+public final class StatisticsBatchEncoder {
+
+  // the dictionary is restarted when it grows over this size, to bound the memory used by long sessions
+  static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+  private final Map<String, Integer> strings = new HashMap<>();
+  private final Map<Context, Integer> contexts = new HashMap<>();
+  private final Map<Long, StatisticsBatch.Series> series = new HashMap<>();
+  private boolean reset = true;
+
+  /**
+   * Restarts the dictionary: the next batch can be decoded without the previous ones
+   */
+  public synchronized void reset() {
+    strings.clear();
+    contexts.clear();
+    series.clear();
+    reset = true;
+  }
+
+  public synchronized StatisticsBatch encode(Collection<ContextualStatistics> statistics) {
+    if (strings.size() > MAX_DICTIONARY_SIZE || contexts.size() > MAX_DICTIONARY_SIZE) {
+      reset();
+    }
+    List<String> newStrings = new ArrayList<>();
+    List<Context> newContexts = new ArrayList<>();
+    List<Serializable> objects = new ArrayList<>();
+
+    try {
+      ByteArrayOutputStream records = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(records);
+
+      writeVarLong(out, statistics.size());
+      for (ContextualStatistics contextualStatistics : statistics) {
+        int capabilityId = stringId(contextualStatistics.getCapability(), newStrings);
+        int contextId = contextId(contextualStatistics.getContext(), newStrings, newContexts);
+        writeVarLong(out, capabilityId);
+        writeVarLong(out, contextId);
+        writeVarLong(out, contextualStatistics.size());
+
+        for (Map.Entry<String, Statistic<? extends Serializable>> entry : contextualStatistics.getStatistics().entrySet()) {
+          int nameId = stringId(entry.getKey(), newStrings);
+          Statistic<? extends Serializable> statistic = entry.getValue();
+          List<? extends Sample<? extends Serializable>> samples = statistic.getSamples();
+          writeVarLong(out, nameId);
+          writeVarLong(out, ((long) samples.size() << 3) | statistic.getType().ordinal());
+
+          StatisticsBatch.Series last = series.computeIfAbsent(StatisticsBatch.seriesKey(capabilityId, contextId, nameId), key -> new StatisticsBatch.Series());
+
+          // timestamps column
+          for (Sample<? extends Serializable> sample : samples) {
+            long interval = sample.getTimestamp() - last.timestamp;
+            writeZigZag(out, interval - last.interval);
+            last.timestamp = sample.getTimestamp();
+            last.interval = interval;
+          }
+
+          // values column
+          for (Sample<? extends Serializable> sample : samples) {
+            Serializable value = sample.getSample();
+            if (last.value != null && last.value.equals(value)) {
+              out.writeByte(SKIP);
+            } else if (value instanceof Long) {
+              out.writeByte(LONG);
+              writeZigZag(out, (Long) value - (last.value instanceof Long ? (Long) last.value : 0L));
+            } else if (value instanceof Double) {
+              out.writeByte(DOUBLE);
+              out.writeDouble((Double) value);
+            } else {
+              out.writeByte(OBJECT);
+              writeVarLong(out, objects.size());
+              objects.add(value);
+            }
+            last.value = value;
+          }
+        }
+      }
+      out.flush();
+
+      ByteArrayOutputStream batch = new ByteArrayOutputStream(records.size() + 16 * newStrings.size());
+      out = new DataOutputStream(batch);
+      writeVarLong(out, newStrings.size());
+      for (String string : newStrings) {
+        out.writeUTF(string);
+      }
+      writeVarLong(out, newContexts.size());
+      for (Context context : newContexts) {
+        writeVarLong(out, context.size());
+        for (Map.Entry<String, String> entry : context.entrySet()) {
+          writeVarLong(out, strings.get(entry.getKey()));
+          writeVarLong(out, strings.get(entry.getValue()));
+        }
+      }
+      records.writeTo(out);
+      out.flush();
+
+      StatisticsBatch statisticsBatch = new StatisticsBatch(reset, batch.toByteArray(), objects.toArray(new Serializable[0]));
+      reset = false;
+      return statisticsBatch;
+
+    } catch (IOException e) {
+      // cannot happen with in-memory streams
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private int stringId(String string, List<String> newStrings) {
+    Integer id = strings.get(string);
+    if (id == null) {
+      id = strings.size();
+      strings.put(string, id);
+      newStrings.add(string);
+    }
+    return id;
+  }
+
+  private int contextId(Context context, List<String> newStrings, List<Context> newContexts) {
+    Integer id = contexts.get(context);
+    if (id == null) {
+      for (Map.Entry<String, String> entry : context.entrySet()) {
+        stringId(entry.getKey(), newStrings);
+        stringId(entry.getValue(), newStrings);
+      }
+      id = contexts.size();
+      contexts.put(context, id);
+      newContexts.add(context);
+    }
+    return id;
+  }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.model.context;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(JUnit4.class)
+public class ContextTest {
+
+  // Context.create("cacheManagerName", "cm1").with("cacheName", "users").with("instanceId", "1@127.0.0.1"),
+  // serialized when contexts were backed by a LinkedHashMap
+  private static final String SERIALIZED_MAP_CONTEXT = "rO0ABXNyAC9vcmcudGVycmFjb3R0YS5tYW5hZ2VtZW50Lm1vZGVsLmNvbnRleHQuQ29udGV4dAAAAAAAAAABAgABTAAEYmFja3QAD0xqYXZhL3V0aWwvTWFwO3hwc3IAF2phdmEudXRpbC5MaW5rZWRIYXNoTWFwNMBOXBBswPsCAAFaAAthY2Nlc3NPcmRlcnhyABFqYXZhLnV0aWwuSGFzaE1hcAUH2sHDFmDRAwACRgAKbG9hZEZhY3RvckkACXRocmVzaG9sZHhwP0AAAAAAAAN3CAAAAAQAAAADdAAQY2FjaGVNYW5hZ2VyTmFtZXQAA2NtMXQACWNhY2hlTmFtZXQABXVzZXJzdAAKaW5zdGFuY2VJZHQACzFAMTI3LjAuMC4xeAA=";
+
+  private final Context context = Context.create("cacheManagerName", "cm1").with("cacheName", "users").with("instanceId", "1@127.0.0.1");
+
+  @Test
+  public void test_behaves_like_an_ordered_map() {
+    Map<String, String> map = new LinkedHashMap<>();
+    map.put("cacheManagerName", "cm1");
+    map.put("cacheName", "users");
+    map.put("instanceId", "1@127.0.0.1");
+
+    assertEquals(map, context);
+    assertEquals(context, Context.create(map));
+    assertEquals(map.hashCode(), context.hashCode());
+    assertEquals(map.toString(), context.toString());
+    assertEquals(new ArrayList<>(map.keySet()), new ArrayList<>(context.keySet()));
+    assertEquals(3, context.size());
+    assertEquals("users", context.get("cacheName"));
+    assertNull(context.get("alias"));
+  }
+
+  @Test
+  public void test_with() {
+    Context replaced = context.with("cacheName", "orders");
+    assertEquals("orders", replaced.get("cacheName"));
+    assertEquals("users", context.get("cacheName"));
+    assertEquals(Arrays.asList("cacheManagerName", "cacheName", "instanceId"), new ArrayList<>(replaced.keySet()));
+    assertSame(context, context.with("cacheName", "users"));
+
+    Context appended = context.with("alias", "a");
+    assertEquals(4, appended.size());
+    assertEquals(3, context.size());
+    assertFalse(context.contains("alias"));
+  }
+
+  @Test
+  public void test_equality_does_not_depend_on_order() {
+    Context reversed = Context.create("instanceId", "1@127.0.0.1").with("cacheName", "users").with("cacheManagerName", "cm1");
+    assertEquals(context, reversed);
+    assertEquals(context.hashCode(), reversed.hashCode());
+    assertNotEquals(context, reversed.with("cacheName", "orders"));
+    assertNotEquals(context, reversed.with("alias", "a"));
+  }
+
+  @Test
+  public void test_contains() {
+    assertTrue(context.contains("cacheName"));
+    assertTrue(context.contains("cacheName", "users"));
+    assertFalse(context.contains("cacheName", "orders"));
+    assertTrue(context.contains(Context.create("cacheName", "users")));
+    assertTrue(context.contains(Context.empty()));
+    assertFalse(context.contains(Context.create("cacheName", "users").with("alias", "a")));
+    // keys built at runtime are found too
+    assertTrue(context.contains(new String("cacheName".toCharArray())));
+  }
+
+  @Test
+  public void test_with_map() {
+    Map<String, String> props = new HashMap<>();
+    props.put("cacheName", "orders");
+    props.put("alias", "a");
+    Context context = this.context.with(props);
+    assertEquals("orders", context.get("cacheName"));
+    assertEquals("a", context.get("alias"));
+    assertEquals(4, context.size());
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void test_null_value() {
+    context.with("alias", null);
+  }
+
+  @Test
+  public void test_nulls_rejected_with_a_message() {
+    Map<String, String> nullValue = new HashMap<>();
+    nullValue.put("alias", null);
+    Map<String, String> nullKey = new HashMap<>();
+    nullKey.put(null, "a");
+
+    assertNullRejected("Context value is null for key: alias", () -> Context.create(nullValue));
+    assertNullRejected("Context key is null", () -> Context.create(nullKey));
+    assertNullRejected("Context key is null", () -> context.with(nullKey));
+    assertNullRejected("Context key is null", () -> Context.create(null, "a"));
+    assertNullRejected("Context value is null for key: alias", () -> context.with("alias", null));
+  }
+
+  @Test
+  public void test_serialization() throws Exception {
+    Context copy = copy(context);
+    assertEquals(context, copy);
+    assertEquals(context.hashCode(), copy.hashCode());
+    assertEquals(context.toString(), copy.toString());
+  }
+
+  @Test
+  public void test_empty_serialization() throws Exception {
+    assertSame(Context.empty(), copy(Context.empty()));
+    assertSame(Context.empty(), copy(Context.create(new HashMap<>())));
+  }
+
+  @Test
+  public void test_serialized_form_is_compatible() throws Exception {
+    Context read = (Context) read(Base64.getDecoder().decode(SERIALIZED_MAP_CONTEXT));
+    assertEquals(context, read);
+    assertEquals(context.toString(), read.toString());
+  }
+
+  private static void assertNullRejected(String message, Runnable creation) {
+    try {
+      creation.run();
+      fail();
+    } catch (NullPointerException e) {
+      assertEquals(message, e.getMessage());
+    }
+  }
+
+  private static Context copy(Context o) throws IOException, ClassNotFoundException {
+    return (Context) read(write(o));
+  }
+
+  private static byte[] write(Object o) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(o);
+    }
+    return baos.toByteArray();
+  }
+
+  private static Object read(byte[] bytes) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return ois.readObject();
+    }
+  }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.model.stats;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.statistics.Sample;
+import org.terracotta.statistics.StatisticType;
+import org.terracotta.statistics.registry.Statistic;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(JUnit4.class)
+public class StatisticsBatchTest {
+
+  private final StatisticsBatchEncoder encoder = new StatisticsBatchEncoder();
+  private final StatisticsBatchDecoder decoder = new StatisticsBatchDecoder();
+
+  @Test
+  public void test_round_trip() throws Exception {
+    for (int push = 0; push < 10; push++) {
+      List<ContextualStatistics> statistics = statistics(push, 5);
+      StatisticsBatch batch = copy(encoder.encode(statistics));
+      assertEquals(push == 0, batch.isReset());
+      assertEquals(statistics, decoder.decode(batch));
+    }
+  }
+
+  @Test
+  public void test_dictionary_sent_once() throws Exception {
+    StatisticsBatch first = encoder.encode(statistics(0, 5));
+    StatisticsBatch second = encoder.encode(statistics(1, 5));
+    assertTrue(second.getEncodedSize() * 2 < first.getEncodedSize());
+  }
+
+  @Test
+  public void test_unchanged_gauge_skipped() throws Exception {
+    List<ContextualStatistics> statistics = Collections.singletonList(new ContextualStatistics("capability", Context.create("cacheName", "cache-1"),
+        Collections.singletonMap("Cache:Size", statistic(StatisticType.GAUGE, 1000L, 123456789L, 123456789L, 123456789L))));
+    List<ContextualStatistics> moved = Collections.singletonList(new ContextualStatistics("capability", Context.create("cacheName", "cache-1"),
+        Collections.singletonMap("Cache:Size", statistic(StatisticType.GAUGE, 4003L, 123456789L, 123456789L, 123456789L))));
+    decoder.decode(encoder.encode(statistics));
+    StatisticsBatch batch = encoder.encode(moved);
+    // empty dictionary (2) + record count, capability, context and statistic count (4)
+    // + name, type and sample count (2) + 3 timestamps against the 1000ms interval: +3ms, -3ms, 0 (3) + 3 skip markers (3)
+    assertEquals(14, batch.getEncodedSize());
+    assertEquals(moved, decoder.decode(batch));
+  }
+
+  @Test
+  public void test_objects_kept_aside() throws Exception {
+    List<ContextualStatistics> statistics = Collections.singletonList(new ContextualStatistics("capability", Context.create("cacheName", "cache-1"),
+        Collections.singletonMap("Cache:Keys", statistic(StatisticType.TABLE, 1000L, "a", "b", "b"))));
+    StatisticsBatch batch = copy(encoder.encode(statistics));
+    assertEquals(statistics, decoder.decode(batch));
+  }
+
+  @Test
+  public void test_batches_ignored_until_reset() throws Exception {
+    encoder.encode(statistics(0, 5));
+    StatisticsBatch batch = encoder.encode(statistics(1, 5));
+    assertFalse(batch.isReset());
+    assertFalse(decoder.canDecode(batch));
+    assertTrue(decoder.decode(batch).isEmpty());
+
+    encoder.reset();
+    batch = encoder.encode(statistics(2, 5));
+    assertTrue(batch.isReset());
+    assertTrue(decoder.canDecode(batch));
+    assertEquals(statistics(2, 5), decoder.decode(batch));
+    assertTrue(decoder.canDecode(encoder.encode(statistics(3, 5))));
+  }
+
+  @Test
+  public void test_batches_ignored_after_decode_failure() throws Exception {
+    decoder.decode(encoder.encode(statistics(0, 5)));
+    StatisticsBatch batch = encoder.encode(statistics(1, 5));
+    StatisticsBatch truncated = new StatisticsBatch(false, Arrays.copyOf(batch.getData(), batch.getEncodedSize() / 2), batch.getObjects());
+    try {
+      decoder.decode(truncated);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    assertFalse(decoder.canDecode(encoder.encode(statistics(2, 5))));
+
+    encoder.reset();
+    batch = encoder.encode(statistics(3, 5));
+    assertTrue(decoder.canDecode(batch));
+    assertEquals(statistics(3, 5), decoder.decode(batch));
+  }
+
+  @Test
+  public void test_smaller_than_serialization() throws Exception {
+    long serialized = 0;
+    long encoded = 0;
+    for (int push = 0; push < 20; push++) {
+      List<ContextualStatistics> statistics = statistics(push, 20);
+      serialized += serializedSize(new ArrayList<>(statistics));
+      encoded += serializedSize(encoder.encode(statistics));
+    }
+    assertTrue(encoded * 5 < serialized);
+  }
+
+  private static List<ContextualStatistics> statistics(int push, int caches) {
+    long now = 1_000_000L + push * 5_000L;
+    List<ContextualStatistics> statistics = new ArrayList<>(caches);
+    for (int i = 0; i < caches; i++) {
+      Map<String, Statistic<? extends Serializable>> map = new HashMap<>();
+      map.put("Cache:HitCount", statistic(StatisticType.COUNTER, now, 1000L * push + i, 1000L * push + i + 7));
+      map.put("Cache:MissCount", statistic(StatisticType.COUNTER, now, 10L * push, 10L * push + 1));
+      map.put("Cache:HitRatio", statistic(StatisticType.RATIO, now, 0.5 + push / 100.0, 0.5 + push / 99.0));
+      map.put("Cache:Size", statistic(StatisticType.GAUGE, now, 42L, 42L));
+      statistics.add(new ContextualStatistics("StatisticsCapability", Context.create("cacheManagerName", "cache-manager-1")
+          .with("cacheName", "cache-" + i)
+          .with(Context.create("instanceId", "d2e6b4a0-87ab-4aa7-9e8c-1b4b1f0e3f9" + (i % 10))), map));
+    }
+    return statistics;
+  }
+
+  @SafeVarargs
+  private static <T extends Serializable> Statistic<T> statistic(StatisticType type, long from, T... values) {
+    List<Sample<T>> samples = new ArrayList<>(values.length);
+    for (int i = 0; i < values.length; i++) {
+      samples.add(new Sample<>(from + i * 1000L, values[i]));
+    }
+    return new Statistic<>(type, samples);
+  }
+
+  private static long serializedSize(Serializable o) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(o);
+    }
+    return baos.size();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T extends Serializable> T copy(T o) throws IOException, ClassNotFoundException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(o);
+    }
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      return (T) ois.readObject();
+    }
+  }
+
+}
@@ -31,7 +31,9 @@ import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -47,15 +49,27 @@ public abstract class AbstractManagementProvider<T> implements ManagementProvide
   };
 
   private final Queue<ExposedObject<T>> exposedObjects = new ConcurrentLinkedQueue<ExposedObject<T>>();
+  // exposed objects indexed by the value of the last capability context attribute, which is usually the most selective one
+  private final ConcurrentMap<String, Queue<ExposedObject<T>>> exposedObjectsByIndexedValue = new ConcurrentHashMap<String, Queue<ExposedObject<T>>>();
+  // exposed objects which context does not have the indexed attribute
+  private final Queue<ExposedObject<T>> unindexedExposedObjects = new ConcurrentLinkedQueue<ExposedObject<T>>();
 
   private final String capabilityName;
   private final Class<? extends T> managedType;
   private final CapabilityContext capabilityContext;
+  private final String[] capabilityContextAttributeNames;
+  private final String indexedAttributeName;
 
   public AbstractManagementProvider(Class<? extends T> managedType) {
     this.managedType = managedType;
     this.capabilityName = buildCapabilityName();
     this.capabilityContext = buildCapabilityContext();
+    Collection<String> names = new ArrayList<String>();
+    for (CapabilityContext.Attribute attribute : capabilityContext.getAttributes()) {
+      names.add(attribute.getName());
+    }
+    this.capabilityContextAttributeNames = names.toArray(new String[names.size()]);
+    this.indexedAttributeName = capabilityContextAttributeNames.length == 0 ? null : capabilityContextAttributeNames[capabilityContextAttributeNames.length - 1];
   }
 
   @Override
@@ -82,6 +96,7 @@ public abstract class AbstractManagementProvider<T> implements ManagementProvide
   public void register(T managedObject) {
     ExposedObject<T> exposedObject = wrap(managedObject);
     this.exposedObjects.add(exposedObject);
+    index(exposedObject);
   }
 
   @Override
@@ -89,6 +104,7 @@ public abstract class AbstractManagementProvider<T> implements ManagementProvide
     for (ExposedObject<T> exposedObject : exposedObjects) {
       if (exposedObject.getTarget().equals(managedObject)) {
         if (this.exposedObjects.remove(exposedObject)) {
+          unindex(exposedObject);
           dispose(exposedObject);
           return;
         }
@@ -99,7 +115,11 @@ public abstract class AbstractManagementProvider<T> implements ManagementProvide
   @Override
   public void close() {
     while (!exposedObjects.isEmpty()) {
-      dispose(exposedObjects.poll());
+      ExposedObject<T> exposedObject = exposedObjects.poll();
+      if (exposedObject != null) {
+        unindex(exposedObject);
+        dispose(exposedObject);
+      }
     }
   }
 
@@ -170,7 +190,18 @@ public abstract class AbstractManagementProvider<T> implements ManagementProvide
     if (!contextValid(context)) {
       return null;
     }
-    for (ExposedObject<T> exposedObject : exposedObjects) {
+    if (indexedAttributeName != null) {
+      // an exposed object having the indexed attribute can only match a context having the same value
+      Queue<ExposedObject<T>> candidates = exposedObjectsByIndexedValue.get(context.get(indexedAttributeName));
+      if (candidates != null) {
+        for (ExposedObject<T> exposedObject : candidates) {
+          if (context.contains(exposedObject.getContext())) {
+            return exposedObject;
+          }
+        }
+      }
+    }
+    for (ExposedObject<T> exposedObject : unindexedExposedObjects) {
       if (context.contains(exposedObject.getContext())) {
         return exposedObject;
       }
@@ -192,12 +223,44 @@ public abstract class AbstractManagementProvider<T> implements ManagementProvide
     if (context == null) {
       return false;
     }
-    for (CapabilityContext.Attribute attribute : getCapabilityContext().getAttributes()) {
-      if (context.get(attribute.getName()) == null) {
+    for (String name : capabilityContextAttributeNames) {
+      if (context.get(name) == null) {
         return false;
       }
     }
     return true;
   }
 
+  private void index(ExposedObject<T> exposedObject) {
+    String value = indexedValue(exposedObject);
+    if (value == null) {
+      unindexedExposedObjects.add(exposedObject);
+    } else {
+      exposedObjectsByIndexedValue.compute(value, (v, candidates) -> {
+        if (candidates == null) {
+          candidates = new ConcurrentLinkedQueue<ExposedObject<T>>();
+        }
+        candidates.add(exposedObject);
+        return candidates;
+      });
+    }
+  }
+
+  private void unindex(ExposedObject<T> exposedObject) {
+    String value = indexedValue(exposedObject);
+    if (value == null) {
+      unindexedExposedObjects.remove(exposedObject);
+    } else {
+      exposedObjectsByIndexedValue.computeIfPresent(value, (v, candidates) -> {
+        candidates.remove(exposedObject);
+        return candidates.isEmpty() ? null : candidates;
+      });
+    }
+  }
+
+  private String indexedValue(ExposedObject<T> exposedObject) {
+    Context context = exposedObject.getContext();
+    return indexedAttributeName == null || context == null ? null : context.get(indexedAttributeName);
+  }
+
 }
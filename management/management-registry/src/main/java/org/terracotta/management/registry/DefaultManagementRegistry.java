@@ -25,6 +25,8 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -43,6 +45,8 @@ public class DefaultManagementRegistry implements ManagementRegistry, Closeable
   };
 
   protected final List<ManagementProvider<?>> managementProviders = new CopyOnWriteArrayList<ManagementProvider<?>>();
+  // there is at most one provider per capability name
+  private final ConcurrentMap<String, ManagementProvider<?>> managementProvidersByCapability = new ConcurrentHashMap<String, ManagementProvider<?>>();
 
   public DefaultManagementRegistry(ContextContainer contextContainer) {
     this.contextContainer = contextContainer; // accept null values - can be overridden
@@ -50,18 +54,17 @@ public class DefaultManagementRegistry implements ManagementRegistry, Closeable
 
   @Override
   public boolean addManagementProvider(ManagementProvider<?> provider) {
-    String name = provider.getCapabilityName();
-    for (ManagementProvider<?> managementProvider : managementProviders) {
-      if (managementProvider.getCapabilityName().equals(name)) {
-        return false;
-      }
+    if (managementProvidersByCapability.putIfAbsent(provider.getCapabilityName(), provider) != null) {
+      return false;
     }
     return managementProviders.add(provider);
   }
 
   @Override
   public void removeManagementProvider(ManagementProvider<?> provider) {
-    managementProviders.remove(provider);
+    if (managementProviders.remove(provider)) {
+      managementProvidersByCapability.remove(provider.getCapabilityName(), provider);
+    }
   }
 
   @SuppressWarnings({"unchecked", "rawtypes"})
@@ -110,13 +113,8 @@ public class DefaultManagementRegistry implements ManagementRegistry, Closeable
 
   @Override
   public List<ManagementProvider<?>> getManagementProvidersByCapability(String capabilityName) {
-    List<ManagementProvider<?>> allProviders = new ArrayList<ManagementProvider<?>>();
-    for (ManagementProvider<?> provider : managementProviders) {
-      if (provider.getCapabilityName().equals(capabilityName)) {
-        allProviders.add(provider);
-      }
-    }
-    return allProviders;
+    ManagementProvider<?> provider = managementProvidersByCapability.get(capabilityName);
+    return provider == null ? Collections.<ManagementProvider<?>>emptyList() : Collections.<ManagementProvider<?>>singletonList(provider);
   }
 
   @Override
@@ -132,6 +130,9 @@ public class DefaultManagementRegistry implements ManagementRegistry, Closeable
         managementProvider.close();
       }
       managementProviders.removeAll(providers);
+      for (ManagementProvider<?> managementProvider : providers) {
+        managementProvidersByCapability.remove(managementProvider.getCapabilityName(), managementProvider);
+      }
     }
   }
 
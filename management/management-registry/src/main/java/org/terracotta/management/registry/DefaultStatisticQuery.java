@@ -31,6 +31,14 @@ import java.util.stream.Collectors;
 import static org.terracotta.management.model.stats.DelegatingStatistic.convertStats;
 
 /**
+ * Collects the statistics of a capability on the calling thread, one context and one provider after the other.
+ * <p>
+ * This query stays serial on purpose: it is built from a {@link CapabilityManagementSupport} which has no executor,
+ * and it is used for on-demand calls of a single capability, whose caller expects the result when {@link #execute()}
+ * returns. The periodic collection of all the capabilities, where a slow provider must not delay the other ones, does
+ * not use this query: {@link org.terracotta.management.registry.collect.DefaultStatisticCollector} collects each
+ * provider on its own collection executor.
+ *
  * @author Mathieu Carbou
  */
 public class DefaultStatisticQuery implements StatisticQuery {
@@ -24,6 +24,9 @@ import org.terracotta.management.registry.ExposedObject;
 import org.terracotta.management.registry.Named;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -50,6 +53,14 @@ public abstract class AbstractActionManagementProvider<T> extends AbstractManage
     }
   };
 
+  // @Exposed methods, per exposed object class
+  private static final ClassValue<ExposedActions> EXPOSED_ACTIONS = new ClassValue<ExposedActions>() {
+    @Override
+    protected ExposedActions computeValue(Class<?> type) {
+      return new ExposedActions(type);
+    }
+  };
+
   static {
     for (Class<?> c : new Class<?>[]{
         void.class, boolean.class, byte.class,
@@ -66,15 +77,7 @@ public abstract class AbstractActionManagementProvider<T> extends AbstractManage
   public final Collection<? extends Descriptor> getDescriptors() {
     Collection<CallDescriptor> descriptors = new HashSet<CallDescriptor>();
     for (ExposedObject<T> o : getExposedObjects()) {
-      for (Method method : o.getClass().getMethods()) {
-        if (method.isAnnotationPresent(Exposed.class)) {
-          List<CallDescriptor.Parameter> parameters = new ArrayList<CallDescriptor.Parameter>();
-          for (MethodParameter parameter : getParameters(method)) {
-            parameters.add(new CallDescriptor.Parameter(parameter.getName(), parameter.getType().getName()));
-          }
-          descriptors.add(new CallDescriptor(method.getName(), method.getReturnType().getName(), parameters));
-        }
-      }
+      descriptors.addAll(EXPOSED_ACTIONS.get(o.getClass()).descriptors);
     }
     List<CallDescriptor> list = new ArrayList<CallDescriptor>(descriptors);
     Collections.sort(list, CALL_DESCRIPTOR_COMPARATOR);
@@ -96,6 +99,18 @@ public abstract class AbstractActionManagementProvider<T> extends AbstractManage
       args[i] = parameters[i].getValue();
     }
 
+    ExposedAction action = EXPOSED_ACTIONS.get(managedObject.getClass()).find(methodName, argClassNames);
+    if (action != null && action.accepts(args)) {
+      Object result;
+      try {
+        result = action.invoke(managedObject, args);
+      } catch (Throwable e) {
+        throw new ExecutionException(e);
+      }
+      return returnType.isPrimitive() ? (V) result : returnType.cast(result);
+    }
+
+    // the arguments need a conversion, or the call is wrong: let reflection do the conversion or report the error
     try {
       Method method = managedObject.getClass().getMethod(methodName, toClasses(managedObject.getClassLoader(), argClassNames));
 
@@ -138,6 +153,99 @@ public abstract class AbstractActionManagementProvider<T> extends AbstractManage
     return parameters;
   }
 
+  private static final class ExposedActions {
+
+    final Collection<CallDescriptor> descriptors;
+    // overloads per method name
+    private final Map<String, List<ExposedAction>> actions;
+
+    ExposedActions(Class<?> type) {
+      Collection<CallDescriptor> descriptors = new ArrayList<CallDescriptor>();
+      Map<String, List<ExposedAction>> actions = new HashMap<String, List<ExposedAction>>();
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      for (Method method : type.getMethods()) {
+        if (method.isAnnotationPresent(Exposed.class)) {
+          List<CallDescriptor.Parameter> parameters = new ArrayList<CallDescriptor.Parameter>();
+          String[] classNames = new String[method.getParameterTypes().length];
+          for (MethodParameter parameter : getParameters(method)) {
+            parameters.add(new CallDescriptor.Parameter(parameter.getName(), parameter.getType().getName()));
+            classNames[parameter.idx] = parameter.getType().getName();
+          }
+          descriptors.add(new CallDescriptor(method.getName(), method.getReturnType().getName(), parameters));
+          if (!method.isBridge()) {
+            try {
+              ExposedAction action = new ExposedAction(lookup.unreflect(method), classNames, method.getParameterTypes());
+              List<ExposedAction> overloads = actions.get(method.getName());
+              if (overloads == null) {
+                actions.put(method.getName(), overloads = new ArrayList<ExposedAction>(1));
+              }
+              overloads.add(action);
+            } catch (IllegalAccessException e) {
+              // not added: the reflective call will report the error
+            }
+          }
+        }
+      }
+      this.descriptors = Collections.unmodifiableCollection(descriptors);
+      this.actions = actions;
+    }
+
+    ExposedAction find(String methodName, String[] parameterClassNames) {
+      List<ExposedAction> overloads = actions.get(methodName);
+      if (overloads != null) {
+        for (ExposedAction action : overloads) {
+          if (Arrays.equals(action.parameterClassNames, parameterClassNames)) {
+            return action;
+          }
+        }
+      }
+      return null;
+    }
+  }
+
+  private static final class ExposedAction {
+
+    private final String[] parameterClassNames;
+    // (Object target, Object[] args)Object
+    private final MethodHandle handle;
+    // parameter types, primitives being boxed
+    private final Class<?>[] argTypes;
+    private final boolean[] primitives;
+
+    ExposedAction(MethodHandle handle, String[] parameterClassNames, Class<?>[] parameterTypes) {
+      this.parameterClassNames = parameterClassNames;
+      this.handle = handle
+          .asSpreader(Object[].class, parameterTypes.length)
+          .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+      this.argTypes = new Class<?>[parameterTypes.length];
+      this.primitives = new boolean[parameterTypes.length];
+      for (int i = 0; i < parameterTypes.length; i++) {
+        this.primitives[i] = parameterTypes[i].isPrimitive();
+        this.argTypes[i] = MethodType.methodType(parameterTypes[i]).wrap().returnType();
+      }
+    }
+
+    /**
+     * @return true if the arguments can be passed as is, without any widening conversion
+     */
+    boolean accepts(Object[] args) {
+      if (args.length != argTypes.length) {
+        return false;
+      }
+      for (int i = 0; i < args.length; i++) {
+        Object arg = args[i];
+        if (arg == null ? primitives[i] : primitives[i] ? arg.getClass() != argTypes[i] : !argTypes[i].isInstance(arg)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    Object invoke(Object target, Object[] args) throws Throwable {
+      return (Object) handle.invokeExact(target, args);
+    }
+  }
+
   private static class MethodParameter {
 
     private Method m;
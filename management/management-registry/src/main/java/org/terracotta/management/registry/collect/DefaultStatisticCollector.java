@@ -19,87 +19,115 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terracotta.management.model.context.Context;
 import org.terracotta.management.model.stats.ContextualStatistics;
-import org.terracotta.management.registry.CapabilityManagement;
 import org.terracotta.management.registry.CapabilityManagementSupport;
 import org.terracotta.management.registry.ExposedObject;
 import org.terracotta.management.registry.ManagementProvider;
-import org.terracotta.management.registry.ResultSet;
+import org.terracotta.statistics.registry.Statistic;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.LongSupplier;
 
+import static org.terracotta.management.model.stats.DelegatingStatistic.convertStats;
+
 /**
+ * Collects the statistics of all the statistic providers of a registry at a fixed rate.
+ * <p>
+ * Each provider is collected separately, on the given collection executor, starting with the most costly ones
+ * according to the time their last collection took. A provider that does not answer within the provider timeout,
+ * or within the collection interval, is skipped for this cycle, and for the next cycles until its collection completes.
+ * A skipped provider is reported at warn level on the first cycle it is skipped, then at debug level until it is
+ * collected again.
+ *
  * @author Mathieu Carbou
  */
 public class DefaultStatisticCollector implements StatisticCollector {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(DefaultStatisticCollector.class);
+  private static final ClassValue<Boolean> STATISTIC_PROVIDERS = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> type) {
+      return type.isAnnotationPresent(StatisticProvider.class);
+    }
+  };
 
+  private final CapabilityManagementSupport managementRegistry;
   private final ScheduledExecutorService scheduledExecutorService;
+  private final Executor collectionExecutor;
+  private final long providerTimeoutNanos;
+  private final Collector collector;
+  private final LongSupplier systemTimeSupplier;
   private final Runnable runnable;
 
+  // collections of the previous cycles, per provider. Only accessed by the collecting thread.
+  private final Map<ManagementProvider<?>, CompletableFuture<?>> collections = new IdentityHashMap<>();
+  // time taken by the last collection of each provider, in nanoseconds
+  private final Map<ManagementProvider<?>, Long> costs = new ConcurrentHashMap<>();
+  // providers skipped by the previous cycle, already reported at warn level. Only accessed by the collecting thread.
+  private final Set<String> reportedSkippedProviders = new HashSet<>();
+
   private volatile boolean running;
   private ScheduledFuture<?> task;
-  private long intervalMs;
+  private volatile long intervalMs;
   private volatile long lastCollectTime;
+  private volatile CollectionReport lastCollectionReport;
 
+  /**
+   * Creates a collector that collects the providers one after the other on the scheduler thread
+   */
   public DefaultStatisticCollector(final CapabilityManagementSupport managementRegistry,
                                    ScheduledExecutorService scheduledExecutorService,
                                    final Collector collector,
                                    LongSupplier systemTimeSupplier) {
+    this(managementRegistry, scheduledExecutorService, Runnable::run, Long.MAX_VALUE, TimeUnit.NANOSECONDS, collector, systemTimeSupplier);
+  }
 
+  /**
+   * @param collectionExecutor the executor running the collections of the providers, which should be a small bounded pool
+   * @param providerTimeout    the time after which a provider still collecting its statistics is skipped
+   */
+  public DefaultStatisticCollector(final CapabilityManagementSupport managementRegistry,
+                                   ScheduledExecutorService scheduledExecutorService,
+                                   Executor collectionExecutor,
+                                   long providerTimeout, TimeUnit unit,
+                                   final Collector collector,
+                                   LongSupplier systemTimeSupplier) {
+    if (providerTimeout <= 0) {
+      throw new IllegalArgumentException("Bad timeout: " + providerTimeout);
+    }
+    this.managementRegistry = Objects.requireNonNull(managementRegistry);
     this.scheduledExecutorService = Objects.requireNonNull(scheduledExecutorService);
-
-    Objects.requireNonNull(managementRegistry);
-    Objects.requireNonNull(collector);
+    this.collectionExecutor = Objects.requireNonNull(collectionExecutor);
+    this.providerTimeoutNanos = unit.toNanos(providerTimeout);
+    this.collector = Objects.requireNonNull(collector);
+    this.systemTimeSupplier = Objects.requireNonNull(systemTimeSupplier);
 
     this.runnable = () -> {
       try {
         if (running) {
-          Collection<ContextualStatistics> statistics = new ArrayList<>();
-
-          for (String capabilityName : managementRegistry.getCapabilityNames()) {
-
-            Set<Context> allContexts = new LinkedHashSet<>();
-
-            for (ManagementProvider<?> managementProvider : managementRegistry.getManagementProvidersByCapability(capabilityName)) {
-              if (managementProvider.getClass().isAnnotationPresent(StatisticProvider.class)) {
-                for (ExposedObject<?> exposedObject : managementProvider.getExposedObjects()) {
-                  allContexts.add(exposedObject.getContext());
-                }
-              }
-            }
-
-            if (!allContexts.isEmpty()) {
-              CapabilityManagement capabilityManagement = managementRegistry.withCapability(capabilityName);
-              ResultSet<ContextualStatistics> resultSet = capabilityManagement
-                  .queryAllStatistics()
-                  .on(allContexts)
-                  .since(lastCollectTime)
-                  .build()
-                  .execute();
-              for (ContextualStatistics contextualStatistics : resultSet) {
-                statistics.add(contextualStatistics);
-              }
-            }
-          }
-
-          if (running && !statistics.isEmpty()) {
-            collector.onStatistics(statistics);
-
-            // We set the time of last collect after the collector is called.
-            // Thus, if any exception occurs (such as temporary network failure),
-            // the next sending of stat will contains the samples of the last collect.
-            lastCollectTime = systemTimeSupplier.getAsLong();
-          }
+          collect();
         }
       } catch (RuntimeException e) {
         LOGGER.warn("StatisticCollector failed: " + e.getMessage(), e);
@@ -107,6 +135,13 @@ public class DefaultStatisticCollector implements StatisticCollector {
     };
   }
 
+  /**
+   * @return the report of the last collection cycle, if any
+   */
+  public Optional<CollectionReport> getLastCollectionReport() {
+    return Optional.ofNullable(lastCollectionReport);
+  }
+
   @Override
   public synchronized void startStatisticCollector(long interval, TimeUnit unit) {
     if (interval <= 0) {
@@ -126,7 +161,8 @@ public class DefaultStatisticCollector implements StatisticCollector {
       if (!scheduledExecutorService.isShutdown()) {
         running = true;
         try {
-          task = scheduledExecutorService.scheduleWithFixedDelay(runnable, 0L, intervalMs, TimeUnit.MILLISECONDS);
+          // at a fixed rate so that the interval does not drift with the time taken by the collections
+          task = scheduledExecutorService.scheduleAtFixedRate(runnable, 0L, intervalMs, TimeUnit.MILLISECONDS);
         } catch (RejectedExecutionException e) {
           running = false;
           throw e;
@@ -153,4 +189,197 @@ public class DefaultStatisticCollector implements StatisticCollector {
     return running;
   }
 
+  private void collect() {
+    final long start = System.nanoTime();
+    final long since = lastCollectTime;
+    final List<ProviderCollection> providerCollections = new ArrayList<>();
+    final List<String> skipped = new ArrayList<>();
+    final Set<ManagementProvider<?>> providers = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    for (String capabilityName : managementRegistry.getCapabilityNames()) {
+      for (ManagementProvider<?> managementProvider : managementRegistry.getManagementProvidersByCapability(capabilityName)) {
+        if (STATISTIC_PROVIDERS.get(managementProvider.getClass())) {
+          providers.add(managementProvider);
+          CompletableFuture<?> previous = collections.get(managementProvider);
+          if (previous != null && !previous.isDone()) {
+            // still collecting since a previous cycle
+            skipped.add(capabilityName + ":" + managementProvider.getClass().getSimpleName());
+            continue;
+          }
+          Set<Context> contexts = new LinkedHashSet<>();
+          for (ExposedObject<?> exposedObject : managementProvider.getExposedObjects()) {
+            contexts.add(exposedObject.getContext());
+          }
+          if (!contexts.isEmpty()) {
+            providerCollections.add(new ProviderCollection(capabilityName, managementProvider, contexts, since));
+          }
+        }
+      }
+    }
+
+    // forget the providers that were removed
+    collections.keySet().retainAll(providers);
+    costs.keySet().retainAll(providers);
+
+    // start the most costly collections first, so that they do not end up last in the queue of the executor
+    List<ProviderCollection> byCost = new ArrayList<>(providerCollections);
+    byCost.sort(Comparator.comparingLong((ProviderCollection c) -> costs.getOrDefault(c.provider, 0L)).reversed());
+    for (ProviderCollection providerCollection : byCost) {
+      providerCollection.future = CompletableFuture.supplyAsync(providerCollection::collect, collectionExecutor);
+      collections.put(providerCollection.provider, providerCollection.future);
+    }
+
+    // statistics per context, per capability, in the order of the capabilities and providers
+    Map<String, Map<Context, Map<String, Statistic<? extends Serializable>>>> byCapability = new LinkedHashMap<>();
+    final long cycleDeadline = start + TimeUnit.MILLISECONDS.toNanos(intervalMs);
+    for (ProviderCollection providerCollection : providerCollections) {
+      Map<Context, Map<String, Statistic<? extends Serializable>>> result;
+      try {
+        result = providerCollection.await(cycleDeadline);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (TimeoutException e) {
+        skipped.add(providerCollection.getName());
+        continue;
+      } catch (ExecutionException e) {
+        LOGGER.warn("Failed collecting statistics from " + providerCollection.getName() + ": " + e.getCause().getMessage(), e.getCause());
+        skipped.add(providerCollection.getName());
+        continue;
+      }
+      Map<Context, Map<String, Statistic<? extends Serializable>>> statisticsPerContext = byCapability.computeIfAbsent(providerCollection.capabilityName, name -> new LinkedHashMap<>());
+      result.forEach((context, statistics) -> statisticsPerContext.computeIfAbsent(context, ctx -> new HashMap<>()).putAll(statistics));
+    }
+
+    Collection<ContextualStatistics> statistics = new ArrayList<>();
+    byCapability.forEach((capabilityName, statisticsPerContext) -> statisticsPerContext.forEach((context, map) -> statistics.add(new ContextualStatistics(capabilityName, context, map))));
+
+    CollectionReport report = new CollectionReport(System.nanoTime() - start, providerCollections.size() + skipped.size(), statistics.size(), skipped);
+    lastCollectionReport = report;
+    // a provider that stays slow is only reported once at warn level, and again if it is skipped after having recovered
+    boolean newlySkipped = false;
+    for (String name : skipped) {
+      newlySkipped |= reportedSkippedProviders.add(name);
+    }
+    reportedSkippedProviders.retainAll(skipped);
+    if (newlySkipped) {
+      LOGGER.warn("{}", report);
+    } else {
+      LOGGER.debug("{}", report);
+    }
+
+    if (running && !statistics.isEmpty()) {
+      collector.onStatistics(statistics);
+
+      // We set the time of last collect after the collector is called.
+      // Thus, if any exception occurs (such as temporary network failure),
+      // the next sending of stat will contains the samples of the last collect.
+      lastCollectTime = systemTimeSupplier.getAsLong();
+    }
+  }
+
+  private final class ProviderCollection {
+    final String capabilityName;
+    final ManagementProvider<?> provider;
+    final Collection<Context> contexts;
+    final long since;
+    volatile long startTime;
+    volatile boolean started;
+    CompletableFuture<Map<Context, Map<String, Statistic<? extends Serializable>>>> future;
+
+    ProviderCollection(String capabilityName, ManagementProvider<?> provider, Collection<Context> contexts, long since) {
+      this.capabilityName = capabilityName;
+      this.provider = provider;
+      this.contexts = contexts;
+      this.since = since;
+    }
+
+    String getName() {
+      return capabilityName + ":" + provider.getClass().getSimpleName();
+    }
+
+    Map<Context, Map<String, Statistic<? extends Serializable>>> collect() {
+      startTime = System.nanoTime();
+      started = true;
+      try {
+        Map<Context, Map<String, Statistic<? extends Serializable>>> result = new LinkedHashMap<>(contexts.size() * 2);
+        for (Context context : contexts) {
+          Map<String, Statistic<? extends Serializable>> statistics = new HashMap<>();
+          provider.collectStatistics(context, Collections.emptyList(), since)
+              .forEach((name, statistic) -> statistics.put(name, convertStats(statistic)));
+          result.put(context, statistics);
+        }
+        return result;
+      } finally {
+        costs.put(provider, System.nanoTime() - startTime);
+      }
+    }
+
+    /**
+     * Waits for the collection until the deadline of the cycle, or until the provider timeout once the collection has started
+     */
+    Map<Context, Map<String, Statistic<? extends Serializable>>> await(long cycleDeadline) throws InterruptedException, ExecutionException, TimeoutException {
+      while (true) {
+        long now = System.nanoTime();
+        long remaining = cycleDeadline - now;
+        if (started) {
+          remaining = Math.min(remaining, providerTimeoutNanos - (now - startTime));
+        }
+        if (remaining <= 0) {
+          if (future.isDone()) {
+            return future.get();
+          }
+          throw new TimeoutException();
+        }
+        try {
+          return future.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+          // loop to check again the timeouts, in case the collection started in the meantime
+        }
+      }
+    }
+  }
+
+  /**
+   * The outcome of a collection cycle
+   */
+  public static final class CollectionReport {
+    private final long durationNanos;
+    private final int providerCount;
+    private final int statisticCount;
+    private final List<String> skippedProviders;
+
+    CollectionReport(long durationNanos, int providerCount, int statisticCount, List<String> skippedProviders) {
+      this.durationNanos = durationNanos;
+      this.providerCount = providerCount;
+      this.statisticCount = statisticCount;
+      this.skippedProviders = Collections.unmodifiableList(skippedProviders);
+    }
+
+    public long getDuration(TimeUnit unit) {
+      return unit.convert(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public int getProviderCount() {
+      return providerCount;
+    }
+
+    public int getStatisticCount() {
+      return statisticCount;
+    }
+
+    /**
+     * @return the providers that did not answer in time, or failed, in the form {@code capability:ProviderClass}
+     */
+    public List<String> getSkippedProviders() {
+      return skippedProviders;
+    }
+
+    @Override
+    public String toString() {
+      return "Collected " + statisticCount + " contextual statistics from " + (providerCount - skippedProviders.size()) + "/" + providerCount
+          + " providers in " + getDuration(TimeUnit.MILLISECONDS) + "ms" + (skippedProviders.isEmpty() ? "" : ", skipped: " + skippedProviders);
+    }
+  }
+
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.registry.action;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.terracotta.management.model.call.Parameter;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.registry.ManagementProvider;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of a management call on an @Exposed action with the reflective call it replaced:
+ * a method lookup by name and parameter class names, then a {@link Method#invoke(Object, Object...)}.
+ * Both include the lookup of the exposed object by context.
+ */
+public class ActionProviderPerfTest {
+
+  private static final int WARMUP = 200_000;
+  private static final int ITERATIONS = 2_000_000;
+
+  @Test
+  @Ignore
+  public void compareWithReflection() throws Exception {
+    ManagementProvider<MyObject> managementProvider = new MyManagementProvider();
+    for (int i = 0; i < 100; i++) {
+      managementProvider.register(new MyObject("cache-manager", "cache-" + i));
+    }
+    MyObject target = new MyObject("cache-manager", "cache-50");
+    Context context = target.getContext();
+    Parameter parameter = new Parameter(1, "int");
+
+    for (int round = 0; round < 5; round++) {
+      long sum = 0;
+      for (int i = 0; i < WARMUP; i++) {
+        sum += managementProvider.callAction(context, "incr", int.class, parameter);
+        sum += reflectiveCall(managementProvider, context, target, "incr", parameter);
+      }
+
+      long start = System.nanoTime();
+      for (int i = 0; i < ITERATIONS; i++) {
+        sum += managementProvider.callAction(context, "incr", int.class, parameter);
+      }
+      long callAction = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < ITERATIONS; i++) {
+        sum += reflectiveCall(managementProvider, context, target, "incr", parameter);
+      }
+      long reflection = System.nanoTime() - start;
+
+      System.out.println(round + ". method handles: " + callAction / ITERATIONS + " ns/call, "
+          + "reflection: " + reflection / ITERATIONS + " ns/call, "
+          + "total: " + TimeUnit.NANOSECONDS.toMillis(callAction + reflection) + " ms (" + sum + ")");
+    }
+  }
+
+  // the previous resolution
+  private static int reflectiveCall(ManagementProvider<MyObject> managementProvider, Context context, MyObject target, String methodName, Parameter... parameters) throws Exception {
+    if (!managementProvider.supports(context)) {
+      throw new IllegalArgumentException(context.toString());
+    }
+    String[] argClassNames = new String[parameters.length];
+    Object[] args = new Object[parameters.length];
+    for (int i = 0; i < parameters.length; i++) {
+      argClassNames[i] = parameters[i].getClassName();
+      args[i] = parameters[i].getValue();
+    }
+    Parameter parameter = parameters[0];
+    Class<?> type = "int".equals(parameter.getClassName()) ? int.class : Class.forName(parameter.getClassName(), true, target.getClassLoader());
+    Method method = target.getClass().getMethod(methodName, type);
+    if (!method.isAnnotationPresent(Exposed.class)) {
+      throw new IllegalArgumentException(methodName);
+    }
+    return (Integer) method.invoke(target, args);
+  }
+
+}
@@ -102,6 +102,26 @@ public class ActionProviderTest {
     assertThat(n, equalTo(2));
   }
 
+  @Test
+  public void testCallAction_many_objects() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      managementProvider.register(new MyObject("cache-manager-" + (i % 2), "cache-" + i));
+    }
+    MyObject unregistered = new MyObject("cache-manager-1", "cache-101");
+    managementProvider.register(unregistered);
+    managementProvider.unregister(unregistered);
+
+    Context context = Context.empty()
+        .with("cacheManagerName", "cache-manager-1")
+        .with("cacheName", "cache-51")
+        .with("instanceId", "1");
+
+    assertThat(managementProvider.supports(context), is(true));
+    assertThat(managementProvider.supports(context.with("cacheManagerName", "cache-manager-0")), is(false));
+    assertThat(managementProvider.supports(context.with("cacheName", "cache-101")), is(false));
+    assertThat(managementProvider.callAction(context, "incr", int.class, new Parameter(1, "int")), equalTo(2));
+  }
+
   @Test
   public void testCallAction_bad_context() throws Exception {
     managementProvider.register(new MyObject("cache-manager-0", "cache-0"));
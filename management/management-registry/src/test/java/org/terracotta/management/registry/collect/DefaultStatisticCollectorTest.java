@@ -0,0 +1,188 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.registry.collect;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.terracotta.management.model.capabilities.Capability;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.management.model.stats.DelegatingSample;
+import org.terracotta.management.model.stats.DelegatingStatistic;
+import org.terracotta.management.model.stats.Statistic;
+import org.terracotta.management.model.stats.StatisticType;
+import org.terracotta.management.registry.CapabilityManagement;
+import org.terracotta.management.registry.CapabilityManagementSupport;
+import org.terracotta.management.registry.DefaultExposedObject;
+import org.terracotta.management.registry.ExposedObject;
+import org.terracotta.management.registry.ManagementProvider;
+import org.terracotta.management.registry.ManagementProviderAdapter;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class DefaultStatisticCollectorTest {
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final ExecutorService pool = Executors.newFixedThreadPool(2);
+  private final BlockingQueue<Collection<ContextualStatistics>> collected = new LinkedBlockingQueue<>();
+  private final Map<String, List<ManagementProvider<?>>> providers = new LinkedHashMap<>();
+  private final CountDownLatch slowProviderLatch = new CountDownLatch(1);
+
+  private final Context context1 = Context.create("cacheName", "cache-1");
+  private final Context context2 = Context.create("cacheName", "cache-2");
+
+  @After
+  public void tearDown() {
+    slowProviderLatch.countDown();
+    scheduler.shutdownNow();
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void test_statistics_of_providers_merged_per_context() throws Exception {
+    addProvider("CacheStatistics", new MyStatisticsProvider("CacheStatistics", "Cache:HitCount", null, context1));
+    addProvider("CacheStatistics", new MyStatisticsProvider("CacheStatistics", "Cache:MissCount", null, context1));
+    addProvider("PoolStatistics", new MyStatisticsProvider("PoolStatistics", "Pool:AllocatedSize", null, context2));
+
+    DefaultStatisticCollector statisticCollector = newStatisticCollector(10, TimeUnit.SECONDS);
+    statisticCollector.startStatisticCollector(10, TimeUnit.SECONDS);
+
+    List<ContextualStatistics> statistics = new ArrayList<>(collected.poll(10, TimeUnit.SECONDS));
+    assertEquals(2, statistics.size());
+
+    assertEquals("CacheStatistics", statistics.get(0).getCapability());
+    assertEquals(context1, statistics.get(0).getContext());
+    assertEquals(2, statistics.get(0).size());
+    assertTrue(statistics.get(0).hasStatistic("Cache:HitCount"));
+    assertTrue(statistics.get(0).hasStatistic("Cache:MissCount"));
+
+    assertEquals("PoolStatistics", statistics.get(1).getCapability());
+    assertEquals(context2, statistics.get(1).getContext());
+    assertEquals(1, statistics.get(1).size());
+
+    DefaultStatisticCollector.CollectionReport report = statisticCollector.getLastCollectionReport().get();
+    assertEquals(3, report.getProviderCount());
+    assertEquals(2, report.getStatisticCount());
+    assertTrue(report.getSkippedProviders().isEmpty());
+  }
+
+  @Test
+  public void test_slow_provider_skipped() throws Exception {
+    addProvider("CacheStatistics", new MyStatisticsProvider("CacheStatistics", "Cache:HitCount", null, context1));
+    addProvider("PoolStatistics", new MyStatisticsProvider("PoolStatistics", "Pool:AllocatedSize", slowProviderLatch, context2));
+
+    DefaultStatisticCollector statisticCollector = newStatisticCollector(100, TimeUnit.MILLISECONDS);
+    statisticCollector.startStatisticCollector(500, TimeUnit.MILLISECONDS);
+
+    // the slow provider does not delay the other ones
+    List<ContextualStatistics> statistics = new ArrayList<>(collected.poll(10, TimeUnit.SECONDS));
+    assertEquals(1, statistics.size());
+    assertEquals("CacheStatistics", statistics.get(0).getCapability());
+    assertEquals(Collections.singletonList("PoolStatistics:MyStatisticsProvider"), statisticCollector.getLastCollectionReport().get().getSkippedProviders());
+
+    // and is skipped until its collection completes
+    statistics = new ArrayList<>(collected.poll(10, TimeUnit.SECONDS));
+    assertEquals(1, statistics.size());
+    assertEquals(Collections.singletonList("PoolStatistics:MyStatisticsProvider"), statisticCollector.getLastCollectionReport().get().getSkippedProviders());
+
+    slowProviderLatch.countDown();
+    while (statistics.size() != 2) {
+      statistics = new ArrayList<>(collected.poll(10, TimeUnit.SECONDS));
+    }
+    assertTrue(statisticCollector.getLastCollectionReport().get().getSkippedProviders().isEmpty());
+  }
+
+  private DefaultStatisticCollector newStatisticCollector(long providerTimeout, TimeUnit unit) {
+    return new DefaultStatisticCollector(new CapabilityManagementSupport() {
+      @Override
+      public CapabilityManagement withCapability(String capabilityName) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Collection<ManagementProvider<?>> getManagementProvidersByCapability(String capabilityName) {
+        return providers.getOrDefault(capabilityName, Collections.emptyList());
+      }
+
+      @Override
+      public Collection<? extends Capability> getCapabilities() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Collection<String> getCapabilityNames() {
+        return providers.keySet();
+      }
+    }, scheduler, pool, providerTimeout, unit, collected::add, System::currentTimeMillis);
+  }
+
+  private void addProvider(String capabilityName, ManagementProvider<?> managementProvider) {
+    providers.computeIfAbsent(capabilityName, name -> new ArrayList<>()).add(managementProvider);
+  }
+
+  @StatisticProvider
+  private static class MyStatisticsProvider extends ManagementProviderAdapter<Object> {
+
+    private final String statisticName;
+    private final CountDownLatch latch;
+    private final Collection<ExposedObject<Object>> exposedObjects = new ArrayList<>();
+
+    MyStatisticsProvider(String capabilityName, String statisticName, CountDownLatch latch, Context... contexts) {
+      super(capabilityName, Object.class);
+      this.statisticName = statisticName;
+      this.latch = latch;
+      Arrays.stream(contexts).forEach(context -> exposedObjects.add(new DefaultExposedObject<>(new Object(), context)));
+    }
+
+    @Override
+    public Collection<ExposedObject<Object>> getExposedObjects() {
+      return exposedObjects;
+    }
+
+    @Override
+    public Map<String, Statistic<? extends Serializable>> collectStatistics(Context context, Collection<String> statisticNames, long since) {
+      if (latch != null) {
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return Collections.singletonMap(statisticName, new DelegatingStatistic<>(StatisticType.COUNTER, new DelegatingSample<>(System.currentTimeMillis(), 1L)));
+    }
+  }
+
+}
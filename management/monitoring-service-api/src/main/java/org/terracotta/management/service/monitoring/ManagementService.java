@@ -19,6 +19,7 @@ import org.terracotta.entity.ClientDescriptor;
 import org.terracotta.entity.CommonServerEntity;
 import org.terracotta.management.model.call.Parameter;
 import org.terracotta.management.model.cluster.Cluster;
+import org.terracotta.management.model.cluster.TopologyChanges;
 import org.terracotta.management.model.context.Context;
 
 import java.io.Closeable;
@@ -41,6 +42,17 @@ public interface ManagementService extends Closeable {
    */
   Cluster readTopology();
 
+  /**
+   * @param topologyId  the topology identifier of the last changes read, or null to read the whole topology
+   * @param sinceVersion the topology version of the last changes read
+   * @return the changes of the topology since this version. The whole topology is returned instead if the changes
+   * are not available anymore, or if the version is the one of another topology (i.e. read before a failover).
+   * You must not apply any mutation to the returned topology.
+   * <p>
+   * Can be called from active entity only
+   */
+  TopologyChanges readTopologyChanges(String topologyId, long sinceVersion);
+
   /**
    * Request a management call from an entity client to another client of the same entity
    * <p>
@@ -17,14 +17,34 @@ package org.terracotta.management.service.monitoring;
 
 import org.terracotta.entity.ServiceConfiguration;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author Mathieu Carbou
  */
 public class ManagementServiceConfiguration implements ServiceConfiguration<ManagementService> {
 
+  private long managementCallTimeoutMillis = TimeUnit.MINUTES.toMillis(10);
+
   @Override
   public Class<ManagementService> getServiceType() {
     return ManagementService.class;
   }
 
+  public long getManagementCallTimeoutMillis() {
+    return managementCallTimeoutMillis;
+  }
+
+  /**
+   * Sets the time after which a management call that did not get any answer stops being tracked,
+   * and its answer, if any, is not sent back to the caller anymore.
+   */
+  public ManagementServiceConfiguration setManagementCallTimeout(long time, TimeUnit unit) {
+    if (time <= 0) {
+      throw new IllegalArgumentException("Bad timeout: " + time);
+    }
+    this.managementCallTimeoutMillis = unit.toMillis(time);
+    return this;
+  }
+
 }
@@ -27,6 +27,7 @@ import org.terracotta.management.sequence.SequenceGenerator;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Mathieu Carbou
@@ -36,9 +37,13 @@ class DefaultFiringService implements FiringService {
   private final SequenceGenerator sequenceGenerator;
   private final List<DefaultManagementService> managementServices = new CopyOnWriteArrayList<>();
   private final List<DefaultClientMonitoringService> clientMonitoringServices = new CopyOnWriteArrayList<>();
+  // seeded with the current time so that the identifiers given after a failover
+  // do not collide with the ones given by the previous active server
+  private final AtomicLong managementCallIdentifiers;
 
   DefaultFiringService(SequenceGenerator sequenceGenerator) {
     this.sequenceGenerator = Objects.requireNonNull(sequenceGenerator);
+    this.managementCallIdentifiers = new AtomicLong(sequenceGenerator.getTimeSource().getTimestamp() << 20);
   }
 
   @Override
@@ -69,6 +74,13 @@ class DefaultFiringService implements FiringService {
     }
   }
 
+  /**
+   * @return a new management call identifier, unique amongst all the management services of this server
+   */
+  String nextManagementCallIdentifier() {
+    return Long.toString(managementCallIdentifiers.incrementAndGet());
+  }
+
   void addClientMonitoringService(DefaultClientMonitoringService clientMonitoringService) {
     clientMonitoringServices.add(clientMonitoringService);
   }
@@ -23,20 +23,23 @@ import org.terracotta.management.model.call.Parameter;
 import org.terracotta.management.model.cluster.Client;
 import org.terracotta.management.model.cluster.ClientIdentifier;
 import org.terracotta.management.model.cluster.Cluster;
+import org.terracotta.management.model.cluster.TopologyChanges;
 import org.terracotta.management.model.cluster.Server;
 import org.terracotta.management.model.cluster.ServerEntity;
 import org.terracotta.management.model.context.Context;
 import org.terracotta.management.model.context.Contextual;
 import org.terracotta.management.model.message.ManagementCallMessage;
 import org.terracotta.management.model.message.Message;
+import org.terracotta.management.sequence.TimeSource;
 
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Mathieu Carbou
@@ -48,14 +51,24 @@ class DefaultManagementService implements ManagementService, TopologyEventListen
   private final long consumerId;
   private final DefaultFiringService firingService;
   private final TopologyService topologyService;
-  private final Map<ClientDescriptor, Collection<String>> managementCallRequests = new ConcurrentHashMap<>();
+  private final TimeSource timeSource;
+  private final long managementCallTimeoutMillis;
+  // callers of the management calls, per management call identifier, to route back the answers
+  private final ConcurrentMap<String, ManagementCallRequest> managementCallRequests = new ConcurrentHashMap<>();
+  // management call identifiers, per caller, to stop tracking the calls of a caller when it unfetches the entity.
+  // The sets are only accessed within the atomic map operations.
+  private final ConcurrentMap<ClientDescriptor, Collection<String>> managementCallIdentifiers = new ConcurrentHashMap<>();
 
   private volatile ManagementExecutor managementExecutor;
+  private volatile long nextExpiration;
 
-  DefaultManagementService(long consumerId, TopologyService topologyService, DefaultFiringService firingService) {
+  DefaultManagementService(long consumerId, TopologyService topologyService, DefaultFiringService firingService, TimeSource timeSource, long managementCallTimeoutMillis) {
     this.consumerId = consumerId;
     this.topologyService = Objects.requireNonNull(topologyService);
     this.firingService = Objects.requireNonNull(firingService);
+    this.timeSource = Objects.requireNonNull(timeSource);
+    this.managementCallTimeoutMillis = managementCallTimeoutMillis;
+    this.nextExpiration = timeSource.getTimestamp() + managementCallTimeoutMillis;
 
     topologyService.addTopologyEventListener(this);
     firingService.addManagementService(this);
@@ -70,14 +83,20 @@ class DefaultManagementService implements ManagementService, TopologyEventListen
   @Override
   public Cluster readTopology() {
     LOGGER.trace("[{}] readTopology()", consumerId);
-    return topologyService.getClusterCopy();
+    return topologyService.getClusterSnapshot();
+  }
+
+  @Override
+  public TopologyChanges readTopologyChanges(String topologyId, long sinceVersion) {
+    LOGGER.trace("[{}] readTopologyChanges({}, {})", consumerId, topologyId, sinceVersion);
+    return topologyService.getTopologyChanges(topologyId, sinceVersion);
   }
 
   @Override
   public String sendManagementCallRequest(ClientDescriptor caller, final Context context, String capabilityName, String methodName, Class<?> returnType, Parameter... parameters) {
     LOGGER.trace("[{}] sendManagementCallRequest({}, {}, {})", consumerId, context, capabilityName, methodName);
 
-    String managementCallIdentifier = UUID.randomUUID().toString();
+    String managementCallIdentifier = firingService.nextManagementCallIdentifier();
     Context fullContext = null;
 
     if (context.contains(Client.KEY)) {
@@ -114,13 +133,16 @@ class DefaultManagementService implements ManagementService, TopologyEventListen
   public void onBecomeActive(String serverName) {
     LOGGER.trace("[{}] onBecomeActive()", this.consumerId);
     managementCallRequests.clear();
+    managementCallIdentifiers.clear();
   }
 
   @Override
   public void onUnfetch(long consumerId, ClientDescriptor clientDescriptor) {
     if (consumerId == this.consumerId) {
-      if (managementCallRequests.remove(clientDescriptor) != null) {
+      Collection<String> identifiers = managementCallIdentifiers.remove(clientDescriptor);
+      if (identifiers != null) {
         LOGGER.trace("[{}] onUnfetch({})", this.consumerId, clientDescriptor);
+        identifiers.forEach(managementCallRequests::remove);
       }
     }
   }
@@ -176,33 +198,68 @@ class DefaultManagementService implements ManagementService, TopologyEventListen
   }
 
   private void track(ClientDescriptor caller, String managementCallIdentifier) {
-    managementCallRequests
-        .computeIfAbsent(caller, clientDescriptor -> new ConcurrentSkipListSet<>())
-        .add(managementCallIdentifier);
+    long now = timeSource.getTimestamp();
+    managementCallIdentifiers.compute(caller, (clientDescriptor, identifiers) -> {
+      if (identifiers == null) {
+        identifiers = new HashSet<>();
+      }
+      identifiers.add(managementCallIdentifier);
+      return identifiers;
+    });
+    managementCallRequests.put(managementCallIdentifier, new ManagementCallRequest(caller, now + managementCallTimeoutMillis));
+    expireManagementCallRequests(now);
   }
 
   private Optional<ClientDescriptor> unTrack(String managementCallIdentifier) {
-    for (Map.Entry<ClientDescriptor, Collection<String>> entry : managementCallRequests.entrySet()) {
-      if (entry.getValue().remove(managementCallIdentifier)) {
-        return Optional.of(entry.getKey());
-      }
+    ManagementCallRequest request = managementCallRequests.remove(managementCallIdentifier);
+    if (request == null) {
+      return Optional.empty();
     }
-    return Optional.empty();
+    forget(request.caller, managementCallIdentifier);
+    return request.isExpired(timeSource.getTimestamp()) ? Optional.empty() : Optional.of(request.caller);
   }
 
   private boolean isTracked(String managementCallIdentifier) {
-    for (Map.Entry<ClientDescriptor, Collection<String>> entry : managementCallRequests.entrySet()) {
-      if (entry.getValue().contains(managementCallIdentifier)) {
-        return true;
+    ManagementCallRequest request = managementCallRequests.get(managementCallIdentifier);
+    return request != null && !request.isExpired(timeSource.getTimestamp());
+  }
+
+  private void forget(ClientDescriptor caller, String managementCallIdentifier) {
+    managementCallIdentifiers.computeIfPresent(caller, (clientDescriptor, identifiers) -> {
+      identifiers.remove(managementCallIdentifier);
+      return identifiers.isEmpty() ? null : identifiers;
+    });
+  }
+
+  /**
+   * Stops tracking the management calls that did not get any answer in time.
+   * The scan is done at most once per timeout period so that tracking a call stays O(1) amortized.
+   */
+  private void expireManagementCallRequests(long now) {
+    if (now < nextExpiration) {
+      return;
+    }
+    synchronized (managementCallRequests) {
+      if (now < nextExpiration) {
+        return;
+      }
+      nextExpiration = now + managementCallTimeoutMillis;
+    }
+    for (Iterator<Map.Entry<String, ManagementCallRequest>> it = managementCallRequests.entrySet().iterator(); it.hasNext(); ) {
+      Map.Entry<String, ManagementCallRequest> entry = it.next();
+      if (entry.getValue().isExpired(now)) {
+        LOGGER.trace("[{}] Management call {} expired", this.consumerId, entry.getKey());
+        it.remove();
+        forget(entry.getValue().caller, entry.getKey());
       }
     }
-    return false;
   }
 
   @Override
   public void close() {
     LOGGER.info("[{}] Closing management service", this.consumerId);
     managementCallRequests.clear();
+    managementCallIdentifiers.clear();
     topologyService.removeTopologyEventListener(this);
     firingService.removeManagementService(this);
   }
@@ -215,4 +272,18 @@ class DefaultManagementService implements ManagementService, TopologyEventListen
     return sb.toString();
   }
 
+  private static final class ManagementCallRequest {
+    final ClientDescriptor caller;
+    final long expiration;
+
+    ManagementCallRequest(ClientDescriptor caller, long expiration) {
+      this.caller = caller;
+      this.expiration = expiration;
+    }
+
+    boolean isExpired(long now) {
+      return now >= expiration;
+    }
+  }
+
 }
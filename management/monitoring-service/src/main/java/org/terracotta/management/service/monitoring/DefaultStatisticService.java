@@ -28,10 +28,13 @@ import org.terracotta.management.service.monitoring.registry.provider.StatisticC
 
 import java.io.Closeable;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -44,6 +47,12 @@ class DefaultStatisticService implements StatisticService, Closeable {
   private static final Logger LOGGER = LoggerFactory.getLogger(DefaultStatisticService.class);
 
   private static final AtomicLong managementSchedulerCount = new AtomicLong();
+  private static final AtomicLong statisticCollectorCount = new AtomicLong();
+
+  // threads collecting the statistics of the providers, shared by all the collectors
+  private static final int COLLECTION_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+  // time after which a provider still collecting its statistics is skipped
+  private static final long PROVIDER_TIMEOUT_MS = 5_000;
 
   private final ScheduledExecutorService managementScheduler = Executors.unconfigurableScheduledExecutorService(new ScheduledThreadPoolExecutor(
       1,
@@ -57,6 +66,8 @@ class DefaultStatisticService implements StatisticService, Closeable {
       new ThreadPoolExecutor.AbortPolicy()
   ));
 
+  private final ExecutorService statisticCollectorPool = Executors.unconfigurableExecutorService(newStatisticCollectorPool());
+
   private final SharedEntityManagementRegistry sharedEntityManagementRegistry;
   private final TimeSource timeSource;
 
@@ -85,6 +96,8 @@ class DefaultStatisticService implements StatisticService, Closeable {
         // This will avoid collecting stats on a registry from another NMS entity that already has its own stat collector.
         new CombiningCapabilityManagementSupport(sharedEntityManagementRegistry, registry),
         managementScheduler,
+        statisticCollectorPool,
+        PROVIDER_TIMEOUT_MS, TimeUnit.MILLISECONDS,
         list -> {
           // Add a marker on the statistics to know which statistics collector has collected them (from which NMS entity)
           list.forEach(stats -> stats.setContext(stats.getContext().with("collectorId", "" + consumerId)));
@@ -103,6 +116,26 @@ class DefaultStatisticService implements StatisticService, Closeable {
   public void close() {
     LOGGER.info("Closing statistic service");
     ExecutorUtil.shutdownNow(managementScheduler);
+    // pending collections are not run: their results would not be sent anyway
+    statisticCollectorPool.shutdownNow();
+  }
+
+  private static ThreadPoolExecutor newStatisticCollectorPool() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        COLLECTION_THREADS,
+        COLLECTION_THREADS,
+        60L, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(),
+        r -> {
+          Thread t = Executors.defaultThreadFactory().newThread(r);
+          t.setDaemon(true);
+          t.setName("ManagementStatisticCollector-" + statisticCollectorCount.incrementAndGet());
+          t.setUncaughtExceptionHandler((thread, err) -> LOGGER.error("UncaughtException in thread " + thread.getName() + ": " + err.getMessage(), err));
+          return t;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
   }
 
 }
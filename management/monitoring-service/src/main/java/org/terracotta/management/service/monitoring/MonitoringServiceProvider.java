@@ -93,7 +93,7 @@ public class MonitoringServiceProvider implements ServiceProvider, Closeable {
     }
 
     if (topologyService.isCurrentServerActive()) {
-      dump.addState("cluster", topologyService.getClusterCopy().toMap());
+      dump.addState("cluster", topologyService.getClusterSnapshot().toMap());
     } else {
       dump.addState("status", "This is a passive server, so it is unaware of connected clients and other stripe members.");
     }
@@ -144,7 +144,13 @@ public class MonitoringServiceProvider implements ServiceProvider, Closeable {
     if (ManagementService.class == serviceType) {
       if (configuration instanceof ManagementServiceConfiguration) {
         LOGGER.info("[{}] getService({})", consumerID, ManagementService.class.getSimpleName());
-        DefaultManagementService managementService = new DefaultManagementService(consumerID, topologyService, firingService);
+        ManagementServiceConfiguration managementServiceConfiguration = (ManagementServiceConfiguration) configuration;
+        DefaultManagementService managementService = new DefaultManagementService(
+            consumerID,
+            topologyService,
+            firingService,
+            timeSource,
+            managementServiceConfiguration.getManagementCallTimeoutMillis());
         return serviceType.cast(managementService);
       } else {
         throw new IllegalArgumentException("Missing configuration " + ManagementServiceConfiguration.class.getSimpleName() + " when requesting service " + serviceType.getName());
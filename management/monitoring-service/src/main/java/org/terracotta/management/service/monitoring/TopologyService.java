@@ -30,6 +30,7 @@ import org.terracotta.management.model.cluster.Server;
 import org.terracotta.management.model.cluster.ServerEntity;
 import org.terracotta.management.model.cluster.ServerEntityIdentifier;
 import org.terracotta.management.model.cluster.Stripe;
+import org.terracotta.management.model.cluster.TopologyChanges;
 import org.terracotta.management.model.context.Context;
 import org.terracotta.management.model.notification.ContextualNotification;
 import org.terracotta.management.model.stats.ContextualStatistics;
@@ -38,11 +39,7 @@ import org.terracotta.monitoring.PlatformEntity;
 import org.terracotta.monitoring.PlatformServer;
 import org.terracotta.monitoring.ServerState;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -52,6 +49,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -61,6 +59,10 @@ import java.util.stream.Stream;
 
 import static org.terracotta.management.service.monitoring.Notification.CLIENT_CONNECTED;
 import static org.terracotta.management.service.monitoring.Notification.CLIENT_DISCONNECTED;
+import static org.terracotta.management.service.monitoring.Notification.CLIENT_PROPERTY_ADDED;
+import static org.terracotta.management.service.monitoring.Notification.CLIENT_REGISTRY_AVAILABLE;
+import static org.terracotta.management.service.monitoring.Notification.CLIENT_TAGS_UPDATED;
+import static org.terracotta.management.service.monitoring.Notification.ENTITY_REGISTRY_AVAILABLE;
 import static org.terracotta.management.service.monitoring.Notification.SERVER_ENTITY_CREATED;
 import static org.terracotta.management.service.monitoring.Notification.SERVER_ENTITY_DESTROYED;
 import static org.terracotta.management.service.monitoring.Notification.SERVER_ENTITY_FETCHED;
@@ -77,6 +79,9 @@ class TopologyService implements PlatformListener {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TopologyService.class);
 
+  // number of the last topology changes that can be read
+  static final int TOPOLOGY_CHANGES_CAPACITY = 1024;
+
   private final Cluster cluster;
   private final Stripe stripe;
   // map of topology client created per fetch (client descriptor), per entity, on the active server
@@ -89,6 +94,16 @@ class TopologyService implements PlatformListener {
 
   private volatile Server currentActive;
 
+  // copy of the topology given to the readers, which must not mutate it.
+  // It is rebuilt on the first read following a topology change.
+  private volatile Cluster snapshot;
+
+  // identifies this topology, so that its versions are not mistaken with the ones of the topology of another server
+  private final String topologyId = UUID.randomUUID().toString();
+  // the last changes, indexed by their version, guarded by this service monitor
+  private final ContextualNotification[] changes = new ContextualNotification[TOPOLOGY_CHANGES_CAPACITY];
+  private long version;
+
   TopologyService(FiringService firingService, PlatformConfiguration platformConfiguration) {
     org.terracotta.dynamic_config.api.service.TopologyService topologyService =
         platformConfiguration.getExtendedConfiguration(org.terracotta.dynamic_config.api.service.TopologyService.class).iterator().next();
@@ -119,6 +134,7 @@ class TopologyService implements PlatformListener {
         .computeUpTime();
 
     if (stripe.addServer(server)) {
+      topologyChanged(SERVER_JOINED, server.getContext());
       currentActive = stripe.getServerByName(self.getServerName()).get();
 
       topologyEventListeners.forEach(listener -> listener.onBecomeActive(platformConfiguration.getServerName()));
@@ -146,6 +162,7 @@ class TopologyService implements PlatformListener {
         .computeUpTime();
 
     if (stripe.addServer(server)) {
+      topologyChanged(SERVER_JOINED, server.getContext());
       firingService.fireNotification(new ContextualNotification(server.getContext(), SERVER_JOINED.name()));
     }
   }
@@ -157,6 +174,7 @@ class TopologyService implements PlatformListener {
     stripe.getServerByName(platformServer.getServerName()).ifPresent(server -> {
       Context context = server.getContext();
       server.remove();
+      topologyChanged(SERVER_LEFT, context);
 
       serverEntities.remove(platformServer.getServerName());
 
@@ -184,6 +202,7 @@ class TopologyService implements PlatformListener {
           .setConsumerId(platformEntity.consumerID);
 
       if (server.addServerEntity(entity)) {
+        topologyChanged(SERVER_ENTITY_CREATED, entity.getContext());
         firingService.fireNotification(new ContextualNotification(entity.getContext(), SERVER_ENTITY_CREATED.name()));
 
         whenServerEntity(platformEntity.consumerID, sender.getServerName()).complete(entity);
@@ -224,6 +243,7 @@ class TopologyService implements PlatformListener {
       server.getServerEntity(platformEntity.name, platformEntity.typeName).ifPresent(entity -> {
         Context context = entity.getContext();
         entity.remove();
+        topologyChanged(SERVER_ENTITY_DESTROYED, context);
 
         serverEntities.get(sender.getServerName()).remove(platformEntity.consumerID);
 
@@ -256,6 +276,7 @@ class TopologyService implements PlatformListener {
           cluster.addClient(client);
 
           if (client.addConnection(Connection.create(clientIdentifier.getConnectionUid(), getActiveServer(), endpoint))) {
+            topologyChanged(CLIENT_CONNECTED, server.getContext(), client.getContext());
             firingService.fireNotification(new ContextualNotification(server.getContext(), CLIENT_CONNECTED.name(), client.getContext()));
           }
         });
@@ -272,6 +293,7 @@ class TopologyService implements PlatformListener {
           cluster.getClient(clientIdentifier)
               .ifPresent(client -> {
                 client.addProperty(key, value);
+                topologyChanged(CLIENT_PROPERTY_ADDED, client.getContext(), Collections.singletonMap(key, value));
                 firingService.fireNotification(new ContextualNotification(client.getContext(), Notification.CLIENT_PROPERTY_ADDED.name(), Collections.singletonMap(key, value)));
               });
         });
@@ -290,6 +312,7 @@ class TopologyService implements PlatformListener {
                 Context clientContext = client.getContext();
 
                 client.remove();
+                topologyChanged(CLIENT_DISCONNECTED, server.getContext(), clientContext);
 
                 firingService.fireNotification(new ContextualNotification(server.getContext(), CLIENT_DISCONNECTED.name(), clientContext));
               });
@@ -308,6 +331,7 @@ class TopologyService implements PlatformListener {
       client.getConnection(currentActive, endpoint).ifPresent(connection -> {
         currentActive.getServerEntity(platformEntity.name, platformEntity.typeName).ifPresent(entity -> {
           connection.fetchServerEntity(platformEntity.name, platformEntity.typeName);
+          topologyChanged(SERVER_ENTITY_FETCHED, entity.getContext(), client.getContext());
           firingService.fireNotification(new ContextualNotification(entity.getContext(), SERVER_ENTITY_FETCHED.name(), client.getContext()));
           whenFetchClient(platformEntity.consumerID, clientDescriptor).complete(client);
           topologyEventListeners.forEach(listener -> listener.onFetch(platformEntity.consumerID, clientDescriptor));
@@ -328,7 +352,9 @@ class TopologyService implements PlatformListener {
       cluster.getClient(clientIdentifier).ifPresent(client -> {
         client.getConnection(currentActive, endpoint).ifPresent(connection -> {
           entityFetches.get(platformEntity.consumerID).remove(clientDescriptor);
-          if (connection.unfetchServerEntity(platformEntity.name, platformEntity.typeName)) {
+          boolean unfetched = connection.unfetchServerEntity(platformEntity.name, platformEntity.typeName);
+          topologyChanged(SERVER_ENTITY_UNFETCHED, entity.getContext(), client.getContext());
+          if (unfetched) {
             firingService.fireNotification(new ContextualNotification(entity.getContext(), SERVER_ENTITY_UNFETCHED.name(), client.getContext()));
           }
           topologyEventListeners.forEach(listener -> listener.onUnfetch(platformEntity.consumerID, clientDescriptor));
@@ -353,14 +379,14 @@ class TopologyService implements PlatformListener {
       server.setState(Server.State.parse(serverState.getState()));
       server.setActivateTime(serverState.getActivate());
 
-      if (oldState != server.getState()) {
-        // avoid sending another event to report the same state as before, to avoid duplicates
-
-        Map<String, String> attrs = new HashMap<>();
-        attrs.put("oldState", oldState.name());
-        attrs.put("state", serverState.getState());
-        attrs.put("activateTime", serverState.getActivate() > 0 ? String.valueOf(serverState.getActivate()) : "0");
+      Map<String, String> attrs = new HashMap<>();
+      attrs.put("oldState", oldState.name());
+      attrs.put("state", serverState.getState());
+      attrs.put("activateTime", serverState.getActivate() > 0 ? String.valueOf(serverState.getActivate()) : "0");
 
+      if (oldState != server.getState()) {
+        // avoid recording and sending another event to report the same state as before, to avoid duplicates
+        topologyChanged(SERVER_STATE_CHANGED, server.getContext(), attrs);
         firingService.fireNotification(new ContextualNotification(server.getContext(), SERVER_STATE_CHANGED.name(), attrs));
       }
     });
@@ -403,7 +429,10 @@ class TopologyService implements PlatformListener {
     whenFetchClient(consumerId, clientDescriptor).executeOrDelay("client-registry", client -> {
       boolean hadRegistry = client.getManagementRegistry().isPresent();
       LOGGER.trace("[{}] willSetClientManagementRegistry({}, {})", consumerId, clientDescriptor, newRegistry);
-      client.setManagementRegistry(newRegistry);
+      synchronized (this) {
+        client.setManagementRegistry(newRegistry);
+        topologyChanged(CLIENT_REGISTRY_AVAILABLE, client.getContext());
+      }
       if (!hadRegistry) {
         LOGGER.info("[{}] New management registry received from client {}", consumerId, clientDescriptor);
         firingService.fireNotification(new ContextualNotification(client.getContext(), Notification.CLIENT_REGISTRY_AVAILABLE.name()));
@@ -420,7 +449,10 @@ class TopologyService implements PlatformListener {
       Set<String> newTags = new HashSet<>(Arrays.asList(tags));
       if (!currtags.equals(newTags)) {
         LOGGER.trace("[{}] willSetClientTags({}, {})", consumerId, clientDescriptor, Arrays.toString(tags));
-        client.setTags(tags);
+        synchronized (this) {
+          client.setTags(tags);
+          topologyChanged(CLIENT_TAGS_UPDATED, client.getContext());
+        }
         firingService.fireNotification(new ContextualNotification(client.getContext(), Notification.CLIENT_TAGS_UPDATED.name()));
       }
     });
@@ -473,7 +505,10 @@ class TopologyService implements PlatformListener {
         LOGGER.trace("[{}] setManagementRegistry({}, {})", consumerId, serverName, names);
       }
       boolean hadRegistry = serverEntity.getManagementRegistry().isPresent();
-      serverEntity.setManagementRegistry(newRegistry);
+      synchronized (this) {
+        serverEntity.setManagementRegistry(newRegistry);
+        topologyChanged(ENTITY_REGISTRY_AVAILABLE, serverEntity.getContext());
+      }
       if (!hadRegistry) {
         firingService.fireNotification(new ContextualNotification(serverEntity.getContext(), Notification.ENTITY_REGISTRY_AVAILABLE.name()));
       }
@@ -510,18 +545,48 @@ class TopologyService implements PlatformListener {
         .map(Client::getContext);
   }
 
-  synchronized Cluster getClusterCopy() {
-    try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-      try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
-        oos.writeObject(cluster);
-        oos.flush();
+  /**
+   * @return a copy of the current topology, shared between all the readers until the next topology change: it must not be mutated
+   */
+  Cluster getClusterSnapshot() {
+    Cluster snapshot = this.snapshot;
+    if (snapshot == null) {
+      synchronized (this) {
+        snapshot = this.snapshot;
+        if (snapshot == null) {
+          this.snapshot = snapshot = cluster.copy();
+        }
       }
-      try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
-        return (Cluster) ois.readObject();
+    }
+    return snapshot;
+  }
+
+  /**
+   * @return the changes of the topology since this version, or the whole topology if these changes are not available
+   */
+  synchronized TopologyChanges getTopologyChanges(String topologyId, long sinceVersion) {
+    // the changes are only available if the version is known and still in the ring
+    if (this.topologyId.equals(topologyId) && sinceVersion >= 0 && sinceVersion <= version && version - sinceVersion <= changes.length) {
+      List<ContextualNotification> list = new ArrayList<>((int) (version - sinceVersion));
+      for (long v = sinceVersion + 1; v <= version; v++) {
+        list.add(changes[(int) (v % changes.length)]);
       }
-    } catch (IOException | ClassNotFoundException e) {
-      throw new RuntimeException(e);
+      return TopologyChanges.changes(this.topologyId, version, list);
     }
+    return TopologyChanges.snapshot(this.topologyId, version, getClusterSnapshot());
+  }
+
+  private void topologyChanged(Notification type, Context context) {
+    topologyChanged(type, context, Collections.emptyMap());
+  }
+
+  /**
+   * Must be called while holding this service monitor, after each change of the topology
+   */
+  private void topologyChanged(Notification type, Context context, Map<String, String> attributes) {
+    version++;
+    changes[(int) (version % changes.length)] = new ContextualNotification(context, type.name(), attributes);
+    snapshot = null;
   }
 
   void addTopologyEventListener(TopologyEventListener topologyEventListener) {
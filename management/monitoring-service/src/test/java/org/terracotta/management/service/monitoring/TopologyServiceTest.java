@@ -0,0 +1,157 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.service.monitoring;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.terracotta.management.model.cluster.TopologyChanges;
+import org.terracotta.management.model.notification.ContextualNotification;
+import org.terracotta.monitoring.PlatformServer;
+import org.terracotta.monitoring.ServerState;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.terracotta.management.service.monitoring.TopologyService.TOPOLOGY_CHANGES_CAPACITY;
+
+@RunWith(JUnit4.class)
+public class TopologyServiceTest {
+
+  long now = 1476304913984L;
+
+  PlatformServer active = new PlatformServer("server-1", "localhost", "127.0.0.1", "0.0.0.0", 9510, 9610, "v1", "b1", now);
+  PlatformServer passive = new PlatformServer("server-2", "localhost", "127.0.0.1", "0.0.0.0", 9511, 9611, "v1", "b1", now);
+
+  TopologyService topologyService = new TopologyService(mock(FiringService.class), new MyPlatformConfiguration(active.getServerName(), active.getHostName(), active.getBindPort()));
+  String topologyId;
+  long version;
+  int stateChanges;
+
+  @Before
+  public void setUp() {
+    topologyService.serverDidBecomeActive(active);
+    topologyService.serverDidJoinStripe(passive);
+
+    TopologyChanges first = topologyService.getTopologyChanges(null, 0);
+    assertTrue(first.isSnapshot());
+    assertEquals(2, first.getCluster().get().getSingleStripe().getServerCount());
+    topologyId = first.getTopologyId();
+    version = first.getVersion();
+  }
+
+  @Test
+  public void changes_since_version() {
+    passiveStateChanged(3);
+
+    TopologyChanges changes = topologyService.getTopologyChanges(topologyId, version);
+    assertFalse(changes.isSnapshot());
+    assertEquals(version + 3, changes.getVersion());
+    assertActivateTimes(changes.getChanges(), 1, 3);
+    assertEquals(Notification.SERVER_STATE_CHANGED.name(), changes.getChanges().get(0).getType());
+
+    // nothing changed since
+    changes = topologyService.getTopologyChanges(topologyId, changes.getVersion());
+    assertFalse(changes.isSnapshot());
+    assertTrue(changes.getChanges().isEmpty());
+  }
+
+  @Test
+  public void changes_since_version_after_ring_wraparound() {
+    passiveStateChanged(TOPOLOGY_CHANGES_CAPACITY + 10);
+
+    // the oldest changes still in the ring: the ring index of the first one is after the one of the last one
+    long sinceVersion = version + 10;
+    TopologyChanges changes = topologyService.getTopologyChanges(topologyId, sinceVersion);
+    assertFalse(changes.isSnapshot());
+    assertEquals(sinceVersion + TOPOLOGY_CHANGES_CAPACITY, changes.getVersion());
+    assertActivateTimes(changes.getChanges(), 11, TOPOLOGY_CHANGES_CAPACITY + 10);
+  }
+
+  @Test
+  public void snapshot_when_changes_since_version_were_overwritten() {
+    passiveStateChanged(TOPOLOGY_CHANGES_CAPACITY + 10);
+
+    // the change following this version was overwritten in the ring
+    TopologyChanges changes = topologyService.getTopologyChanges(topologyId, version + 9);
+    assertTrue(changes.isSnapshot());
+    assertTrue(changes.getChanges().isEmpty());
+    assertEquals(version + TOPOLOGY_CHANGES_CAPACITY + 10, changes.getVersion());
+    assertEquals("PASSIVE", changes.getCluster().get().getSingleStripe().getServerByName(passive.getServerName()).get().getState().name());
+
+    // the next read from the snapshot version only returns the new changes
+    passiveStateChanged(1);
+    changes = topologyService.getTopologyChanges(topologyId, changes.getVersion());
+    assertFalse(changes.isSnapshot());
+    assertEquals(1, changes.getChanges().size());
+  }
+
+  @Test
+  public void snapshot_when_topology_id_does_not_match() {
+    passiveStateChanged(1);
+
+    // i.e. versions read from the topology of another server before a failover
+    TopologyChanges changes = topologyService.getTopologyChanges("other-topology", version);
+    assertTrue(changes.isSnapshot());
+    assertEquals(topologyId, changes.getTopologyId());
+    assertEquals(version + 1, changes.getVersion());
+
+    // a version of the other topology can be ahead of this one
+    assertTrue(topologyService.getTopologyChanges(topologyId, version + 2).isSnapshot());
+  }
+
+  @Test
+  public void snapshot_when_version_is_negative() {
+    passiveStateChanged(1);
+
+    TopologyChanges changes = topologyService.getTopologyChanges(topologyId, -1);
+    assertTrue(changes.isSnapshot());
+    assertEquals(version + 1, changes.getVersion());
+  }
+
+  @Test
+  public void same_server_state_is_not_a_change() {
+    passiveStateChanged(1);
+    long stateVersion = topologyService.getTopologyChanges(topologyId, version).getVersion();
+
+    // i.e. a state change replayed with the same state
+    topologyService.serverStateChanged(passive, new ServerState("SYNCHRONIZING", now, version + 1));
+
+    TopologyChanges changes = topologyService.getTopologyChanges(topologyId, stateVersion);
+    assertFalse(changes.isSnapshot());
+    assertEquals(stateVersion, changes.getVersion());
+    assertTrue(changes.getChanges().isEmpty());
+  }
+
+  private void passiveStateChanged(int count) {
+    for (int i = 1; i <= count; i++) {
+      // the passive alternates between both states, so that each call is a change, and the activate time tells them apart
+      String state = ++stateChanges % 2 == 0 ? "PASSIVE" : "SYNCHRONIZING";
+      topologyService.serverStateChanged(passive, new ServerState(state, now, version + stateChanges));
+    }
+  }
+
+  private void assertActivateTimes(List<ContextualNotification> changes, long first, long last) {
+    assertEquals(last - first + 1, changes.size());
+    for (int i = 0; i < changes.size(); i++) {
+      assertEquals(String.valueOf(version + first + i), changes.get(i).getAttributes().get("activateTime"));
+    }
+  }
+}
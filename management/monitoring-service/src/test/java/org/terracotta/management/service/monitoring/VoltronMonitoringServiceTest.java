@@ -58,6 +58,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -428,6 +429,69 @@ public class VoltronMonitoringServiceTest {
     verifyNoMoreInteractions(managementExecutor);
   }
 
+  @Test
+  public void test_management_call_answer_not_sent_after_unfetch() throws Exception {
+    activePlatformListener.addNode(active, FETCHED_PATH, "fetch-1-1", new PlatformClientFetchedEntity("client-1", "entity-1", new FakeDesc("1-1")));
+
+    activePlatformListener.addNode(active, CLIENTS_PATH, "client-2", new PlatformConnectedClient("uuid-2", "name", InetAddress.getByName("localhost"), 1235, InetAddress.getByName("localhost"), 5679, 222));
+    activePlatformListener.addNode(active, FETCHED_PATH, "fetch-2-1", new PlatformClientFetchedEntity("client-2", "entity-1", new FakeDesc("2-1")));
+
+    clientMonitoringService.exposeManagementRegistry(
+        new FakeDesc("2-1"),
+        new ContextContainer("ctName", "ctValue"),
+        new DefaultCapability("capabilityName", new CapabilityContext(), new CallDescriptor("myMethod", "java.lang.String")));
+
+    String id = managementService.sendManagementCallRequest(
+        new FakeDesc("1-1"),
+        Context.create(Client.KEY, ClientIdentifier.create(222L, InetAddress.getByName("localhost").getHostAddress(), "name", "uuid-2").toString()),
+        "capabilityName",
+        "myMethod",
+        Void.TYPE);
+
+    // the caller goes away before the answer comes
+    activePlatformListener.removeNode(active, FETCHED_PATH, "fetch-1-1");
+
+    clientMonitoringService.answerManagementCall(
+        new FakeDesc("2-1"),
+        id,
+        ContextualReturn.notExecuted("capabilityName", Context.empty(), "methodName"));
+
+    verify(managementExecutor, times(0)).sendMessageToClient(any(Message.class), any(ClientDescriptor.class));
+  }
+
+  @Test
+  public void test_management_call_answer_not_sent_after_timeout() throws Exception {
+    ManagementExecutor managementExecutor = Mockito.spy(new ManagementExecutorAdapter());
+    ManagementService managementService = activeServiceProvider.getService(1, new ManagementServiceConfiguration().setManagementCallTimeout(1, TimeUnit.MILLISECONDS));
+    managementService.setManagementExecutor(managementExecutor);
+
+    activePlatformListener.addNode(active, FETCHED_PATH, "fetch-1-1", new PlatformClientFetchedEntity("client-1", "entity-1", new FakeDesc("1-1")));
+
+    activePlatformListener.addNode(active, CLIENTS_PATH, "client-2", new PlatformConnectedClient("uuid-2", "name", InetAddress.getByName("localhost"), 1235, InetAddress.getByName("localhost"), 5679, 222));
+    activePlatformListener.addNode(active, FETCHED_PATH, "fetch-2-1", new PlatformClientFetchedEntity("client-2", "entity-1", new FakeDesc("2-1")));
+
+    clientMonitoringService.exposeManagementRegistry(
+        new FakeDesc("2-1"),
+        new ContextContainer("ctName", "ctValue"),
+        new DefaultCapability("capabilityName", new CapabilityContext(), new CallDescriptor("myMethod", "java.lang.String")));
+
+    String id = managementService.sendManagementCallRequest(
+        new FakeDesc("1-1"),
+        Context.create(Client.KEY, ClientIdentifier.create(222L, InetAddress.getByName("localhost").getHostAddress(), "name", "uuid-2").toString()),
+        "capabilityName",
+        "myMethod",
+        Void.TYPE);
+
+    Thread.sleep(50);
+
+    clientMonitoringService.answerManagementCall(
+        new FakeDesc("2-1"),
+        id,
+        ContextualReturn.notExecuted("capabilityName", Context.empty(), "methodName"));
+
+    verify(managementExecutor, times(0)).sendMessageToClient(any(Message.class), any(ClientDescriptor.class));
+  }
+
   private void assertTopologyEquals(String file) throws Exception {
     Cluster cluster = managementService.readTopology();
     cluster.serverStream().forEach(server -> {
@@ -20,6 +20,7 @@ import org.slf4j.LoggerFactory;
 import org.terracotta.connection.Connection;
 import org.terracotta.exception.ConnectionClosedException;
 import org.terracotta.exception.ConnectionShutdownException;
+import org.terracotta.management.entity.nms.agent.NmsAgentCodec;
 import org.terracotta.management.entity.nms.agent.ReconnectData;
 import org.terracotta.management.entity.nms.agent.client.diag.DiagnosticProvider;
 import org.terracotta.management.entity.nms.agent.client.diag.DiagnosticUtility;
@@ -42,9 +43,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.BiConsumer;
@@ -64,6 +67,7 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
   private volatile NmsAgentEntity entity;
   private volatile ManagementRegistry registry;
   private volatile String[] previouslyExposedTags;
+  private volatile MessageBatcher messageBatcher;
 
   private long timeoutMs = 5000;
   private Executor managementCallExecutor = Runnable::run;
@@ -102,7 +106,7 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
     if (message.getType().equals("MANAGEMENT_CALL")) {
       ContextualCall<?> contextualCall = message.unwrap(ContextualCall.class).get(0);
       getManagementCallExecutor().execute(() -> executeManagementCall(((ManagementCallMessage) message).getManagementCallIdentifier(), contextualCall));
-    } else {
+    } else if (!message.getType().equals(NmsAgentCodec.BINARY_CODEC_MESSAGE)) {
       LOGGER.warn("Received unsupported message: " + message);
     }
   }
@@ -148,6 +152,11 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
         registry.removeManagementProvider(managementProvider);
         this.registry = null;
       }
+      // send what is still buffered
+      MessageBatcher messageBatcher = this.messageBatcher;
+      if (messageBatcher != null) {
+        messageBatcher.flush();
+      }
       flushEntity();
       closed = true;
     }
@@ -220,6 +229,32 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
     this.onOperationError = onOperationError;
   }
 
+  /**
+   * Buffers the pushed notifications and statistics to send them to the server in batches, where all the buffered
+   * statistics are sent in one message instead of one message per push.
+   * A batch is sent when {@code batchSize} items are buffered or {@code maxDelay} after the first item was buffered.
+   * When {@code capacity} items are buffered, the oldest ones are dropped and the loss is reported to the server with a
+   * {@code CLIENT_MESSAGES_DROPPED} notification. The batches are not acknowledged by the server: the capacity only
+   * bounds the buffer kept on this client.
+   *
+   * @param capacity  maximum number of buffered notifications and statistics
+   * @param batchSize number of buffered items triggering a batch
+   * @param maxDelay  maximum time an item stays buffered while the batches are sent in time
+   * @param unit      unit of maxDelay
+   * @param scheduler the executor sending the batches, which must not be shutdown before this service is closed
+   */
+  public NmsAgentService setBatching(int capacity, int batchSize, long maxDelay, TimeUnit unit, ScheduledExecutorService scheduler) {
+    this.messageBatcher = new MessageBatcher(capacity, batchSize, maxDelay, unit, scheduler, this::getRegistryContext, this::pushBatch);
+    return this;
+  }
+
+  /**
+   * @return the batching metrics (sent batches, coalesced and dropped items), if batching is enabled
+   */
+  public Optional<MessageBatcher> getMessageBatcher() {
+    return Optional.ofNullable(messageBatcher);
+  }
+
   // features
 
   @Override
@@ -249,7 +284,12 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
   public void pushNotification(ContextualNotification notification) {
     if (notification != null) {
       LOGGER.trace("pushNotification({})", notification);
-      runOperation(() -> getEntity().pushNotification(null, notification));
+      MessageBatcher messageBatcher = this.messageBatcher;
+      if (messageBatcher == null) {
+        runOperation(() -> getEntity().pushNotification(null, notification));
+      } else if (!isClosed()) {
+        messageBatcher.offer(notification);
+      }
     }
   }
 
@@ -262,7 +302,12 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
   public void pushStatistics(ContextualStatistics... statistics) {
     if (statistics.length > 0) {
       LOGGER.trace("pushStatistics({})", statistics.length);
-      runOperation(() -> getEntity().pushStatistics(null, statistics));
+      MessageBatcher messageBatcher = this.messageBatcher;
+      if (messageBatcher == null) {
+        runOperation(() -> getEntity().pushStatistics(null, statistics));
+      } else if (!isClosed()) {
+        messageBatcher.offer(statistics);
+      }
     }
   }
 
@@ -293,6 +338,22 @@ public class DefaultNmsAgentService implements EndpointListener, MessageListener
     }
   }
 
+  private void pushBatch(ContextualNotification[] notifications, ContextualStatistics[] statistics) {
+    // the NMS agent entity is permanent: its version, so its messages, cannot change.
+    // A batch is sent with the existing messages: the notifications first, then all the statistics at once.
+    for (ContextualNotification notification : notifications) {
+      runOperation(() -> getEntity().pushNotification(null, notification));
+    }
+    if (statistics.length > 0) {
+      runOperation(() -> getEntity().pushStatistics(null, statistics));
+    }
+  }
+
+  private Context getRegistryContext() {
+    ManagementRegistry registry = getRegistry();
+    return registry == null ? Context.empty() : Context.create(registry.getContextContainer().getName(), registry.getContextContainer().getValue());
+  }
+
   protected void executeManagementCall(String managementCallIdentifier, ContextualCall<?> contextualCall) {
     if (isManagementRegistryBridged()) {
       ContextualReturn<?> aReturn = getRegistry().withCapability(contextualCall.getCapability())
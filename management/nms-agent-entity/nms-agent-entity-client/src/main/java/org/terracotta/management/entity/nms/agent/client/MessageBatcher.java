@@ -0,0 +1,269 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.agent.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.context.Contextual;
+import org.terracotta.management.model.notification.ContextualNotification;
+import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.statistics.Sample;
+import org.terracotta.statistics.registry.Statistic;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Buffers the notifications and statistics pushed by a client so that they are sent to the server in batches.
+ * <p>
+ * A batch is sent as soon as {@code batchSize} items are buffered, or {@code maxDelay} after the first item was buffered.
+ * Statistics pushed for the same capability and context while they are buffered are coalesced into one item.
+ * The buffer is bounded: when items are pushed faster than the batches are sent, the oldest items are dropped and the
+ * next batch starts with a {@code CLIENT_MESSAGES_DROPPED} notification giving the number of lost notifications and
+ * statistics.
+ * <p>
+ * This only bounds the memory used on the client: batches are sent without waiting for the server to process them,
+ * so a slow server does not slow down the sending of the batches.
+ */
+public final class MessageBatcher {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MessageBatcher.class);
+
+  private final int capacity;
+  private final int batchSize;
+  private final long maxDelayMs;
+  private final ScheduledExecutorService scheduler;
+  private final Supplier<Context> contextSupplier;
+  private final Sender sender;
+
+  // buffered items, oldest first: notifications are keyed by a sequence, statistics by capability and context
+  private final LinkedHashMap<Object, Contextual> buffer = new LinkedHashMap<>();
+  private final Object flushLock = new Object();
+  private long notificationSequence;
+  private long unreportedDroppedNotifications;
+  private long unreportedDroppedStatistics;
+  private boolean flushRequested;
+  private boolean flushScheduled;
+
+  private final AtomicLong batches = new AtomicLong();
+  private final AtomicLong sentNotifications = new AtomicLong();
+  private final AtomicLong sentStatistics = new AtomicLong();
+  private final AtomicLong coalescedStatistics = new AtomicLong();
+  private final AtomicLong droppedNotifications = new AtomicLong();
+  private final AtomicLong droppedStatistics = new AtomicLong();
+
+  MessageBatcher(int capacity, int batchSize, long maxDelay, TimeUnit unit, ScheduledExecutorService scheduler, Supplier<Context> contextSupplier, Sender sender) {
+    if (batchSize <= 0 || capacity < batchSize) {
+      throw new IllegalArgumentException("Invalid capacity " + capacity + " for batch size " + batchSize);
+    }
+    this.capacity = capacity;
+    this.batchSize = batchSize;
+    this.maxDelayMs = TimeUnit.MILLISECONDS.convert(maxDelay, unit);
+    this.scheduler = Objects.requireNonNull(scheduler);
+    this.contextSupplier = Objects.requireNonNull(contextSupplier);
+    this.sender = Objects.requireNonNull(sender);
+  }
+
+  void offer(ContextualNotification notification) {
+    synchronized (buffer) {
+      makeRoom();
+      buffer.put(notificationSequence++, notification);
+      onBuffered();
+    }
+  }
+
+  void offer(ContextualStatistics... statistics) {
+    synchronized (buffer) {
+      for (ContextualStatistics stats : statistics) {
+        StatisticsKey key = new StatisticsKey(stats.getCapability(), stats.getContext());
+        ContextualStatistics buffered = (ContextualStatistics) buffer.get(key);
+        if (buffered == null) {
+          makeRoom();
+          buffer.put(key, stats);
+        } else {
+          // replacing the value keeps the position of the key, so the item keeps its age
+          buffer.put(key, merge(buffered, stats));
+          coalescedStatistics.incrementAndGet();
+        }
+      }
+      onBuffered();
+    }
+  }
+
+  /**
+   * Sends all the buffered items in one batch
+   */
+  void flush() {
+    // batches must be sent in the order they were drained
+    synchronized (flushLock) {
+      List<ContextualNotification> notifications = new ArrayList<>();
+      List<ContextualStatistics> statistics = new ArrayList<>();
+      synchronized (buffer) {
+        flushRequested = false;
+        flushScheduled = false;
+        if (unreportedDroppedNotifications > 0 || unreportedDroppedStatistics > 0) {
+          Map<String, String> attributes = new HashMap<>();
+          attributes.put("notifications", String.valueOf(unreportedDroppedNotifications));
+          attributes.put("statistics", String.valueOf(unreportedDroppedStatistics));
+          notifications.add(new ContextualNotification(contextSupplier.get(), "CLIENT_MESSAGES_DROPPED", attributes));
+          unreportedDroppedNotifications = 0;
+          unreportedDroppedStatistics = 0;
+        }
+        for (Contextual contextual : buffer.values()) {
+          if (contextual instanceof ContextualNotification) {
+            notifications.add((ContextualNotification) contextual);
+          } else {
+            statistics.add((ContextualStatistics) contextual);
+          }
+        }
+        buffer.clear();
+      }
+      if (notifications.isEmpty() && statistics.isEmpty()) {
+        return;
+      }
+      LOGGER.trace("flush({}, {})", notifications.size(), statistics.size());
+      sender.send(
+          notifications.toArray(new ContextualNotification[notifications.size()]),
+          statistics.toArray(new ContextualStatistics[statistics.size()]));
+      batches.incrementAndGet();
+      sentNotifications.addAndGet(notifications.size());
+      sentStatistics.addAndGet(statistics.size());
+    }
+  }
+
+  public int getBufferedCount() {
+    synchronized (buffer) {
+      return buffer.size();
+    }
+  }
+
+  public long getBatchCount() {
+    return batches.get();
+  }
+
+  public long getSentNotificationCount() {
+    return sentNotifications.get();
+  }
+
+  public long getSentStatisticsCount() {
+    return sentStatistics.get();
+  }
+
+  public long getCoalescedStatisticsCount() {
+    return coalescedStatistics.get();
+  }
+
+  public long getDroppedNotificationCount() {
+    return droppedNotifications.get();
+  }
+
+  public long getDroppedStatisticsCount() {
+    return droppedStatistics.get();
+  }
+
+  @Override
+  public String toString() {
+    return "MessageBatcher{" +
+        "buffered=" + getBufferedCount() +
+        ", batches=" + batches +
+        ", sentNotifications=" + sentNotifications +
+        ", sentStatistics=" + sentStatistics +
+        ", coalescedStatistics=" + coalescedStatistics +
+        ", droppedNotifications=" + droppedNotifications +
+        ", droppedStatistics=" + droppedStatistics +
+        '}';
+  }
+
+  private void makeRoom() {
+    for (Iterator<Contextual> it = buffer.values().iterator(); buffer.size() >= capacity; ) {
+      Contextual dropped = it.next();
+      it.remove();
+      if (dropped instanceof ContextualNotification) {
+        unreportedDroppedNotifications++;
+        droppedNotifications.incrementAndGet();
+      } else {
+        unreportedDroppedStatistics++;
+        droppedStatistics.incrementAndGet();
+      }
+    }
+  }
+
+  private void onBuffered() {
+    if (buffer.size() >= batchSize) {
+      if (!flushRequested) {
+        flushRequested = true;
+        scheduler.execute(this::flush);
+      }
+    } else if (!flushScheduled && !buffer.isEmpty()) {
+      flushScheduled = true;
+      scheduler.schedule(this::flush, maxDelayMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static ContextualStatistics merge(ContextualStatistics older, ContextualStatistics newer) {
+    Map<String, Statistic<? extends Serializable>> statistics = new HashMap<>(older.getStatistics());
+    newer.getStatistics().forEach((name, statistic) -> statistics.merge(name, statistic, (previous, next) -> {
+      if (previous.getType() != next.getType()) {
+        return next;
+      }
+      // the samples of both collections are kept, in the order they were collected
+      List<Sample> samples = new ArrayList<>(previous.getSamples());
+      samples.addAll(next.getSamples());
+      return new Statistic(next.getType(), samples);
+    }));
+    return new ContextualStatistics(newer.getCapability(), newer.getContext(), statistics);
+  }
+
+  interface Sender {
+    void send(ContextualNotification[] notifications, ContextualStatistics[] statistics);
+  }
+
+  private static final class StatisticsKey {
+    private final String capability;
+    private final Context context;
+
+    StatisticsKey(String capability, Context context) {
+      this.capability = capability;
+      this.context = context;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      StatisticsKey that = (StatisticsKey) o;
+      return capability.equals(that.capability) && context.equals(that.context);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * capability.hashCode() + context.hashCode();
+    }
+  }
+
+}
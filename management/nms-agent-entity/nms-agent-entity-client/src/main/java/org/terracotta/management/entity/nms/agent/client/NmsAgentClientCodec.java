@@ -0,0 +1,93 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.agent.client;
+
+import org.terracotta.management.entity.nms.agent.NmsAgentCodec;
+import org.terracotta.voltron.proxy.BinaryCodec;
+import org.terracotta.voltron.proxy.Codec;
+import org.terracotta.voltron.proxy.SerializationCodec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The codec of a fetched NMS agent entity. It reads both formats, and writes serialized messages until the server
+ * tells that it reads the binary format (see {@link NmsAgentCodec#BINARY_CODEC_MESSAGE}).
+ */
+class NmsAgentClientCodec implements Codec {
+
+  private final BinaryCodec binary = NmsAgentCodec.create(new SerializationCodec());
+  private final Codec serialization = binary.withFallbackEncoding();
+
+  private volatile boolean binaryEncoding;
+
+  void useBinaryEncoding() {
+    binaryEncoding = true;
+  }
+
+  boolean isBinaryEncoding() {
+    return binaryEncoding;
+  }
+
+  private Codec encoder() {
+    return binaryEncoding ? binary : serialization;
+  }
+
+  /**
+   * A single value is only encoded for the reconnect data. The server it is sent to can be another one, which may not
+   * read the binary format: the messages are serialized again until this server tells otherwise.
+   */
+  @Override
+  public byte[] encode(Class<?> type, Object value) {
+    binaryEncoding = false;
+    return serialization.encode(type, value);
+  }
+
+  @Override
+  public byte[] encode(Class<?>[] types, Object[] values) {
+    return encoder().encode(types, values);
+  }
+
+  @Override
+  public void encode(Class<?> type, Object value, OutputStream out) throws IOException {
+    out.write(encode(type, value));
+  }
+
+  @Override
+  public void encode(Class<?>[] types, Object[] values, OutputStream out) throws IOException {
+    encoder().encode(types, values, out);
+  }
+
+  @Override
+  public <T> T decode(Class<T> type, byte[] buffer) {
+    return binary.decode(type, buffer);
+  }
+
+  @Override
+  public <T> T decode(Class<T> type, byte[] buffer, int offset, int len) {
+    return binary.decode(type, buffer, offset, len);
+  }
+
+  @Override
+  public Object[] decode(Class<?>[] types, byte[] buffer) {
+    return binary.decode(types, buffer);
+  }
+
+  @Override
+  public Object[] decode(Class<?>[] types, byte[] buffer, int offset, int len) {
+    return binary.decode(types, buffer, offset, len);
+  }
+}
@@ -16,7 +16,9 @@
 package org.terracotta.management.entity.nms.agent.client;
 
 import org.terracotta.management.entity.nms.agent.NmsAgent;
+import org.terracotta.management.entity.nms.agent.NmsAgentCodec;
 import org.terracotta.management.model.message.Message;
+import org.terracotta.voltron.proxy.Codec;
 import org.terracotta.voltron.proxy.SerializationCodec;
 import org.terracotta.voltron.proxy.client.ProxyEntityClientService;
 
@@ -28,7 +30,13 @@ public class NmsAgentEntityClientService extends ProxyEntityClientService<NmsAge
   public NmsAgentEntityClientService() {
     //TODO: MATHIEU - PERF: https://github.com/Terracotta-OSS/terracotta-platform/issues/92
     super(NmsAgentEntity.class, NmsAgent.class, Void.class, new Class<?>[] {Message.class});
-    setCodec(new SerializationCodec());
+    setCodec(NmsAgentCodec.create(new SerializationCodec()).withFallbackEncoding());
+  }
+
+  @Override
+  protected Codec getCodec(Object userData) {
+    // the entities fetched by the factory switch to the binary format when the server supports it
+    return userData instanceof NmsAgentClientCodec ? (NmsAgentClientCodec) userData : super.getCodec(userData);
   }
 
 }
@@ -20,6 +20,8 @@ import org.terracotta.connection.entity.EntityRef;
 import org.terracotta.exception.EntityNotFoundException;
 import org.terracotta.exception.EntityNotProvidedException;
 import org.terracotta.exception.EntityVersionMismatchException;
+import org.terracotta.management.entity.nms.agent.NmsAgentCodec;
+import org.terracotta.management.model.message.Message;
 
 import static java.util.Objects.requireNonNull;
 
@@ -38,7 +40,14 @@ public class NmsAgentEntityFactory {
 
   public NmsAgentEntity retrieve() {
     try {
-      return getEntityRef().fetchEntity(null);
+      NmsAgentClientCodec codec = new NmsAgentClientCodec();
+      NmsAgentEntity entity = getEntityRef().fetchEntity(codec);
+      entity.registerMessageListener(Message.class, message -> {
+        if (NmsAgentCodec.BINARY_CODEC_MESSAGE.equals(message.getType())) {
+          codec.useBinaryEncoding();
+        }
+      });
+      return entity;
     } catch (EntityVersionMismatchException e) {
       throw new AssertionError(e);
     } catch (EntityNotFoundException e) {
@@ -0,0 +1,191 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.agent.client;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.notification.ContextualNotification;
+import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.statistics.Sample;
+import org.terracotta.statistics.StatisticType;
+import org.terracotta.statistics.registry.Statistic;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class MessageBatcherTest {
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final BlockingQueue<Batch> batches = new LinkedBlockingQueue<>();
+  private final Context clientContext = Context.create("clientId", "client-1");
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void test_statistics_coalesced() {
+    MessageBatcher batcher = batcher(10, 10, 1, TimeUnit.HOURS);
+
+    batcher.offer(statistics("cache-1", 1000L, 1L));
+    batcher.offer(statistics("cache-2", 1000L, 10L));
+    batcher.offer(statistics("cache-1", 2000L, 2L));
+    assertEquals(2, batcher.getBufferedCount());
+    assertEquals(1, batcher.getCoalescedStatisticsCount());
+
+    batcher.flush();
+
+    Batch batch = batches.poll();
+    assertEquals(0, batch.notifications.length);
+    assertEquals(2, batch.statistics.length);
+    // the coalesced statistics keep the position of the first ones, and the samples of both
+    assertEquals("cache-1", batch.statistics[0].getContext().get("cacheName"));
+    assertEquals(Arrays.asList(1L, 2L), samples(batch.statistics[0]));
+    assertEquals(Collections.singletonList(10L), samples(batch.statistics[1]));
+    assertEquals(1, batcher.getBatchCount());
+    assertEquals(2, batcher.getSentStatisticsCount());
+  }
+
+  @Test
+  public void test_oldest_dropped_and_reported() throws Exception {
+    MessageBatcher batcher = batcher(4, 2, 1, TimeUnit.HOURS);
+    // the batches cannot be sent until the scheduler is released
+    CountDownLatch release = new CountDownLatch(1);
+    scheduler.execute(() -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+
+    batcher.offer(statistics("cache-1", 1000L, 1L));
+    for (int i = 1; i <= 5; i++) {
+      batcher.offer(notification(i));
+    }
+    assertEquals(4, batcher.getBufferedCount());
+    assertEquals(1, batcher.getDroppedStatisticsCount());
+    assertEquals(1, batcher.getDroppedNotificationCount());
+
+    release.countDown();
+
+    Batch batch = batches.poll(5, TimeUnit.SECONDS);
+    assertNotNull(batch);
+    assertEquals(0, batch.statistics.length);
+    assertEquals(5, batch.notifications.length);
+    ContextualNotification dropped = batch.notifications[0];
+    assertEquals("CLIENT_MESSAGES_DROPPED", dropped.getType());
+    assertEquals(clientContext, dropped.getContext());
+    assertEquals("1", dropped.getAttributes().get("notifications"));
+    assertEquals("1", dropped.getAttributes().get("statistics"));
+    for (int i = 1; i < 5; i++) {
+      assertEquals("EVENT_" + (i + 1), batch.notifications[i].getType());
+    }
+
+    // the loss is only reported once
+    batcher.offer(notification(6));
+    batcher.flush();
+    batch = batches.poll();
+    assertEquals(1, batch.notifications.length);
+    assertEquals("EVENT_6", batch.notifications[0].getType());
+  }
+
+  @Test
+  public void test_flush_when_batch_size_reached() throws Exception {
+    MessageBatcher batcher = batcher(10, 3, 1, TimeUnit.HOURS);
+
+    batcher.offer(notification(1));
+    batcher.offer(statistics("cache-1", 1000L, 1L));
+    assertNull(batches.poll(100, TimeUnit.MILLISECONDS));
+
+    batcher.offer(notification(2));
+
+    Batch batch = batches.poll(5, TimeUnit.SECONDS);
+    assertNotNull(batch);
+    assertEquals(2, batch.notifications.length);
+    assertEquals(1, batch.statistics.length);
+    assertEquals(0, batcher.getBufferedCount());
+  }
+
+  @Test
+  public void test_flush_after_max_delay() throws Exception {
+    MessageBatcher batcher = batcher(10, 10, 200, TimeUnit.MILLISECONDS);
+
+    long start = System.nanoTime();
+    batcher.offer(notification(1));
+    batcher.offer(notification(2));
+
+    Batch batch = batches.poll(5, TimeUnit.SECONDS);
+    assertNotNull(batch);
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+    assertEquals(2, batch.notifications.length);
+
+    // the delay starts again with the next item
+    batcher.offer(notification(3));
+    batch = batches.poll(5, TimeUnit.SECONDS);
+    assertNotNull(batch);
+    assertEquals("EVENT_3", batch.notifications[0].getType());
+  }
+
+  private MessageBatcher batcher(int capacity, int batchSize, long maxDelay, TimeUnit unit) {
+    return new MessageBatcher(capacity, batchSize, maxDelay, unit, scheduler, () -> clientContext,
+        (notifications, statistics) -> batches.add(new Batch(notifications, statistics)));
+  }
+
+  private static ContextualNotification notification(int i) {
+    return new ContextualNotification(Context.create("cacheName", "cache-1"), "EVENT_" + i);
+  }
+
+  private static ContextualStatistics statistics(String cacheName, long timestamp, long value) {
+    return new ContextualStatistics("StatisticsCapability", Context.create("cacheName", cacheName),
+        Collections.singletonMap("Cache:HitCount", new Statistic<>(StatisticType.COUNTER, new Sample<>(timestamp, value))));
+  }
+
+  private static List<Object> samples(ContextualStatistics statistics) {
+    return statistics.getStatistic("Cache:HitCount").get().getSamples()
+        .stream()
+        .map(Sample::getSample)
+        .collect(Collectors.toList());
+  }
+
+  private static final class Batch {
+    final ContextualNotification[] notifications;
+    final ContextualStatistics[] statistics;
+
+    Batch(ContextualNotification[] notifications, ContextualStatistics[] statistics) {
+      this.notifications = notifications;
+      this.statistics = statistics;
+    }
+  }
+}
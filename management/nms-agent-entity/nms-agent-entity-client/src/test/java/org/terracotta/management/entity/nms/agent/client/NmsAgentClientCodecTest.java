@@ -0,0 +1,73 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.agent.client;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.terracotta.management.entity.nms.agent.ReconnectData;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.notification.ContextualNotification;
+import org.terracotta.voltron.proxy.SerializationCodec;
+
+import java.io.ObjectStreamConstants;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class NmsAgentClientCodecTest {
+
+  private static final byte SERIALIZATION_MAGIC = (byte) (ObjectStreamConstants.STREAM_MAGIC >>> 8);
+
+  private final NmsAgentClientCodec codec = new NmsAgentClientCodec();
+  private final Class<?>[] types = {Object.class, ContextualNotification.class};
+  private final Object[] values = {null, new ContextualNotification(Context.create("cacheName", "cache-1"), "CACHE_ADDED")};
+
+  @Test
+  public void test_serialized_until_told() {
+    assertFalse(codec.isBinaryEncoding());
+    byte[] serialized = codec.encode(types, values);
+    assertEquals(SERIALIZATION_MAGIC, serialized[0]);
+    assertArrayEquals(values, new SerializationCodec().decode(types, serialized));
+
+    codec.useBinaryEncoding();
+
+    byte[] binary = codec.encode(types, values);
+    assertNotEquals(SERIALIZATION_MAGIC, binary[0]);
+    assertTrue(binary.length < serialized.length);
+    // both formats are read
+    assertArrayEquals(values, codec.decode(types, binary));
+    assertArrayEquals(values, codec.decode(types, serialized));
+  }
+
+  @Test
+  public void test_reconnect_data_serialized_and_resets_the_format() {
+    codec.useBinaryEncoding();
+
+    ReconnectData reconnectData = new ReconnectData(new String[]{"tag"}, null, null, null);
+    byte[] encoded = codec.encode(ReconnectData.class, reconnectData);
+
+    assertArrayEquals(reconnectData.tags, new SerializationCodec().decode(ReconnectData.class, encoded).tags);
+    // the server reconnected to will tell again if it reads the binary format
+    assertFalse(codec.isBinaryEncoding());
+    assertEquals(SERIALIZATION_MAGIC, codec.encode(types, values)[0]);
+  }
+
+}
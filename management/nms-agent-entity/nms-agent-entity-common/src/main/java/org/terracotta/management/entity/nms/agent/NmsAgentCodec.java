@@ -0,0 +1,55 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.agent;
+
+import org.terracotta.management.model.call.Parameter;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.notification.ContextualNotification;
+import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.voltron.proxy.BinaryCodec;
+import org.terracotta.voltron.proxy.Codec;
+
+/**
+ * The binary codec of the NMS agent entity, with the model types it exchanges.
+ * <p>
+ * The registration order defines the wire format: new types must be added at the end.
+ * <p>
+ * The version of this permanent entity cannot change, so the format is not negotiated by version: the servers reading
+ * this format send a {@value #BINARY_CODEC_MESSAGE} message to each client, and clients write serialized messages until
+ * they receive it.
+ */
+public final class NmsAgentCodec {
+
+  /**
+   * The type of the message telling a client that the server it is connected to reads the binary format
+   */
+  public static final String BINARY_CODEC_MESSAGE = "BINARY_CODEC";
+
+  private NmsAgentCodec() {
+  }
+
+  /**
+   * @param fallback the codec used for the other types, and to read messages written with Java serialization
+   */
+  public static BinaryCodec create(Codec fallback) {
+    return new BinaryCodec(fallback)
+        .register(Context.class, Context::writeTo, Context::readFrom)
+        .register(Parameter.class, Parameter::writeTo, Parameter::readFrom)
+        .register(ContextualNotification.class, ContextualNotification::writeTo, ContextualNotification::readFrom)
+        .register(ContextualStatistics.class, ContextualStatistics::writeTo, ContextualStatistics::readFrom);
+  }
+
+}
@@ -17,20 +17,31 @@ package org.terracotta.management.entity.nms.agent.server;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terracotta.entity.ActiveInvokeContext;
 import org.terracotta.entity.ClientDescriptor;
+import org.terracotta.entity.EntityUserException;
 import org.terracotta.management.entity.nms.agent.NmsAgent;
+import org.terracotta.management.entity.nms.agent.NmsAgentCodec;
 import org.terracotta.management.entity.nms.agent.ReconnectData;
 import org.terracotta.management.model.call.ContextualReturn;
 import org.terracotta.management.model.capabilities.Capability;
 import org.terracotta.management.model.context.ContextContainer;
+import org.terracotta.management.model.message.DefaultMessage;
+import org.terracotta.management.model.message.Message;
 import org.terracotta.management.model.notification.ContextualNotification;
 import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.management.sequence.BoundaryFlakeSequenceGenerator;
+import org.terracotta.management.sequence.SequenceGenerator;
 import org.terracotta.management.service.monitoring.ClientMonitoringService;
 import org.terracotta.voltron.proxy.ClientId;
+import org.terracotta.voltron.proxy.ProxyEntityMessage;
+import org.terracotta.voltron.proxy.ProxyEntityResponse;
 import org.terracotta.voltron.proxy.server.ActiveProxiedServerEntity;
 import org.terracotta.voltron.proxy.server.Messenger;
 
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 
 /**
@@ -41,11 +52,29 @@ class ActiveNmsAgentServerEntity extends ActiveProxiedServerEntity<Void, Reconne
   private static final Logger LOGGER = LoggerFactory.getLogger(ActiveNmsAgentServerEntity.class);
 
   private final ClientMonitoringService clientMonitoringService;
+  private final SequenceGenerator sequenceGenerator = new BoundaryFlakeSequenceGenerator();
+  private final Set<ClientDescriptor> binaryCodecClients = ConcurrentHashMap.newKeySet();
 
   ActiveNmsAgentServerEntity(ClientMonitoringService clientMonitoringService) {
     this.clientMonitoringService = clientMonitoringService;
   }
 
+  @Override
+  public ProxyEntityResponse invokeActive(ActiveInvokeContext<ProxyEntityResponse> context, ProxyEntityMessage message) throws EntityUserException {
+    // tells the client, once it is fully connected, that it can send its next messages in the binary format
+    ClientDescriptor clientDescriptor = context.getClientDescriptor();
+    if (binaryCodecClients.add(clientDescriptor)) {
+      fireMessage(Message.class, new DefaultMessage(sequenceGenerator.next(), NmsAgentCodec.BINARY_CODEC_MESSAGE), clientDescriptor);
+    }
+    return super.invokeActive(context, message);
+  }
+
+  @Override
+  public void disconnected(ClientDescriptor clientDescriptor) {
+    binaryCodecClients.remove(clientDescriptor);
+    super.disconnected(clientDescriptor);
+  }
+
   @Override
   public void destroy() {
     if (clientMonitoringService != null) {
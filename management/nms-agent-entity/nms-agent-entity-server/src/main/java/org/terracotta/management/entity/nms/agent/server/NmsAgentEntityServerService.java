@@ -22,6 +22,7 @@ import org.terracotta.entity.ConfigurationException;
 import org.terracotta.entity.ServiceException;
 import org.terracotta.entity.ServiceRegistry;
 import org.terracotta.management.entity.nms.agent.NmsAgent;
+import org.terracotta.management.entity.nms.agent.NmsAgentCodec;
 import org.terracotta.management.entity.nms.agent.ReconnectData;
 import org.terracotta.management.model.message.Message;
 import org.terracotta.management.service.monitoring.ClientMonitoringService;
@@ -43,7 +44,9 @@ public class NmsAgentEntityServerService extends ProxyServerEntityService<Void,
   public NmsAgentEntityServerService() {
     //TODO: MATHIEU - PERF: https://github.com/Terracotta-OSS/terracotta-platform/issues/92
     super(NmsAgent.class, Void.class, new Class<?>[]{Message.class}, null, ReconnectData.class, null);
-    setCodec(new SerializationCodec(compile("^(?:org\\.ehcache\\.shadow|com\\.terracottatech\\.shadow)\\.(org\\.terracotta\\.statistics\\..*)$")));
+    // the version of a permanent entity is fixed, so it cannot be negotiated like the NMS entity one: messages are
+    // sent serialized, and the clients are told that they can send binary ones (see NmsAgentCodec)
+    setCodec(NmsAgentCodec.create(new SerializationCodec(compile("^(?:org\\.ehcache\\.shadow|com\\.terracottatech\\.shadow)\\.(org\\.terracotta\\.statistics\\..*)$"))).withFallbackEncoding());
   }
 
   @Override
@@ -20,9 +20,15 @@ import org.slf4j.LoggerFactory;
 import org.terracotta.management.model.call.ContextualReturn;
 import org.terracotta.management.model.call.Parameter;
 import org.terracotta.management.model.cluster.Cluster;
+import org.terracotta.management.model.cluster.TopologyChanges;
 import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.context.Contextual;
+import org.terracotta.management.model.message.DefaultMessage;
 import org.terracotta.management.model.message.ManagementCallMessage;
 import org.terracotta.management.model.message.Message;
+import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.management.model.stats.StatisticsBatch;
+import org.terracotta.management.model.stats.StatisticsBatchDecoder;
 
 import java.io.Closeable;
 import java.util.ArrayList;
@@ -36,9 +42,9 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -50,20 +56,30 @@ public class DefaultNmsService implements NmsService, Closeable {
   private static final Logger LOGGER = LoggerFactory.getLogger(NmsService.class);
 
   private final NmsEntity entity;
-  private final BlockingQueue<Optional<Message>> incomingMessageQueue;
+  private final NmsMessageQueue incomingMessageQueue;
   private final ConcurrentMap<String, CompletableFuture<ContextualReturn<?>>> managementCallAnswers = new ConcurrentHashMap<>();
+  private final StatisticsBatchDecoder statisticsDecoder = new StatisticsBatchDecoder();
+  private final AtomicBoolean statisticsResetRequested = new AtomicBoolean();
 
   private long timeout = 5000;
 
   public DefaultNmsService(final NmsEntity entity) {
-    this(entity, new LinkedBlockingQueue<>());
+    this(entity, new MultiLaneMessageQueue());
   }
 
   public DefaultNmsService(final NmsEntity entity, BlockingQueue<Optional<Message>> incomingMessageQueue) {
-    this(entity, incomingMessageQueue, message -> LOGGER.warn("Queue is full - Message lost: ", message));
+    this(entity, new BlockingMessageQueue(incomingMessageQueue));
   }
 
   public DefaultNmsService(final NmsEntity entity, BlockingQueue<Optional<Message>> incomingMessageQueue, Consumer<Message> sink) {
+    this(entity, new BlockingMessageQueue(incomingMessageQueue), sink);
+  }
+
+  public DefaultNmsService(final NmsEntity entity, NmsMessageQueue incomingMessageQueue) {
+    this(entity, incomingMessageQueue, message -> LOGGER.warn("Queue is full - Message lost: {}", message));
+  }
+
+  public DefaultNmsService(final NmsEntity entity, NmsMessageQueue incomingMessageQueue, Consumer<Message> sink) {
     Objects.requireNonNull(sink);
     this.entity = Objects.requireNonNull(entity);
     this.incomingMessageQueue = Objects.requireNonNull(incomingMessageQueue);
@@ -78,9 +94,16 @@ public class DefaultNmsService implements NmsService, Closeable {
           getManagementAnswerFor(managementCallIdentifier).complete(contextualReturn);
           break;
 
-        case "NOTIFICATION":
         case "STATISTICS":
-          boolean offered = incomingMessageQueue.offer(Optional.of(message));
+          decodeStatistics(message).ifPresent(decoded -> {
+            if (!incomingMessageQueue.offer(decoded)) {
+              sink.accept(decoded);
+            }
+          });
+          break;
+
+        case "NOTIFICATION":
+          boolean offered = incomingMessageQueue.offer(message);
           if (!offered) {
             sink.accept(message);
           }
@@ -93,10 +116,49 @@ public class DefaultNmsService implements NmsService, Closeable {
     });
   }
 
+  /**
+   * Statistics are received in batches that can only be decoded in order, so they are decoded as they come,
+   * before being queued. When a batch cannot be decoded, the server is asked to send the whole dictionary again
+   * and the batches are dropped until it comes.
+   */
+  private Optional<Message> decodeStatistics(Message message) {
+    List<Contextual> data = message.unwrap(Contextual.class);
+    if (data.size() != 1 || !(data.get(0) instanceof StatisticsBatch)) {
+      return Optional.of(message);
+    }
+    StatisticsBatch batch = (StatisticsBatch) data.get(0);
+    if (batch.isReset()) {
+      statisticsResetRequested.set(false);
+    }
+    if (!statisticsDecoder.canDecode(batch)) {
+      // batch sent before this client listened to the messages, or after a batch that could not be decoded
+      requestStatisticsReset();
+      return Optional.empty();
+    }
+    try {
+      List<ContextualStatistics> statistics = statisticsDecoder.decode(batch);
+      return Optional.of(new DefaultMessage(message.getSequence(), message.getType(), statistics.toArray(new ContextualStatistics[0])));
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn("Statistics lost: " + e.getMessage(), e);
+      requestStatisticsReset();
+      return Optional.empty();
+    }
+  }
+
+  private void requestStatisticsReset() {
+    if (statisticsResetRequested.compareAndSet(false, true)) {
+      entity.resetStatistics(null);
+    }
+  }
+
   public NmsEntity getEntity() {
     return entity;
   }
 
+  public NmsMessageQueue getIncomingMessageQueue() {
+    return incomingMessageQueue;
+  }
+
   @Override
   public void close() {
     cancelAllManagementCalls();
@@ -123,36 +185,28 @@ public class DefaultNmsService implements NmsService, Closeable {
     return get(entity.readTopology());
   }
 
+  @Override
+  public TopologyChanges readTopologyChanges(String topologyId, long sinceVersion) throws TimeoutException, InterruptedException, ExecutionException {
+    return get(entity.readTopologyChanges(topologyId, sinceVersion));
+  }
+
   @Override
   public Message waitForMessage() throws InterruptedException {
-    Optional<Message> o = incomingMessageQueue.take();
-    if (!o.isPresent()) {
-      throw new InterruptedException();
-    }
-    return o.get();
+    return incomingMessageQueue.take();
   }
 
   @Override
   public Message waitForMessage(long time, TimeUnit unit) throws InterruptedException, TimeoutException {
-    Optional<Message> o = incomingMessageQueue.poll(time, unit);
-    if (o == null) {
+    Message message = incomingMessageQueue.poll(time, unit);
+    if (message == null) {
       throw new TimeoutException("No message arrived within " + time + " " + unit);
     }
-    if (!o.isPresent()) {
-      throw new InterruptedException();
-    }
-    return o.get();
+    return message;
   }
 
   @Override
   public List<Message> readMessages() {
-    List<Optional<Message>> optionals = new ArrayList<>(incomingMessageQueue.size());
-    incomingMessageQueue.drainTo(optionals);
-    List<Message> messages = optionals.stream().filter(Optional::isPresent).map(Optional::get).collect(Collectors.toList());
-    if (!messages.isEmpty()) {
-      messages.sort(MESSAGE_COMPARATOR);
-    }
-    return messages;
+    return incomingMessageQueue.drain();
   }
 
   @SuppressWarnings("unchecked")
@@ -209,4 +263,53 @@ public class DefaultNmsService implements NmsService, Closeable {
     return managementCallAnswers.computeIfAbsent(managementCallIdentifier, s -> new CompletableFuture<>());
   }
 
+  /**
+   * Adapts a user-provided queue, where an empty element interrupts the readers
+   */
+  private static class BlockingMessageQueue implements NmsMessageQueue {
+
+    private final BlockingQueue<Optional<Message>> queue;
+
+    BlockingMessageQueue(BlockingQueue<Optional<Message>> queue) {
+      this.queue = Objects.requireNonNull(queue);
+    }
+
+    @Override
+    public boolean offer(Message message) {
+      return queue.offer(Optional.of(message));
+    }
+
+    @Override
+    public Message take() throws InterruptedException {
+      Optional<Message> o = queue.take();
+      if (!o.isPresent()) {
+        throw new InterruptedException();
+      }
+      return o.get();
+    }
+
+    @Override
+    public Message poll(long time, TimeUnit unit) throws InterruptedException {
+      Optional<Message> o = queue.poll(time, unit);
+      if (o == null) {
+        return null;
+      }
+      if (!o.isPresent()) {
+        throw new InterruptedException();
+      }
+      return o.get();
+    }
+
+    @Override
+    public List<Message> drain() {
+      List<Optional<Message>> optionals = new ArrayList<>(queue.size());
+      queue.drainTo(optionals);
+      List<Message> messages = optionals.stream().filter(Optional::isPresent).map(Optional::get).collect(Collectors.toList());
+      if (!messages.isEmpty()) {
+        messages.sort(MESSAGE_COMPARATOR);
+      }
+      return messages;
+    }
+  }
+
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.client;
+
+import org.terracotta.management.model.message.Message;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded {@link NmsMessageQueue} keeping the notifications and the statistics in separate lanes.
+ * <p>
+ * Notifications are taken before statistics so that they do not wait behind bulk statistics.
+ * Each lane is kept ordered by sequence when a message is queued, so that draining the queue only needs to merge
+ * the two lanes.
+ * When a lane is full, its {@link OverflowPolicy} decides whether its oldest message is dropped or the new one rejected.
+ * By default, the notifications are never dropped and the oldest statistics are dropped after 10000 queued ones.
+ */
+public final class MultiLaneMessageQueue implements NmsMessageQueue {
+
+  public enum OverflowPolicy {
+    /**
+     * The oldest message of the lane is dropped to make room for the new one
+     */
+    DROP_OLDEST,
+    /**
+     * The new message is rejected: {@link #offer(Message)} returns false
+     */
+    REJECT
+  }
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Lane notifications;
+  private final Lane statistics;
+
+  public MultiLaneMessageQueue() {
+    this(Integer.MAX_VALUE, OverflowPolicy.REJECT, 10_000, OverflowPolicy.DROP_OLDEST);
+  }
+
+  public MultiLaneMessageQueue(int notificationCapacity, OverflowPolicy notificationOverflowPolicy, int statisticsCapacity, OverflowPolicy statisticsOverflowPolicy) {
+    this.notifications = new Lane(notificationCapacity, notificationOverflowPolicy);
+    this.statistics = new Lane(statisticsCapacity, statisticsOverflowPolicy);
+  }
+
+  @Override
+  public boolean offer(Message message) {
+    Lane lane = "STATISTICS".equals(message.getType()) ? statistics : notifications;
+    lock.lock();
+    try {
+      if (!lane.offer(message)) {
+        return false;
+      }
+      notEmpty.signal();
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Message take() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (isEmpty()) {
+        notEmpty.await();
+      }
+      return next();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Message poll(long time, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(time);
+    lock.lockInterruptibly();
+    try {
+      while (isEmpty()) {
+        if (nanos <= 0) {
+          return null;
+        }
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      return next();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<Message> drain() {
+    lock.lock();
+    try {
+      List<Message> messages = new ArrayList<>(notifications.messages.size() + statistics.messages.size());
+      // both lanes are ordered: merge them
+      while (!notifications.messages.isEmpty() && !statistics.messages.isEmpty()) {
+        Lane first = notifications.messages.peekFirst().getSequence().compareTo(statistics.messages.peekFirst().getSequence()) <= 0 ? notifications : statistics;
+        messages.add(first.messages.pollFirst());
+      }
+      messages.addAll(notifications.messages);
+      messages.addAll(statistics.messages);
+      notifications.messages.clear();
+      statistics.messages.clear();
+      return messages;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getQueuedNotificationCount() {
+    lock.lock();
+    try {
+      return notifications.messages.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getQueuedStatisticsCount() {
+    lock.lock();
+    try {
+      return statistics.messages.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of notifications lost because the notification lane was full
+   */
+  public long getLostNotificationCount() {
+    lock.lock();
+    try {
+      return notifications.lost;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of statistics lost because the statistics lane was full
+   */
+  public long getLostStatisticsCount() {
+    lock.lock();
+    try {
+      return statistics.lost;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public String toString() {
+    lock.lock();
+    try {
+      return "MultiLaneMessageQueue{" +
+          "notifications=" + notifications.messages.size() +
+          ", statistics=" + statistics.messages.size() +
+          ", lostNotifications=" + notifications.lost +
+          ", lostStatistics=" + statistics.lost +
+          '}';
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean isEmpty() {
+    return notifications.messages.isEmpty() && statistics.messages.isEmpty();
+  }
+
+  private Message next() {
+    return notifications.messages.isEmpty() ? statistics.messages.pollFirst() : notifications.messages.pollFirst();
+  }
+
+  private static final class Lane {
+    final int capacity;
+    final OverflowPolicy overflowPolicy;
+    final LinkedList<Message> messages = new LinkedList<>();
+    long lost;
+
+    Lane(int capacity, OverflowPolicy overflowPolicy) {
+      if (capacity <= 0) {
+        throw new IllegalArgumentException("Invalid capacity: " + capacity);
+      }
+      this.capacity = capacity;
+      this.overflowPolicy = overflowPolicy;
+    }
+
+    boolean offer(Message message) {
+      if (messages.size() >= capacity) {
+        lost++;
+        if (overflowPolicy == OverflowPolicy.REJECT) {
+          return false;
+        }
+        messages.pollFirst();
+      }
+      // messages mostly arrive in order, so the insertion point is found from the end
+      ListIterator<Message> it = messages.listIterator(messages.size());
+      while (it.hasPrevious()) {
+        if (it.previous().getSequence().compareTo(message.getSequence()) <= 0) {
+          it.next();
+          break;
+        }
+      }
+      it.add(message);
+      return true;
+    }
+  }
+
+}
@@ -16,8 +16,12 @@
 package org.terracotta.management.entity.nms.client;
 
 import org.terracotta.management.entity.nms.Nms;
+import org.terracotta.management.entity.nms.NmsCodec;
 import org.terracotta.management.entity.nms.NmsConfig;
+import org.terracotta.management.entity.nms.NmsVersion;
 import org.terracotta.management.model.message.Message;
+import org.terracotta.voltron.proxy.BinaryCodec;
+import org.terracotta.voltron.proxy.Codec;
 import org.terracotta.voltron.proxy.SerializationCodec;
 import org.terracotta.voltron.proxy.client.ProxyEntityClientService;
 
@@ -25,8 +29,17 @@ import org.terracotta.voltron.proxy.client.ProxyEntityClientService;
  * @author Mathieu Carbou
  */
 public class NmsEntityClientService extends ProxyEntityClientService<NmsEntity, NmsConfig> {
+
+  private final BinaryCodec codec = NmsCodec.create(new SerializationCodec());
+
   public NmsEntityClientService() {
     super(NmsEntity.class, Nms.class, NmsConfig.class, new Class<?>[] {Message.class});
-    setCodec(new SerializationCodec());
+    // reads both formats, writes the configuration in the one all the versions read
+    setCodec(codec.withFallbackEncoding());
+  }
+
+  @Override
+  protected Codec getCodec(Object userData) {
+    return userData instanceof NmsVersion ? ((NmsVersion) userData).codec(codec) : super.getCodec(userData);
   }
 }
@@ -56,25 +56,39 @@ public class NmsEntityFactory {
 
   public NmsEntity retrieve() throws EntityNotFoundException {
     try {
-      return getEntityRef().fetchEntity(null);
+      return retrieve(NmsVersion.LATEST);
     } catch (EntityVersionMismatchException e) {
-      throw new AssertionError(e);
+      try {
+        return retrieve(NmsVersion.V2);
+      } catch (EntityVersionMismatchException f) {
+        throw new AssertionError(f);
+      }
     }
   }
 
   public NmsEntity create(NmsConfig config) throws EntityAlreadyExistsException, EntityConfigurationException {
-    EntityRef<NmsEntity, NmsConfig, Object> ref = getEntityRef();
+    NmsVersion version = NmsVersion.LATEST;
     try {
-      ref.create(config);
-      return ref.fetchEntity(null);
+      try {
+        getEntityRef(version).create(config);
+      } catch (EntityVersionMismatchException e) {
+        version = NmsVersion.V2;
+        getEntityRef(version).create(config);
+      }
+      return retrieve(version);
     } catch (EntityNotProvidedException | EntityVersionMismatchException | EntityNotFoundException e) {
       throw new AssertionError(e);
     }
   }
 
-  private EntityRef<NmsEntity, NmsConfig, Object> getEntityRef() {
+  private NmsEntity retrieve(NmsVersion version) throws EntityNotFoundException, EntityVersionMismatchException {
+    // the version tells the client service the format of the messages to send
+    return getEntityRef(version).fetchEntity(version);
+  }
+
+  private EntityRef<NmsEntity, NmsConfig, Object> getEntityRef(NmsVersion version) {
     try {
-      return connection.getEntityRef(NmsEntity.class, NmsVersion.LATEST.version(), entityName);
+      return connection.getEntityRef(NmsEntity.class, version.version(), entityName);
     } catch (EntityNotProvidedException e) {
       throw new AssertionError(e);
     }
@@ -0,0 +1,50 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.client;
+
+import org.terracotta.management.model.message.Message;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queue of the notifications and statistics received by a {@link DefaultNmsService}
+ */
+public interface NmsMessageQueue {
+
+  /**
+   * @return false if the message could not be queued
+   */
+  boolean offer(Message message);
+
+  /**
+   * Wait for a message to arrive in the queue
+   */
+  Message take() throws InterruptedException;
+
+  /**
+   * Wait for a message to arrive in the queue for a maximum amount of time
+   *
+   * @return the message, or null if none arrived in time
+   */
+  Message poll(long time, TimeUnit unit) throws InterruptedException;
+
+  /**
+   * Drain all messages in the queue. Drained messages are ordered by their sequence
+   */
+  List<Message> drain();
+
+}
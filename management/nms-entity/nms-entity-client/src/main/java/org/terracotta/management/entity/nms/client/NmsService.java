@@ -17,6 +17,7 @@ package org.terracotta.management.entity.nms.client;
 
 import org.terracotta.management.model.call.Parameter;
 import org.terracotta.management.model.cluster.Cluster;
+import org.terracotta.management.model.cluster.TopologyChanges;
 import org.terracotta.management.model.context.Context;
 import org.terracotta.management.model.message.Message;
 
@@ -39,6 +40,18 @@ public interface NmsService {
 
   Cluster readTopology() throws TimeoutException, InterruptedException, ExecutionException;
 
+  /**
+   * Read the changes of the topology since the given ones were read.
+   * The whole topology is returned instead if these changes are not available anymore.
+   *
+   * @param previous the last changes read, or null to read the whole topology
+   */
+  default TopologyChanges readTopologyChanges(TopologyChanges previous) throws TimeoutException, InterruptedException, ExecutionException {
+    return previous == null ? readTopologyChanges(null, 0) : readTopologyChanges(previous.getTopologyId(), previous.getVersion());
+  }
+
+  TopologyChanges readTopologyChanges(String topologyId, long sinceVersion) throws TimeoutException, InterruptedException, ExecutionException;
+
   /**
    * Wait for a message to arrive in the queue
    */
@@ -0,0 +1,191 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms.client;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.terracotta.management.entity.nms.client.MultiLaneMessageQueue.OverflowPolicy;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.message.DefaultMessage;
+import org.terracotta.management.model.message.Message;
+import org.terracotta.management.model.notification.ContextualNotification;
+import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.management.sequence.BoundaryFlakeSequenceGenerator;
+import org.terracotta.management.sequence.Sequence;
+import org.terracotta.management.sequence.SequenceGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class MultiLaneMessageQueueTest {
+
+  private final SequenceGenerator sequenceGenerator = new BoundaryFlakeSequenceGenerator();
+  // sequences in increasing order
+  private final List<Sequence> sequences = new ArrayList<>();
+
+  {
+    for (int i = 0; i < 10; i++) {
+      sequences.add(sequenceGenerator.next());
+    }
+  }
+
+  @Test
+  public void test_lanes_ordered_by_sequence() throws Exception {
+    MultiLaneMessageQueue queue = new MultiLaneMessageQueue();
+    Message n1 = notification(1);
+    Message n2 = notification(2);
+    Message n3 = notification(3);
+    Message s4 = statistics(4);
+    Message s5 = statistics(5);
+    Message s6 = statistics(6);
+
+    // messages arriving out of order are put back in order within their lane
+    offer(queue, n3, s5, n1, s6, s4, n2);
+
+    assertEquals(Arrays.asList(n1, n2, n3, s4, s5, s6), takeAll(queue));
+  }
+
+  @Test
+  public void test_notifications_taken_before_statistics() throws Exception {
+    MultiLaneMessageQueue queue = new MultiLaneMessageQueue();
+    Message s1 = statistics(1);
+    Message s2 = statistics(2);
+    Message n3 = notification(3);
+    Message n4 = notification(4);
+
+    offer(queue, s1, s2, n3);
+
+    assertSame(n3, queue.take());
+    offer(queue, n4);
+    assertSame(n4, queue.poll(0, TimeUnit.MILLISECONDS));
+    assertSame(s1, queue.take());
+    assertSame(s2, queue.take());
+    assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void test_drop_oldest_when_lane_full() throws Exception {
+    MultiLaneMessageQueue queue = new MultiLaneMessageQueue(2, OverflowPolicy.DROP_OLDEST, 2, OverflowPolicy.DROP_OLDEST);
+    Message n1 = notification(1);
+    Message n2 = notification(2);
+    Message n3 = notification(3);
+    Message s4 = statistics(4);
+
+    assertTrue(queue.offer(n1));
+    assertTrue(queue.offer(n2));
+    assertTrue(queue.offer(n3));
+    // the other lane is not affected
+    assertTrue(queue.offer(s4));
+
+    assertEquals(2, queue.getQueuedNotificationCount());
+    assertEquals(1, queue.getQueuedStatisticsCount());
+    assertEquals(1, queue.getLostNotificationCount());
+    assertEquals(0, queue.getLostStatisticsCount());
+    assertEquals(Arrays.asList(n2, n3, s4), queue.drain());
+  }
+
+  @Test
+  public void test_reject_when_lane_full() throws Exception {
+    MultiLaneMessageQueue queue = new MultiLaneMessageQueue(Integer.MAX_VALUE, OverflowPolicy.REJECT, 2, OverflowPolicy.REJECT);
+    Message s1 = statistics(1);
+    Message s2 = statistics(2);
+    Message s3 = statistics(3);
+    Message n4 = notification(4);
+
+    assertTrue(queue.offer(s1));
+    assertTrue(queue.offer(s2));
+    assertFalse(queue.offer(s3));
+    assertFalse(queue.offer(s3));
+    assertTrue(queue.offer(n4));
+
+    assertEquals(2, queue.getQueuedStatisticsCount());
+    assertEquals(0, queue.getLostNotificationCount());
+    assertEquals(2, queue.getLostStatisticsCount());
+    assertEquals(Arrays.asList(s1, s2, n4), queue.drain());
+  }
+
+  @Test
+  public void test_default_policies() throws Exception {
+    MultiLaneMessageQueue queue = new MultiLaneMessageQueue();
+    for (int i = 0; i < 10_001; i++) {
+      assertTrue(queue.offer(new DefaultMessage(sequenceGenerator.next(), "STATISTICS", statisticsData())));
+    }
+    assertEquals(10_000, queue.getQueuedStatisticsCount());
+    assertEquals(1, queue.getLostStatisticsCount());
+  }
+
+  @Test
+  public void test_drain_merges_lanes() throws Exception {
+    MultiLaneMessageQueue queue = new MultiLaneMessageQueue();
+    Message n1 = notification(1);
+    Message s2 = statistics(2);
+    Message s3 = statistics(3);
+    Message n4 = notification(4);
+    Message s5 = statistics(5);
+    Message n6 = notification(6);
+    Message n7 = notification(7);
+
+    offer(queue, s5, n1, n7, s2, n4, s3, n6);
+
+    assertEquals(Arrays.asList(n1, s2, s3, n4, s5, n6, n7), queue.drain());
+    assertEquals(0, queue.getQueuedNotificationCount());
+    assertEquals(0, queue.getQueuedStatisticsCount());
+    assertTrue(queue.drain().isEmpty());
+    assertNull(queue.poll(0, TimeUnit.MILLISECONDS));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_invalid_capacity() {
+    new MultiLaneMessageQueue(0, OverflowPolicy.REJECT, 1, OverflowPolicy.REJECT);
+  }
+
+  private Message notification(int i) {
+    return new DefaultMessage(sequences.get(i), "NOTIFICATION", new ContextualNotification(Context.empty(), "EVENT_" + i));
+  }
+
+  private Message statistics(int i) {
+    return new DefaultMessage(sequences.get(i), "STATISTICS", statisticsData());
+  }
+
+  private static ContextualStatistics statisticsData() {
+    return new ContextualStatistics("StatisticsCapability", Context.empty(), Collections.emptyMap());
+  }
+
+  private static void offer(MultiLaneMessageQueue queue, Message... messages) {
+    for (Message message : messages) {
+      assertTrue(queue.offer(message));
+    }
+  }
+
+  private static List<Message> takeAll(MultiLaneMessageQueue queue) throws InterruptedException {
+    List<Message> messages = new ArrayList<>();
+    for (Message message; (message = queue.poll(0, TimeUnit.MILLISECONDS)) != null; ) {
+      messages.add(message);
+    }
+    return messages;
+  }
+}
@@ -17,6 +17,7 @@ package org.terracotta.management.entity.nms;
 
 import org.terracotta.management.model.call.Parameter;
 import org.terracotta.management.model.cluster.Cluster;
+import org.terracotta.management.model.cluster.TopologyChanges;
 import org.terracotta.management.model.context.Context;
 import org.terracotta.voltron.proxy.Async;
 import org.terracotta.voltron.proxy.ClientId;
@@ -37,6 +38,14 @@ public interface Nms {
   @ExecutionStrategy(location = ACTIVE)
   Future<Cluster> readTopology();
 
+  /**
+   * Read the changes of the topology since a version, or the whole topology if these changes are not available
+   */
+  @Async(Async.Ack.NONE)
+  @ConcurrencyStrategy(key = ConcurrencyStrategy.UNIVERSAL_KEY)
+  @ExecutionStrategy(location = ACTIVE)
+  Future<TopologyChanges> readTopologyChanges(String topologyId, long sinceVersion);
+
   /**
    * Execute a management call on the server and returns the results
    */
@@ -45,4 +54,15 @@ public interface Nms {
   @ExecutionStrategy(location = ACTIVE)
   Future<String> call(@ClientId Object callerDescriptor, Context context, String capabilityName, String methodName, Class<?> returnType, Parameter... parameters);
 
+  /**
+   * Restarts the dictionary of the statistics sent to this client: the next statistics batch will contain the whole
+   * dictionary. To be called when a batch could not be decoded.
+   *
+   * @param clientDescriptor must be null, used only for implementation
+   */
+  @Async(Async.Ack.NONE)
+  @ConcurrencyStrategy(key = ConcurrencyStrategy.UNIVERSAL_KEY)
+  @ExecutionStrategy(location = ACTIVE)
+  Future<Void> resetStatistics(@ClientId Object clientDescriptor);
+
 }
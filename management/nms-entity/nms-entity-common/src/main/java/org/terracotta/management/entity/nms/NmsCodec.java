@@ -0,0 +1,54 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms;
+
+import org.terracotta.management.model.call.Parameter;
+import org.terracotta.management.model.cluster.Cluster;
+import org.terracotta.management.model.cluster.TopologyChanges;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.message.DefaultMessage;
+import org.terracotta.management.model.notification.ContextualNotification;
+import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.management.model.stats.StatisticsBatch;
+import org.terracotta.voltron.proxy.BinaryCodec;
+import org.terracotta.voltron.proxy.Codec;
+
+/**
+ * The binary codec of the NMS entity, with the model types it exchanges.
+ * <p>
+ * The registration order defines the wire format: new types must be added at the end.
+ */
+public final class NmsCodec {
+
+  private NmsCodec() {
+  }
+
+  /**
+   * @param fallback the codec used for the other types, and to read messages sent by {@link NmsVersion#V2} peers
+   */
+  public static BinaryCodec create(Codec fallback) {
+    return new BinaryCodec(fallback)
+        .register(Context.class, Context::writeTo, Context::readFrom)
+        .register(Parameter.class, Parameter::writeTo, Parameter::readFrom)
+        .register(ContextualNotification.class, ContextualNotification::writeTo, ContextualNotification::readFrom)
+        .register(ContextualStatistics.class, ContextualStatistics::writeTo, ContextualStatistics::readFrom)
+        .register(StatisticsBatch.class, StatisticsBatch::writeTo, StatisticsBatch::readFrom)
+        .register(DefaultMessage.class, DefaultMessage::writeTo, DefaultMessage::readFrom)
+        .register(Cluster.class, Cluster::writeTo, Cluster::readFrom)
+        .register(TopologyChanges.class, TopologyChanges::writeTo, TopologyChanges::readFrom);
+  }
+
+}
@@ -15,12 +15,33 @@
  */
 package org.terracotta.management.entity.nms;
 
+import org.terracotta.voltron.proxy.BinaryCodec;
+import org.terracotta.voltron.proxy.Codec;
+
 /**
+ * The versions of the NMS entity. They only differ by the format of the messages.
+ * <p>
+ * The servers serve {@link #V3}, or {@link #V2} when the {@value #BINARY_CODEC_PROPERTY} system property is set to
+ * false, for clusters still used by clients that only know {@link #V2}. Clients try {@link #LATEST} first and fall back
+ * to {@link #V2}, so that they keep working with servers of a previous version. Both versions read both formats.
+ *
  * @author Mathieu Carbou
  */
 public enum NmsVersion {
 
-  LATEST(1L);
+  /**
+   * Messages are written with Java serialization
+   */
+  V2(2L),
+
+  /**
+   * Messages are written with the {@link NmsCodec}
+   */
+  V3(3L);
+
+  public static final NmsVersion LATEST = V3;
+
+  public static final String BINARY_CODEC_PROPERTY = "terracotta.management.nms.binaryCodec";
 
   private final long version;
 
@@ -32,4 +53,18 @@ public enum NmsVersion {
     return version;
   }
 
+  /**
+   * @return the codec to send messages with at this version
+   */
+  public Codec codec(BinaryCodec codec) {
+    return this == V2 ? codec.withFallbackEncoding() : codec;
+  }
+
+  /**
+   * @return the version served by this server
+   */
+  public static NmsVersion served() {
+    return Boolean.parseBoolean(System.getProperty(BINARY_CODEC_PROPERTY, "true")) ? V3 : V2;
+  }
+
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.terracotta.management.model.cluster.Cluster;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.message.DefaultMessage;
+import org.terracotta.management.model.message.Message;
+import org.terracotta.management.model.notification.ContextualNotification;
+import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.management.sequence.BoundaryFlakeSequenceGenerator;
+import org.terracotta.management.sequence.SequenceGenerator;
+import org.terracotta.voltron.proxy.Codec;
+import org.terracotta.voltron.proxy.SerializationCodec;
+
+/**
+ * Encoded size and encoding + decoding throughput of typical NMS payloads, with Java serialization ({@link NmsVersion#V2})
+ * and with the {@link NmsCodec} ({@link NmsVersion#V3}).
+ * <p>
+ * TIP: run with: -server -Xmx512M -Xms512M -verbose:gc
+ */
+public class NmsCodecPerfTest {
+
+  private static final long DURATION_MS = 2_000;
+
+  @Test
+  @Ignore
+  public void throughput() {
+    Codec serialization = new SerializationCodec();
+    Codec binary = NmsCodec.create(new SerializationCodec());
+
+    SequenceGenerator sequenceGenerator = new BoundaryFlakeSequenceGenerator();
+    Context context = Context.create("clientId", "12345@127.0.0.1:ehcache:uid").with("cacheManagerName", "my-cache-manager");
+    Message statistics = new DefaultMessage(sequenceGenerator.next(), "STATISTICS", NmsCodecTest.statistics(context.with("cacheName", "my-cache")));
+    Message notification = new DefaultMessage(sequenceGenerator.next(), "NOTIFICATION", new ContextualNotification(context, "CACHE_ADDED"));
+    ContextualStatistics[] agentStatistics = {NmsCodecTest.statistics(context), NmsCodecTest.statistics(context.with("cacheName", "my-cache"))};
+    Cluster cluster = NmsCodecTest.cluster();
+
+    for (int round = 0; round < 3; round++) {
+      run("statistics message", Message.class, statistics, serialization, binary);
+      run("notification message", Message.class, notification, serialization, binary);
+      run("agent statistics", ContextualStatistics[].class, agentStatistics, serialization, binary);
+      run("cluster", Cluster.class, cluster, serialization, binary);
+    }
+  }
+
+  private static void run(String name, Class<?> type, Object value, Codec serialization, Codec binary) {
+    System.out.println(String.format("%-22s serialization: %6d bytes %8d ops/s | binary: %6d bytes %8d ops/s",
+        name,
+        serialization.encode(type, value).length, opsPerSecond(type, value, serialization),
+        binary.encode(type, value).length, opsPerSecond(type, value, binary)));
+  }
+
+  private static long opsPerSecond(Class<?> type, Object value, Codec codec) {
+    long n = 0;
+    long end = System.currentTimeMillis() + DURATION_MS;
+    while ((n & 0xF) != 0 || System.currentTimeMillis() < end) {
+      codec.decode(type, codec.encode(type, value));
+      n++;
+    }
+    return n * 1000 / DURATION_MS;
+  }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.entity.nms;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.terracotta.management.model.call.Parameter;
+import org.terracotta.management.model.cluster.Client;
+import org.terracotta.management.model.cluster.Cluster;
+import org.terracotta.management.model.cluster.Connection;
+import org.terracotta.management.model.cluster.Endpoint;
+import org.terracotta.management.model.cluster.Server;
+import org.terracotta.management.model.cluster.ServerEntity;
+import org.terracotta.management.model.cluster.Stripe;
+import org.terracotta.management.model.cluster.TopologyChanges;
+import org.terracotta.management.model.context.Context;
+import org.terracotta.management.model.message.DefaultMessage;
+import org.terracotta.management.model.message.Message;
+import org.terracotta.management.model.notification.ContextualNotification;
+import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.management.sequence.BoundaryFlakeSequenceGenerator;
+import org.terracotta.management.sequence.SequenceGenerator;
+import org.terracotta.statistics.Sample;
+import org.terracotta.statistics.StatisticType;
+import org.terracotta.statistics.registry.Statistic;
+import org.terracotta.voltron.proxy.BinaryCodec;
+import org.terracotta.voltron.proxy.Codec;
+import org.terracotta.voltron.proxy.SerializationCodec;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class NmsCodecTest {
+
+  private final SequenceGenerator sequenceGenerator = new BoundaryFlakeSequenceGenerator();
+  private final BinaryCodec codec = NmsCodec.create(new SerializationCodec());
+
+  @Test
+  public void test_registered_types() {
+    Context context = Context.create("clientId", "12345@127.0.0.1:ehcache:uid").with("cacheName", "my-cache");
+    assertEquals(context, roundTrip(codec, Context.class, context));
+    assertEquals(Context.empty(), roundTrip(codec, Context.class, Context.empty()));
+
+    Parameter[] parameters = {new Parameter("my-cache"), new Parameter(42L, long.class.getName()), new Parameter(null, String.class.getName())};
+    assertArrayEquals(parameters, roundTrip(codec, Parameter[].class, parameters));
+
+    ContextualNotification notification = new ContextualNotification(context, "CACHE_ADDED", Collections.singletonMap("size", "1"));
+    assertEquals(notification, roundTrip(codec, Object.class, notification));
+
+    ContextualStatistics statistics = statistics(context);
+    assertEquals(statistics.getStatistics(), roundTrip(codec, ContextualStatistics.class, statistics).getStatistics());
+  }
+
+  @Test
+  public void test_messages() {
+    Context context = Context.create("clientId", "12345@127.0.0.1:ehcache:uid");
+    Message[] messages = {
+        new DefaultMessage(sequenceGenerator.next(), "NOTIFICATION", new ContextualNotification(context, "CLIENT_CONNECTED")),
+        new DefaultMessage(sequenceGenerator.next(), "STATISTICS", statistics(context), statistics(context.with("cacheName", "my-cache")))
+    };
+    Message[] read = (Message[]) roundTrip(codec, Object.class, messages);
+    assertEquals(messages.length, read.length);
+    for (int i = 0; i < messages.length; i++) {
+      assertEquals(messages[i].getSequence(), read[i].getSequence());
+      assertEquals(messages[i].getType(), read[i].getType());
+      assertEquals(messages[i].getTimestamp(), read[i].getTimestamp());
+    }
+    assertEquals(messages[0].unwrap(ContextualNotification.class), read[0].unwrap(ContextualNotification.class));
+    assertEquals(2, read[1].unwrap(ContextualStatistics.class).size());
+    assertEquals(statistics(context).getStatistics(), read[1].unwrap(ContextualStatistics.class).get(0).getStatistics());
+  }
+
+  @Test
+  public void test_topology() {
+    Cluster cluster = cluster();
+    assertEquals(cluster, roundTrip(codec, Cluster.class, cluster));
+
+    TopologyChanges snapshot = roundTrip(codec, TopologyChanges.class, TopologyChanges.snapshot("topology-1", 12, cluster));
+    assertTrue(snapshot.isSnapshot());
+    assertEquals("topology-1", snapshot.getTopologyId());
+    assertEquals(12, snapshot.getVersion());
+    assertEquals(cluster, snapshot.getCluster().get());
+
+    ContextualNotification change = new ContextualNotification(Context.create("clientId", "12345@127.0.0.1:ehcache:uid"), "CLIENT_CONNECTED");
+    TopologyChanges changes = roundTrip(codec, TopologyChanges.class, TopologyChanges.changes("topology-1", 13, Collections.singletonList(change)));
+    assertEquals(13, changes.getVersion());
+    assertEquals(Collections.singletonList(change), changes.getChanges());
+  }
+
+  @Test
+  public void test_versions() {
+    Cluster cluster = cluster();
+
+    // what a V2 peer sends is read by V3 peers
+    assertEquals(cluster, codec.decode(Cluster.class, new SerializationCodec().encode(Cluster.class, cluster)));
+
+    // what a V3 peer sends to a V2 peer is read by this V2 peer
+    byte[] encoded = NmsVersion.V2.codec(codec).encode(Cluster.class, cluster);
+    assertEquals(cluster, new SerializationCodec().decode(Cluster.class, encoded));
+    assertEquals(cluster, codec.decode(Cluster.class, encoded));
+
+    assertEquals(cluster, NmsVersion.V3.codec(codec).decode(Cluster.class, NmsVersion.V3.codec(codec).encode(Cluster.class, cluster)));
+  }
+
+  @Test
+  public void test_served_version() {
+    assertEquals(NmsVersion.V3, NmsVersion.served());
+    System.setProperty(NmsVersion.BINARY_CODEC_PROPERTY, "false");
+    try {
+      assertEquals(NmsVersion.V2, NmsVersion.served());
+    } finally {
+      System.clearProperty(NmsVersion.BINARY_CODEC_PROPERTY);
+    }
+  }
+
+  static ContextualStatistics statistics(Context context) {
+    Map<String, Statistic<? extends Serializable>> statistics = new HashMap<>();
+    statistics.put("Cache:HitCount", new Statistic<>(StatisticType.COUNTER, Arrays.asList(new Sample<>(1000L, 12L), new Sample<>(2000L, 17L))));
+    statistics.put("Cache:HitRatio", new Statistic<>(StatisticType.RATIO, new Sample<>(2000L, 0.5d)));
+    statistics.put("Cache:MissLatency", new Statistic<>(StatisticType.GAUGE));
+    return new ContextualStatistics("StatisticsCapability", context, statistics);
+  }
+
+  static Cluster cluster() {
+    Cluster cluster = Cluster.create();
+    Stripe stripe = Stripe.create("stripe-1");
+    cluster.addStripe(stripe);
+    Server active = Server.create("server-1")
+        .setHostName("hostname-1")
+        .setBindAddress("0.0.0.0")
+        .setBindPort(9410)
+        .setState(Server.State.ACTIVE);
+    stripe.addServer(active);
+    stripe.addServer(Server.create("server-2")
+        .setHostName("hostname-2")
+        .setBindAddress("0.0.0.0")
+        .setBindPort(9410)
+        .setState(Server.State.PASSIVE));
+    ServerEntity entity = ServerEntity.create("my-cache-manager", "org.ehcache.clustered.client.internal.EhcacheClientEntity");
+    active.addServerEntity(entity);
+    Client client = Client.create("12345@127.0.0.1:ehcache:uid");
+    cluster.addClient(client);
+    Connection connection = Connection.create("uid", active, Endpoint.create("10.10.10.10", 3456));
+    client.addConnection(connection);
+    connection.fetchServerEntity(entity.getName(), entity.getType());
+    return cluster;
+  }
+
+  static <T> T roundTrip(Codec codec, Class<T> type, T value) {
+    return type.cast(codec.decode(type, codec.encode(type, value)));
+  }
+
+}
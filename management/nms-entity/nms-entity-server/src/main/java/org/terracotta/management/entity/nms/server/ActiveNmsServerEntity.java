@@ -29,9 +29,14 @@ import org.terracotta.management.model.cluster.Client;
 import org.terracotta.management.model.cluster.Cluster;
 import org.terracotta.management.model.cluster.Server;
 import org.terracotta.management.model.cluster.Stripe;
+import org.terracotta.management.model.cluster.TopologyChanges;
 import org.terracotta.management.model.context.Context;
 import org.terracotta.management.model.context.Contextual;
+import org.terracotta.management.model.message.DefaultMessage;
 import org.terracotta.management.model.message.Message;
+import org.terracotta.management.model.stats.ContextualStatistics;
+import org.terracotta.management.model.stats.StatisticsBatch;
+import org.terracotta.management.model.stats.StatisticsBatchEncoder;
 import org.terracotta.management.registry.CapabilityManagementSupport;
 import org.terracotta.management.registry.CombiningCapabilityManagementSupport;
 import org.terracotta.management.service.monitoring.EntityManagementRegistry;
@@ -41,8 +46,11 @@ import org.terracotta.management.service.monitoring.SharedEntityManagementRegist
 import org.terracotta.voltron.proxy.ClientId;
 import org.terracotta.voltron.proxy.server.ActiveProxiedServerEntity;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 
 /**
@@ -57,6 +65,9 @@ class ActiveNmsServerEntity extends ActiveProxiedServerEntity<Void, Void, NmsCal
   private final EntityManagementRegistry entityManagementRegistry;
   private final CapabilityManagementSupport capabilityManagementSupport;
   private final long consumerId;
+  // each client decodes its own sequence of statistics batches, so that a client joining or failing to decode a batch
+  // does not restart the dictionary of the others
+  private final Map<ClientDescriptor, StatisticsBatchEncoder> statisticsEncoders = new ConcurrentHashMap<>();
 
   ActiveNmsServerEntity(NmsConfig config, ManagementService managementService, EntityManagementRegistry entityManagementRegistry, SharedEntityManagementRegistry sharedEntityManagementRegistry, TopologyService topologyService) {
     this.entityManagementRegistry = Objects.requireNonNull(entityManagementRegistry);
@@ -76,6 +87,18 @@ class ActiveNmsServerEntity extends ActiveProxiedServerEntity<Void, Void, NmsCal
     super.destroy();
   }
 
+  @Override
+  public void connected(ClientDescriptor clientDescriptor) {
+    super.connected(clientDescriptor);
+    statisticsEncoders.put(clientDescriptor, new StatisticsBatchEncoder());
+  }
+
+  @Override
+  public void disconnected(ClientDescriptor clientDescriptor) {
+    statisticsEncoders.remove(clientDescriptor);
+    super.disconnected(clientDescriptor);
+  }
+
   @Override
   public void createNew() {
     super.createNew();
@@ -105,6 +128,11 @@ class ActiveNmsServerEntity extends ActiveProxiedServerEntity<Void, Void, NmsCal
     return CompletableFuture.completedFuture(readCluster());
   }
 
+  @Override
+  public Future<TopologyChanges> readTopologyChanges(String topologyId, long sinceVersion) {
+    return CompletableFuture.completedFuture(managementService.readTopologyChanges(topologyId, sinceVersion));
+  }
+
   @Override
   public Future<String> call(@ClientId Object callerDescriptor, Context context, String capabilityName, String methodName, Class<?> returnType, Parameter... parameters) {
     if (context.contains(Stripe.KEY)) {
@@ -113,6 +141,16 @@ class ActiveNmsServerEntity extends ActiveProxiedServerEntity<Void, Void, NmsCal
     return CompletableFuture.completedFuture(managementService.sendManagementCallRequest((ClientDescriptor) callerDescriptor, context, capabilityName, methodName, returnType, parameters));
   }
 
+  @Override
+  public Future<Void> resetStatistics(@ClientId Object clientDescriptor) {
+    LOGGER.trace("[{}] resetStatistics({})", consumerId, clientDescriptor);
+    StatisticsBatchEncoder encoder = statisticsEncoders.get((ClientDescriptor) clientDescriptor);
+    if (encoder != null) {
+      encoder.reset();
+    }
+    return CompletableFuture.completedFuture(null);
+  }
+
   private Cluster readCluster() {
     return managementService.readTopology();
   }
@@ -149,7 +187,18 @@ class ActiveNmsServerEntity extends ActiveProxiedServerEntity<Void, Void, NmsCal
     // add stripe info to the message
     addStripeName(message);
     // send message
-    fireMessage(Message.class, message, false);
+    if ("STATISTICS".equals(message.getType())) {
+      List<ContextualStatistics> statistics = message.unwrap(ContextualStatistics.class);
+      statisticsEncoders.forEach((client, encoder) -> {
+        // the batches must reach the client in the order they were encoded
+        synchronized (encoder) {
+          StatisticsBatch batch = encoder.encode(statistics);
+          fireMessage(Message.class, new DefaultMessage(message.getSequence(), message.getType(), batch), client);
+        }
+      });
+    } else {
+      fireMessage(Message.class, message, false);
+    }
   }
 
   @Override
@@ -23,6 +23,7 @@ import org.terracotta.entity.ConfigurationException;
 import org.terracotta.entity.ServiceException;
 import org.terracotta.entity.ServiceRegistry;
 import org.terracotta.management.entity.nms.Nms;
+import org.terracotta.management.entity.nms.NmsCodec;
 import org.terracotta.management.entity.nms.NmsConfig;
 import org.terracotta.management.entity.nms.NmsVersion;
 import org.terracotta.management.model.message.Message;
@@ -45,9 +46,11 @@ public class NmsEntityServerService extends ProxyServerEntityService<NmsConfig,
 
   private static final Logger LOGGER = LoggerFactory.getLogger(NmsEntityServerService.class);
 
+  private final NmsVersion version = NmsVersion.served();
+
   public NmsEntityServerService() {
     super(Nms.class, NmsConfig.class, new Class<?>[]{Message.class}, null, null, NmsCallback.class);
-    setCodec(new SerializationCodec(compile("^(?:org\\.ehcache\\.shadow|com\\.terracottatech\\.shadow)\\.(org\\.terracotta\\.statistics\\..*)$")));
+    setCodec(version.codec(NmsCodec.create(new SerializationCodec(compile("^(?:org\\.ehcache\\.shadow|com\\.terracottatech\\.shadow)\\.(org\\.terracotta\\.statistics\\..*)$")))));
   }
 
   @Override
@@ -81,7 +84,7 @@ public class NmsEntityServerService extends ProxyServerEntityService<NmsConfig,
 
   @Override
   public long getVersion() {
-    return NmsVersion.LATEST.version();
+    return version.version();
   }
 
   @Override
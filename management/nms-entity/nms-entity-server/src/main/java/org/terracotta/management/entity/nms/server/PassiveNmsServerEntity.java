@@ -24,6 +24,7 @@ import org.terracotta.management.model.call.ContextualReturn;
 import org.terracotta.management.model.call.Parameter;
 import org.terracotta.management.model.cluster.Cluster;
 import org.terracotta.management.model.cluster.Server;
+import org.terracotta.management.model.cluster.TopologyChanges;
 import org.terracotta.management.model.context.Context;
 import org.terracotta.management.registry.CapabilityManagementSupport;
 import org.terracotta.management.registry.CombiningCapabilityManagementSupport;
@@ -97,9 +98,19 @@ class PassiveNmsServerEntity extends PassiveProxiedServerEntity implements Nms,
     throw new UnsupportedOperationException("Cannot be called on a passive server");
   }
 
+  @Override
+  public Future<TopologyChanges> readTopologyChanges(String topologyId, long sinceVersion) {
+    throw new UnsupportedOperationException("Cannot be called on a passive server");
+  }
+
   @Override
   public Future<String> call(@ClientId Object callerDescriptor, Context context, String capabilityName, String methodName, Class<?> returnType, Parameter... parameters) {
     throw new UnsupportedOperationException("Cannot be called on a passive server");
   }
 
+  @Override
+  public Future<Void> resetStatistics(@ClientId Object clientDescriptor) {
+    throw new UnsupportedOperationException("Cannot be called on a passive server");
+  }
+
 }
@@ -25,6 +25,13 @@ public final class BoundaryFlakeSequence implements Sequence, Serializable {
 
   private static final long serialVersionUID = 1;
 
+  /**
+   * Size of the binary form of a sequence
+   */
+  public static final int BYTES = 3 * Long.BYTES;
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
   private final long timestamp;
   private final long nodeId;
   private final long sequence;
@@ -52,22 +59,25 @@ public final class BoundaryFlakeSequence implements Sequence, Serializable {
 
   @Override
   public String toHexString() {
-    byte[] bytes = toBytes();
-    StringBuilder r = new StringBuilder(bytes.length * 2);
-    for (byte b : bytes) {
-      r.append(Integer.toHexString((b >> 4) & 0xF));
-      r.append(Integer.toHexString(b & 0xF));
-    }
-    return r.toString();
+    char[] hex = new char[BYTES * 2];
+    writeHex(timestamp, hex, 0);
+    writeHex(nodeId, hex, 16);
+    writeHex(sequence, hex, 32);
+    return new String(hex);
   }
 
   @Override
   public byte[] toBytes() {
-    ByteBuffer buffer = ByteBuffer.allocate(24);
+    ByteBuffer buffer = ByteBuffer.allocate(BYTES);
+    writeTo(buffer);
+    return buffer.array();
+  }
+
+  @Override
+  public void writeTo(ByteBuffer buffer) {
     buffer.putLong(timestamp);
     buffer.putLong(nodeId);
     buffer.putLong(sequence);
-    return buffer.array();
   }
 
   @Override
@@ -104,7 +114,13 @@ public final class BoundaryFlakeSequence implements Sequence, Serializable {
   }
 
   public static BoundaryFlakeSequence fromBytes(byte[] bytes) {
-    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    return readFrom(ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Reads a sequence written with {@link #writeTo(ByteBuffer)} at the current position of the buffer
+   */
+  public static BoundaryFlakeSequence readFrom(ByteBuffer buffer) {
     long timestamp = buffer.getLong();
     long nodeId = buffer.getLong();
     long sequence = buffer.getLong();
@@ -120,4 +136,10 @@ public final class BoundaryFlakeSequence implements Sequence, Serializable {
     }
     return fromBytes(bytes);
   }
+
+  private static void writeHex(long value, char[] hex, int offset) {
+    for (int i = 15; i >= 0; i--, value >>>= 4) {
+      hex[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+    }
+  }
 }
@@ -97,6 +97,29 @@ public final class BoundaryFlakeSequenceGenerator implements SequenceGenerator {
     }
   }
 
+  @Override
+  public SequenceRange nextBatch(int n) {
+    if (n <= 0 || n > SEQ_BITMASK) {
+      throw new IllegalArgumentException("Invalid batch size: " + n);
+    }
+    // the whole range is taken with one CAS, within the same millisecond
+    while (true) {
+      long min = timeSource.getTimestamp() << SEQ_BITLENGTH;
+      long max = min + SEQ_BITMASK;
+      for (long current = timeAndSeq.get(), first = Math.max(min, current + 1), last = first + n - 1;
+           last < max;
+           current = timeAndSeq.get(), first = Math.max(min, current + 1), last = first + n - 1) {
+        if (timeAndSeq.compareAndSet(current, last)) {
+          return new SequenceRange(
+              first >>> SEQ_BITLENGTH,
+              nodeId,
+              instanceId | (first & SEQ_BITMASK),
+              n);
+        }
+      }
+    }
+  }
+
   long getInstanceId() {
     return instanceId;
   }
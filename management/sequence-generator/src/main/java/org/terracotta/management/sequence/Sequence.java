@@ -16,6 +16,7 @@
 package org.terracotta.management.sequence;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 
 /**
  * SEQUENCE = TIMESTAMP + NODE_ID + SEQUENCE_ID
@@ -33,4 +34,14 @@ public interface Sequence extends Comparable<Sequence>, Serializable {
   String toHexString();
 
   byte[] toBytes();
+
+  /**
+   * Writes the 24 bytes of this sequence (timestamp, node id and sequence id) at the current position of the buffer,
+   * in the same format as {@link #toBytes()}, without allocating.
+   */
+  default void writeTo(ByteBuffer buffer) {
+    buffer.putLong(getTimestamp());
+    buffer.putLong(getNodeId());
+    buffer.putLong(getSequenceId());
+  }
 }
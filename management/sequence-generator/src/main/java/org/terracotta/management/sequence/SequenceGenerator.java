@@ -22,4 +22,24 @@ public interface SequenceGenerator {
   TimeSource getTimeSource();
 
   Sequence next();
+
+  /**
+   * Reserves {@code n} sequences at once.
+   * <p>
+   * By default, calls {@link #next()} {@code n} times. Implementations able to reserve contiguous sequences in one go
+   * should override this method.
+   *
+   * @param n the number of sequences to reserve
+   * @return the reserved sequences
+   */
+  default SequenceRange nextBatch(int n) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("Invalid batch size: " + n);
+    }
+    Sequence[] sequences = new Sequence[n];
+    for (int i = 0; i < n; i++) {
+      sequences[i] = next();
+    }
+    return new SequenceRange(sequences);
+  }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.sequence;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Sequences reserved at once with {@link SequenceGenerator#nextBatch(int)}.
+ * <p>
+ * When the sequences are contiguous (they share the same timestamp and node id and have consecutive sequence ids, as
+ * reserved by {@link BoundaryFlakeSequenceGenerator}), a range only holds 3 longs and a size. The sequences can then
+ * be read by index as primitive values or written to a buffer without creating a {@link Sequence} object each time.
+ * Otherwise, the range holds the generated sequences.
+ */
+public final class SequenceRange {
+
+  private final long timestamp;
+  private final long nodeId;
+  private final long firstSequenceId;
+  private final int size;
+  private final Sequence[] sequences; // null when contiguous
+
+  SequenceRange(long timestamp, long nodeId, long firstSequenceId, int size) {
+    this.timestamp = timestamp;
+    this.nodeId = nodeId;
+    this.firstSequenceId = firstSequenceId;
+    this.size = size;
+    this.sequences = null;
+  }
+
+  SequenceRange(Sequence[] sequences) {
+    this.timestamp = 0;
+    this.nodeId = 0;
+    this.firstSequenceId = 0;
+    this.size = sequences.length;
+    this.sequences = sequences;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return true if the sequences share the same timestamp and node id and have consecutive sequence ids
+   */
+  public boolean isContiguous() {
+    return sequences == null;
+  }
+
+  public long getTimestamp(int index) {
+    checkIndex(index);
+    return sequences == null ? timestamp : sequences[index].getTimestamp();
+  }
+
+  public long getNodeId(int index) {
+    checkIndex(index);
+    return sequences == null ? nodeId : sequences[index].getNodeId();
+  }
+
+  public long getSequenceId(int index) {
+    checkIndex(index);
+    return sequences == null ? firstSequenceId + index : sequences[index].getSequenceId();
+  }
+
+  public Sequence get(int index) {
+    checkIndex(index);
+    return sequences == null ? new BoundaryFlakeSequence(timestamp, nodeId, firstSequenceId + index) : sequences[index];
+  }
+
+  /**
+   * Writes the sequence at this index in the format of {@link Sequence#writeTo(ByteBuffer)}
+   */
+  public void writeTo(int index, ByteBuffer buffer) {
+    checkIndex(index);
+    if (sequences == null) {
+      buffer.putLong(timestamp);
+      buffer.putLong(nodeId);
+      buffer.putLong(firstSequenceId + index);
+    } else {
+      sequences[index].writeTo(buffer);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return sequences == null ?
+        "SequenceRange{" +
+            "timestamp=" + timestamp +
+            ", nodeId=" + nodeId +
+            ", firstSequenceId=" + firstSequenceId +
+            ", size=" + size +
+            '}' :
+        "SequenceRange{sequences=" + Arrays.toString(sequences) + '}';
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+  }
+}
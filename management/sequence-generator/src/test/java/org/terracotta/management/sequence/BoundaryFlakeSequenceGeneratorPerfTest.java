@@ -0,0 +1,103 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.management.sequence;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of the sequence generation, single-threaded and with all the cores contending on the same generator,
+ * for {@link SequenceGenerator#next()} and for {@link SequenceGenerator#nextBatch(int)}.
+ * <p>
+ * TIP: run with: -server -Xmx512M -Xms512M -verbose:gc
+ */
+public class BoundaryFlakeSequenceGeneratorPerfTest {
+
+  private static final long DURATION_MS = 2_000;
+  private static final int BATCH_SIZE = 64;
+
+  @Test
+  @Ignore
+  public void throughput() throws Exception {
+    SequenceGenerator generator = new BoundaryFlakeSequenceGenerator(TimeSource.SYSTEM, NodeIdSource.MAC_PID);
+    int threads = Runtime.getRuntime().availableProcessors();
+    for (int round = 0; round < 3; round++) {
+      System.out.println("next()           1 thread : " + run(1, () -> next(generator)) + " sequences/ms");
+      System.out.println("nextBatch(" + BATCH_SIZE + ")    1 thread : " + run(1, () -> nextBatch(generator)) + " sequences/ms");
+      System.out.println("next()        " + threads + " threads: " + run(threads, () -> next(generator)) + " sequences/ms");
+      System.out.println("nextBatch(" + BATCH_SIZE + ") " + threads + " threads: " + run(threads, () -> nextBatch(generator)) + " sequences/ms");
+    }
+  }
+
+  private static long next(SequenceGenerator generator) {
+    ByteBuffer buffer = ByteBuffer.allocate(BoundaryFlakeSequence.BYTES);
+    long n = 0;
+    long end = System.currentTimeMillis() + DURATION_MS;
+    while ((n & 0xFFF) != 0 || System.currentTimeMillis() < end) {
+      buffer.clear();
+      generator.next().writeTo(buffer);
+      n++;
+    }
+    return n;
+  }
+
+  private static long nextBatch(SequenceGenerator generator) {
+    ByteBuffer buffer = ByteBuffer.allocate(BoundaryFlakeSequence.BYTES);
+    long n = 0;
+    long end = System.currentTimeMillis() + DURATION_MS;
+    while ((n & 0xFFF) != 0 || System.currentTimeMillis() < end) {
+      SequenceRange range = generator.nextBatch(BATCH_SIZE);
+      for (int i = 0; i < range.size(); i++) {
+        buffer.clear();
+        range.writeTo(i, buffer);
+      }
+      n += BATCH_SIZE;
+    }
+    return n;
+  }
+
+  private static long run(int threads, Generation generation) throws Exception {
+    CyclicBarrier barrier = new CyclicBarrier(threads);
+    AtomicLong total = new AtomicLong();
+    Thread[] workers = new Thread[threads];
+    for (int i = 0; i < threads; i++) {
+      workers[i] = new Thread("thread-" + i) {
+        @Override
+        public void run() {
+          try {
+            barrier.await();
+          } catch (Exception ignored) {
+            return;
+          }
+          total.addAndGet(generation.run());
+        }
+      };
+      workers[i].start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    return total.get() / DURATION_MS;
+  }
+
+  private interface Generation {
+    long run();
+  }
+}
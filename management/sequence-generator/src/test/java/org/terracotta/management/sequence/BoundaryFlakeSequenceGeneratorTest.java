@@ -23,6 +23,7 @@ import org.junit.runners.JUnit4;
 import java.io.File;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.Callable;
@@ -32,7 +33,9 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.Long.toHexString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 import static org.terracotta.management.sequence.Defaults.readMacAddress;
 import static org.terracotta.management.sequence.Defaults.readPID;
 
@@ -75,6 +78,80 @@ public class BoundaryFlakeSequenceGeneratorTest {
     assertEquals(sequence, BoundaryFlakeSequence.fromHexString(sequence.toHexString()));
   }
 
+  @Test
+  public void test_batch() {
+    final long now = System.currentTimeMillis();
+    BoundaryFlakeSequenceGenerator generator = new BoundaryFlakeSequenceGenerator(new TimeSource.Fixed(now), NodeIdSource.MAC_PID);
+
+    Sequence before = generator.next();
+    SequenceRange range = generator.nextBatch(10);
+    Sequence after = generator.next();
+
+    assertEquals(10, range.size());
+    assertTrue(range.isContiguous());
+    assertEquals(now, range.getTimestamp(0));
+    assertEquals(now, range.getTimestamp(9));
+    assertEquals(generator.getNodeId(), range.getNodeId(5));
+    assertEquals(before.getSequenceId() + 1, range.getSequenceId(0));
+    assertEquals(before.getSequenceId() + 10, range.getSequenceId(9));
+    assertEquals(before.getSequenceId() + 11, after.getSequenceId());
+    assertTrue(before.compareTo(range.get(0)) < 0);
+    assertTrue(range.get(9).compareTo(after) < 0);
+
+    ByteBuffer buffer = ByteBuffer.allocate(BoundaryFlakeSequence.BYTES);
+    range.writeTo(3, buffer);
+    assertEquals(range.get(3), BoundaryFlakeSequence.fromBytes(buffer.array()));
+  }
+
+  @Test
+  public void test_default_batch() {
+    final long now = System.currentTimeMillis();
+    final BoundaryFlakeSequenceGenerator delegate = new BoundaryFlakeSequenceGenerator(new TimeSource.Fixed(now), NodeIdSource.MAC_PID);
+    SequenceGenerator generator = new SequenceGenerator() {
+      @Override
+      public TimeSource getTimeSource() {
+        return delegate.getTimeSource();
+      }
+
+      @Override
+      public Sequence next() {
+        return delegate.next();
+      }
+    };
+
+    Sequence before = generator.next();
+    SequenceRange range = generator.nextBatch(3);
+
+    assertEquals(3, range.size());
+    assertFalse(range.isContiguous());
+    assertEquals(now, range.getTimestamp(2));
+    assertEquals(delegate.getNodeId(), range.getNodeId(0));
+    assertEquals(before.getSequenceId() + 1, range.getSequenceId(0));
+    assertEquals(before.getSequenceId() + 3, range.getSequenceId(2));
+
+    ByteBuffer buffer = ByteBuffer.allocate(BoundaryFlakeSequence.BYTES);
+    range.writeTo(1, buffer);
+    assertEquals(range.get(1), BoundaryFlakeSequence.fromBytes(buffer.array()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_batch_too_large() {
+    new BoundaryFlakeSequenceGenerator(TimeSource.SYSTEM, NodeIdSource.MAC_PID).nextBatch(1 << 20);
+  }
+
+  @Test
+  public void test_write_to() {
+    Sequence sequence = new BoundaryFlakeSequenceGenerator(TimeSource.SYSTEM, NodeIdSource.MAC_PID).next();
+    ByteBuffer buffer = ByteBuffer.allocate(2 * BoundaryFlakeSequence.BYTES);
+    sequence.writeTo(buffer);
+    sequence.writeTo(buffer);
+    buffer.flip();
+    assertEquals(sequence, BoundaryFlakeSequence.readFrom(buffer));
+    assertEquals(sequence, BoundaryFlakeSequence.readFrom(buffer));
+    assertEquals(sequence, BoundaryFlakeSequence.fromBytes(sequence.toBytes()));
+    assertEquals(sequence, BoundaryFlakeSequence.fromHexString(sequence.toHexString()));
+  }
+
   private static String pad(int length, char character, String string) {
     char[] padding = new char[length - string.length()];
     Arrays.fill(padding, character);
@@ -49,7 +49,7 @@ public abstract class ProxyEntityClientService<T extends Entity & ServerMessageA
 
   @Override
   public T create(EntityClientEndpoint<ProxyEntityMessage, ProxyEntityResponse> endpoint, Object userData) {
-    return ClientProxyFactory.createEntityProxy(clientType, type, endpoint, messageTypes, messageCodec.getCodec());
+    return ClientProxyFactory.createEntityProxy(clientType, type, endpoint, messageTypes, getCodec(userData));
   }
 
   @Override
@@ -76,4 +76,14 @@ public abstract class ProxyEntityClientService<T extends Entity & ServerMessageA
   protected void setCodec(Codec codec) {
     messageCodec.setCodec(codec);
   }
+
+  /**
+   * The codec used by an entity to encode its messages and its reconnect data. By default, the codec set on this
+   * service, which also decodes all the received messages.
+   *
+   * @param userData the user data the entity was fetched with
+   */
+  protected Codec getCodec(Object userData) {
+    return messageCodec.getCodec();
+  }
 }
@@ -68,6 +68,7 @@ class VoltronProxyInvocationHandler implements InvocationHandler {
   }
 
   private final EntityClientEndpoint<ProxyEntityMessage, ProxyEntityResponse> entityClientEndpoint;
+  private final Codec codec;
   private final ExecutorService handler;
   private final ConcurrentMap<Class<?>, CopyOnWriteArrayList<MessageListener<?>>> listeners;
 
@@ -75,6 +76,7 @@ class VoltronProxyInvocationHandler implements InvocationHandler {
 
   VoltronProxyInvocationHandler(final EntityClientEndpoint<ProxyEntityMessage, ProxyEntityResponse> entityClientEndpoint, Collection<Class<?>> events, final Codec codec) {
     this.entityClientEndpoint = entityClientEndpoint;
+    this.codec = codec;
     handler = Executors.newSingleThreadExecutor(r -> new Thread(r, "Message Handler for " + entityClientEndpoint));
     this.listeners = new ConcurrentHashMap<>();
     if (events.size() > 0) {
@@ -154,7 +156,7 @@ class VoltronProxyInvocationHandler implements InvocationHandler {
     final MethodDescriptor methodDescriptor = MethodDescriptor.of(method);
 
     final InvocationBuilder<ProxyEntityMessage, ProxyEntityResponse> builder = entityClientEndpoint.beginInvoke()
-        .message(new ProxyEntityMessage(methodDescriptor, args, MessageType.MESSAGE)).withExecutor(handler);
+        .message(new ProxyEntityMessage(methodDescriptor, args, MessageType.MESSAGE, codec)).withExecutor(handler);
 
     if (methodDescriptor.isAsync()) {
       switch (methodDescriptor.getAck()) {
@@ -0,0 +1,600 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.voltron.proxy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamConstants;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A {@link Codec} writing the values directly in a compact binary form, using their declared types.
+ * <p>
+ * An encoded buffer starts with a format version byte, followed by the values:
+ * <ul>
+ * <li>a value of a primitive declared type is written as is</li>
+ * <li>other values start with a tag byte giving their kind: {@code null}, boxed primitives, {@code String},
+ * primitive and {@code String} arrays, registered types and arrays of registered types are written directly. Any
+ * other type is serialized with the fallback codec.</li>
+ * </ul>
+ * Buffers encoded by the fallback {@link SerializationCodec} (for example by a peer running a previous version, or a
+ * stored entity configuration) are recognized and decoded with the fallback codec, so this codec reads both formats.
+ * Use {@link #withFallbackEncoding()} to keep writing the serialized format to peers that cannot read this one.
+ * <p>
+ * Registered types must be registered in the same order on both sides, before the codec is used.
+ */
+public class BinaryCodec implements Codec {
+
+  static final byte FORMAT_V1 = 1;
+
+  private static final byte SERIALIZATION_MAGIC = (byte) (ObjectStreamConstants.STREAM_MAGIC >>> 8);
+
+  private static final byte NULL = 0;
+  private static final byte BOOLEAN = 1;
+  private static final byte BYTE = 2;
+  private static final byte CHAR = 3;
+  private static final byte SHORT = 4;
+  private static final byte INT = 5;
+  private static final byte LONG = 6;
+  private static final byte FLOAT = 7;
+  private static final byte DOUBLE = 8;
+  private static final byte STRING = 9;
+  private static final byte BYTE_ARRAY = 10;
+  private static final byte INT_ARRAY = 11;
+  private static final byte LONG_ARRAY = 12;
+  private static final byte DOUBLE_ARRAY = 13;
+  private static final byte STRING_ARRAY = 14;
+  private static final byte REGISTERED = 15;
+  private static final byte SERIALIZED = 16;
+  private static final byte REGISTERED_ARRAY = 17;
+
+  private static final Map<Class<?>, Byte> TAGS = new IdentityHashMap<>();
+
+  static {
+    TAGS.put(boolean.class, BOOLEAN);
+    TAGS.put(Boolean.class, BOOLEAN);
+    TAGS.put(byte.class, BYTE);
+    TAGS.put(Byte.class, BYTE);
+    TAGS.put(char.class, CHAR);
+    TAGS.put(Character.class, CHAR);
+    TAGS.put(short.class, SHORT);
+    TAGS.put(Short.class, SHORT);
+    TAGS.put(int.class, INT);
+    TAGS.put(Integer.class, INT);
+    TAGS.put(long.class, LONG);
+    TAGS.put(Long.class, LONG);
+    TAGS.put(float.class, FLOAT);
+    TAGS.put(Float.class, FLOAT);
+    TAGS.put(double.class, DOUBLE);
+    TAGS.put(Double.class, DOUBLE);
+    TAGS.put(String.class, STRING);
+    TAGS.put(byte[].class, BYTE_ARRAY);
+    TAGS.put(int[].class, INT_ARRAY);
+    TAGS.put(long[].class, LONG_ARRAY);
+    TAGS.put(double[].class, DOUBLE_ARRAY);
+    TAGS.put(String[].class, STRING_ARRAY);
+  }
+
+  private final Codec fallback;
+  private final List<Registration<?>> registrations = new CopyOnWriteArrayList<>();
+  private final Map<Class<?>, Registration<?>> registrationsByType = new ConcurrentHashMap<>();
+  private final Map<Class<?>, Registration<?>> registrationsByArrayType = new ConcurrentHashMap<>();
+
+  public BinaryCodec() {
+    this(new SerializationCodec());
+  }
+
+  /**
+   * @param fallback the codec used for the values of types that are not known by this codec
+   */
+  public BinaryCodec(Codec fallback) {
+    this.fallback = Objects.requireNonNull(fallback);
+  }
+
+  /**
+   * Registers a type to write directly instead of serializing it. Only the values of this exact type, and the arrays of
+   * this exact component type, are concerned.
+   * <p>
+   * The writer can write nested values of any type with {@link ObjectOutput#writeObject(Object)}: they are encoded
+   * like the arguments, and read back by the reader with {@link ObjectInput#readObject()}.
+   */
+  public <T> BinaryCodec register(Class<T> type, ValueWriter<? super T> writer, ValueReader<? extends T> reader) {
+    if (TAGS.containsKey(type) || registrationsByType.containsKey(type)) {
+      throw new IllegalArgumentException("Type already handled: " + type.getName());
+    }
+    if (registrations.size() == 256) {
+      throw new IllegalStateException("Too many registered types");
+    }
+    Registration<T> registration = new Registration<>((byte) registrations.size(), type, writer, reader);
+    registrations.add(registration);
+    registrationsByType.put(type, registration);
+    registrationsByArrayType.put(Array.newInstance(type, 0).getClass(), registration);
+    return this;
+  }
+
+  /**
+   * Returns a codec decoding both formats like this one, but encoding with the fallback codec only. This is the codec
+   * to use to send to a peer that only reads the fallback format, for example a peer running a previous version.
+   */
+  public Codec withFallbackEncoding() {
+    return new FallbackEncodingCodec();
+  }
+
+  @Override
+  public byte[] encode(Class<?> type, Object value) {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream(64);
+    try {
+      encode(type, value, bout);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return bout.toByteArray();
+  }
+
+  @Override
+  public byte[] encode(Class<?>[] types, Object[] values) {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream(64);
+    try {
+      encode(types, values, bout);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return bout.toByteArray();
+  }
+
+  @Override
+  public void encode(Class<?> type, Object value, OutputStream out) throws IOException {
+    BinaryOutput output = new BinaryOutput(out);
+    output.writeByte(FORMAT_V1);
+    write(output, type, value);
+    output.flush();
+  }
+
+  @Override
+  public void encode(Class<?>[] types, Object[] values, OutputStream out) throws IOException {
+    if (values == null) {
+      values = new Object[0];
+    }
+    if (types.length != values.length) {
+      throw new IllegalArgumentException();
+    }
+    BinaryOutput output = new BinaryOutput(out);
+    output.writeByte(FORMAT_V1);
+    for (int i = 0; i < types.length; i++) {
+      write(output, types[i], values[i]);
+    }
+    output.flush();
+  }
+
+  @Override
+  public <T> T decode(Class<T> type, byte[] buffer) {
+    return decode(type, buffer, 0, buffer.length);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> T decode(Class<T> type, byte[] buffer, int offset, int len) {
+    if (isSerialized(buffer, offset, len)) {
+      return fallback.decode(type, buffer, offset, len);
+    }
+    try {
+      Object value = read(open(buffer, offset, len), type);
+      return type.isPrimitive() ? (T) value : type.cast(value);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public Object[] decode(Class<?>[] types, byte[] buffer) {
+    return decode(types, buffer, 0, buffer.length);
+  }
+
+  @Override
+  public Object[] decode(Class<?>[] types, byte[] buffer, int offset, int len) {
+    if (isSerialized(buffer, offset, len)) {
+      return fallback.decode(types, buffer, offset, len);
+    }
+    try {
+      BinaryInput input = open(buffer, offset, len);
+      Object[] values = new Object[types.length];
+      for (int i = 0; i < types.length; i++) {
+        Object value = read(input, types[i]);
+        values[i] = types[i].isPrimitive() ? value : types[i].cast(value);
+      }
+      return values;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static boolean isSerialized(byte[] buffer, int offset, int len) {
+    // SerializationCodec decodes an empty buffer as null
+    return len == 0 || buffer[offset] == SERIALIZATION_MAGIC;
+  }
+
+  private BinaryInput open(byte[] buffer, int offset, int len) throws IOException {
+    BinaryInput input = new BinaryInput(new ByteArrayInputStream(buffer, offset, len));
+    byte format = input.readByte();
+    if (format != FORMAT_V1) {
+      throw new IllegalArgumentException("Unsupported encoding format: " + format);
+    }
+    return input;
+  }
+
+  private void write(BinaryOutput out, Class<?> type, Object value) throws IOException {
+    if (type == void.class) {
+      return;
+    }
+    if (type.isPrimitive()) {
+      writeValue(out, TAGS.get(type), value);
+      return;
+    }
+    if (value == null) {
+      out.writeByte(NULL);
+      return;
+    }
+    Class<?> valueType = value.getClass();
+    Byte tag = TAGS.get(valueType);
+    if (tag != null) {
+      out.writeByte(tag);
+      writeValue(out, tag, value);
+      return;
+    }
+    Registration<?> registration = registrationsByType.get(valueType);
+    if (registration != null) {
+      out.writeByte(REGISTERED);
+      out.writeByte(registration.id);
+      registration.write(value, out);
+      return;
+    }
+    registration = registrationsByArrayType.get(valueType);
+    if (registration != null) {
+      int length = Array.getLength(value);
+      out.writeByte(REGISTERED_ARRAY);
+      out.writeByte(registration.id);
+      out.writeInt(length);
+      for (int i = 0; i < length; i++) {
+        Object element = Array.get(value, i);
+        out.writeBoolean(element != null);
+        if (element != null) {
+          registration.write(element, out);
+        }
+      }
+      return;
+    }
+    byte[] serialized = fallback.encode(valueType, value);
+    out.writeByte(SERIALIZED);
+    out.writeInt(serialized.length);
+    out.write(serialized);
+  }
+
+  private static void writeValue(DataOutputStream out, byte tag, Object value) throws IOException {
+    switch (tag) {
+      case BOOLEAN:
+        out.writeBoolean((Boolean) value);
+        break;
+      case BYTE:
+        out.writeByte((Byte) value);
+        break;
+      case CHAR:
+        out.writeChar((Character) value);
+        break;
+      case SHORT:
+        out.writeShort((Short) value);
+        break;
+      case INT:
+        out.writeInt((Integer) value);
+        break;
+      case LONG:
+        out.writeLong((Long) value);
+        break;
+      case FLOAT:
+        out.writeFloat((Float) value);
+        break;
+      case DOUBLE:
+        out.writeDouble((Double) value);
+        break;
+      case STRING:
+        writeString(out, (String) value);
+        break;
+      case BYTE_ARRAY: {
+        byte[] array = (byte[]) value;
+        out.writeInt(array.length);
+        out.write(array);
+        break;
+      }
+      case INT_ARRAY: {
+        int[] array = (int[]) value;
+        out.writeInt(array.length);
+        for (int v : array) {
+          out.writeInt(v);
+        }
+        break;
+      }
+      case LONG_ARRAY: {
+        long[] array = (long[]) value;
+        out.writeInt(array.length);
+        for (long v : array) {
+          out.writeLong(v);
+        }
+        break;
+      }
+      case DOUBLE_ARRAY: {
+        double[] array = (double[]) value;
+        out.writeInt(array.length);
+        for (double v : array) {
+          out.writeDouble(v);
+        }
+        break;
+      }
+      case STRING_ARRAY: {
+        String[] array = (String[]) value;
+        out.writeInt(array.length);
+        for (String v : array) {
+          if (v == null) {
+            out.writeByte(NULL);
+          } else {
+            out.writeByte(STRING);
+            writeString(out, v);
+          }
+        }
+        break;
+      }
+      default:
+        throw new AssertionError(tag);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private Object read(BinaryInput in, Class<?> type) throws IOException {
+    if (type == void.class) {
+      return null;
+    }
+    if (type.isPrimitive()) {
+      return readValue(in, TAGS.get(type));
+    }
+    byte tag = in.readByte();
+    switch (tag) {
+      case NULL:
+        return null;
+      case REGISTERED:
+        return registration(in.readByte()).read(in);
+      case REGISTERED_ARRAY: {
+        Registration<?> registration = registration(in.readByte());
+        Object[] array = (Object[]) Array.newInstance(registration.type, in.readInt());
+        for (int i = 0; i < array.length; i++) {
+          array[i] = in.readBoolean() ? registration.read(in) : null;
+        }
+        return array;
+      }
+      case SERIALIZED: {
+        byte[] serialized = new byte[in.readInt()];
+        in.readFully(serialized);
+        return fallback.decode(Object.class, serialized);
+      }
+      default:
+        return readValue(in, tag);
+    }
+  }
+
+  private Registration<?> registration(byte id) {
+    int index = id & 0xFF;
+    if (index >= registrations.size()) {
+      throw new IllegalArgumentException("Unknown registered type: " + index);
+    }
+    return registrations.get(index);
+  }
+
+  private static Object readValue(DataInputStream in, byte tag) throws IOException {
+    switch (tag) {
+      case BOOLEAN:
+        return in.readBoolean();
+      case BYTE:
+        return in.readByte();
+      case CHAR:
+        return in.readChar();
+      case SHORT:
+        return in.readShort();
+      case INT:
+        return in.readInt();
+      case LONG:
+        return in.readLong();
+      case FLOAT:
+        return in.readFloat();
+      case DOUBLE:
+        return in.readDouble();
+      case STRING:
+        return readString(in);
+      case BYTE_ARRAY: {
+        byte[] array = new byte[in.readInt()];
+        in.readFully(array);
+        return array;
+      }
+      case INT_ARRAY: {
+        int[] array = new int[in.readInt()];
+        for (int i = 0; i < array.length; i++) {
+          array[i] = in.readInt();
+        }
+        return array;
+      }
+      case LONG_ARRAY: {
+        long[] array = new long[in.readInt()];
+        for (int i = 0; i < array.length; i++) {
+          array[i] = in.readLong();
+        }
+        return array;
+      }
+      case DOUBLE_ARRAY: {
+        double[] array = new double[in.readInt()];
+        for (int i = 0; i < array.length; i++) {
+          array[i] = in.readDouble();
+        }
+        return array;
+      }
+      case STRING_ARRAY: {
+        String[] array = new String[in.readInt()];
+        for (int i = 0; i < array.length; i++) {
+          array[i] = in.readByte() == NULL ? null : readString(in);
+        }
+        return array;
+      }
+      default:
+        throw new IllegalArgumentException("Unknown value tag: " + tag);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  /**
+   * Writes a value of a registered type
+   */
+  @FunctionalInterface
+  public interface ValueWriter<T> {
+    void write(T value, ObjectOutput out) throws IOException;
+  }
+
+  /**
+   * Reads a value of a registered type, written by the corresponding {@link ValueWriter}
+   */
+  @FunctionalInterface
+  public interface ValueReader<T> {
+    T read(ObjectInput in) throws IOException, ClassNotFoundException;
+  }
+
+  private static final class Registration<T> {
+    private final byte id;
+    private final Class<T> type;
+    private final ValueWriter<? super T> writer;
+    private final ValueReader<? extends T> reader;
+
+    Registration(byte id, Class<T> type, ValueWriter<? super T> writer, ValueReader<? extends T> reader) {
+      this.id = id;
+      this.type = type;
+      this.writer = Objects.requireNonNull(writer);
+      this.reader = Objects.requireNonNull(reader);
+    }
+
+    void write(Object value, ObjectOutput out) throws IOException {
+      writer.write(type.cast(value), out);
+    }
+
+    T read(ObjectInput in) throws IOException {
+      try {
+        return reader.read(in);
+      } catch (ClassNotFoundException e) {
+        throw new IOException(e);
+      }
+    }
+  }
+
+  /**
+   * The output given to the registered writers: nested objects are written like the arguments
+   */
+  private final class BinaryOutput extends DataOutputStream implements ObjectOutput {
+    BinaryOutput(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void writeObject(Object value) throws IOException {
+      BinaryCodec.this.write(this, Object.class, value);
+    }
+  }
+
+  /**
+   * The input given to the registered readers: nested objects are read like the arguments
+   */
+  private final class BinaryInput extends DataInputStream implements ObjectInput {
+    BinaryInput(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public Object readObject() throws IOException {
+      return BinaryCodec.this.read(this, Object.class);
+    }
+  }
+
+  /**
+   * Encodes with the fallback codec, decodes both formats
+   */
+  private final class FallbackEncodingCodec implements Codec {
+    @Override
+    public byte[] encode(Class<?> type, Object value) {
+      return fallback.encode(type, value);
+    }
+
+    @Override
+    public byte[] encode(Class<?>[] types, Object[] values) {
+      return fallback.encode(types, values);
+    }
+
+    @Override
+    public void encode(Class<?> type, Object value, OutputStream out) throws IOException {
+      fallback.encode(type, value, out);
+    }
+
+    @Override
+    public void encode(Class<?>[] types, Object[] values, OutputStream out) throws IOException {
+      fallback.encode(types, values, out);
+    }
+
+    @Override
+    public <T> T decode(Class<T> type, byte[] buffer) {
+      return BinaryCodec.this.decode(type, buffer);
+    }
+
+    @Override
+    public <T> T decode(Class<T> type, byte[] buffer, int offset, int len) {
+      return BinaryCodec.this.decode(type, buffer, offset, len);
+    }
+
+    @Override
+    public Object[] decode(Class<?>[] types, byte[] buffer) {
+      return BinaryCodec.this.decode(types, buffer);
+    }
+
+    @Override
+    public Object[] decode(Class<?>[] types, byte[] buffer, int offset, int len) {
+      return BinaryCodec.this.decode(types, buffer, offset, len);
+    }
+  }
+}
@@ -15,6 +15,9 @@
  */
 package org.terracotta.voltron.proxy;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * @author Alex Snaps
  */
@@ -24,6 +27,20 @@ public interface Codec {
 
   byte[] encode(Class<?>[] types, Object[] values);
 
+  /**
+   * Writes the encoded value to the stream. By default, delegates to {@link #encode(Class, Object)}
+   */
+  default void encode(Class<?> type, Object value, OutputStream out) throws IOException {
+    out.write(encode(type, value));
+  }
+
+  /**
+   * Writes the encoded values to the stream. By default, delegates to {@link #encode(Class[], Object[])}
+   */
+  default void encode(Class<?>[] types, Object[] values, OutputStream out) throws IOException {
+    out.write(encode(types, values));
+  }
+
   /**
    * Delegates to {@link #decode(Class, byte[], int, int)}
    */
@@ -15,15 +15,25 @@
  */
 package org.terracotta.voltron.proxy;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -32,15 +42,36 @@ import java.util.concurrent.Future;
  */
 public final class MethodDescriptor {
 
+  // descriptors are immutable, so there is one per method, kept for as long as its declaring class
+  private static final ClassValue<ConcurrentMap<Method, MethodDescriptor>> DESCRIPTORS = new ClassValue<ConcurrentMap<Method, MethodDescriptor>>() {
+    @Override
+    protected ConcurrentMap<Method, MethodDescriptor> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
+  private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
   private final boolean async;
   private final Class<?> messageType;
   private final Method method;
   private final Async.Ack ack;
   private final ExecutionStrategy.Location location;
   private final int concurrencyKey;
-  
+  private final Class<?>[] parameterTypes;
+  private final Class<?>[] argumentTypes; // the parameter types, with primitives boxed
+  private final Annotation[][] parameterAnnotations;
+  private final int[] clientIdParameters;
+  // (Object target, Object[] args)Object, or null when the method is not accessible and must be invoked reflectively
+  private final MethodHandle invoker;
+
   private MethodDescriptor(Method method) {
     this.method = method;
+    this.parameterTypes = method.getParameterTypes();
+    this.argumentTypes = boxed(parameterTypes);
+    this.parameterAnnotations = method.getParameterAnnotations();
+    this.clientIdParameters = findClientIdParameters(parameterAnnotations);
+    this.invoker = createInvoker(method);
 
     // @Async
     Async asyncAnnot = method.getAnnotation(Async.class);
@@ -90,7 +121,9 @@ public final class MethodDescriptor {
   }
 
   public static MethodDescriptor of(Method method) {
-    return new MethodDescriptor(method);
+    ConcurrentMap<Method, MethodDescriptor> descriptors = DESCRIPTORS.get(method.getDeclaringClass());
+    MethodDescriptor descriptor = descriptors.get(method);
+    return descriptor != null ? descriptor : descriptors.computeIfAbsent(method, MethodDescriptor::new);
   }
 
   public String toGenericString() {
@@ -115,16 +148,38 @@ public final class MethodDescriptor {
     return method.hashCode();
   }
 
+  @SuppressFBWarnings("EI_EXPOSE_REP")
   public Class<?>[] getParameterTypes() {
-    return method.getParameterTypes();
+    return parameterTypes;
   }
 
+  @SuppressFBWarnings("EI_EXPOSE_REP")
   public Annotation[][] getParameterAnnotations() {
-    return method.getParameterAnnotations();
+    return parameterAnnotations;
+  }
+
+  /**
+   * @return the indexes of the parameters annotated with {@link ClientId}
+   */
+  int[] getClientIdParameters() {
+    return clientIdParameters;
   }
 
   public Object invoke(Object target, Object... args) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
-    Object ret = method.invoke(target, args);
+    Object ret;
+    if (invoker == null || !canInvokeExact(target, args)) {
+      // the reflective call does the argument conversions and reports the invalid calls
+      ret = method.invoke(target, args);
+    } else {
+      try {
+        ret = invoker.invokeExact(target, args);
+      } catch (VirtualMachineError e) {
+        throw e;
+      } catch (Throwable t) {
+        // the target and the arguments were checked, so this was thrown by the method
+        throw new InvocationTargetException(t);
+      }
+    }
     if (async) {
       try {
         ret = ((Future<?>) ret).get();
@@ -142,6 +197,64 @@ public final class MethodDescriptor {
     return method;
   }
 
+  /**
+   * @return true if the handle can be called with these target and arguments without any conversion
+   */
+  private boolean canInvokeExact(Object target, Object[] args) {
+    if (!Modifier.isStatic(method.getModifiers()) && !method.getDeclaringClass().isInstance(target)) {
+      return false;
+    }
+    int count = args == null ? 0 : args.length;
+    if (count != argumentTypes.length) {
+      return false;
+    }
+    for (int i = 0; i < count; i++) {
+      Object arg = args[i];
+      boolean exact = parameterTypes[i].isPrimitive() ?
+          arg != null && arg.getClass() == argumentTypes[i] : // widening conversions are left to the reflective call
+          arg == null || parameterTypes[i].isInstance(arg);
+      if (!exact) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Class<?>[] boxed(Class<?>[] types) {
+    Class<?>[] boxed = new Class<?>[types.length];
+    for (int i = 0; i < types.length; i++) {
+      boxed[i] = MethodType.methodType(types[i]).wrap().returnType();
+    }
+    return boxed;
+  }
+
+  private static int[] findClientIdParameters(Annotation[][] parameterAnnotations) {
+    List<Integer> indexes = new ArrayList<>(1);
+    for (int i = 0; i < parameterAnnotations.length; i++) {
+      for (Annotation annotation : parameterAnnotations[i]) {
+        if (annotation.annotationType() == ClientId.class) {
+          indexes.add(i);
+          break;
+        }
+      }
+    }
+    return indexes.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private static MethodHandle createInvoker(Method method) {
+    try {
+      MethodHandle handle = MethodHandles.lookup().unreflect(method);
+      if (Modifier.isStatic(method.getModifiers())) {
+        handle = MethodHandles.dropArguments(handle, 0, Object.class);
+      }
+      return handle
+          .asSpreader(Object[].class, method.getParameterCount())
+          .asType(INVOKER_TYPE);
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+  }
+
   private static Class<?> determineRawType(Type type) {
     if (type instanceof Class<?>) {
       return (Class<?>) type;
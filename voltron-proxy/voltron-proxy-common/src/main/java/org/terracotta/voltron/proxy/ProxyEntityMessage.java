@@ -18,7 +18,6 @@ package org.terracotta.voltron.proxy;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.terracotta.entity.EntityMessage;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 
 /**
@@ -31,11 +30,21 @@ public class ProxyEntityMessage implements EntityMessage {
 
   private final MessageType type;
 
-  @SuppressFBWarnings("EI_EXPOSE_REP")
+  private final Codec codec;
+
   public ProxyEntityMessage(final MethodDescriptor method, final Object[] args, MessageType type) {
+    this(method, args, type, null);
+  }
+
+  /**
+   * @param codec the codec to encode the arguments with, or null to use the codec of the {@link ProxyMessageCodec}
+   */
+  @SuppressFBWarnings("EI_EXPOSE_REP")
+  public ProxyEntityMessage(final MethodDescriptor method, final Object[] args, MessageType type, Codec codec) {
     this.method = method;
     this.args = args;
     this.type = type;
+    this.codec = codec;
   }
 
   public MethodDescriptor getMethod() {
@@ -49,14 +58,8 @@ public class ProxyEntityMessage implements EntityMessage {
 
   public Object invoke(final Object target, final Object clientDescriptor) throws InvocationTargetException, IllegalAccessException {
     if (clientDescriptor != null) {
-      final Annotation[][] allAnnotations = method.getParameterAnnotations();
-      for (int i = 0; i < allAnnotations.length; i++) {
-        for (Annotation parameterAnnotation : allAnnotations[i]) {
-          if (parameterAnnotation.annotationType() == ClientId.class) {
-            args[i] = clientDescriptor;
-            break;
-          }
-        }
+      for (int i : method.getClientIdParameters()) {
+        args[i] = clientDescriptor;
       }
     }
 
@@ -82,4 +85,8 @@ public class ProxyEntityMessage implements EntityMessage {
   public MessageType getType() {
     return type;
   }
+
+  public Codec getCodec() {
+    return codec;
+  }
 }
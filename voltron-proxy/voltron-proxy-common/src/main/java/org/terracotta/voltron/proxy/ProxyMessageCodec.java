@@ -21,7 +21,6 @@ import org.terracotta.entity.EntityUserException;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
-import java.lang.annotation.Annotation;
 import java.util.EnumMap;
 import java.util.Map;
 
@@ -30,7 +29,8 @@ import java.util.Map;
  */
 public class ProxyMessageCodec implements MessageCodec<ProxyEntityMessage, ProxyEntityResponse> {
 
-  private final EnumMap<MessageType, Map<Byte, MethodDescriptor>> methodMappings = new EnumMap<MessageType, Map<Byte, MethodDescriptor>>(MessageType.class);
+  // dispatch tables, indexed by the method identifier
+  private final EnumMap<MessageType, MethodDescriptor[]> methodMappings = new EnumMap<MessageType, MethodDescriptor[]>(MessageType.class);
   private final EnumMap<MessageType, Map<MethodDescriptor, Byte>> reverseMethodMappings = new EnumMap<MessageType, Map<MethodDescriptor, Byte>>(MessageType.class);
   private final EnumMap<MessageType, Map<Class<?>, Byte>> responseMappings = new EnumMap<MessageType, Map<Class<?>, Byte>>(MessageType.class);
   private final EnumMap<MessageType, Map<Byte, Class<?>>> reverseResponseMappings = new EnumMap<MessageType, Map<Byte, Class<?>>>(MessageType.class);
@@ -47,21 +47,24 @@ public class ProxyMessageCodec implements MessageCodec<ProxyEntityMessage, Proxy
 
   public ProxyMessageCodec(Class<?> proxyType, Class<?>[] eventTypes, Class<?> messengerType, Class<?> synchronizerType) {
     // type == message
-    this.methodMappings.put(MessageType.MESSAGE, CommonProxyFactory.createMethodMappings(proxyType));
-    this.reverseMethodMappings.put(MessageType.MESSAGE, CommonProxyFactory.invert(methodMappings.get(MessageType.MESSAGE)));
+    Map<Byte, MethodDescriptor> messageMethods = CommonProxyFactory.createMethodMappings(proxyType);
+    this.methodMappings.put(MessageType.MESSAGE, toArray(messageMethods));
+    this.reverseMethodMappings.put(MessageType.MESSAGE, CommonProxyFactory.invert(messageMethods));
     this.responseMappings.put(MessageType.MESSAGE, CommonProxyFactory.createResponseTypeMappings(proxyType, eventTypes));
     this.reverseResponseMappings.put(MessageType.MESSAGE, CommonProxyFactory.invert(responseMappings.get(MessageType.MESSAGE)));
     // type == sync
     if (synchronizerType != null) {
-      this.methodMappings.put(MessageType.SYNC, CommonProxyFactory.createMethodMappings(synchronizerType));
-      this.reverseMethodMappings.put(MessageType.SYNC, CommonProxyFactory.invert(methodMappings.get(MessageType.SYNC)));
+      Map<Byte, MethodDescriptor> syncMethods = CommonProxyFactory.createMethodMappings(synchronizerType);
+      this.methodMappings.put(MessageType.SYNC, toArray(syncMethods));
+      this.reverseMethodMappings.put(MessageType.SYNC, CommonProxyFactory.invert(syncMethods));
       this.responseMappings.put(MessageType.SYNC, CommonProxyFactory.createResponseTypeMappings(synchronizerType));
       this.reverseResponseMappings.put(MessageType.SYNC, CommonProxyFactory.invert(responseMappings.get(MessageType.SYNC)));
     }
     // type == messenger
     if (messengerType != null) {
-      this.methodMappings.put(MessageType.MESSENGER, CommonProxyFactory.createMethodMappings(messengerType));
-      this.reverseMethodMappings.put(MessageType.MESSENGER, CommonProxyFactory.invert(methodMappings.get(MessageType.MESSENGER)));
+      Map<Byte, MethodDescriptor> messengerMethods = CommonProxyFactory.createMethodMappings(messengerType);
+      this.methodMappings.put(MessageType.MESSENGER, toArray(messengerMethods));
+      this.reverseMethodMappings.put(MessageType.MESSENGER, CommonProxyFactory.invert(messengerMethods));
       this.responseMappings.put(MessageType.MESSENGER, CommonProxyFactory.createResponseTypeMappings(messengerType));
       this.reverseResponseMappings.put(MessageType.MESSENGER, CommonProxyFactory.invert(responseMappings.get(MessageType.MESSENGER)));
     }
@@ -86,7 +89,7 @@ public class ProxyMessageCodec implements MessageCodec<ProxyEntityMessage, Proxy
     try {
       output.writeByte(messageType.ordinal());
       output.writeByte(messageType == MessageType.ERROR ? 0 : getMessageTypeIdentifier(r));
-      output.write(codec.encode(r.getResponseType(), r.getResponse()));
+      codec.encode(r.getResponseType(), r.getResponse(), output);
       output.close();
     } catch (Exception e) {
       throw new MessageCodecException("Error encoding ProxyEntityResponse", e);
@@ -117,14 +120,8 @@ public class ProxyMessageCodec implements MessageCodec<ProxyEntityMessage, Proxy
       Byte methodIdentifier = getMethodIdentifier(message);
 
       Object[] args = message.getArguments();
-      final Annotation[][] parameterAnnotations = method.getParameterAnnotations();
-      for (int i = 0, parameterAnnotationsLength = parameterAnnotations.length; i < parameterAnnotationsLength; i++) {
-        final Annotation[] parameterAnnotation = parameterAnnotations[i];
-        for (Annotation annotation : parameterAnnotation) {
-          if (annotation.annotationType() == ClientId.class) {
-            args[i] = null;
-          }
-        }
+      for (int i : method.getClientIdParameters()) {
+        args[i] = null;
       }
 
       ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
@@ -132,7 +129,8 @@ public class ProxyMessageCodec implements MessageCodec<ProxyEntityMessage, Proxy
 
       output.writeByte(messageType.ordinal()); // first, message type
       output.writeByte(methodIdentifier); // then method mapping
-      output.write(codec.encode(method.getParameterTypes(), args));
+      Codec codec = message.getCodec() == null ? this.codec : message.getCodec();
+      codec.encode(method.getParameterTypes(), args, output);
 
       output.close();
       return byteOut.toByteArray();
@@ -152,13 +150,14 @@ public class ProxyMessageCodec implements MessageCodec<ProxyEntityMessage, Proxy
     }
   }
 
-  private MethodDescriptor getMethod(MessageType messageType, Byte b) {
-    Map<Byte, MethodDescriptor> mapping = methodMappings.get(messageType);
+  private MethodDescriptor getMethod(MessageType messageType, byte b) {
+    MethodDescriptor[] mapping = methodMappings.get(messageType);
     if (mapping == null) {
       throw new AssertionError("No mapping for " + messageType);
     }
 
-    MethodDescriptor method = mapping.get(b);
+    int index = b & 0xFF;
+    MethodDescriptor method = index < mapping.length ? mapping[index] : null;
     if (method == null) {
       throw new AssertionError("No mapping for method " + b + " for messageType " + messageType);
     }
@@ -208,4 +207,12 @@ public class ProxyMessageCodec implements MessageCodec<ProxyEntityMessage, Proxy
     return messageTypeIdentifier;
   }
 
+  private static MethodDescriptor[] toArray(Map<Byte, MethodDescriptor> methodMappings) {
+    MethodDescriptor[] methods = new MethodDescriptor[methodMappings.size()];
+    for (Map.Entry<Byte, MethodDescriptor> entry : methodMappings.entrySet()) {
+      methods[entry.getKey() & 0xFF] = entry.getValue();
+    }
+    return methods;
+  }
+
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.voltron.proxy;
+
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryCodecTest {
+
+  private final BinaryCodec codec = new BinaryCodec()
+      .register(Point.class, (point, out) -> {
+        out.writeInt(point.x);
+        out.writeInt(point.y);
+      }, in -> new Point(in.readInt(), in.readInt()))
+      .register(Labelled.class, (labelled, out) -> {
+        out.writeUTF(labelled.label);
+        out.writeObject(labelled.value);
+      }, in -> new Labelled(in.readUTF(), in.readObject()));
+
+  @Test
+  public void test_arguments() {
+    Class<?>[] types = {int.class, long.class, boolean.class, double.class, char.class, String.class, Object.class, Object.class, Serializable.class, String[].class, byte[].class, long[].class, Point.class, List.class, Integer.class};
+    Object[] values = {1, 2L, true, 3.5d, 'c', "\u00e9t\u00e9", null, 42, "object", new String[]{"a", null}, new byte[]{1, 2}, new long[]{3L}, new Point(4, 5), asList("x", "y"), null};
+
+    byte[] encoded = codec.encode(types, values);
+    assertEquals(BinaryCodec.FORMAT_V1, encoded[0]);
+
+    Object[] decoded = codec.decode(types, encoded);
+    assertEquals(values.length, decoded.length);
+    for (int i = 0; i < values.length; i++) {
+      assertTrue(values[i] + " != " + decoded[i], Arrays.deepEquals(new Object[]{values[i]}, new Object[]{decoded[i]}));
+    }
+  }
+
+  @Test
+  public void test_no_arguments() {
+    assertArrayEquals(new Object[0], codec.decode(new Class<?>[0], codec.encode(new Class<?>[0], null)));
+  }
+
+  @Test
+  public void test_single_value() {
+    assertEquals("hello", codec.decode(String.class, codec.encode(String.class, "hello")));
+    assertEquals(Integer.valueOf(42), codec.decode(int.class, codec.encode(int.class, 42)));
+    assertEquals(new Point(1, 2), codec.decode(Object.class, codec.encode(Object.class, new Point(1, 2))));
+    assertNull(codec.decode(void.class, codec.encode(void.class, null)));
+    assertNull(codec.decode(Void.class, codec.encode(Void.class, null)));
+  }
+
+  @Test
+  public void test_decodes_serialized_values() {
+    SerializationCodec serializationCodec = new SerializationCodec();
+    Class<?>[] types = {int.class, String.class, List.class};
+    Object[] values = {1, "hello", asList("x", "y")};
+
+    assertArrayEquals(values, codec.decode(types, serializationCodec.encode(types, values)));
+    assertEquals("hello", codec.decode(String.class, serializationCodec.encode(String.class, "hello")));
+    assertNull(codec.decode(String.class, new byte[0]));
+  }
+
+  @Test
+  public void test_smaller_than_serialization() {
+    Class<?>[] types = {Object.class, String.class, long.class};
+    Object[] values = {null, "capability", 1L};
+    assertTrue(codec.encode(types, values).length < new SerializationCodec().encode(types, values).length);
+  }
+
+  @Test
+  public void test_registered_arrays_and_nested_values() {
+    Point[] points = {new Point(1, 2), null, new Point(3, 4)};
+    assertArrayEquals(points, codec.decode(Point[].class, codec.encode(Point[].class, points)));
+    assertArrayEquals(new Point[0], (Point[]) codec.decode(Object.class, codec.encode(Object.class, new Point[0])));
+
+    Labelled[] labelled = {new Labelled("point", new Point(5, 6)), new Labelled("list", asList("x", "y")), new Labelled("null", null), new Labelled("nested", new Labelled("long", 7L))};
+    Object[] decoded = codec.decode(new Class<?>[]{Labelled[].class, int.class}, codec.encode(new Class<?>[]{Labelled[].class, int.class}, new Object[]{labelled, 8}));
+    assertArrayEquals(labelled, (Object[]) decoded[0]);
+    assertEquals(8, decoded[1]);
+  }
+
+  @Test
+  public void test_fallback_encoding() {
+    Codec fallbackEncoding = codec.withFallbackEncoding();
+    SerializationCodec serializationCodec = new SerializationCodec();
+    Class<?>[] types = {int.class, Point.class};
+    Object[] values = {1, new Point(2, 3)};
+
+    // written for the peers only reading the serialized format
+    byte[] encoded = fallbackEncoding.encode(types, values);
+    assertArrayEquals(values, serializationCodec.decode(types, encoded));
+    assertArrayEquals(values, fallbackEncoding.decode(types, encoded));
+
+    // but still reads the binary format
+    assertArrayEquals(values, fallbackEncoding.decode(types, codec.encode(types, values)));
+    assertEquals(new Point(4, 5), fallbackEncoding.decode(Point.class, codec.encode(Point.class, new Point(4, 5))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_unknown_format() {
+    codec.decode(String.class, new byte[]{42});
+  }
+
+  static final class Labelled implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    final String label;
+    final Object value;
+
+    Labelled(String label, Object value) {
+      this.label = label;
+      this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Labelled && ((Labelled) o).label.equals(label) && Objects.equals(((Labelled) o).value, value);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * label.hashCode() + Objects.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+      return label + "=" + value;
+    }
+  }
+
+  static final class Point implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    final int x;
+    final int y;
+
+    Point(int x, int y) {
+      this.x = x;
+      this.y = y;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Point && ((Point) o).x == x && ((Point) o).y == y;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * x + y;
+    }
+
+    @Override
+    public String toString() {
+      return "Point(" + x + ", " + y + ")";
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.voltron.proxy;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class MethodDescriptorTest {
+
+  @Test
+  public void test_descriptors_are_cached() throws Exception {
+    Method method = Service.class.getMethod("add", int.class, long.class);
+    MethodDescriptor descriptor = MethodDescriptor.of(method);
+    assertSame(descriptor, MethodDescriptor.of(method));
+    assertSame(descriptor, MethodDescriptor.of(Service.class.getMethod("add", int.class, long.class)));
+  }
+
+  @Test
+  public void test_invoke() throws Exception {
+    Service service = new ServiceImpl();
+    assertEquals(3L, MethodDescriptor.of(Service.class.getMethod("add", int.class, long.class)).invoke(service, 1, 2L));
+    assertEquals("hello", MethodDescriptor.of(Service.class.getMethod("hello")).invoke(service, (Object[]) null));
+    assertEquals("hello", MethodDescriptor.of(Service.class.getMethod("asyncHello")).invoke(service));
+    assertNull(MethodDescriptor.of(Service.class.getMethod("noop", Object.class, String.class)).invoke(service, null, "a"));
+  }
+
+  @Test
+  public void test_invoke_exception_in_user_code() throws Exception {
+    try {
+      MethodDescriptor.of(Service.class.getMethod("fail")).invoke(new ServiceImpl());
+      fail();
+    } catch (InvocationTargetException e) {
+      assertEquals(IllegalStateException.class, e.getTargetException().getClass());
+    }
+  }
+
+  @Test
+  public void test_invalid_calls_are_reported_like_reflection() throws Exception {
+    MethodDescriptor add = MethodDescriptor.of(Service.class.getMethod("add", int.class, long.class));
+    Service service = new ServiceImpl();
+
+    // widening conversion, as done by Method.invoke()
+    assertEquals(3L, add.invoke(service, 1, 2));
+
+    assertThrows(NullPointerException.class, () -> add.invoke(null, 1, 2L));
+    assertThrows(IllegalArgumentException.class, () -> add.invoke(new Object(), 1, 2L));
+    assertThrows(IllegalArgumentException.class, () -> add.invoke(service, 1));
+    assertThrows(IllegalArgumentException.class, () -> add.invoke(service, null, 2L));
+    assertThrows(IllegalArgumentException.class, () -> add.invoke(service, "1", 2L));
+    assertThrows(IllegalArgumentException.class, () -> MethodDescriptor.of(Service.class.getMethod("noop", Object.class, String.class)).invoke(service, null, 1));
+  }
+
+  @Test
+  public void test_client_id_parameters() throws Exception {
+    MethodDescriptor descriptor = MethodDescriptor.of(Service.class.getMethod("noop", Object.class, String.class));
+    assertArrayEquals(new int[]{0}, descriptor.getClientIdParameters());
+
+    Object[] args = {null, "a"};
+    ServiceImpl service = new ServiceImpl();
+    new ProxyEntityMessage(descriptor, args, MessageType.MESSAGE).invoke(service, "client-1");
+    assertEquals("client-1", service.lastClient);
+  }
+
+  private static void assertThrows(Class<? extends Throwable> expected, Invocation invocation) throws Exception {
+    try {
+      invocation.run();
+      fail();
+    } catch (Throwable t) {
+      assertEquals(expected, t.getClass());
+    }
+  }
+
+  private interface Invocation {
+    void run() throws Exception;
+  }
+
+  public interface Service {
+    long add(int a, long b);
+
+    String hello();
+
+    @Async
+    Future<String> asyncHello();
+
+    void noop(@ClientId Object clientId, String s);
+
+    void fail();
+  }
+
+  public static class ServiceImpl implements Service {
+    Object lastClient;
+
+    @Override
+    public long add(int a, long b) {
+      return a + b;
+    }
+
+    @Override
+    public String hello() {
+      return "hello";
+    }
+
+    @Override
+    public Future<String> asyncHello() {
+      return CompletableFuture.completedFuture("hello");
+    }
+
+    @Override
+    public void noop(Object clientId, String s) {
+      lastClient = clientId;
+    }
+
+    @Override
+    public void fail() {
+      throw new IllegalStateException();
+    }
+  }
+}